@@ -76,6 +76,25 @@ abstract class AbstractPositionSequence<P extends Position> implements PositionS
         return this.factory.getCoordinateDimension();
     }
 
+    /*
+    The measure and Z accessors are overridden because the CoordinateSequence defaults assume that a sequence without
+    measures of dimension 3 has a Z-component
+     */
+    @Override
+    public int getMeasures() {
+        return this.factory.hasMComponent() ? 1 : 0;
+    }
+
+    @Override
+    public double getZ(int index) {
+        return this.factory.hasZComponent() ? getOrdinate(index, CoordinateSequence.Z) : Double.NaN;
+    }
+
+    @Override
+    public double getM(int index) {
+        return this.factory.hasMComponent() ? getOrdinate(index, CoordinateSequence.M) : Double.NaN;
+    }
+
     /**
      * Clones a  PointCollection
      *
@@ -59,7 +59,7 @@ public class ByteBuffer {
 
     private final java.nio.ByteBuffer buffer;
 
-    private ByteBuffer(java.nio.ByteBuffer buffer) {
+    protected ByteBuffer(java.nio.ByteBuffer buffer) {
         this.buffer = buffer;
     }
 
@@ -225,6 +225,15 @@ public class ByteBuffer {
         return buffer.limit();
     }
 
+    /**
+     * Returns the number of bytes between the current position and the limit.
+     *
+     * @return The number of bytes remaining in this buffer
+     */
+    public int remaining() {
+        return buffer.remaining();
+    }
+
     /**
      * Rewinds the buffer.
      *
@@ -0,0 +1,190 @@
+package org.geolatte.geom;
+
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.lang.Math.*;
+
+/**
+ * The region of all positions within a distance from a center position, for radius searches on geographic data.
+ *
+ * <p>The region is bounded by one or two {@code Envelope}s, which can be used to query a spatial index. Caps that
+ * cross the antimeridian are bounded by an {@code Envelope} on each side of it; caps that hold a pole span all
+ * longitudes. Candidate positions are then refined with {@link #contains(double, double)} or, for packed
+ * coordinates, with {@link #filter(double[], int, int[])}.</p>
+ *
+ * <p>Instances are created by {@link GeographicGeometryOperations#cap(G2D, double, CoordinateReferenceSystem)},
+ * and compute distances as that {@code GeographicGeometryOperations} does. Instances are immutable and
+ * thread-safe.</p>
+ *
+ * @param <P> the type of the center {@code Position}
+ */
+public final class GeodesicCap<P extends G2D> {
+
+    private final P center;
+    private final double radius;
+    private final CoordinateReferenceSystem<P> crs;
+    private final GeodesicGeometryOperations.Spheroid spheroid;
+    private final boolean spherical;
+
+    // the bounds in degrees; if minLon > maxLon, the cap crosses the antimeridian
+    private final double minLat;
+    private final double maxLat;
+    private final double minLon;
+    private final double maxLon;
+
+    // for the haversine test
+    private final double cosCenterLat;
+    private final double maxHaversine;
+
+    GeodesicCap(P center, double radius, CoordinateReferenceSystem<P> crs, GeodesicGeometryOperations.Spheroid spheroid,
+                boolean spherical) {
+        if (!(radius >= 0)) {
+            throw new IllegalArgumentException("Radius must be a non-negative number.");
+        }
+        this.center = center;
+        this.radius = radius;
+        this.crs = crs;
+        this.spheroid = spheroid;
+        this.spherical = spherical;
+
+        // On the ellipsoid, the geodesic distance is at least the great circle distance between the geocentric
+        // latitudes on the sphere with the semi-minor axis as radius, so that sphere bounds the cap.
+        double sphereRadius = spherical ? spheroid.meanRadius : spheroid.semiMinorAxis;
+        double angle = radius / sphereRadius;
+        double lat = toSphere(toRadians(center.getLat()));
+        double lon = toRadians(center.getLon());
+        double south = lat - angle;
+        double north = lat + angle;
+        if (angle >= PI) {
+            minLat = -90;
+            maxLat = 90;
+            minLon = -180;
+            maxLon = 180;
+        } else if (south <= -PI / 2 || north >= PI / 2) {
+            minLat = toDegrees(fromSphere(max(south, -PI / 2)));
+            maxLat = toDegrees(fromSphere(min(north, PI / 2)));
+            minLon = -180;
+            maxLon = 180;
+        } else {
+            double deltaLon = asin(min(1, sin(angle) / cos(lat)));
+            minLat = toDegrees(fromSphere(south));
+            maxLat = toDegrees(fromSphere(north));
+            double west = toDegrees(lon - deltaLon);
+            double east = toDegrees(lon + deltaLon);
+            if (east - west >= 360) {
+                minLon = -180;
+                maxLon = 180;
+            } else {
+                minLon = west < -180 ? west + 360 : (west > 180 ? west - 360 : west);
+                maxLon = east > 180 ? east - 360 : (east < -180 ? east + 360 : east);
+            }
+        }
+        double phi = toRadians(center.getLat());
+        this.cosCenterLat = cos(phi);
+        double s = sin(min(PI, radius / spheroid.meanRadius) / 2);
+        this.maxHaversine = s * s;
+    }
+
+    public P getCenter() {
+        return center;
+    }
+
+    /**
+     * Returns the radius of this cap
+     *
+     * @return the radius in meters
+     */
+    public double getRadius() {
+        return radius;
+    }
+
+    /**
+     * Returns the {@code Envelope}s that together contain this cap
+     *
+     * @return one {@code Envelope}, or two if this cap crosses the antimeridian
+     */
+    public List<Envelope<P>> getEnvelopes() {
+        if (minLon <= maxLon) {
+            return Collections.singletonList(new Envelope<>(minLon, minLat, maxLon, maxLat, crs));
+        }
+        List<Envelope<P>> envelopes = new ArrayList<>(2);
+        envelopes.add(new Envelope<>(minLon, minLat, 180, maxLat, crs));
+        envelopes.add(new Envelope<>(-180, minLat, maxLon, maxLat, crs));
+        return envelopes;
+    }
+
+    /**
+     * Tests whether the specified position lies within the radius from the center
+     *
+     * @param lon the longitude in degrees
+     * @param lat the latitude in degrees
+     * @return true iff the distance to the center is at most the radius
+     */
+    public boolean contains(double lon, double lat) {
+        if (lat < minLat || lat > maxLat) {
+            return false;
+        }
+        double normalized = lon > 180 ? lon - 360 : (lon < -180 ? lon + 360 : lon);
+        if (minLon <= maxLon ? (normalized < minLon || normalized > maxLon)
+                : (normalized < minLon && normalized > maxLon)) {
+            return false;
+        }
+        if (spherical) {
+            // compares the haversines, rather than the distances
+            double sinDLat = sin(toRadians(lat - center.getLat()) / 2);
+            double sinDLon = sin(toRadians(lon - center.getLon()) / 2);
+            double h = sinDLat * sinDLat + cosCenterLat * cos(toRadians(lat)) * sinDLon * sinDLon;
+            return h <= maxHaversine;
+        }
+        return GeodesicGeometryOperations.vincenty(spheroid, center.getLon(), center.getLat(), lon, lat) <= radius;
+    }
+
+    /**
+     * Tests whether the specified position lies within the radius from the center
+     *
+     * @param position the position
+     * @return true iff the distance to the center is at most the radius
+     */
+    public boolean contains(P position) {
+        return contains(position.getLon(), position.getLat());
+    }
+
+    /**
+     * Selects the positions within the radius from the center among packed coordinates.
+     *
+     * @param coordinates the packed coordinates, with the longitude and latitude first
+     * @param dimension   the coordinate dimension
+     * @param result      receives the indices of the selected positions, in order. It must be large enough to hold
+     *                    all of them.
+     * @return the number of selected positions
+     */
+    public int filter(double[] coordinates, int dimension, int[] result) {
+        if (dimension < 2) {
+            throw new IllegalArgumentException("Coordinate dimension must be at least 2");
+        }
+        int count = 0;
+        for (int i = 0, offset = 0; offset + 1 < coordinates.length; i++, offset += dimension) {
+            if (contains(coordinates[offset], coordinates[offset + 1])) {
+                result[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    // geodetic to geocentric latitude, on the ellipsoid
+    private double toSphere(double phi) {
+        if (spherical || abs(phi) >= PI / 2) return phi;
+        double e2 = spheroid.eccentricity * spheroid.eccentricity;
+        return atan((1 - e2) * tan(phi));
+    }
+
+    private double fromSphere(double psi) {
+        if (spherical || abs(psi) >= PI / 2) return psi;
+        double e2 = spheroid.eccentricity * spheroid.eccentricity;
+        return atan(tan(psi) / (1 - e2));
+    }
+}
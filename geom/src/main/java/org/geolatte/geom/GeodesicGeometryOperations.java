@@ -0,0 +1,386 @@
+package org.geolatte.geom;
+
+import org.geolatte.geom.crs.CompoundCoordinateReferenceSystem;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.crs.Datum;
+import org.geolatte.geom.crs.Ellipsoid;
+import org.geolatte.geom.crs.GeographicCoordinateReferenceSystem;
+
+import static java.lang.Math.*;
+
+/**
+ * An implementation of {@code GeographicGeometryOperations} that works directly over the coordinates.
+ *
+ * <p>On the ellipsoid, distances between positions are computed with Vincenty's inverse formula, falling back to
+ * the spherical distance for the nearly antipodal positions where it does not converge. Areas are computed on the
+ * sphere with the same surface area as the ellipsoid, using authalic latitudes. The closest point on a segment is
+ * located on the great circle through its end points.</p>
+ *
+ * <p>On the sphere, distances are computed with the haversine formula.</p>
+ */
+final class GeodesicGeometryOperations implements GeographicGeometryOperations {
+
+    private static final double WGS84_SEMI_MAJOR_AXIS = 6378137.0;
+    private static final double WGS84_INVERSE_FLATTENING = 298.257223563;
+    private static final int MAX_ITERATIONS = 200;
+
+    private final boolean spherical;
+
+    GeodesicGeometryOperations(boolean spherical) {
+        this.spherical = spherical;
+    }
+
+    @Override
+    public <P extends G2D> double distance(final P position, final P other, final CoordinateReferenceSystem<P> crs) {
+        return distance(Spheroid.of(crs), position.getLon(), position.getLat(), other.getLon(), other.getLat());
+    }
+
+    @Override
+    public <P extends G2D> double distance(final Geometry<P> geometry, final Geometry<P> other) {
+        if (!geometry.getCoordinateReferenceSystem().equals(other.getCoordinateReferenceSystem())) {
+            throw new IllegalArgumentException("Geometries have different CRS's");
+        }
+        if (geometry.isEmpty() || other.isEmpty()) {
+            return 0;
+        }
+        PlanarMeasures.Facets facets = new PlanarMeasures.Facets(geometry);
+        PlanarMeasures.Facets otherFacets = new PlanarMeasures.Facets(other);
+        if (facets.containsAnyOf(otherFacets) || otherFacets.containsAnyOf(facets)) {
+            return 0;
+        }
+        Spheroid s = Spheroid.of(geometry.getCoordinateReferenceSystem());
+        double distance = Double.POSITIVE_INFINITY;
+        for (PlanarMeasures.Part part : facets.parts) {
+            for (PlanarMeasures.Part otherPart : otherFacets.parts) {
+                if (latitudeGap(part, otherPart) * s.minimumRadius < distance) {
+                    distance = distance(s, part, otherPart, distance);
+                    if (distance == 0) return 0;
+                }
+            }
+        }
+        return distance;
+    }
+
+    @Override
+    public <P extends G2D, G extends Geometry<P> & Linear<P>> double distanceToLine(final P position,
+                                                                                  final G geometry) {
+        if (geometry.isEmpty()) {
+            return Double.NaN;
+        }
+        Spheroid s = Spheroid.of(geometry.getCoordinateReferenceSystem());
+        double px = position.getLon();
+        double py = position.getLat();
+        double distance = Double.POSITIVE_INFINITY;
+        for (PlanarMeasures.Part part : new PlanarMeasures.Facets(geometry).parts) {
+            double[] c = part.c;
+            int dim = part.dim;
+            if (part.size == 1) {
+                distance = min(distance, distance(s, px, py, c[part.start], c[part.start + 1]));
+            }
+            for (int i = part.start + dim; i < part.end; i += dim) {
+                distance = min(distance, segmentDistance(s, px, py, c[i - dim], c[i - dim + 1], c[i], c[i + 1]));
+            }
+        }
+        return distance;
+    }
+
+    @Override
+    public <P extends G2D> GeodesicCap<P> cap(final P center, final double radius,
+                                            final CoordinateReferenceSystem<P> crs) {
+        return new GeodesicCap<>(center, radius, crs, Spheroid.of(crs), spherical);
+    }
+
+    @Override
+    public <P extends G2D, G extends Geometry<P> & Linear<P>> double length(final G geometry) {
+        return length(Spheroid.of(geometry.getCoordinateReferenceSystem()), geometry);
+    }
+
+    @Override
+    public <P extends G2D, G extends Geometry<P> & Polygonal<P>> double area(final G geometry) {
+        return area(Spheroid.of(geometry.getCoordinateReferenceSystem()), geometry);
+    }
+
+    private double length(Spheroid s, Geometry<?> geometry) {
+        if (geometry instanceof LineString) {
+            PackedPositionSequence<?> packed = PlanarMeasures.packed(geometry.getPositions());
+            double[] c = packed.array();
+            int dim = geometry.getCoordinateDimension();
+            double length = 0;
+            for (int i = packed.offset() + dim; i < packed.offset() + packed.length(); i += dim) {
+                length += distance(s, c[i - dim], c[i - dim + 1], c[i], c[i + 1]);
+            }
+            return length;
+        }
+        if (geometry instanceof AbstractGeometryCollection) {
+            double length = 0;
+            for (Geometry<?> component : ((AbstractGeometryCollection<?, ?>) geometry).components()) {
+                length += length(s, component);
+            }
+            return length;
+        }
+        return 0;
+    }
+
+    private double area(Spheroid s, Geometry<?> geometry) {
+        if (geometry instanceof Polygon) {
+            LinearRing<?>[] rings = ((Polygon<?>) geometry).components();
+            if (rings.length == 0) return 0;
+            double area = ringArea(s, rings[0].getPositions());
+            for (int i = 1; i < rings.length; i++) {
+                area -= ringArea(s, rings[i].getPositions());
+            }
+            return area;
+        }
+        if (geometry instanceof AbstractGeometryCollection) {
+            double area = 0;
+            for (Geometry<?> component : ((AbstractGeometryCollection<?, ?>) geometry).components()) {
+                area += area(s, component);
+            }
+            return area;
+        }
+        return 0;
+    }
+
+    // sums the signed areas between each edge and the equator
+    private double ringArea(Spheroid s, PositionSequence<?> ring) {
+        PackedPositionSequence<?> packed = PlanarMeasures.packed(ring);
+        double[] c = packed.array();
+        int dim = ring.getCoordinateDimension();
+        double radius = spherical ? s.meanRadius : s.authalicRadius;
+        double sum = 0;
+        for (int i = packed.offset() + dim; i < packed.offset() + packed.length(); i += dim) {
+            double t1 = tan(latitude(s, c[i - dim + 1]) / 2);
+            double t2 = tan(latitude(s, c[i + 1]) / 2);
+            double dLon = normalize(toRadians(c[i] - c[i - dim]));
+            sum += 2 * atan2(tan(dLon / 2) * (t1 + t2), 1 + t1 * t2);
+        }
+        double area = abs(sum) * radius * radius;
+        double sphere = 4 * PI * radius * radius;
+        return area > sphere / 2 ? sphere - area : area;
+    }
+
+    // the latitude in radians on the sphere that is used for areas
+    private double latitude(Spheroid s, double latitude) {
+        double phi = toRadians(latitude);
+        return spherical ? phi : s.authalicLatitude(phi);
+    }
+
+    private double distance(Spheroid s, double lon1, double lat1, double lon2, double lat2) {
+        return spherical ? haversine(s.meanRadius, lon1, lat1, lon2, lat2) : vincenty(s, lon1, lat1, lon2, lat2);
+    }
+
+    static double haversine(double radius, double lon1, double lat1, double lon2, double lat2) {
+        double phi1 = toRadians(lat1);
+        double phi2 = toRadians(lat2);
+        double sinDLat = sin((phi2 - phi1) / 2);
+        double sinDLon = sin(toRadians(lon2 - lon1) / 2);
+        double h = sinDLat * sinDLat + cos(phi1) * cos(phi2) * sinDLon * sinDLon;
+        return 2 * radius * asin(min(1, sqrt(h)));
+    }
+
+    static double vincenty(Spheroid s, double lon1, double lat1, double lon2, double lat2) {
+        double f = s.flattening;
+        double L = normalize(toRadians(lon2 - lon1));
+        double U1 = atan((1 - f) * tan(toRadians(lat1)));
+        double U2 = atan((1 - f) * tan(toRadians(lat2)));
+        double sinU1 = sin(U1), cosU1 = cos(U1);
+        double sinU2 = sin(U2), cosU2 = cos(U2);
+        double lambda = L;
+        double sinSigma, cosSigma, sigma, cos2Alpha, cos2SigmaM;
+        int iterations = 0;
+        while (true) {
+            double sinLambda = sin(lambda), cosLambda = cos(lambda);
+            double x = cosU2 * sinLambda;
+            double y = cosU1 * sinU2 - sinU1 * cosU2 * cosLambda;
+            sinSigma = sqrt(x * x + y * y);
+            if (sinSigma == 0) {
+                return 0;
+            }
+            cosSigma = sinU1 * sinU2 + cosU1 * cosU2 * cosLambda;
+            sigma = atan2(sinSigma, cosSigma);
+            double sinAlpha = cosU1 * cosU2 * sinLambda / sinSigma;
+            cos2Alpha = 1 - sinAlpha * sinAlpha;
+            // on the equator, cos2Alpha is 0
+            cos2SigmaM = cos2Alpha != 0 ? cosSigma - 2 * sinU1 * sinU2 / cos2Alpha : 0;
+            double C = f / 16 * cos2Alpha * (4 + f * (4 - 3 * cos2Alpha));
+            double previous = lambda;
+            lambda = L + (1 - C) * f * sinAlpha
+                    * (sigma + C * sinSigma * (cos2SigmaM + C * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
+            if (abs(lambda - previous) < 1e-12) {
+                break;
+            }
+            if (++iterations > MAX_ITERATIONS || abs(lambda) > PI) {
+                return haversine(s.meanRadius, lon1, lat1, lon2, lat2);
+            }
+        }
+        double b = s.semiMinorAxis;
+        double u2 = cos2Alpha * (s.semiMajorAxis * s.semiMajorAxis - b * b) / (b * b);
+        double A = 1 + u2 / 16384 * (4096 + u2 * (-768 + u2 * (320 - 175 * u2)));
+        double B = u2 / 1024 * (256 + u2 * (-128 + u2 * (74 - 47 * u2)));
+        double deltaSigma = B * sinSigma * (cos2SigmaM + B / 4 * (cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)
+                - B / 6 * cos2SigmaM * (-3 + 4 * sinSigma * sinSigma) * (-3 + 4 * cos2SigmaM * cos2SigmaM)));
+        return b * A * (sigma - deltaSigma);
+    }
+
+    // the smallest distance between the segments of both parts, a single position being a degenerate segment
+    private double distance(Spheroid s, PlanarMeasures.Part part, PlanarMeasures.Part other, double bound) {
+        double distance = bound;
+        int last = max(part.size - 1, 1);
+        int otherLast = max(other.size - 1, 1);
+        for (int i = 0; i < last; i++) {
+            int a = part.start + i * part.dim;
+            int b = part.start + min(i + 1, part.size - 1) * part.dim;
+            double ax = part.c[a], ay = part.c[a + 1], bx = part.c[b], by = part.c[b + 1];
+            for (int j = 0; j < otherLast; j++) {
+                int p = other.start + j * other.dim;
+                int q = other.start + min(j + 1, other.size - 1) * other.dim;
+                double cx = other.c[p], cy = other.c[p + 1], dx = other.c[q], dy = other.c[q + 1];
+                if (intersects(ax, ay, bx, by, cx, cy, dx, dy)) {
+                    return 0;
+                }
+                distance = min(distance, min(
+                        min(segmentDistance(s, ax, ay, cx, cy, dx, dy), segmentDistance(s, bx, by, cx, cy, dx, dy)),
+                        min(segmentDistance(s, cx, cy, ax, ay, bx, by), segmentDistance(s, dx, dy, ax, ay, bx, by))));
+            }
+        }
+        return distance;
+    }
+
+    // the distance from a position to the closest point on the great circle segment between a and b. The vectors
+    // are unit vectors from the center of the sphere, kept in locals as this is called for every pair of segments.
+    private double segmentDistance(Spheroid s, double px, double py, double ax, double ay, double bx, double by) {
+        double cosP = cos(toRadians(py)), cosA = cos(toRadians(ay)), cosB = cos(toRadians(by));
+        double p0 = cosP * cos(toRadians(px)), p1 = cosP * sin(toRadians(px)), p2 = sin(toRadians(py));
+        double a0 = cosA * cos(toRadians(ax)), a1 = cosA * sin(toRadians(ax)), a2 = sin(toRadians(ay));
+        double b0 = cosB * cos(toRadians(bx)), b1 = cosB * sin(toRadians(bx)), b2 = sin(toRadians(by));
+        // the normal of the great circle through a and b
+        double n0 = a1 * b2 - a2 * b1, n1 = a2 * b0 - a0 * b2, n2 = a0 * b1 - a1 * b0;
+        double length = sqrt(n0 * n0 + n1 * n1 + n2 * n2);
+        if (length > 1e-15) {
+            n0 /= length;
+            n1 /= length;
+            n2 /= length;
+            double d = p0 * n0 + p1 * n1 + p2 * n2;
+            double c0 = p0 - d * n0, c1 = p1 - d * n1, c2 = p2 - d * n2;
+            if (sqrt(c0 * c0 + c1 * c1 + c2 * c2) > 1e-15
+                    && triple(a0, a1, a2, c0, c1, c2, n0, n1, n2) >= 0
+                    && triple(c0, c1, c2, b0, b1, b2, n0, n1, n2) >= 0) {
+                if (spherical) {
+                    return s.meanRadius * asin(min(1, abs(d)));
+                }
+                double lon = toDegrees(atan2(c1, c0));
+                double lat = toDegrees(atan2(c2, hypot(c0, c1)));
+                return distance(s, px, py, lon, lat);
+            }
+        }
+        return min(distance(s, px, py, ax, ay), distance(s, px, py, bx, by));
+    }
+
+    // whether the great circle segments (a, b) and (c, d) cross
+    private static boolean intersects(double ax, double ay, double bx, double by,
+                                      double cx, double cy, double dx, double dy) {
+        double cosA = cos(toRadians(ay)), cosB = cos(toRadians(by));
+        double cosC = cos(toRadians(cy)), cosD = cos(toRadians(dy));
+        double a0 = cosA * cos(toRadians(ax)), a1 = cosA * sin(toRadians(ax)), a2 = sin(toRadians(ay));
+        double b0 = cosB * cos(toRadians(bx)), b1 = cosB * sin(toRadians(bx)), b2 = sin(toRadians(by));
+        double c0 = cosC * cos(toRadians(cx)), c1 = cosC * sin(toRadians(cx)), c2 = sin(toRadians(cy));
+        double d0 = cosD * cos(toRadians(dx)), d1 = cosD * sin(toRadians(dx)), d2 = sin(toRadians(dy));
+        // the normals of the great circles through the segments
+        double m0 = a1 * b2 - a2 * b1, m1 = a2 * b0 - a0 * b2, m2 = a0 * b1 - a1 * b0;
+        double n0 = c1 * d2 - c2 * d1, n1 = c2 * d0 - c0 * d2, n2 = c0 * d1 - c1 * d0;
+        if ((m0 * c0 + m1 * c1 + m2 * c2) * (m0 * d0 + m1 * d1 + m2 * d2) > 0
+                || (n0 * a0 + n1 * a1 + n2 * a2) * (n0 * b0 + n1 * b1 + n2 * b2) > 0) {
+            return false;
+        }
+        // one of the two points where the great circles cross
+        double x0 = m1 * n2 - m2 * n1, x1 = m2 * n0 - m0 * n2, x2 = m0 * n1 - m1 * n0;
+        if (sqrt(x0 * x0 + x1 * x1 + x2 * x2) < 1e-15) {
+            // on the same great circle, touching segments have a distance of 0 anyway
+            return false;
+        }
+        if (!isBetween(x0, x1, x2, a0, a1, a2, b0, b1, b2, m0, m1, m2)) {
+            x0 = -x0;
+            x1 = -x1;
+            x2 = -x2;
+        }
+        return isBetween(x0, x1, x2, a0, a1, a2, b0, b1, b2, m0, m1, m2)
+                && isBetween(x0, x1, x2, c0, c1, c2, d0, d1, d2, n0, n1, n2);
+    }
+
+    // whether x lies on the great circle segment from a to b, whose normal is n
+    private static boolean isBetween(double x0, double x1, double x2, double a0, double a1, double a2,
+                                     double b0, double b1, double b2, double n0, double n1, double n2) {
+        return triple(a0, a1, a2, x0, x1, x2, n0, n1, n2) >= 0 && triple(x0, x1, x2, b0, b1, b2, n0, n1, n2) >= 0;
+    }
+
+    // the triple product (u x v) . w
+    private static double triple(double u0, double u1, double u2, double v0, double v1, double v2,
+                                 double w0, double w1, double w2) {
+        return (u1 * v2 - u2 * v1) * w0 + (u2 * v0 - u0 * v2) * w1 + (u0 * v1 - u1 * v0) * w2;
+    }
+
+    // the gap between the latitude ranges of the parts, in radians
+    private static double latitudeGap(PlanarMeasures.Part part, PlanarMeasures.Part other) {
+        return toRadians(max(0, max(other.minY - part.maxY, part.minY - other.maxY)));
+    }
+
+    private static double normalize(double angle) {
+        while (angle > PI) angle -= 2 * PI;
+        while (angle < -PI) angle += 2 * PI;
+        return angle;
+    }
+
+    /**
+     * The constants of an ellipsoid that are used in the computations
+     */
+    static final class Spheroid {
+        final double semiMajorAxis;
+        final double flattening;
+        final double semiMinorAxis;
+        final double eccentricity;
+        final double meanRadius;
+        final double authalicRadius;
+        final double minimumRadius;
+        private final double qp;
+
+        Spheroid(double semiMajorAxis, double inverseFlattening) {
+            this.semiMajorAxis = semiMajorAxis;
+            this.flattening = inverseFlattening == 0 || Double.isInfinite(inverseFlattening) ? 0 : 1 / inverseFlattening;
+            this.semiMinorAxis = semiMajorAxis * (1 - flattening);
+            double e2 = flattening * (2 - flattening);
+            this.eccentricity = sqrt(e2);
+            this.meanRadius = (2 * semiMajorAxis + semiMinorAxis) / 3;
+            this.qp = q(PI / 2);
+            this.authalicRadius = eccentricity == 0 ? semiMajorAxis : semiMajorAxis * sqrt(qp / 2);
+            // the radius of curvature of the meridian on the equator, and a lower bound for all radii of curvature
+            this.minimumRadius = min(semiMajorAxis * (1 - e2), meanRadius * (1 - flattening));
+        }
+
+        static Spheroid of(CoordinateReferenceSystem<?> crs) {
+            CoordinateReferenceSystem<?> horizontal = crs instanceof CompoundCoordinateReferenceSystem
+                    ? ((CompoundCoordinateReferenceSystem<?>) crs).headCs()
+                    : crs;
+            if (horizontal instanceof GeographicCoordinateReferenceSystem) {
+                Datum datum = ((GeographicCoordinateReferenceSystem<?>) horizontal).getDatum();
+                Ellipsoid ellipsoid = datum == null ? null : datum.getEllipsoid();
+                if (ellipsoid != null && ellipsoid.getSemiMajorAxis() > 0) {
+                    return new Spheroid(ellipsoid.getSemiMajorAxis(), ellipsoid.getInverseFlattening());
+                }
+            }
+            return new Spheroid(WGS84_SEMI_MAJOR_AXIS, WGS84_INVERSE_FLATTENING);
+        }
+
+        double authalicLatitude(double phi) {
+            return eccentricity == 0 ? phi : asin(max(-1, min(1, q(phi) / qp)));
+        }
+
+        private double q(double phi) {
+            double e = eccentricity;
+            double sinPhi = sin(phi);
+            if (e == 0) return 2 * sinPhi;
+            double e2 = e * e;
+            return (1 - e2) * (sinPhi / (1 - e2 * sinPhi * sinPhi)
+                    - 1 / (2 * e) * log((1 - e * sinPhi) / (1 + e * sinPhi)));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.geolatte.geom;
+
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+
+/**
+ * Defines measurement operations on {@code Geometry}s with geographic coordinate reference systems.
+ *
+ * <p>Distances and lengths are in meters, areas in square meters. Positions are interpreted as longitude and
+ * latitude in decimal degrees on the ellipsoid of the datum of the {@code CoordinateReferenceSystem}, or on the
+ * WGS 84 ellipsoid if the {@code CoordinateReferenceSystem} has none. Only the longitude and latitude are used.</p>
+ */
+public interface GeographicGeometryOperations {
+
+    /**
+     * Default implementation of this interface, which computes on the ellipsoid
+     */
+    public final GeographicGeometryOperations Default = new GeodesicGeometryOperations(false);
+
+    /**
+     * Faster implementation of this interface, which computes on a sphere with the mean radius of the ellipsoid
+     */
+    public final GeographicGeometryOperations Spherical = new GeodesicGeometryOperations(true);
+
+    /**
+     * Calculates the geodesic distance between two positions.
+     *
+     * @param position the first position
+     * @param other    the second position
+     * @param crs      the {@code CoordinateReferenceSystem} of the positions
+     * @return the distance in meters
+     */
+    <P extends G2D> double distance(final P position, final P other, final CoordinateReferenceSystem<P> crs);
+
+    /**
+     * Calculates the shortest geodesic distance between the two {@code Geometry}s.
+     *
+     * <p>The distance is 0 if the {@code Geometry}s intersect, or if either is empty. Whether a position lies in a
+     * polygon is determined on the longitude and latitude coordinates.</p>
+     *
+     * @param geometry the first {@code Geometry}
+     * @param other    the second {@code Geometry}
+     * @return the shortest distance in meters
+     * @throws IllegalArgumentException if the {@code Geometry}s have different {@code CoordinateReferenceSystem}s
+     */
+    <P extends G2D> double distance(final Geometry<P> geometry, final Geometry<P> other);
+
+    /**
+     * Calculates the shortest geodesic distance from a position to the specified linear {@code Geometry}.
+     *
+     * @param position the position
+     * @param geometry the linear {@code Geometry}
+     * @return the shortest distance in meters, or NaN if the {@code Geometry} is empty
+     */
+    <P extends G2D, G extends Geometry<P> & Linear<P>> double distanceToLine(final P position, final G geometry);
+
+    /**
+     * Creates the region of all positions within the specified distance from a center position.
+     *
+     * @param center the center position
+     * @param radius the radius in meters
+     * @param crs    the {@code CoordinateReferenceSystem} of the center position
+     * @return a {@code GeodesicCap} that computes distances as this instance does
+     * @throws IllegalArgumentException if the radius is negative or NaN
+     */
+    <P extends G2D> GeodesicCap<P> cap(final P center, final double radius, final CoordinateReferenceSystem<P> crs);
+
+    /**
+     * Calculates the geodesic length of the specified {@code Geometry}.
+     *
+     * @param geometry the linear {@code Geometry}
+     * @return the length in meters
+     */
+    <P extends G2D, G extends Geometry<P> & Linear<P>> double length(final G geometry);
+
+    /**
+     * Calculates the area of the specified {@code Geometry}.
+     *
+     * @param geometry the polygonal {@code Geometry}
+     * @return the area in square meters
+     */
+    <P extends G2D, G extends Geometry<P> & Polygonal<P>> double area(final G geometry);
+
+}
@@ -233,6 +233,106 @@ public class Geometries {
     }
 
 
+    /**
+     * Creates a {@code MultiLineString} whose {@code LineString}s share one coordinates array, in the layout of
+     * GeoArrow. The coordinates are not copied.
+     *
+     * <p>The {@code PositionSequence} of the {@code MultiLineString} is then a flat view on the array, so that
+     * positions are accessed without searching the {@code LineString}s.</p>
+     *
+     * @param coordinates the packed coordinates of all {@code LineString}s
+     * @param offsets     the index of the first position of each {@code LineString}, followed by the index after
+     *                    the last position of the last {@code LineString}
+     * @param crs         the coordinate reference system for the created {@code MultiLineString}
+     * @param <P>         the type of {@code Position}
+     * @return a {@code MultiLineString} with the specified coordinates and coordinate reference system
+     */
+    @SuppressWarnings("unchecked")
+    public static <P extends Position> MultiLineString<P> mkMultiLineString(double[] coordinates, int[] offsets,
+                                                                           CoordinateReferenceSystem<P> crs) {
+        checkOffsets(offsets, coordinates.length / crs.getCoordinateDimension());
+        if (offsets.length < 2) return mkEmptyMultiLineString(crs);
+        LineString<P>[] lineStrings = (LineString<P>[]) new LineString[offsets.length - 1];
+        for (int i = 0; i < lineStrings.length; i++) {
+            lineStrings[i] = new LineString<>(view(coordinates, offsets[i], offsets[i + 1], crs), crs);
+        }
+        return new MultiLineString<>(lineStrings);
+    }
+
+    /**
+     * Creates a {@code Polygon} whose rings share one coordinates array, in the layout of GeoArrow. The
+     * coordinates are not copied.
+     *
+     * @param coordinates the packed coordinates of all rings
+     * @param ringOffsets the index of the first position of each ring, followed by the index after the last
+     *                    position of the last ring
+     * @param crs         the coordinate reference system for the created {@code Polygon}
+     * @param <P>         the type of {@code Position}
+     * @return a {@code Polygon} with the specified coordinates and coordinate reference system
+     */
+    public static <P extends Position> Polygon<P> mkPolygon(double[] coordinates, int[] ringOffsets,
+                                                           CoordinateReferenceSystem<P> crs) {
+        checkOffsets(ringOffsets, coordinates.length / crs.getCoordinateDimension());
+        if (ringOffsets.length < 2) return mkEmptyPolygon(crs);
+        return mkPolygon(coordinates, ringOffsets, 0, ringOffsets.length - 1, crs);
+    }
+
+    /**
+     * Creates a {@code MultiPolygon} whose rings share one coordinates array, in the layout of GeoArrow. The
+     * coordinates are not copied.
+     *
+     * <p>The {@code PositionSequence}s of the {@code MultiPolygon} and its {@code Polygon}s are then flat views on
+     * the array, so that positions are accessed without searching the rings.</p>
+     *
+     * @param coordinates    the packed coordinates of all rings
+     * @param ringOffsets    the index of the first position of each ring, followed by the index after the last
+     *                       position of the last ring
+     * @param polygonOffsets the index of the first ring of each {@code Polygon}, followed by the index after the
+     *                       last ring of the last {@code Polygon}
+     * @param crs            the coordinate reference system for the created {@code MultiPolygon}
+     * @param <P>            the type of {@code Position}
+     * @return a {@code MultiPolygon} with the specified coordinates and coordinate reference system
+     */
+    @SuppressWarnings("unchecked")
+    public static <P extends Position> MultiPolygon<P> mkMultiPolygon(double[] coordinates, int[] ringOffsets,
+                                                                     int[] polygonOffsets,
+                                                                     CoordinateReferenceSystem<P> crs) {
+        checkOffsets(ringOffsets, coordinates.length / crs.getCoordinateDimension());
+        checkOffsets(polygonOffsets, Math.max(0, ringOffsets.length - 1));
+        if (polygonOffsets.length < 2) return mkEmptyMultiPolygon(crs);
+        Polygon<P>[] polygons = (Polygon<P>[]) new Polygon[polygonOffsets.length - 1];
+        for (int i = 0; i < polygons.length; i++) {
+            polygons[i] = mkPolygon(coordinates, ringOffsets, polygonOffsets[i], polygonOffsets[i + 1], crs);
+        }
+        return new MultiPolygon<>(polygons);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <P extends Position> Polygon<P> mkPolygon(double[] coordinates, int[] ringOffsets, int fromRing,
+                                                            int toRing, CoordinateReferenceSystem<P> crs) {
+        if (fromRing == toRing) return mkEmptyPolygon(crs);
+        LinearRing<P>[] rings = (LinearRing<P>[]) new LinearRing[toRing - fromRing];
+        for (int i = fromRing; i < toRing; i++) {
+            rings[i - fromRing] = new LinearRing<>(view(coordinates, ringOffsets[i], ringOffsets[i + 1], crs), crs);
+        }
+        return new Polygon<>(rings);
+    }
+
+    private static <P extends Position> PositionSequence<P> view(double[] coordinates, int from, int to,
+                                                                CoordinateReferenceSystem<P> crs) {
+        int dim = crs.getCoordinateDimension();
+        return PackedPositionSequence.view(Positions.getFactoryFor(crs.getPositionClass()), coordinates,
+                from * dim, (to - from) * dim);
+    }
+
+    private static void checkOffsets(int[] offsets, int max) {
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] < 0 || offsets[i] > max || (i > 0 && offsets[i] < offsets[i - 1])) {
+                throw new IllegalArgumentException("Offsets must be non-decreasing, and between 0 and " + max);
+            }
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public static <P extends Position> Geometry<P> mkGeometry(Class<?> geometryClass,
                                                               PositionSequence<P> positions,
@@ -111,7 +111,7 @@ public abstract class Geometry<P extends Position> implements Serializable {
         for (Geometry<T> g : geometries) {
             sequences[i++] = g.getPositions();
         }
-        return new NestedPositionSequence<>(sequences);
+        return NestedPositionSequence.of(sequences);
     }
 
     @SuppressWarnings("unchecked")
@@ -25,7 +25,6 @@ import org.locationtech.jts.algorithm.ConvexHull;
 import org.locationtech.jts.operation.BoundaryOp;
 import org.locationtech.jts.operation.IsSimpleOp;
 import org.locationtech.jts.operation.buffer.BufferOp;
-import org.locationtech.jts.operation.distance.DistanceOp;
 import org.locationtech.jts.operation.overlay.OverlayOp;
 import org.locationtech.jts.operation.overlay.snap.SnapIfNeededOverlayOp;
 import org.locationtech.jts.operation.relate.RelateOp;
@@ -35,6 +34,8 @@ import org.geolatte.geom.jts.JTS;
 /**
  * An implementation of {@code ProjectedGeometryOperations} that delegates to the corresponding JTS operations.
  *
+ * <p>Length, area, centroid and distance are computed directly over the coordinates, with the same results as JTS.</p>
+ *
  * @author Karel Maesen, Geovise BVBA
  *         creation-date: 5/3/11
  */
@@ -164,11 +165,9 @@ public class JTSGeometryOperations implements ProjectedGeometryOperations {
         return relateOp.getIntersectionMatrix().matches(matrix);
     }
 
-
     @Override
     public <P extends C2D> double distance(final Geometry<P> geometry, final Geometry<P> other) {
-        final DistanceOp op = new DistanceOp(JTS.to(geometry), JTS.to(other));
-        return op.distance();
+        return PlanarMeasures.distance(geometry, other);
     }
 
     @Override
@@ -231,22 +230,17 @@ public class JTSGeometryOperations implements ProjectedGeometryOperations {
 
     @Override
     public <P extends C2D, G extends Geometry<P> & Linear<P>> double length(final G geometry) {
-                return JTS.to(geometry).getLength();
-
+        return PlanarMeasures.length(geometry);
     }
 
     @Override
-    public  <P extends C2D, G extends Geometry<P> & Polygonal<P>> double area(final G geometry) {
-                return JTS.to(geometry).getArea();
-
+    public <P extends C2D, G extends Geometry<P> & Polygonal<P>> double area(final G geometry) {
+        return PlanarMeasures.area(geometry);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public  <P extends C2D, G extends Geometry<P> & Polygonal<P>> Point<P> centroid(final G geometry) {
-                return (Point<P>) JTS.from(JTS.to(geometry).getCentroid());
-
+    public <P extends C2D, G extends Geometry<P> & Polygonal<P>> Point<P> centroid(final G geometry) {
+        return PlanarMeasures.centroid(geometry);
     }
 
-
 }
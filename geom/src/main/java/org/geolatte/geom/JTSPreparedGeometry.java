@@ -0,0 +1,72 @@
+package org.geolatte.geom;
+
+import org.geolatte.geom.jts.JTS;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+
+/**
+ * A {@code PreparedGeometry} backed by a JTS {@code PreparedGeometry}.
+ *
+ * <p>The JTS counterpart of the {@code Geometry} and its prepared form (with its indexes) are created once,
+ * and reused for all predicate tests.</p>
+ */
+class JTSPreparedGeometry<P extends C2D> implements PreparedGeometry<P> {
+
+    private final Geometry<P> geometry;
+    private final Envelope<P> envelope;
+    private final org.locationtech.jts.geom.prep.PreparedGeometry prepared;
+
+    JTSPreparedGeometry(Geometry<P> geometry) {
+        this.geometry = geometry;
+        this.envelope = geometry.getEnvelope();
+        this.prepared = PreparedGeometryFactory.prepare(JTS.to(geometry));
+    }
+
+    @Override
+    public Geometry<P> getGeometry() {
+        return geometry;
+    }
+
+    @Override
+    public boolean intersects(Geometry<P> other) {
+        if (!isApplicable(other) || !envelope.intersects(other.getEnvelope())) return false;
+        return prepared.intersects(JTS.to(other));
+    }
+
+    @Override
+    public boolean touches(Geometry<P> other) {
+        if (!isApplicable(other) || !envelope.intersects(other.getEnvelope())) return false;
+        return prepared.touches(JTS.to(other));
+    }
+
+    @Override
+    public boolean crosses(Geometry<P> other) {
+        if (!isApplicable(other) || !envelope.intersects(other.getEnvelope())) return false;
+        return prepared.crosses(JTS.to(other));
+    }
+
+    @Override
+    public boolean contains(Geometry<P> other) {
+        if (!isApplicable(other) || !envelope.contains(other.getEnvelope())) return false;
+        return prepared.contains(JTS.to(other));
+    }
+
+    @Override
+    public boolean overlaps(Geometry<P> other) {
+        if (!isApplicable(other) || !envelope.intersects(other.getEnvelope())) return false;
+        return prepared.overlaps(JTS.to(other));
+    }
+
+    @Override
+    public boolean relates(Geometry<P> other, String matrix) {
+        if (!isApplicable(other)) return false;
+        return prepared.getGeometry().relate(JTS.to(other), matrix);
+    }
+
+    private boolean isApplicable(Geometry<P> other) {
+        if (geometry.isEmpty() || other.isEmpty()) return false;
+        if (!geometry.getCoordinateReferenceSystem().equals(other.getCoordinateReferenceSystem())) {
+            throw new IllegalArgumentException("Geometries have different CRS's");
+        }
+        return true;
+    }
+}
@@ -76,6 +76,52 @@ public interface MeasureGeometryOperations {
      */
     public <P extends C2D & Measured> double measureAt(final Geometry<P> geometry, final C2D pos, double tolerance);
 
+    /**
+     * Prepares the specified measured <code>LineString</code> or <code>MultiLineString</code> for repeated
+     * <code>measureAt</code>, <code>locateAlong</code> and <code>locateBetween</code> operations.
+     *
+     * <p>Use this when many positions are referenced against the same route, e.g. when snapping GPS fixes to a road.
+     * The indexes are then built once, rather than the geometry being scanned for every operation.</p>
+     *
+     * @param geometry a measured <code>LineString</code> or <code>MultiLineString</code>
+     * @return a <code>MeasuredRoute</code> for the specified <code>Geometry</code>
+     * @throws IllegalArgumentException if the geometry is not a <code>LineString</code> or
+     * <code>MultiLineString</code>
+     */
+    default <P extends C2D & Measured> MeasuredRoute<P> prepare(final Geometry<P> geometry) {
+        return new MeasuredRoute<>(geometry);
+    }
+
+    /**
+     * Calculates the measure values at the specified positions in one batch.
+     *
+     * <p>Unlike {@link #measureAt(Geometry, C2D, double)}, positions that are not within tolerance of the geometry do
+     * not cause an exception, but have a Double.NaN measure.</p>
+     *
+     * @param geometry  a measured <code>LineString</code> or <code>MultiLineString</code>
+     * @param xy        the positions, as consecutive X- and Y-coordinates
+     * @param tolerance the maximum value allowed for distance between a position and the geometry.
+     * @return the measure value at each position
+     * @see MeasuredRoute#batchMeasureAt(double[], double)
+     */
+    default <P extends C2D & Measured> double[] batchMeasureAt(final Geometry<P> geometry, final double[] xy,
+                                                               double tolerance) {
+        return prepare(geometry).batchMeasureAt(xy, tolerance);
+    }
+
+    /**
+     * Calculates, for each of the specified measure values, the first position along the geometry with that measure,
+     * in one batch.
+     *
+     * @param geometry a measured <code>LineString</code> or <code>MultiLineString</code>
+     * @param measures the measure values
+     * @return the coordinates of the positions, packed with the coordinate dimension of the geometry
+     * @see MeasuredRoute#batchLocateAlong(double[])
+     */
+    default <P extends C2D & Measured> double[] batchLocateAlong(final Geometry<P> geometry, final double[] measures) {
+        return prepare(geometry).batchLocateAlong(measures);
+    }
+
     /**
      * Creates a <code>GeometryOperation</code> that creates a new Geometry
      * that has the same 2D/3D-coordinates as the specified <code>Geometry</code>, and
@@ -24,6 +24,7 @@ package org.geolatte.geom;
 import org.geolatte.geom.crs.CoordinateReferenceSystem;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -81,6 +82,7 @@ public class MeasureInterpolatingVisitor<P extends C2D & Measured> implements Ge
     @Override
     public void visit(LineString<P> lineString) {
         currentBuilder = PositionSequenceBuilders.variableSized(this.geometry.getPositionClass());
+        sequenceIsEmpty = true;
         P lastAddedPoint = null;
         LineSegments<P> segments = new LineSegments<P>(lineString.getPositions());
         for (LineSegment<P> segment : segments) {
@@ -141,6 +143,7 @@ public class MeasureInterpolatingVisitor<P extends C2D & Measured> implements Ge
         assert (newPnt != null);
         if (!newPnt.equals(lastPoint)) {
             currentBuilder.add(newPnt);
+            sequenceIsEmpty = false;
             lastPoint = newPnt;
         }
         return lastPoint;
@@ -165,8 +168,18 @@ public class MeasureInterpolatingVisitor<P extends C2D & Measured> implements Ge
 
     }
 
-    @SuppressWarnings("unchecked")
     public Geometry<P> result() {
+        return toGeometry(positionSequences, getCrs());
+    }
+
+    /**
+     * Combines the specified non-empty <code>PositionSequence</code>s into the result of a locate-operation.
+     *
+     * <p>Sequences of size 1 become <code>Point</code>s, the others <code>LineString</code>s.</p>
+     */
+    @SuppressWarnings("unchecked")
+    static <P extends C2D & Measured> Geometry<P> toGeometry(List<PositionSequence<P>> positionSequences,
+                                                           CoordinateReferenceSystem<P> crs) {
         int number0Dimensional = 0;
         int number1Dimensional = 0;
 
@@ -180,22 +193,24 @@ public class MeasureInterpolatingVisitor<P extends C2D & Measured> implements Ge
         }
 
         if (number0Dimensional == 0 && number1Dimensional == 0) {
-            Position p = Positions.mkPosition(getCrs(), Double.NaN, Double.NaN);
-            return new Point(p, getCrs());
+            double[] nan = new double[crs.getCoordinateDimension()];
+            Arrays.fill(nan, Double.NaN);
+            Position p = Positions.mkPosition(crs, nan);
+            return new Point(p, crs);
         }
 
         if (number0Dimensional > 1 && number1Dimensional == 0) {
             Point<P>[] pnts = (Point<P>[])new Point[number0Dimensional];
             int i = 0;
             for (PositionSequence<P> ps : positionSequences) {
-                pnts[i++] = new Point<P>(ps, this.geometry.getCoordinateReferenceSystem());
+                pnts[i++] = new Point<P>(ps, crs);
             }
             return new MultiPoint<P>(pnts);
         }
 
         if (number0Dimensional == 1 && number1Dimensional == 0) {
             return new MultiPoint<P>(
-                    new Point[]{new Point<P>(positionSequences.get(0), this.geometry.getCoordinateReferenceSystem())}
+                    new Point[]{new Point<P>(positionSequences.get(0), crs)}
             );
         }
 
@@ -203,7 +218,7 @@ public class MeasureInterpolatingVisitor<P extends C2D & Measured> implements Ge
             LineString<P>[] lineStrings = (LineString<P>[])new LineString[number1Dimensional];
             int i = 0;
             for (PositionSequence ps : positionSequences) {
-                lineStrings[i++] = new LineString<P>(ps, this.geometry.getCoordinateReferenceSystem());
+                lineStrings[i++] = new LineString<P>(ps, crs);
             }
             return new MultiLineString<P>(lineStrings);
         }
@@ -213,9 +228,9 @@ public class MeasureInterpolatingVisitor<P extends C2D & Measured> implements Ge
             int i = 0;
             for (PositionSequence<P> ps : positionSequences) {
                 if (ps.size() == 1) {
-                    geometries[i++] = new Point<P>(ps, this.geometry.getCoordinateReferenceSystem());
+                    geometries[i++] = new Point<P>(ps, crs);
                 } else {
-                    geometries[i++] = new LineString<P>(ps, this.geometry.getCoordinateReferenceSystem());
+                    geometries[i++] = new LineString<P>(ps, crs);
                 }
             }
             return new GeometryCollection<P>(geometries);
@@ -0,0 +1,657 @@
+package org.geolatte.geom;
+
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A measured <code>LineString</code> or <code>MultiLineString</code> that is prepared for repeated linear referencing
+ * operations.
+ *
+ * <p>The coordinates are copied once into a flat array, together with two indexes: a packed tree of segment bounding
+ * boxes for the nearest-segment search of {@link #measureAt(C2D, double)}, and a partition of the segments in runs of
+ * monotonically increasing or decreasing measures, so that {@link #locateBetween(double, double)} can find the
+ * matching segments by binary search. For a route whose measures increase along its length, there is a single run.</p>
+ *
+ * <p>The operations have the same semantics as the corresponding operations in {@link MeasureGeometryOperations}.
+ * {@code measureAt} does not allocate. Instances are immutable and can be shared between threads.</p>
+ *
+ * @param <P> the {@code Position} type of the route
+ */
+public class MeasuredRoute<P extends C2D & Measured> {
+
+    private static final int NODE_SIZE = 16;
+    private static final int BATCH_THRESHOLD = 4096;
+    private static final String OUTSIDE_TOL_MSG = "Search point not within tolerance %f of route";
+
+    private final Geometry<P> geometry;
+    private final int dim;
+    private final int mIdx;
+    private final double[] coordinates;
+
+    // per segment: the index of its start vertex, and the index of its part
+    private final int[] segmentVertex;
+    private final int[] segmentPart;
+    private final int numSegments;
+
+    // the bounding boxes of the index nodes above the segments, level by level
+    private final double[] nodeBoxes;
+    private final int[] levelOffsets;
+    private final int[] levelCounts;
+
+    // the runs of segments with monotonic measures
+    private final int[] runStarts;
+    private final boolean[] runDescending;
+    private final double[] runMin;
+    private final double[] runMax;
+
+    /**
+     * Prepares the specified <code>Geometry</code>.
+     *
+     * @param geometry a measured <code>LineString</code> or <code>MultiLineString</code>
+     * @throws IllegalArgumentException if the geometry is null, or is not a <code>LineString</code> or
+     *                                  <code>MultiLineString</code>
+     */
+    @SuppressWarnings("unchecked")
+    public MeasuredRoute(Geometry<P> geometry) {
+        if (geometry == null) throw new IllegalArgumentException("Null geometries not allowed.");
+        if (geometry.getGeometryType() != GeometryType.LINESTRING
+                && geometry.getGeometryType() != GeometryType.MULTILINESTRING) {
+            throw new IllegalArgumentException("Geometry parameter must be of type LineString or MultiLineString");
+        }
+        this.geometry = geometry;
+        CoordinateReferenceSystem<P> crs = geometry.getCoordinateReferenceSystem();
+        this.dim = crs.getCoordinateDimension();
+        this.mIdx = crs.hasZ() ? 3 : 2;
+
+        LineString<P>[] parts = geometry instanceof LineString ?
+                new LineString[]{(LineString<P>) geometry} : ((MultiLineString<P>) geometry).components();
+        int numVertices = geometry.getNumPositions();
+        this.coordinates = new double[numVertices * dim];
+        this.segmentVertex = new int[Math.max(numVertices - 1, 0)];
+        this.segmentPart = new int[segmentVertex.length];
+        double[] buf = new double[dim];
+        int vertex = 0;
+        int segment = 0;
+        for (int part = 0; part < parts.length; part++) {
+            PositionSequence<P> positions = parts[part].getPositions();
+            for (int i = 0; i < positions.size(); i++) {
+                positions.getCoordinates(i, buf);
+                System.arraycopy(buf, 0, coordinates, vertex * dim, dim);
+                if (i > 0) {
+                    segmentVertex[segment] = vertex - 1;
+                    segmentPart[segment] = part;
+                    segment++;
+                }
+                vertex++;
+            }
+        }
+        this.numSegments = segment;
+
+        List<Integer> offsets = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        int count = numSegments;
+        int total = 0;
+        counts.add(count);
+        offsets.add(0);
+        while (count > 1) {
+            count = (count + NODE_SIZE - 1) / NODE_SIZE;
+            offsets.add(total);
+            counts.add(count);
+            total += count;
+        }
+        this.levelOffsets = toArray(offsets);
+        this.levelCounts = toArray(counts);
+        this.nodeBoxes = new double[total * 4];
+        buildIndex();
+
+        List<Integer> starts = new ArrayList<>();
+        List<Boolean> descending = new ArrayList<>();
+        int direction = 0;
+        for (int s = 0; s < numSegments; s++) {
+            int step = Double.compare(m(segmentVertex[s] + 1), m(segmentVertex[s]));
+            boolean connected = s > 0 && segmentVertex[s] == segmentVertex[s - 1] + 1;
+            if (s == 0 || !connected || (step != 0 && direction != 0 && step != direction)) {
+                starts.add(s);
+                descending.add(step < 0);
+                direction = step;
+            } else if (direction == 0 && step != 0) {
+                descending.set(descending.size() - 1, step < 0);
+                direction = step;
+            }
+        }
+        this.runStarts = new int[starts.size() + 1];
+        this.runDescending = new boolean[starts.size()];
+        this.runMin = new double[starts.size()];
+        this.runMax = new double[starts.size()];
+        for (int r = 0; r < starts.size(); r++) {
+            runStarts[r] = starts.get(r);
+            runDescending[r] = descending.get(r);
+        }
+        runStarts[starts.size()] = numSegments;
+        for (int r = 0; r < runDescending.length; r++) {
+            double first = m(segmentVertex[runStarts[r]]);
+            double last = m(segmentVertex[runStarts[r + 1] - 1] + 1);
+            runMin[r] = Math.min(first, last);
+            runMax[r] = Math.max(first, last);
+        }
+    }
+
+    /**
+     * Returns the prepared <code>Geometry</code>
+     *
+     * @return the prepared <code>Geometry</code>
+     */
+    public Geometry<P> getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Returns the measure value at the specified position, interpolated on the nearest segment of this route.
+     *
+     * @param pos       a position within tolerance of this route
+     * @param tolerance the maximum value allowed for distance between pos and this route.
+     * @return the measure value at the specified position, or Double.NaN if the route is empty
+     * @throws IllegalArgumentException if pos is null, or the distance to this route is larger than the tolerance
+     * @see MeasureGeometryOperations#measureAt(Geometry, C2D, double)
+     */
+    public double measureAt(C2D pos, double tolerance) {
+        if (pos == null) throw new IllegalArgumentException("Parameters must not be NULL");
+        if (numSegments == 0) return Double.NaN;
+        int segment = nearestSegment(pos.getX(), pos.getY(), tolerance * tolerance);
+        if (segment < 0) {
+            throw new IllegalArgumentException(String.format(OUTSIDE_TOL_MSG, Math.abs(tolerance)));
+        }
+        return measureOn(segment, pos.getX(), pos.getY());
+    }
+
+    /**
+     * Returns the measure values at the specified positions.
+     *
+     * <p>The positions are processed in the order of a Morton curve over the extent of this route, so that
+     * consecutive searches visit the same parts of the index, and the distance to the nearest segment of the previous
+     * position limits the search for the next one. Large batches are split over the common
+     * <code>ForkJoinPool</code>.</p>
+     *
+     * @param xy        the positions, as consecutive X- and Y-coordinates
+     * @param tolerance the maximum value allowed for distance between a position and this route.
+     * @return the measure value at each position, or Double.NaN for positions that are not within tolerance of this
+     * route, or if the route is empty
+     * @throws IllegalArgumentException if xy is null or has an odd length
+     */
+    public double[] batchMeasureAt(double[] xy, double tolerance) {
+        if (xy == null || xy.length % 2 != 0) {
+            throw new IllegalArgumentException("Requires an array of X- and Y-coordinates");
+        }
+        int n = xy.length / 2;
+        double[] result = new double[n];
+        if (numSegments == 0) {
+            Arrays.fill(result, Double.NaN);
+            return result;
+        }
+        long[] order = mortonOrder(xy, n);
+        run(new MeasureAtTask(xy, tolerance * tolerance, order, result, 0, n), n);
+        return result;
+    }
+
+    /**
+     * Returns, for each of the specified measure values, the first position along this route that has that measure.
+     *
+     * <p>Large batches are split over the common <code>ForkJoinPool</code>.</p>
+     *
+     * @param measures the measure values
+     * @return the coordinates of the positions, packed with the coordinate dimension of this route. The coordinates
+     * are Double.NaN for measures that do not occur on this route.
+     * @throws IllegalArgumentException if measures is null
+     * @see #locateAlong(double)
+     */
+    public double[] batchLocateAlong(double[] measures) {
+        if (measures == null) throw new IllegalArgumentException("Parameters must not be NULL");
+        double[] result = new double[measures.length * dim];
+        run(new LocateAlongTask(measures, result, 0, measures.length), measures.length);
+        return result;
+    }
+
+    // returns the last of the nearest segments that are within the specified squared distance, or -1 if there is none
+    private int nearestSegment(double qx, double qy, double maxDistanceSq) {
+        double best = maxDistanceSq;
+        int found = -1;
+        // stackless depth-first traversal: the children of node i are nodes i * NODE_SIZE, ... on the level below
+        int top = levelCounts.length - 1;
+        int level = top;
+        int idx = 0;
+        while (true) {
+            boolean advance = true;
+            if (level == 0) {
+                double d = distanceSq(idx, qx, qy);
+                // on ties, the last segment wins, as in the default implementation
+                if (d <= best) {
+                    best = d;
+                    found = idx;
+                }
+            } else {
+                int b = (levelOffsets[level] + idx) * 4;
+                double dx = Math.max(Math.max(nodeBoxes[b] - qx, qx - nodeBoxes[b + 2]), 0);
+                double dy = Math.max(Math.max(nodeBoxes[b + 1] - qy, qy - nodeBoxes[b + 3]), 0);
+                if (dx * dx + dy * dy <= best) {
+                    level--;
+                    idx *= NODE_SIZE;
+                    advance = false;
+                }
+            }
+            if (advance) {
+                while (level < top && (idx + 1 == levelCounts[level] || (idx + 1) % NODE_SIZE == 0)) {
+                    level++;
+                    idx /= NODE_SIZE;
+                }
+                if (level == top) break;
+                idx++;
+            }
+        }
+        return found;
+    }
+
+    private double distanceSq(int segment, double qx, double qy) {
+        int v0 = segmentVertex[segment] * dim;
+        int v1 = v0 + dim;
+        double dx = coordinates[v1] - coordinates[v0];
+        double dy = coordinates[v1 + 1] - coordinates[v0 + 1];
+        double px = qx - coordinates[v0];
+        double py = qy - coordinates[v0 + 1];
+        double t = dx * px + dy * py;
+        double dd = dx * dx + dy * dy;
+        if (t <= 0) {
+            return px * px + py * py;
+        }
+        if (t >= dd) {
+            double ex = qx - coordinates[v1];
+            double ey = qy - coordinates[v1 + 1];
+            return ex * ex + ey * ey;
+        }
+        //we take the abs value: due to rounding errors the formula may return very small negative numbers.
+        return Math.abs(px * px + py * py - t * t / dd);
+    }
+
+    private double measureOn(int segment, double qx, double qy) {
+        int v0 = segmentVertex[segment] * dim;
+        int v1 = v0 + dim;
+        double dx = coordinates[v1] - coordinates[v0];
+        double dy = coordinates[v1 + 1] - coordinates[v0 + 1];
+        double t = dx * (qx - coordinates[v0]) + dy * (qy - coordinates[v0 + 1]);
+        double dd = dx * dx + dy * dy;
+        if (t <= 0) {
+            return coordinates[v0 + mIdx];
+        }
+        if (t >= dd) {
+            return coordinates[v1 + mIdx];
+        }
+        return coordinates[v0 + mIdx] + t / dd * (coordinates[v1 + mIdx] - coordinates[v0 + mIdx]);
+    }
+
+    // sort keys with the Morton code of the position in the high bits, and its index in the low 31 bits
+    private long[] mortonOrder(double[] xy, int n) {
+        int root = (levelCounts.length == 1 ? 0 : levelOffsets[levelCounts.length - 1]) * 4;
+        double minX, minY, maxX, maxY;
+        if (levelCounts.length == 1) {
+            int v0 = segmentVertex[0] * dim;
+            int v1 = v0 + dim;
+            minX = Math.min(coordinates[v0], coordinates[v1]);
+            minY = Math.min(coordinates[v0 + 1], coordinates[v1 + 1]);
+            maxX = Math.max(coordinates[v0], coordinates[v1]);
+            maxY = Math.max(coordinates[v0 + 1], coordinates[v1 + 1]);
+        } else {
+            minX = nodeBoxes[root];
+            minY = nodeBoxes[root + 1];
+            maxX = nodeBoxes[root + 2];
+            maxY = nodeBoxes[root + 3];
+        }
+        double scaleX = maxX > minX ? 0xFFFF / (maxX - minX) : 0;
+        double scaleY = maxY > minY ? 0xFFFF / (maxY - minY) : 0;
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            long x = quantize((xy[2 * i] - minX) * scaleX);
+            long y = quantize((xy[2 * i + 1] - minY) * scaleY);
+            keys[i] = (interleave(x) | interleave(y) << 1) << 31 | i;
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static long quantize(double v) {
+        // also maps NaN to 0
+        return v > 0 ? (long) Math.min(v, 0xFFFF) : 0;
+    }
+
+    private static long interleave(long v) {
+        v = (v | v << 8) & 0x00FF00FFL;
+        v = (v | v << 4) & 0x0F0F0F0FL;
+        v = (v | v << 2) & 0x33333333L;
+        v = (v | v << 1) & 0x55555555L;
+        return v;
+    }
+
+    private static void run(BatchTask task, int size) {
+        if (size > BATCH_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(task);
+        } else {
+            task.compute();
+        }
+    }
+
+    /**
+     * Returns the <code>Geometry</code> that matches the specified measure value.
+     *
+     * @param mValue the specified M-coordinate value
+     * @return the <code>Geometry</code> matching the specified M-coordinate value.
+     * @see MeasureGeometryOperations#locateAlong(Geometry, double)
+     */
+    public Geometry<P> locateAlong(double mValue) {
+        return locateBetween(mValue, mValue);
+    }
+
+    /**
+     * Returns the <code>Geometry</code> that matches the specified range of measure values inclusively.
+     *
+     * @param startMeasure the start of the specified range of M-coordinate values
+     * @param endMeasure   the end of the specified range of M-coordinate values
+     * @return the <code>Geometry</code> matching the specified range of M-coordinate values.
+     * @see MeasureGeometryOperations#locateBetween(Geometry, double, double)
+     */
+    public Geometry<P> locateBetween(double startMeasure, double endMeasure) {
+        CoordinateReferenceSystem<P> crs = geometry.getCoordinateReferenceSystem();
+        if (numSegments == 0) return new Point<P>(crs);
+        double sm = Math.min(startMeasure, endMeasure);
+        double em = Math.max(startMeasure, endMeasure);
+        Interpolator interpolator = new Interpolator(sm, em);
+        for (int r = 0; r < runDescending.length; r++) {
+            if (runMax[r] < sm || runMin[r] > em) continue;
+            int end = runStarts[r + 1];
+            int s = firstOverlapping(r, sm, em);
+            for (; s < end; s++) {
+                int v = segmentVertex[s];
+                double lo = Math.min(m(v), m(v + 1));
+                double hi = Math.max(m(v), m(v + 1));
+                if (runDescending[r] ? hi < sm : lo > em) break;
+                interpolator.segment(s);
+            }
+        }
+        return interpolator.result();
+    }
+
+    // binary search for the first segment in the run that may overlap [sm, em]
+    private int firstOverlapping(int run, double sm, double em) {
+        int lo = runStarts[run];
+        int hi = runStarts[run + 1];
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int v = segmentVertex[mid];
+            // the measure of the end vertex: the highest in an increasing run, the lowest in a decreasing one
+            boolean before = runDescending[run] ? m(v + 1) > em : m(v + 1) < sm;
+            if (before) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private double m(int vertex) {
+        return coordinates[vertex * dim + mIdx];
+    }
+
+    private void buildIndex() {
+        for (int level = 1; level < levelCounts.length; level++) {
+            for (int node = 0; node < levelCounts[level]; node++) {
+                double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+                double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+                int end = Math.min((node + 1) * NODE_SIZE, levelCounts[level - 1]);
+                for (int child = node * NODE_SIZE; child < end; child++) {
+                    if (level == 1) {
+                        int v0 = segmentVertex[child] * dim;
+                        int v1 = v0 + dim;
+                        minX = Math.min(minX, Math.min(coordinates[v0], coordinates[v1]));
+                        minY = Math.min(minY, Math.min(coordinates[v0 + 1], coordinates[v1 + 1]));
+                        maxX = Math.max(maxX, Math.max(coordinates[v0], coordinates[v1]));
+                        maxY = Math.max(maxY, Math.max(coordinates[v0 + 1], coordinates[v1 + 1]));
+                    } else {
+                        int b = (levelOffsets[level - 1] + child) * 4;
+                        minX = Math.min(minX, nodeBoxes[b]);
+                        minY = Math.min(minY, nodeBoxes[b + 1]);
+                        maxX = Math.max(maxX, nodeBoxes[b + 2]);
+                        maxY = Math.max(maxY, nodeBoxes[b + 3]);
+                    }
+                }
+                int b = (levelOffsets[level] + node) * 4;
+                nodeBoxes[b] = minX;
+                nodeBoxes[b + 1] = minY;
+                nodeBoxes[b + 2] = maxX;
+                nodeBoxes[b + 3] = maxY;
+            }
+        }
+    }
+
+    // writes the first position with the specified measure at the offset, or Double.NaN's if there is none
+    private void locate(double m, double[] result, int offset) {
+        for (int r = 0; r < runDescending.length; r++) {
+            if (!(runMin[r] <= m && m <= runMax[r])) continue;
+            int v0 = segmentVertex[firstOverlapping(r, m, m)] * dim;
+            int v1 = v0 + dim;
+            double m0 = coordinates[v0 + mIdx];
+            double m1 = coordinates[v1 + mIdx];
+            double f = m0 == m1 ? 0 : (m - m0) / (m1 - m0);
+            for (int i = 0; i < dim; i++) {
+                result[offset + i] = coordinates[v0 + i] + f * (coordinates[v1 + i] - coordinates[v0 + i]);
+            }
+            result[offset + mIdx] = m;
+            return;
+        }
+        Arrays.fill(result, offset, offset + dim, Double.NaN);
+    }
+
+    /**
+     * Processes a range of a batch, and splits it in halves while the range is large.
+     */
+    private abstract static class BatchTask extends RecursiveAction {
+
+        final int start;
+        final int end;
+
+        BatchTask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > BATCH_THRESHOLD) {
+                int mid = (start + end) >>> 1;
+                invokeAll(split(start, mid), split(mid, end));
+            } else {
+                process();
+            }
+        }
+
+        abstract BatchTask split(int start, int end);
+
+        abstract void process();
+    }
+
+    private class MeasureAtTask extends BatchTask {
+
+        final double[] xy;
+        final double maxDistanceSq;
+        final long[] order;
+        final double[] result;
+
+        MeasureAtTask(double[] xy, double maxDistanceSq, long[] order, double[] result, int start, int end) {
+            super(start, end);
+            this.xy = xy;
+            this.maxDistanceSq = maxDistanceSq;
+            this.order = order;
+            this.result = result;
+        }
+
+        @Override
+        BatchTask split(int start, int end) {
+            return new MeasureAtTask(xy, maxDistanceSq, order, result, start, end);
+        }
+
+        @Override
+        void process() {
+            int previous = -1;
+            for (int k = start; k < end; k++) {
+                int i = (int) (order[k] & Integer.MAX_VALUE);
+                double qx = xy[2 * i];
+                double qy = xy[2 * i + 1];
+                double bound = maxDistanceSq;
+                if (previous >= 0) {
+                    bound = Math.min(bound, distanceSq(previous, qx, qy));
+                }
+                int segment = nearestSegment(qx, qy, bound);
+                if (segment < 0) {
+                    result[i] = Double.NaN;
+                } else {
+                    result[i] = measureOn(segment, qx, qy);
+                    previous = segment;
+                }
+            }
+        }
+    }
+
+    private class LocateAlongTask extends BatchTask {
+
+        final double[] measures;
+        final double[] result;
+
+        LocateAlongTask(double[] measures, double[] result, int start, int end) {
+            super(start, end);
+            this.measures = measures;
+            this.result = result;
+        }
+
+        @Override
+        BatchTask split(int start, int end) {
+            return new LocateAlongTask(measures, result, start, end);
+        }
+
+        @Override
+        void process() {
+            for (int i = start; i < end; i++) {
+                locate(measures[i], result, i * dim);
+            }
+        }
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Collects the result of a locate-operation for the segments that overlap the measure range, in the same way as
+     * the {@link MeasureInterpolatingVisitor}.
+     */
+    private class Interpolator {
+
+        final double startMeasure;
+        final double endMeasure;
+        final List<PositionSequence<P>> positionSequences = new ArrayList<PositionSequence<P>>();
+        final double[] lastAdded = new double[dim];
+        final double[] interpolated = new double[dim];
+        PositionSequenceBuilder<P> currentBuilder;
+        boolean sequenceIsEmpty = true;
+        boolean hasLastAdded = false;
+        int part = -1;
+
+        Interpolator(double startMeasure, double endMeasure) {
+            this.startMeasure = startMeasure;
+            this.endMeasure = endMeasure;
+        }
+
+        void segment(int s) {
+            if (segmentPart[s] != part) {
+                endPart();
+                part = segmentPart[s];
+                currentBuilder = PositionSequenceBuilders.variableSized(geometry.getPositionClass());
+                sequenceIsEmpty = true;
+                hasLastAdded = false;
+            }
+            int v0 = segmentVertex[s] * dim;
+            int v1 = v0 + dim;
+            double m0 = coordinates[v0 + mIdx];
+            double m1 = coordinates[v1 + mIdx];
+
+            //Note: rs and re can be Infinite (when p1 and p0 have the same M-value).
+            double rs = (startMeasure - m0) / (m1 - m0);
+            double re = (endMeasure - m0) / (m1 - m0);
+            double r1 = Math.min(rs, re);
+            double r2 = Math.max(rs, re);
+
+            if (startMeasure <= m0 && m0 <= endMeasure) {
+                addIfNotEqualLast(coordinates, v0);
+            } else {
+                startNewPointSequenceIfNotEmpty();
+                if (r1 > 0 && r1 < 1) {
+                    addIfNotEqualLast(interpolate(v0, v1, r1), 0);
+                }
+            }
+
+            if (startMeasure <= m1 && m1 <= endMeasure) {
+                addIfNotEqualLast(coordinates, v1);
+            } else {
+                if (r2 > 0 && r2 < 1) {
+                    addIfNotEqualLast(interpolate(v0, v1, r2), 0);
+                }
+                startNewPointSequenceIfNotEmpty();
+            }
+        }
+
+        private double[] interpolate(int v0, int v1, double r) {
+            for (int i = 0; i < dim; i++) {
+                interpolated[i] = coordinates[v0 + i] + r * (coordinates[v1 + i] - coordinates[v0 + i]);
+            }
+            return interpolated;
+        }
+
+        private void addIfNotEqualLast(double[] source, int offset) {
+            if (hasLastAdded) {
+                boolean equal = true;
+                for (int i = 0; i < dim && equal; i++) {
+                    equal = Double.compare(source[offset + i], lastAdded[i]) == 0;
+                }
+                if (equal) return;
+            }
+            System.arraycopy(source, offset, lastAdded, 0, dim);
+            hasLastAdded = true;
+            currentBuilder.add(lastAdded.clone());
+            sequenceIsEmpty = false;
+        }
+
+        private void startNewPointSequenceIfNotEmpty() {
+            if (!sequenceIsEmpty) {
+                positionSequences.add(currentBuilder.toPositionSequence());
+                currentBuilder = PositionSequenceBuilders.variableSized(geometry.getPositionClass());
+                sequenceIsEmpty = true;
+            }
+        }
+
+        private void endPart() {
+            if (currentBuilder != null && !sequenceIsEmpty) {
+                positionSequences.add(currentBuilder.toPositionSequence());
+            }
+        }
+
+        Geometry<P> result() {
+            endPart();
+            return MeasureInterpolatingVisitor.toGeometry(positionSequences, geometry.getCoordinateReferenceSystem());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.geolatte.geom;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estimates the retained heap size of {@code Geometry}s and {@code PositionSequence}s.
+ *
+ * <p>The estimate assumes a 64-bit JVM with compressed object pointers (12 byte object headers, 4 byte references and
+ * 8 byte alignment). It accounts for the geometry objects, their component arrays and the coordinate arrays of their
+ * {@code PositionSequence}s. Positions that are shared between a collection and its components are counted only once.
+ * {@code CoordinateReferenceSystem}s and {@code PositionFactory}s are shared between geometries, so only the
+ * references to them are counted.</p>
+ *
+ * <p>The estimate is computed by walking the geometry structure, and doesn't allocate. It can be used directly as a
+ * weight function for caches, e.g. {@code MemoryFootprint::estimateSize}.</p>
+ */
+public final class MemoryFootprint {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ALIGNMENT = 8;
+
+    // Geometry: positions, crs
+    private static final long GEOMETRY_SHALLOW = align(OBJECT_HEADER + 2 * REFERENCE);
+    // Polygon and AbstractGeometryCollection add a reference to the component array
+    private static final long COMPLEX_GEOMETRY_SHALLOW = align(OBJECT_HEADER + 3 * REFERENCE);
+    // AbstractPositionSequence: factory; PackedPositionSequence: coordinates
+    private static final long PACKED_SEQUENCE_SHALLOW = align(OBJECT_HEADER + 2 * REFERENCE);
+    // a PackedPositionSequence view adds offset and length
+    private static final long PACKED_VIEW_SHALLOW = align(OBJECT_HEADER + 2 * REFERENCE + 8);
+    // AbstractPositionSequence: factory; NestedPositionSequence: children, size
+    private static final long NESTED_SEQUENCE_SHALLOW = align(OBJECT_HEADER + 2 * REFERENCE + 4);
+    // a NestedPositionSequence of children that share a coordinates array adds a flat view
+    private static final long FLAT_NESTED_SEQUENCE_SHALLOW = align(OBJECT_HEADER + 3 * REFERENCE + 4);
+
+    private MemoryFootprint() {
+    }
+
+    /**
+     * Returns the estimated retained heap size in bytes of the specified {@code Geometry}
+     *
+     * @param geometry the geometry
+     * @return the estimated retained size in bytes, or 0 if the geometry is null
+     */
+    public static long estimateSize(Geometry<?> geometry) {
+        if (geometry == null) {
+            return 0;
+        }
+        return estimateSize(geometry, false);
+    }
+
+    /**
+     * Returns the estimated retained heap size in bytes of the specified {@code PositionSequence}
+     *
+     * @param positions the position sequence
+     * @return the estimated retained size in bytes, or 0 if the sequence is null
+     */
+    public static long estimateSize(PositionSequence<?> positions) {
+        if (positions == null) {
+            return 0;
+        }
+        return estimateSize(positions, false);
+    }
+
+    // if shared, the coordinates array is counted by the geometry or sequence that holds this one
+    private static long estimateSize(Geometry<?> geometry, boolean shared) {
+        if (geometry instanceof Polygon) {
+            Polygon<?> polygon = (Polygon<?>) geometry;
+            int numRings = polygon.isEmpty() ? 0 : polygon.getNumInteriorRing() + 1;
+            long size = COMPLEX_GEOMETRY_SHALLOW + referenceArraySize(numRings)
+                    + nestedShellSize(polygon.getPositions(), shared);
+            boolean sharedByRings = shared || isFlat(polygon.getPositions());
+            for (int i = 0; i < numRings; i++) {
+                size += estimateSize(i == 0 ? polygon.getExteriorRing() : polygon.getInteriorRingN(i - 1),
+                        sharedByRings);
+            }
+            return size;
+        }
+        if (geometry instanceof AbstractGeometryCollection) {
+            AbstractGeometryCollection<?, ?> collection = (AbstractGeometryCollection<?, ?>) geometry;
+            long size = COMPLEX_GEOMETRY_SHALLOW + referenceArraySize(collection.getNumGeometries())
+                    + nestedShellSize(collection.getPositions(), shared);
+            boolean sharedByComponents = shared || isFlat(collection.getPositions());
+            for (int i = 0; i < collection.getNumGeometries(); i++) {
+                size += estimateSize(collection.getGeometryN(i), sharedByComponents);
+            }
+            return size;
+        }
+        return GEOMETRY_SHALLOW + estimateSize(geometry.getPositions(), shared);
+    }
+
+    private static long estimateSize(PositionSequence<?> positions, boolean shared) {
+        if (positions instanceof NestedPositionSequence) {
+            long size = nestedShellSize(positions, shared);
+            boolean sharedByChildren = shared || isFlat(positions);
+            for (PositionSequence<?> child : ((NestedPositionSequence<?>) positions).children) {
+                size += estimateSize(child, sharedByChildren);
+            }
+            return size;
+        }
+        if (positions instanceof PackedPositionSequence) {
+            PackedPositionSequence<?> packed = (PackedPositionSequence<?>) positions;
+            if (packed.length() != packed.arrayLength()) {
+                // a view retains the whole array, which is counted once
+                return PACKED_VIEW_SHALLOW + (shared ? 0 : doubleArraySize(packed.arrayLength()));
+            }
+            return PACKED_SEQUENCE_SHALLOW + (shared ? 0 : doubleArraySize(packed.arrayLength()));
+        }
+        return PACKED_SEQUENCE_SHALLOW
+                + doubleArraySize((long) positions.size() * positions.getCoordinateDimension());
+    }
+
+    /**
+     * The size of a nested sequence, excluding its children (these are owned by the components of the geometry).
+     * The coordinates array that the children share is included, unless it is counted elsewhere.
+     */
+    private static long nestedShellSize(PositionSequence<?> positions, boolean shared) {
+        if (positions instanceof NestedPositionSequence) {
+            NestedPositionSequence<?> nested = (NestedPositionSequence<?>) positions;
+            long size = referenceArraySize(nested.children.length);
+            if (nested.flat() == null) {
+                return NESTED_SEQUENCE_SHALLOW + size;
+            }
+            return FLAT_NESTED_SEQUENCE_SHALLOW + size + estimateSize(nested.flat(), shared);
+        }
+        //an empty complex geometry has an empty packed sequence
+        return estimateSize(positions, shared);
+    }
+
+    private static boolean isFlat(PositionSequence<?> positions) {
+        return positions instanceof NestedPositionSequence && ((NestedPositionSequence<?>) positions).flat() != null;
+    }
+
+    private static long doubleArraySize(long length) {
+        return align(ARRAY_HEADER + 8L * length);
+    }
+
+    private static long referenceArraySize(int length) {
+        return align(ARRAY_HEADER + (long) REFERENCE * length);
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * A thread-safe running total of estimated geometry sizes, e.g. for weight-based eviction in caches.
+     */
+    public static final class Counter {
+
+        private final AtomicLong total = new AtomicLong();
+
+        /**
+         * Adds the estimated size of the geometry to the total
+         *
+         * @param geometry the geometry to add
+         * @return the estimated size of the geometry
+         */
+        public long add(Geometry<?> geometry) {
+            long size = estimateSize(geometry);
+            total.addAndGet(size);
+            return size;
+        }
+
+        /**
+         * Subtracts the estimated size of the geometry from the total
+         *
+         * @param geometry the geometry to remove
+         * @return the estimated size of the geometry
+         */
+        public long remove(Geometry<?> geometry) {
+            long size = estimateSize(geometry);
+            total.addAndGet(-size);
+            return size;
+        }
+
+        /**
+         * Returns the current total of estimated sizes in bytes
+         *
+         * @return the current total
+         */
+        public long getTotal() {
+            return total.get();
+        }
+
+        /**
+         * Resets the total to 0.
+         */
+        public void reset() {
+            total.set(0);
+        }
+    }
+}
@@ -41,6 +41,18 @@ class NestedPositionSequence<P extends Position> extends AbstractPositionSequenc
         this.size = calculateSize();
     }
 
+    /**
+     * Creates a sequence of the positions of the children. If the children are consecutive ranges of one
+     * coordinates array, positions are accessed in that array directly, rather than by searching the children.
+     *
+     * @param children the child sequences
+     * @return a sequence of the positions of the children
+     */
+    static <P extends Position> NestedPositionSequence<P> of(PositionSequence<P>[] children) {
+        PackedPositionSequence<P> flat = PackedPositionSequence.span(children);
+        return flat == null ? new NestedPositionSequence<>(children) : new Flat<>(children, flat);
+    }
+
     private static <C extends Position> PositionFactory<C> extractFactory(PositionSequence<C>[] children) {
         if (children == null) {
             throw new IllegalArgumentException("Null or empty children array not allowed.");
@@ -70,6 +82,15 @@ class NestedPositionSequence<P extends Position> extends AbstractPositionSequenc
 
     }
 
+    /**
+     * Returns a view on the coordinates array that is shared by the children
+     *
+     * @return a sequence of all positions, or null if the children don't share one coordinates array
+     */
+    PackedPositionSequence<P> flat() {
+        return null;
+    }
+
     public PositionSequence<P>[] getChildren() {
         return Arrays.copyOf(this.children, this.children.length);
     }
@@ -154,7 +175,7 @@ class NestedPositionSequence<P extends Position> extends AbstractPositionSequenc
             childrenCopy[i] = childrenCopy[i].reverse();
         }
         reverseInPlace(childrenCopy);
-        return new NestedPositionSequence<P>(childrenCopy);
+        return NestedPositionSequence.of(childrenCopy);
     }
 
     private void reverseInPlace(PositionSequence<P>[] arr ) {
@@ -168,7 +189,7 @@ class NestedPositionSequence<P extends Position> extends AbstractPositionSequenc
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof NestedPositionSequence)) return false;
 
         NestedPositionSequence that = (NestedPositionSequence) o;
 
@@ -231,4 +252,38 @@ class NestedPositionSequence<P extends Position> extends AbstractPositionSequenc
         };
     }
 
+    /**
+     * A sequence of children that share one coordinates array
+     */
+    private static final class Flat<P extends Position> extends NestedPositionSequence<P> {
+
+        private final PackedPositionSequence<P> flat;
+
+        Flat(PositionSequence<P>[] children, PackedPositionSequence<P> flat) {
+            super(children);
+            this.flat = flat;
+        }
+
+        @Override
+        PackedPositionSequence<P> flat() {
+            return this.flat;
+        }
+
+        @Override
+        public void setOrdinate(int position, int ordinateIndex, double value) {
+            if (position < 0 || position >= size()) {
+                throw new ArrayIndexOutOfBoundsException(String.format("Index %d not found in collection of size %d", position, size()));
+            }
+            flat.setOrdinate(position, ordinateIndex, value);
+        }
+
+        @Override
+        public void getCoordinates(int position, double[] coordinates) {
+            if (position < 0 || position >= size()) {
+                throw new ArrayIndexOutOfBoundsException(String.format("Index %d not found in collection of size %d", position, size()));
+            }
+            flat.getCoordinates(position, coordinates);
+        }
+    }
+
 }
@@ -43,9 +43,66 @@ class PackedPositionSequence<P extends Position> extends AbstractPositionSequenc
             throw new IllegalArgumentException(String.format("coordinate array size should be a multiple of %d. Current size = %d", getCoordinateDimension(), this.coordinates.length));
     }
 
+    // for views, whose coordinates array can hold other ordinates than those of the view
+    private PackedPositionSequence(PositionFactory<P> factory, double[] coordinates, boolean view) {
+        super(factory);
+        this.coordinates = coordinates;
+    }
+
+    /**
+     * Creates a sequence that is a view on a range of the specified coordinates array, which can be shared with
+     * other sequences.
+     *
+     * @param factory     the factory for the positions
+     * @param coordinates the packed coordinates
+     * @param offset      the index of the first ordinate of the sequence in the array
+     * @param length      the number of ordinates of the sequence
+     * @return a sequence of the ordinates in the range
+     */
+    static <P extends Position> PackedPositionSequence<P> view(PositionFactory<P> factory, double[] coordinates,
+                                                               int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > coordinates.length)
+            throw new IllegalArgumentException(String.format("range [%d, %d) is not within the coordinate array of size %d", offset, offset + length, coordinates.length));
+        if (offset == 0 && length == coordinates.length) {
+            return new PackedPositionSequence<>(factory, coordinates);
+        }
+        if ((length % factory.getCoordinateDimension()) != 0)
+            throw new IllegalArgumentException(String.format("coordinate array size should be a multiple of %d. Current size = %d", factory.getCoordinateDimension(), length));
+        return new View<>(factory, coordinates, offset, length);
+    }
+
+    /**
+     * Returns the index of the first ordinate of this sequence in its coordinates array
+     */
+    int offset() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of ordinates of this sequence
+     */
+    int length() {
+        return this.coordinates.length;
+    }
+
+    /**
+     * Returns the coordinates array, which holds more than the ordinates of a view. It is not copied, so must not be
+     * modified.
+     */
+    double[] array() {
+        return this.coordinates;
+    }
+
+    /**
+     * Returns the length of the coordinates array, which holds more than the ordinates of a view
+     */
+    int arrayLength() {
+        return this.coordinates.length;
+    }
+
     @Override
     public boolean isEmpty() {
-        return this.coordinates.length == 0;
+        return length() == 0;
     }
 
     @Override
@@ -82,10 +139,86 @@ class PackedPositionSequence<P extends Position> extends AbstractPositionSequenc
 
     @Override
     public int size() {
-        return this.coordinates.length / getCoordinateDimension();
+        return length() / getCoordinateDimension();
+    }
+
+    /**
+     * Returns a sequence of positions created by the specified factory that shares the coordinates array of this
+     * sequence.
+     *
+     * @param factory the factory for the positions of the returned sequence. It must have the same coordinate
+     *                dimension as the factory of this sequence.
+     * @return a sequence that shares the coordinates of this sequence.
+     */
+    <Q extends Position> PackedPositionSequence<Q> withPositionFactory(PositionFactory<Q> factory) {
+        return view(factory, this.coordinates, offset(), length());
     }
 
 
+    /**
+     * Returns a sequence that spans the specified sequences, if these are views on consecutive ranges of the same
+     * coordinates array, as for the components of geometries that share a coordinate array.
+     *
+     * @param sequences the sequences
+     * @return a view on the range of all the sequences, or null if there are fewer than two non-empty sequences, or
+     * if they are not consecutive views on one array
+     */
+    static <P extends Position> PackedPositionSequence<P> span(PositionSequence<P>[] sequences) {
+        PackedPositionSequence<P> first = null;
+        int end = 0;
+        int count = 0;
+        for (PositionSequence<P> sequence : sequences) {
+            if (sequence == null) return null;
+            if (sequence.isEmpty()) continue;
+            PackedPositionSequence<P> packed = asPacked(sequence);
+            if (packed == null) return null;
+            if (first == null) {
+                first = packed;
+            } else if (packed.coordinates != first.coordinates || packed.offset() != end
+                    || !packed.getPositionFactory().equals(first.getPositionFactory())) {
+                return null;
+            }
+            end = packed.offset() + packed.length();
+            count++;
+        }
+        if (count < 2) return null;
+        return view(first.getPositionFactory(), first.coordinates, first.offset(), end - first.offset());
+    }
+
+    private static <P extends Position> PackedPositionSequence<P> asPacked(PositionSequence<P> sequence) {
+        if (sequence instanceof PackedPositionSequence) {
+            return (PackedPositionSequence<P>) sequence;
+        }
+        if (!(sequence instanceof NestedPositionSequence)) {
+            return null;
+        }
+        NestedPositionSequence<P> nested = (NestedPositionSequence<P>) sequence;
+        if (nested.flat() != null) {
+            return nested.flat();
+        }
+        // a single non-empty child has no flat view of its own
+        PositionSequence<P> single = null;
+        for (PositionSequence<P> child : nested.children) {
+            if (child.isEmpty()) continue;
+            if (single != null) return null;
+            single = child;
+        }
+        return single == null ? null : asPacked(single);
+    }
+
+    /**
+     * Returns the coordinates array of this sequence, without copying it unless this sequence is a view on a
+     * range of a larger array.
+     *
+     * @return the packed coordinates of this sequence
+     */
+    double[] coordinates() {
+        if (offset() == 0 && length() == this.coordinates.length) {
+            return this.coordinates;
+        }
+        return Arrays.copyOfRange(this.coordinates, offset(), offset() + length());
+    }
+
     @Override
     public Iterator<P> iterator() {
         return new PositionSequenceIterator<P>(this);
@@ -95,18 +228,19 @@ class PackedPositionSequence<P extends Position> extends AbstractPositionSequenc
     @Deprecated
     @Override
     public PositionSequence<P> clone() {
-        return new PackedPositionSequence<>(getPositionFactory(), Arrays.copyOf(this.coordinates, this.coordinates.length));
+        return new PackedPositionSequence<>(getPositionFactory(), Arrays.copyOfRange(this.coordinates, offset(), offset() + length()));
     }
 
     @Override
     public PackedPositionSequence<P> copy() {
-        return new PackedPositionSequence<>(getPositionFactory(), Arrays.copyOf(this.coordinates, this.coordinates.length));
+        return new PackedPositionSequence<>(getPositionFactory(), Arrays.copyOfRange(this.coordinates, offset(), offset() + length()));
     }
 
     @Override
     public void setOrdinate(int index, int ordinateIndex, double value) {
+        checkPosition(index);
         int dim = getCoordinateDimension();
-        this.coordinates[index * dim + ordinateIndex] = value;
+        this.coordinates[offset() + index * dim + ordinateIndex] = value;
     }
 
     @Override
@@ -115,8 +249,17 @@ class PackedPositionSequence<P extends Position> extends AbstractPositionSequenc
         if(coordinates.length < dim) {
             throw new IllegalArgumentException("Position argument must be an array of size at least " + dim);
         }
+        checkPosition(position);
+        int start = offset() + position * dim;
         for(int i = 0; i < dim; i++) {
-            coordinates[i] = this.coordinates[position * dim + i];
+            coordinates[i] = this.coordinates[start + i];
+        }
+    }
+
+    // a view shares the coordinates array with other sequences, so the array bounds don't bound the positions
+    private void checkPosition(int position) {
+        if (position < 0 || position >= size()) {
+            throw new ArrayIndexOutOfBoundsException(String.format("Index %d not found in collection of size %d", position, size()));
         }
     }
 
@@ -124,7 +267,7 @@ class PackedPositionSequence<P extends Position> extends AbstractPositionSequenc
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || !(o.getClass().equals(this.getClass()))) return false;
+        if (!(o instanceof PackedPositionSequence)) return false;
 
         PackedPositionSequence that = (PackedPositionSequence) o;
 
@@ -135,7 +278,12 @@ class PackedPositionSequence<P extends Position> extends AbstractPositionSequenc
 
     @Override
     public int hashCode() {
-        int result = Arrays.hashCode(coordinates);
+        // as Arrays.hashCode(), on the range of this sequence
+        int result = 1;
+        for (int i = offset(); i < offset() + length(); i++) {
+            long bits = Double.doubleToLongBits(this.coordinates[i]);
+            result = 31 * result + (int) (bits ^ (bits >>> 32));
+        }
         result = 31 * result + getPositionClass().hashCode();
         return result;
     }
@@ -162,4 +310,29 @@ class PackedPositionSequence<P extends Position> extends AbstractPositionSequenc
 
 
 
+
+    /**
+     * A view on a range of a coordinates array that is shared with other sequences
+     */
+    private static final class View<P extends Position> extends PackedPositionSequence<P> {
+
+        private final int offset;
+        private final int length;
+
+        View(PositionFactory<P> factory, double[] coordinates, int offset, int length) {
+            super(factory, coordinates, true);
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        int offset() {
+            return this.offset;
+        }
+
+        @Override
+        int length() {
+            return this.length;
+        }
+    }
 }
@@ -0,0 +1,425 @@
+package org.geolatte.geom;
+
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes the planar length, area, centroid and distance of {@code Geometry}s directly over their coordinates.
+ *
+ * <p>The results are those of the corresponding JTS operations: length is the sum of the lengths of all
+ * linestrings and rings, area is the area of the polygons less that of their holes, the centroid of a geometry
+ * is that of its components of the highest dimension, and the distance is 0 if the geometries intersect. Packed
+ * sequences are read in place.</p>
+ */
+final class PlanarMeasures {
+
+    private PlanarMeasures() {
+    }
+
+    static double length(Geometry<?> geometry) {
+        if (geometry instanceof LineString) {
+            return length(((LineString<?>) geometry).getPositions());
+        }
+        if (geometry instanceof Polygon) {
+            double length = 0;
+            for (LinearRing<?> ring : ((Polygon<?>) geometry).components()) {
+                length += length(ring.getPositions());
+            }
+            return length;
+        }
+        if (geometry instanceof AbstractGeometryCollection) {
+            double length = 0;
+            for (Geometry<?> component : ((AbstractGeometryCollection<?, ?>) geometry).components()) {
+                length += length(component);
+            }
+            return length;
+        }
+        return 0;
+    }
+
+    static double area(Geometry<?> geometry) {
+        if (geometry instanceof Polygon) {
+            LinearRing<?>[] rings = ((Polygon<?>) geometry).components();
+            if (rings.length == 0) return 0;
+            double area = Math.abs(signedArea(rings[0].getPositions()));
+            for (int i = 1; i < rings.length; i++) {
+                area -= Math.abs(signedArea(rings[i].getPositions()));
+            }
+            return area;
+        }
+        if (geometry instanceof AbstractGeometryCollection) {
+            double area = 0;
+            for (Geometry<?> component : ((AbstractGeometryCollection<?, ?>) geometry).components()) {
+                area += area(component);
+            }
+            return area;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the centroid, in the {@code CoordinateReferenceSystem} of the geometry. Its coordinates other than X
+     * and Y are NaN.
+     */
+    static <P extends Position> Point<P> centroid(Geometry<P> geometry) {
+        CoordinateReferenceSystem<P> crs = geometry.getCoordinateReferenceSystem();
+        Centroid centroid = new Centroid();
+        centroid.add(geometry);
+        double[] coordinates = new double[crs.getCoordinateDimension()];
+        Arrays.fill(coordinates, Double.NaN);
+        if (!centroid.get(coordinates)) {
+            return new Point<>(crs);
+        }
+        return new Point<>(Positions.mkPosition(crs, coordinates), crs);
+    }
+
+    static double distance(Geometry<?> geometry, Geometry<?> other) {
+        if (geometry.isEmpty() || other.isEmpty()) {
+            return 0;
+        }
+        Facets facets = new Facets(geometry);
+        Facets otherFacets = new Facets(other);
+        if (facets.containsAnyOf(otherFacets) || otherFacets.containsAnyOf(facets)) {
+            return 0;
+        }
+        double distance = Double.POSITIVE_INFINITY;
+        for (Part part : facets.parts) {
+            for (Part otherPart : otherFacets.parts) {
+                if (part.boxDistance(otherPart) < distance) {
+                    distance = Math.min(distance, part.distance(otherPart, distance));
+                    if (distance == 0) return 0;
+                }
+            }
+        }
+        return distance;
+    }
+
+    private static double length(PositionSequence<?> positions) {
+        PackedPositionSequence<?> packed = packed(positions);
+        return length(packed.array(), packed.offset(), packed.length(), positions.getCoordinateDimension());
+    }
+
+    static double length(double[] c, int offset, int length, int dim) {
+        double result = 0;
+        for (int i = offset + dim; i < offset + length; i += dim) {
+            double dx = c[i] - c[i - dim];
+            double dy = c[i + 1] - c[i - dim + 1];
+            result += Math.sqrt(dx * dx + dy * dy);
+        }
+        return result;
+    }
+
+    // the shoelace formula, relative to the first X for accuracy
+    private static double signedArea(PositionSequence<?> ring) {
+        PackedPositionSequence<?> packed = packed(ring);
+        return signedArea(packed.array(), packed.offset(), packed.length(), ring.getCoordinateDimension());
+    }
+
+    static double signedArea(double[] c, int offset, int length, int dim) {
+        int n = length / dim;
+        if (n < 3) return 0;
+        double x0 = c[offset];
+        double sum = 0;
+        for (int i = 1; i < n - 1; i++) {
+            int k = offset + i * dim;
+            sum += (c[k] - x0) * (c[k - dim + 1] - c[k + dim + 1]);
+        }
+        return sum / 2;
+    }
+
+    /**
+     * Returns the positions as a packed sequence, whose coordinates array can then be read in place from its offset.
+     * Packed sequences, including views, are returned as they are; others are copied.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static PackedPositionSequence<?> packed(PositionSequence<?> positions) {
+        if (positions instanceof PackedPositionSequence) {
+            return (PackedPositionSequence<?>) positions;
+        }
+        return new PackedPositionSequence(positions.getPositionFactory(), coordinates(positions));
+    }
+
+    private static double[] coordinates(PositionSequence<?> positions) {
+        int dim = positions.getCoordinateDimension();
+        double[] result = new double[positions.size() * dim];
+        double[] buf = new double[dim];
+        for (int i = 0; i < positions.size(); i++) {
+            positions.getCoordinates(i, buf);
+            System.arraycopy(buf, 0, result, i * dim, dim);
+        }
+        return result;
+    }
+
+    /**
+     * Accumulates the area-weighted centroids of triangles, the length-weighted centroids of segments and the
+     * positions of points, as JTS does.
+     */
+    private static final class Centroid {
+        private boolean hasBase;
+        private double baseX, baseY;
+        private double areaSum2, areaX, areaY;
+        private double lineLength, lineX, lineY;
+        private int pointCount;
+        private double pointX, pointY;
+
+        void add(Geometry<?> geometry) {
+            if (geometry.isEmpty()) {
+                return;
+            }
+            if (geometry instanceof Point) {
+                Position p = ((Point<?>) geometry).getPosition();
+                addPoint(p.getCoordinate(0), p.getCoordinate(1));
+            } else if (geometry instanceof LineString) {
+                addLine(((LineString<?>) geometry).getPositions());
+            } else if (geometry instanceof Polygon) {
+                LinearRing<?>[] rings = ((Polygon<?>) geometry).components();
+                for (int i = 0; i < rings.length; i++) {
+                    addRing(rings[i].getPositions(), i == 0);
+                }
+            } else if (geometry instanceof AbstractGeometryCollection) {
+                for (Geometry<?> component : ((AbstractGeometryCollection<?, ?>) geometry).components()) {
+                    add(component);
+                }
+            }
+        }
+
+        boolean get(double[] result) {
+            if (areaSum2 != 0) {
+                result[0] = areaX / 3 / areaSum2;
+                result[1] = areaY / 3 / areaSum2;
+            } else if (lineLength > 0) {
+                result[0] = lineX / lineLength;
+                result[1] = lineY / lineLength;
+            } else if (pointCount > 0) {
+                result[0] = pointX / pointCount;
+                result[1] = pointY / pointCount;
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        private void addPoint(double x, double y) {
+            pointCount++;
+            pointX += x;
+            pointY += y;
+        }
+
+        private void addLine(PositionSequence<?> positions) {
+            PackedPositionSequence<?> packed = packed(positions);
+            double[] c = packed.array();
+            int start = packed.offset(), end = start + packed.length();
+            int dim = positions.getCoordinateDimension();
+            double length = 0;
+            for (int i = start + dim; i < end; i += dim) {
+                double x0 = c[i - dim], y0 = c[i - dim + 1];
+                double x1 = c[i], y1 = c[i + 1];
+                double segmentLength = Math.sqrt((x1 - x0) * (x1 - x0) + (y1 - y0) * (y1 - y0));
+                length += segmentLength;
+                lineX += segmentLength * (x0 + x1) / 2;
+                lineY += segmentLength * (y0 + y1) / 2;
+            }
+            lineLength += length;
+            if (length == 0 && end > start) {
+                addPoint(c[start], c[start + 1]);
+            }
+        }
+
+        // shells count positive, holes negative, whatever their orientation
+        private void addRing(PositionSequence<?> ring, boolean shell) {
+            PackedPositionSequence<?> packed = packed(ring);
+            double[] c = packed.array();
+            int start = packed.offset(), end = start + packed.length();
+            int dim = ring.getCoordinateDimension();
+            if (end == start) return;
+            if (!hasBase) {
+                hasBase = true;
+                baseX = c[start];
+                baseY = c[start + 1];
+            }
+            double sum2 = 0, x = 0, y = 0;
+            for (int i = start; i + dim < end; i += dim) {
+                double x1 = c[i], y1 = c[i + 1];
+                double x2 = c[i + dim], y2 = c[i + dim + 1];
+                double area2 = (x1 - baseX) * (y2 - baseY) - (x2 - baseX) * (y1 - baseY);
+                sum2 += area2;
+                x += area2 * (baseX + x1 + x2);
+                y += area2 * (baseY + y1 + y2);
+            }
+            double sign = (sum2 >= 0) == shell ? 1 : -1;
+            areaSum2 += sign * sum2;
+            areaX += sign * x;
+            areaY += sign * y;
+            addLine(ring);
+        }
+    }
+
+    /**
+     * The points, linestrings and rings of a {@code Geometry}, and its polygons as lists of rings.
+     */
+    static final class Facets {
+        final List<Part> parts = new ArrayList<>();
+        final List<Part[]> polygons = new ArrayList<>();
+
+        Facets(Geometry<?> geometry) {
+            add(geometry);
+        }
+
+        private void add(Geometry<?> geometry) {
+            if (geometry.isEmpty()) {
+                return;
+            }
+            if (geometry instanceof Point || geometry instanceof LineString) {
+                parts.add(new Part(geometry.getPositions()));
+            } else if (geometry instanceof Polygon) {
+                LinearRing<?>[] rings = ((Polygon<?>) geometry).components();
+                Part[] polygon = new Part[rings.length];
+                for (int i = 0; i < rings.length; i++) {
+                    polygon[i] = new Part(rings[i].getPositions());
+                    parts.add(polygon[i]);
+                }
+                polygons.add(polygon);
+            } else if (geometry instanceof AbstractGeometryCollection) {
+                for (Geometry<?> component : ((AbstractGeometryCollection<?, ?>) geometry).components()) {
+                    add(component);
+                }
+            }
+        }
+
+        // whether a polygon contains the first position of any part of the other facets
+        boolean containsAnyOf(Facets other) {
+            for (Part[] polygon : polygons) {
+                for (Part part : other.parts) {
+                    double x = part.c[part.start];
+                    double y = part.c[part.start + 1];
+                    if (polygon[0].boxContains(x, y) && contains(polygon, x, y)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean contains(Part[] polygon, double x, double y) {
+            if (!polygon[0].ringContains(x, y)) return false;
+            for (int i = 1; i < polygon.length; i++) {
+                if (polygon[i].ringContains(x, y)) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A point, linestring or ring, with its bounding box.
+     */
+    static final class Part {
+        final double[] c;
+        final int start;
+        final int end;
+        final int dim;
+        final int size;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+
+        Part(PositionSequence<?> positions) {
+            PackedPositionSequence<?> packed = packed(positions);
+            this.c = packed.array();
+            this.start = packed.offset();
+            this.end = start + packed.length();
+            this.dim = positions.getCoordinateDimension();
+            this.size = packed.length() / dim;
+            for (int i = start; i < end; i += dim) {
+                minX = Math.min(minX, c[i]);
+                minY = Math.min(minY, c[i + 1]);
+                maxX = Math.max(maxX, c[i]);
+                maxY = Math.max(maxY, c[i + 1]);
+            }
+        }
+
+        boolean boxContains(double x, double y) {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY;
+        }
+
+        double boxDistance(Part other) {
+            double dx = Math.max(0, Math.max(other.minX - maxX, minX - other.maxX));
+            double dy = Math.max(0, Math.max(other.minY - maxY, minY - other.maxY));
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+
+        // crossing number test
+        boolean ringContains(double x, double y) {
+            boolean inside = false;
+            for (int i = start + dim; i < end; i += dim) {
+                double x0 = c[i - dim], y0 = c[i - dim + 1];
+                double x1 = c[i], y1 = c[i + 1];
+                if ((y0 > y) != (y1 > y) && x < x0 + (y - y0) * (x1 - x0) / (y1 - y0)) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+
+        // the smallest distance between the segments of both parts, a single position being a degenerate segment
+        double distance(Part other, double bound) {
+            double distance = bound;
+            int last = Math.max(size - 1, 1);
+            int otherLast = Math.max(other.size - 1, 1);
+            for (int i = 0; i < last; i++) {
+                int a = start + i * dim;
+                int b = start + Math.min(i + 1, size - 1) * dim;
+                double ax = c[a], ay = c[a + 1], bx = c[b], by = c[b + 1];
+                for (int j = 0; j < otherLast; j++) {
+                    int p = other.start + j * other.dim;
+                    int q = other.start + Math.min(j + 1, other.size - 1) * other.dim;
+                    double d = segmentDistance(ax, ay, bx, by, other.c[p], other.c[p + 1], other.c[q],
+                            other.c[q + 1]);
+                    if (d < distance) {
+                        distance = d;
+                        if (d == 0) return 0;
+                    }
+                }
+            }
+            return distance;
+        }
+    }
+
+    static double segmentDistance(double ax, double ay, double bx, double by,
+                                  double cx, double cy, double dx, double dy) {
+        double o1 = orientation(ax, ay, bx, by, cx, cy);
+        double o2 = orientation(ax, ay, bx, by, dx, dy);
+        double o3 = orientation(cx, cy, dx, dy, ax, ay);
+        double o4 = orientation(cx, cy, dx, dy, bx, by);
+        if (o1 * o2 < 0 && o3 * o4 < 0) {
+            return 0;
+        }
+        return Math.min(Math.min(pointSegmentDistance(ax, ay, cx, cy, dx, dy),
+                pointSegmentDistance(bx, by, cx, cy, dx, dy)),
+                Math.min(pointSegmentDistance(cx, cy, ax, ay, bx, by),
+                        pointSegmentDistance(dx, dy, ax, ay, bx, by)));
+    }
+
+    private static double orientation(double ax, double ay, double bx, double by, double cx, double cy) {
+        return Math.signum((bx - ax) * (cy - ay) - (by - ay) * (cx - ax));
+    }
+
+    private static double pointSegmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double x = ax;
+        double y = ay;
+        double dx = bx - ax;
+        double dy = by - ay;
+        if (dx != 0 || dy != 0) {
+            double t = ((px - ax) * dx + (py - ay) * dy) / (dx * dx + dy * dy);
+            if (t > 1) {
+                x = bx;
+                y = by;
+            } else if (t > 0) {
+                x += dx * t;
+                y += dy * t;
+            }
+        }
+        return Math.sqrt((px - x) * (px - x) + (py - y) * (py - y));
+    }
+}
@@ -94,6 +94,44 @@ public class Positions {
 		);
 	}
 
+	/**
+	 * Returns the positions of the source as a {@code PositionSequence} of the target {@code Position} type, without
+	 * copying the coordinates if possible.
+	 *
+	 * <p>The source and target {@code Position} types must have the same coordinate layout, i.e. the same coordinate
+	 * dimension and the same Z- and M-components. The returned sequence may share the coordinate storage of the
+	 * source.</p>
+	 *
+	 * @param source the source positions
+	 * @param targetPosClass target type of {@code Position}
+	 * @param <P> the target {@code Position} type
+	 *
+	 * @return the source positions as a sequence of the target type
+	 * @throws IllegalArgumentException if the source and target {@code Position} types have different coordinate layouts
+	 */
+	@SuppressWarnings("unchecked")
+	public static <P extends Position> PositionSequence<P> share(
+			final PositionSequence<?> source,
+			final Class<P> targetPosClass) {
+		if ( source.getPositionClass().equals( targetPosClass ) ) {
+			return (PositionSequence<P>) source;
+		}
+		PositionFactory<P> factory = getFactoryFor( targetPosClass );
+		PositionFactory<?> sourceFactory = source.getPositionFactory();
+		if ( sourceFactory.getCoordinateDimension() != factory.getCoordinateDimension()
+				|| sourceFactory.hasZComponent() != factory.hasZComponent()
+				|| sourceFactory.hasMComponent() != factory.hasMComponent() ) {
+			throw new IllegalArgumentException( String.format(
+					"Positions of type %s and %s have different coordinate layouts",
+					source.getPositionClass().getSimpleName(), targetPosClass.getSimpleName()
+			) );
+		}
+		if ( source instanceof PackedPositionSequence ) {
+			return ( (PackedPositionSequence<?>) source ).withPositionFactory( factory );
+		}
+		return copy( source, targetPosClass );
+	}
+
 	/**
 	 * Copies the source positions to a new PositionSequence.
 	 * 
@@ -0,0 +1,51 @@
+package org.geolatte.geom;
+
+/**
+ * A {@code Geometry} that is prepared for repeated spatial predicate tests against other {@code Geometry}s.
+ *
+ * <p>The predicates have the same semantics as the corresponding operations in {@link ProjectedGeometryOperations},
+ * with the prepared {@code Geometry} as the first operand. Instances are obtained from
+ * {@link ProjectedGeometryOperations#prepare(Geometry)}.</p>
+ *
+ * @param <P> the {@code Position} type of the prepared {@code Geometry}
+ */
+public interface PreparedGeometry<P extends C2D> {
+
+    /**
+     * Returns the {@code Geometry} that is prepared
+     *
+     * @return the prepared {@code Geometry}
+     */
+    Geometry<P> getGeometry();
+
+    /**
+     * @see ProjectedGeometryOperations#intersects(Geometry, Geometry)
+     */
+    boolean intersects(Geometry<P> other);
+
+    /**
+     * @see ProjectedGeometryOperations#touches(Geometry, Geometry)
+     */
+    boolean touches(Geometry<P> other);
+
+    /**
+     * @see ProjectedGeometryOperations#crosses(Geometry, Geometry)
+     */
+    boolean crosses(Geometry<P> other);
+
+    /**
+     * @see ProjectedGeometryOperations#contains(Geometry, Geometry)
+     */
+    boolean contains(Geometry<P> other);
+
+    /**
+     * @see ProjectedGeometryOperations#overlaps(Geometry, Geometry)
+     */
+    boolean overlaps(Geometry<P> other);
+
+    /**
+     * @see ProjectedGeometryOperations#relates(Geometry, Geometry, String)
+     */
+    boolean relates(Geometry<P> other, String matrix);
+
+}
@@ -122,6 +122,22 @@ public interface ProjectedGeometryOperations {
      */
     <P extends C2D> boolean relates(final Geometry<P> geometry, final Geometry<P> other, final String matrix);
 
+    /**
+     * Prepares the specified <code>Geometry</code> for repeated spatial predicate tests against other
+     * <code>Geometry</code>s.
+     *
+     * <p>Use this when the same <code>Geometry</code> is tested against many others, e.g. a large polygon against many
+     * points. The preparation work is then done once, rather than for every test.</p>
+     *
+     * <p>By default, the predicates are those of JTS on a prepared JTS <code>Geometry</code>.</p>
+     *
+     * @param geometry the <code>Geometry</code> to prepare
+     * @return a <code>PreparedGeometry</code> for the specified <code>Geometry</code>
+     */
+    default <P extends C2D> PreparedGeometry<P> prepare(final Geometry<P> geometry) {
+        return new JTSPreparedGeometry<>(geometry);
+    }
+
 
     /**
      * Calculates the shortest distance between any two points in the two <code>Geometry</code>s in the
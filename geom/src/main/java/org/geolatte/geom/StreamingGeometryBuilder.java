@@ -0,0 +1,256 @@
+package org.geolatte.geom;
+
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+
+import java.util.Arrays;
+
+/**
+ * Builds (multi-part) geometries from ordinates that arrive incrementally, e.g. from a parser or a GPS track.
+ *
+ * <p>Ordinates are appended in chunks of any length to a single backing array that grows by doubling. Parts
+ * (linestrings or rings) are ended with {@link #endPart()}, and the polygons of a multipolygon with
+ * {@link #endPolygon()}. The {@code PositionSequence}s of the built geometry are views on ranges of the backing
+ * array, so no array is allocated per part and no coordinates are copied when the geometry is built.</p>
+ *
+ * <p>The backing array is allocated when the first ordinates are appended. Building a geometry hands over the
+ * backing array to that geometry, trimmed to size if much of it is unused, and resets this builder so that it can
+ * be reused. Instances are not thread-safe.</p>
+ *
+ * @param <P> the type of the {@code Position}s
+ */
+public final class StreamingGeometryBuilder<P extends Position> {
+
+    private static final int DEFAULT_CAPACITY = 64;
+    // the number of unused ordinates above which the backing array is trimmed when a geometry is built
+    private static final int MAX_SLACK = 1024;
+    private static final double[] EMPTY = new double[0];
+
+    private final CoordinateReferenceSystem<P> crs;
+    private final PositionFactory<P> factory;
+    private final int dim;
+    private final int initialCapacity;
+
+    private double[] coordinates = EMPTY;
+    private int size;
+    // the ordinate index at which each ended part ends
+    private int[] partEnds = new int[8];
+    private int numParts;
+    // the number of ended parts at the end of each ended polygon
+    private int[] polygonEnds = new int[8];
+    private int numPolygons;
+
+    public StreamingGeometryBuilder(CoordinateReferenceSystem<P> crs) {
+        this(crs, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a builder
+     *
+     * @param crs              the coordinate reference system of the geometries
+     * @param initialPositions the number of positions for which space is allocated initially
+     */
+    public StreamingGeometryBuilder(CoordinateReferenceSystem<P> crs, int initialPositions) {
+        if (initialPositions < 0) throw new IllegalArgumentException("Initial number of positions must not be negative");
+        this.crs = crs;
+        this.factory = Positions.getFactoryFor(crs.getPositionClass());
+        this.dim = crs.getCoordinateDimension();
+        this.initialCapacity = Math.max(dim, initialPositions * dim);
+    }
+
+    /**
+     * Appends a position to the current part
+     *
+     * @param ordinates the ordinates of the position
+     * @return this builder
+     */
+    public StreamingGeometryBuilder<P> add(double... ordinates) {
+        if (ordinates.length != dim) {
+            throw new IllegalArgumentException("Position must have " + dim + " ordinates, but has " + ordinates.length);
+        }
+        return addAll(ordinates, 0, dim);
+    }
+
+    /**
+     * Appends ordinates to the current part. A chunk need not hold whole positions, as long as the part holds
+     * whole positions when it ends.
+     *
+     * @param ordinates the packed ordinates
+     * @param offset    the index of the first ordinate to append
+     * @param length    the number of ordinates to append
+     * @return this builder
+     */
+    public StreamingGeometryBuilder<P> addAll(double[] ordinates, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > ordinates.length) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length) + ") not within array " +
+                    "of length " + ordinates.length);
+        }
+        ensureCapacity(size + length);
+        System.arraycopy(ordinates, offset, coordinates, size, length);
+        size += length;
+        return this;
+    }
+
+    /**
+     * Ends the current part: a linestring, or a ring of the current polygon.
+     *
+     * @return this builder
+     * @throws IllegalStateException if the current part is empty
+     */
+    public StreamingGeometryBuilder<P> endPart() {
+        int start = partStart(numParts);
+        if (size == start) throw new IllegalStateException("Can't end an empty part");
+        if ((size - start) % dim != 0) {
+            throw new IllegalStateException("Part has an incomplete position: " + (size - start) + " ordinates " +
+                    "for coordinate dimension " + dim);
+        }
+        if (numParts == partEnds.length) partEnds = Arrays.copyOf(partEnds, 2 * numParts);
+        partEnds[numParts++] = size;
+        return this;
+    }
+
+    /**
+     * Ends the current polygon of a multipolygon, after ending its current ring if that is not empty.
+     *
+     * @return this builder
+     * @throws IllegalStateException if the current polygon has no rings
+     */
+    public StreamingGeometryBuilder<P> endPolygon() {
+        endPendingPart();
+        if (numParts == polygonStart(numPolygons)) throw new IllegalStateException("Can't end a polygon without rings");
+        if (numPolygons == polygonEnds.length) polygonEnds = Arrays.copyOf(polygonEnds, 2 * numPolygons);
+        polygonEnds[numPolygons++] = numParts;
+        return this;
+    }
+
+    /**
+     * Returns the number of positions appended since this builder was created or reset
+     *
+     * @return the number of positions
+     */
+    public int getNumPositions() {
+        return size / dim;
+    }
+
+    /**
+     * Builds a {@code LineString} from the single part, and resets this builder.
+     *
+     * @return a {@code LineString}, which is empty if no positions were appended
+     */
+    public LineString<P> toLineString() {
+        endPendingPart();
+        if (numParts > 1) throw new IllegalStateException("A linestring has a single part, not " + numParts);
+        trimToSize();
+        LineString<P> result = numParts == 0 ? new LineString<>(crs) : new LineString<>(part(0), crs);
+        reset();
+        return result;
+    }
+
+    /**
+     * Builds a {@code MultiLineString} with a {@code LineString} per part, and resets this builder.
+     *
+     * @return a {@code MultiLineString}
+     */
+    @SuppressWarnings("unchecked")
+    public MultiLineString<P> toMultiLineString() {
+        endPendingPart();
+        if (numParts == 0) {
+            reset();
+            return new MultiLineString<>(crs);
+        }
+        trimToSize();
+        LineString<P>[] lineStrings = (LineString<P>[]) new LineString[numParts];
+        for (int i = 0; i < numParts; i++) {
+            lineStrings[i] = new LineString<>(part(i), crs);
+        }
+        reset();
+        return new MultiLineString<>(lineStrings);
+    }
+
+    /**
+     * Builds a {@code Polygon} with the parts as rings, the first being the exterior ring, and resets this builder.
+     *
+     * @return a {@code Polygon}
+     */
+    public Polygon<P> toPolygon() {
+        endPendingPart();
+        if (numPolygons > 1 || (numPolygons == 1 && polygonEnds[0] != numParts)) {
+            throw new IllegalStateException("A polygon can't be built from several polygons");
+        }
+        trimToSize();
+        Polygon<P> result = numParts == 0 ? new Polygon<>(crs) : polygon(0, numParts);
+        reset();
+        return result;
+    }
+
+    /**
+     * Builds a {@code MultiPolygon} with a {@code Polygon} per ended polygon, and resets this builder. Rings after
+     * the last ended polygon form a last polygon.
+     *
+     * @return a {@code MultiPolygon}
+     */
+    @SuppressWarnings("unchecked")
+    public MultiPolygon<P> toMultiPolygon() {
+        endPendingPart();
+        if (numParts > polygonStart(numPolygons)) endPolygon();
+        if (numPolygons == 0) {
+            reset();
+            return new MultiPolygon<>(crs);
+        }
+        trimToSize();
+        Polygon<P>[] polygons = (Polygon<P>[]) new Polygon[numPolygons];
+        for (int i = 0; i < numPolygons; i++) {
+            polygons[i] = polygon(polygonStart(i), polygonEnds[i]);
+        }
+        reset();
+        return new MultiPolygon<>(polygons);
+    }
+
+    /**
+     * Discards all positions and parts. The backing array of previously built geometries is left untouched.
+     */
+    public void reset() {
+        coordinates = EMPTY;
+        size = 0;
+        numParts = 0;
+        numPolygons = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Polygon<P> polygon(int fromPart, int toPart) {
+        LinearRing<P>[] rings = (LinearRing<P>[]) new LinearRing[toPart - fromPart];
+        for (int i = fromPart; i < toPart; i++) {
+            rings[i - fromPart] = new LinearRing<>(part(i), crs);
+        }
+        return new Polygon<>(rings);
+    }
+
+    private PositionSequence<P> part(int index) {
+        int start = partStart(index);
+        return PackedPositionSequence.view(factory, coordinates, start, partEnds[index] - start);
+    }
+
+    private void endPendingPart() {
+        if (size > partStart(numParts)) endPart();
+    }
+
+    private int partStart(int index) {
+        return index == 0 ? 0 : partEnds[index - 1];
+    }
+
+    private int polygonStart(int index) {
+        return index == 0 ? 0 : polygonEnds[index - 1];
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= coordinates.length) return;
+        int newCapacity = Math.max(required, Math.max(initialCapacity, 2 * coordinates.length));
+        coordinates = Arrays.copyOf(coordinates, newCapacity);
+    }
+
+    // the built geometry keeps the backing array, so it shouldn't keep up to twice the ordinates it needs
+    private void trimToSize() {
+        if (coordinates.length - size > Math.min(MAX_SLACK, size)) {
+            coordinates = Arrays.copyOf(coordinates, size);
+        }
+    }
+}
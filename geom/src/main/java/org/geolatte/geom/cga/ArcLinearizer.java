@@ -0,0 +1,309 @@
+package org.geolatte.geom.cga;
+
+import org.geolatte.geom.Position;
+import org.geolatte.geom.PositionSequence;
+import org.geolatte.geom.PositionSequenceBuilder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.lang.Math.*;
+import static org.geolatte.geom.PositionSequenceBuilders.fixedSized;
+
+/**
+ * Linearizes circular arcs and circles, each defined by three {@code Position}s.
+ *
+ * <p>This produces the same points as the {@link CircularArcLinearizer}, but determines the number of points
+ * before computing them, and writes them in their final order into a packed coordinate array. The number of
+ * segments per arc can be capped, and linearized arcs can be cached for data that is decoded repeatedly.</p>
+ *
+ * <p>The specified {@code Position}s are always among the returned ones. Instances are immutable and thread-safe;
+ * the {@code withX()} methods return a modified copy.</p>
+ */
+public final class ArcLinearizer {
+
+    private final double threshold;
+    private final int maxSegments;
+    private final int cacheSize;
+    private final Map<ArcKey, double[]> cache;
+
+    /**
+     * Creates an instance
+     *
+     * @param threshold the maximum distance between the arc and its linearization, greater than 0
+     * @throws IllegalArgumentException if the threshold is not greater than 0
+     */
+    public ArcLinearizer(double threshold) {
+        this(threshold, Integer.MAX_VALUE, 0);
+        // also rejects NaN, and 0 that would require an unbounded number of segments
+        if (!(threshold > 0)) {
+            throw new IllegalArgumentException("Threshold must be greater than 0, but is " + threshold);
+        }
+    }
+
+    private ArcLinearizer(double threshold, int maxSegments, int cacheSize) {
+        this.threshold = threshold;
+        this.maxSegments = maxSegments;
+        this.cacheSize = cacheSize;
+        this.cache = cacheSize > 0 ? Collections.synchronizedMap(new LruMap(cacheSize)) : null;
+    }
+
+    /**
+     * Returns a copy that uses at most the specified number of segments per arc or circle, even if the threshold
+     * is then exceeded.
+     *
+     * @param maxSegments the maximum number of segments, at least 2
+     * @return a new {@code ArcLinearizer}
+     */
+    public ArcLinearizer withMaxSegments(int maxSegments) {
+        if (maxSegments < 2) {
+            throw new IllegalArgumentException("At least 2 segments are required to pass through all positions");
+        }
+        return new ArcLinearizer(threshold, maxSegments, cacheSize);
+    }
+
+    /**
+     * Returns a copy that caches the linearizations of the most recently used arcs and circles.
+     *
+     * <p>The cache is keyed on the coordinates of the three defining positions. It is only effective when the same
+     * arcs are linearized again, e.g. for reference data that is decoded repeatedly, and is not shared with other
+     * instances.</p>
+     *
+     * @param maximumSize the maximum number of cached linearizations, or 0 for no cache
+     * @return a new {@code ArcLinearizer}
+     */
+    public ArcLinearizer withCache(int maximumSize) {
+        if (maximumSize < 0) throw new IllegalArgumentException("Cache size must not be negative");
+        return new ArcLinearizer(threshold, maxSegments, maximumSize);
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    /**
+     * Linearizes the arc from p0, over p1, to p2.
+     *
+     * @param p0 the start of the arc
+     * @param p1 a position on the arc
+     * @param p2 the end of the arc
+     * @return a {@code PositionSequence} that approximates the arc
+     * @throws IllegalArgumentException if the positions are null or collinear
+     */
+    public <P extends Position> PositionSequence<P> linearize(P p0, P p1, P p2) {
+        return toPositionSequence(p0, linearize(toArray(p0, p1, p2), 0, p0.getCoordinateDimension(), false, false));
+    }
+
+    /**
+     * Linearizes the circle through p0, p1 and p2. The result starts and ends in p0.
+     *
+     * @param p0 a position on the circle
+     * @param p1 a position on the circle
+     * @param p2 a position on the circle
+     * @return a closed {@code PositionSequence} that approximates the circle
+     * @throws IllegalArgumentException if the positions are null or collinear
+     * @see CircularArcLinearizer#linearizeCircle()
+     */
+    public <P extends Position> PositionSequence<P> linearizeCircle(P p0, P p1, P p2) {
+        return toPositionSequence(p0, linearize(toArray(p0, p1, p2), 0, p0.getCoordinateDimension(), true, false));
+    }
+
+    /**
+     * Linearizes an arc given as three consecutive positions in a packed coordinate array.
+     *
+     * @param coordinates the packed coordinates
+     * @param offset      the index of the first coordinate of the arc
+     * @param dimension   the coordinate dimension
+     * @return the packed coordinates of the linearized arc
+     * @throws IllegalArgumentException if the positions are collinear, or the array is too short
+     */
+    public double[] linearize(double[] coordinates, int offset, int dimension) {
+        return linearize(coordinates, offset, dimension, false, true);
+    }
+
+    /**
+     * Linearizes a circle given as three consecutive positions in a packed coordinate array.
+     *
+     * @param coordinates the packed coordinates
+     * @param offset      the index of the first coordinate of the circle
+     * @param dimension   the coordinate dimension
+     * @return the packed coordinates of the linearized circle
+     * @throws IllegalArgumentException if the positions are collinear, or the array is too short
+     */
+    public double[] linearizeCircle(double[] coordinates, int offset, int dimension) {
+        return linearize(coordinates, offset, dimension, true, true);
+    }
+
+    private double[] linearize(double[] coordinates, int offset, int dim, boolean circle, boolean copy) {
+        if (coordinates == null || dim < 2 || offset < 0 || offset + 3 * dim > coordinates.length) {
+            throw new IllegalArgumentException("Requires three positions");
+        }
+        if (cache == null) {
+            return compute(coordinates, offset, dim, circle);
+        }
+        ArcKey key = new ArcKey(Arrays.copyOfRange(coordinates, offset, offset + 3 * dim), circle);
+        double[] result = cache.get(key);
+        if (result == null) {
+            result = compute(key.coordinates, 0, dim, circle);
+            cache.put(key, result);
+        }
+        // cached arrays are shared, so only hand out copies
+        return copy ? result.clone() : result;
+    }
+
+    private double[] compute(double[] c, int o, int dim, boolean circle) {
+        double x0 = c[o], y0 = c[o + 1];
+        double x1 = c[o + dim], y1 = c[o + dim + 1];
+        double x2 = c[o + 2 * dim], y2 = c[o + 2 * dim + 1];
+
+        // see Circle
+        double X1 = x1 - x0;
+        double Y1 = y1 - y0;
+        double X2 = x2 - x0;
+        double Y2 = y2 - y0;
+        double areaM = 2 * (X1 * Y2 - X2 * Y1);
+        if (areaM == 0) {
+            throw new IllegalArgumentException("Positions are collinear in 2D");
+        }
+        double sqrL10 = X1 * X1 + Y1 * Y1;
+        double sqrL20 = X2 * X2 + Y2 * Y2;
+        double cx = x0 + (Y2 * sqrL10 - Y1 * sqrL20) / areaM;
+        double cy = y0 + (X1 * sqrL20 - X2 * sqrL10) / areaM;
+        double radius = hypot(cx - x0, cy - y0);
+
+        // we always walk counterclockwise, so from p2 to p0 for a clockwise arc, and write the points in reverse
+        boolean reverse = !circle && areaM < 0;
+        int a = reverse ? o + 2 * dim : o;
+        int b = o + dim;
+        int e = circle ? o : (reverse ? o : o + 2 * dim);
+
+        double thetaA = atan2(c[a + 1] - cy, c[a] - cx);
+        double thetaB = atan2(c[b + 1] - cy, c[b] - cx);
+        double thetaE = atan2(c[e + 1] - cy, c[e] - cx);
+        double delta1 = ccwAngle(thetaA, thetaB);
+        double delta2 = ccwAngle(thetaB, thetaE);
+
+        // radius = radius * cos(increment) + error, and the error should be < threshold
+        double maxIncr = acos((radius - threshold) / radius);
+        int steps1 = (int) ceil(delta1 / maxIncr);
+        int steps2 = (int) ceil(delta2 / maxIncr);
+        if ((long) steps1 + steps2 > maxSegments) {
+            steps1 = (int) max(1, min(maxSegments - 1, round(maxSegments * delta1 / (delta1 + delta2))));
+            steps2 = maxSegments - steps1;
+        }
+
+        int size = 3 + max(steps1 - 1, 0) + max(steps2 - 1, 0);
+        double[] result = new double[size * dim];
+        int k = 0;
+        put(result, position(k++, size, reverse, dim), c, a, dim);
+        k = interpolate(result, k, size, reverse, c, a, b, dim, cx, cy, radius, thetaA, delta1, steps1);
+        put(result, position(k++, size, reverse, dim), c, b, dim);
+        k = interpolate(result, k, size, reverse, c, b, e, dim, cx, cy, radius, thetaB, delta2, steps2);
+        put(result, position(k, size, reverse, dim), c, e, dim);
+        return result;
+    }
+
+    // adds the points strictly between positions p and q, and interpolates the higher dimensions
+    private static int interpolate(double[] result, int k, int size, boolean reverse, double[] c, int p, int q,
+                                   int dim, double cx, double cy, double radius, double theta, double delta,
+                                   int steps) {
+        double angleIncr = delta / steps;
+        for (int j = 1; j < steps; j++, k++) {
+            int out = position(k, size, reverse, dim);
+            double angle = theta + j * angleIncr;
+            result[out] = cx + radius * cos(angle);
+            result[out + 1] = cy + radius * sin(angle);
+            for (int i = 2; i < dim; i++) {
+                result[out + i] = c[p + i] + j * (c[q + i] - c[p + i]) / steps;
+            }
+        }
+        return k;
+    }
+
+    private static int position(int k, int size, boolean reverse, int dim) {
+        return (reverse ? size - 1 - k : k) * dim;
+    }
+
+    private static void put(double[] result, int out, double[] c, int p, int dim) {
+        System.arraycopy(c, p, result, out, dim);
+    }
+
+    // the counterclockwise angle from theta to theta1, in [0, 2 PI)
+    private static double ccwAngle(double theta, double theta1) {
+        while (theta1 < theta) {
+            theta1 += 2.0 * PI;
+        }
+        return theta1 - theta;
+    }
+
+    private static double[] toArray(Position p0, Position p1, Position p2) {
+        if (p0 == null || p1 == null || p2 == null) {
+            throw new IllegalArgumentException("Positions must not be null");
+        }
+        int dim = p0.getCoordinateDimension();
+        double[] coordinates = new double[3 * dim];
+        double[] buf = new double[dim];
+        System.arraycopy(p0.toArray(buf), 0, coordinates, 0, dim);
+        System.arraycopy(p1.toArray(buf), 0, coordinates, dim, dim);
+        System.arraycopy(p2.toArray(buf), 0, coordinates, 2 * dim, dim);
+        return coordinates;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <P extends Position> PositionSequence<P> toPositionSequence(P p0, double[] coordinates) {
+        int dim = p0.getCoordinateDimension();
+        int size = coordinates.length / dim;
+        PositionSequenceBuilder<P> builder = fixedSized(size, (Class<P>) p0.getClass());
+        double[] buf = new double[dim];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(coordinates, i * dim, buf, 0, dim);
+            builder.add(buf);
+        }
+        return builder.toPositionSequence();
+    }
+
+    private static final class ArcKey {
+        final double[] coordinates;
+        final boolean circle;
+        final int hash;
+
+        ArcKey(double[] coordinates, boolean circle) {
+            this.coordinates = coordinates;
+            this.circle = circle;
+            this.hash = 31 * Arrays.hashCode(coordinates) + (circle ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ArcKey)) return false;
+            ArcKey other = (ArcKey) o;
+            return circle == other.circle && Arrays.equals(coordinates, other.coordinates);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class LruMap extends LinkedHashMap<ArcKey, double[]> {
+        private final int maximumSize;
+
+        LruMap(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ArcKey, double[]> eldest) {
+            return size() > maximumSize;
+        }
+    }
+}
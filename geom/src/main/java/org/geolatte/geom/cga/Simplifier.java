@@ -0,0 +1,637 @@
+package org.geolatte.geom.cga;
+
+import org.geolatte.geom.*;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.index.PackedRTree;
+import org.geolatte.geom.index.SpatialIndexVisitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.geolatte.geom.PositionSequenceBuilders.fixedSized;
+
+/**
+ * Simplifies the linear components of {@code Geometry}s, working directly on their coordinates.
+ *
+ * <p>Two algorithms are available:</p>
+ * <ul>
+ * <li>{@link #douglasPeucker(double)} removes the positions that are within the tolerance distance from the line
+ * between the positions that are kept;</li>
+ * <li>{@link #visvalingamWhyatt(double)} repeatedly removes the position whose triangle with its neighbours has the
+ * smallest area, until all remaining triangles have an area of at least the square of the tolerance.</li>
+ * </ul>
+ *
+ * <p>The first and last positions of every linestring and ring are always kept. Without topology preservation, a
+ * ring that collapses to fewer than 4 positions is removed from its polygon, and a polygon whose exterior ring
+ * collapses becomes empty. With {@link #preservingTopology()}, rings keep at least 4 positions, and positions are
+ * only removed if the new segment neither intersects any other segment of the geometry, nor leaves other positions
+ * on its other side.</p>
+ *
+ * <p>Points are returned unchanged. Instances are immutable and thread-safe.</p>
+ */
+public final class Simplifier {
+
+    private static final int MIN_RING_SIZE = 4;
+
+    private final boolean visvalingam;
+    private final double tolerance;
+    private final boolean preserveTopology;
+
+    private Simplifier(boolean visvalingam, double tolerance, boolean preserveTopology) {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("Tolerance must be a non-negative number.");
+        }
+        this.visvalingam = visvalingam;
+        this.tolerance = tolerance;
+        this.preserveTopology = preserveTopology;
+    }
+
+    /**
+     * Creates a {@code Simplifier} that uses the Douglas-Peucker algorithm
+     *
+     * @param tolerance the distance tolerance
+     * @return a new {@code Simplifier}
+     * @throws IllegalArgumentException if the tolerance is negative or NaN
+     */
+    public static Simplifier douglasPeucker(double tolerance) {
+        return new Simplifier(false, tolerance, false);
+    }
+
+    /**
+     * Creates a {@code Simplifier} that uses the Visvalingam-Whyatt algorithm
+     *
+     * @param tolerance the distance tolerance. Triangles with an area smaller than its square are removed.
+     * @return a new {@code Simplifier}
+     * @throws IllegalArgumentException if the tolerance is negative or NaN
+     */
+    public static Simplifier visvalingamWhyatt(double tolerance) {
+        return new Simplifier(true, tolerance, false);
+    }
+
+    /**
+     * Returns a copy of this instance that preserves the topology of the simplified {@code Geometry}s
+     *
+     * @return a new {@code Simplifier}
+     */
+    public Simplifier preservingTopology() {
+        return new Simplifier(visvalingam, tolerance, true);
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Simplifies the specified {@code Geometry}
+     *
+     * @param geometry the {@code Geometry} to simplify
+     * @param <P>      the {@code Position} type
+     * @param <G>      the type of the {@code Geometry}
+     * @return the simplified {@code Geometry}, of the same type as the specified one
+     */
+    @SuppressWarnings("unchecked")
+    public <P extends Position, G extends Geometry<P>> G simplify(G geometry) {
+        if (geometry == null) throw new IllegalArgumentException("Null geometries not allowed.");
+        List<Part> parts = new ArrayList<>();
+        collect(geometry, parts);
+        if (parts.isEmpty()) {
+            return geometry;
+        }
+        TopologyGuard<P> guard = preserveTopology ? new TopologyGuard<>(geometry.getCoordinateReferenceSystem(), parts)
+                : null;
+        boolean changed = false;
+        for (int i = 0; i < parts.size(); i++) {
+            Part part = parts.get(i);
+            part.keep = visvalingam ? visvalingamWhyatt(part, i, guard) : douglasPeucker(part, i, guard);
+            changed |= part.count() < part.size;
+        }
+        return changed ? (G) rebuild(geometry, parts.iterator()) : geometry;
+    }
+
+    /**
+     * Simplifies a linestring in a packed coordinate array with the Douglas-Peucker algorithm.
+     *
+     * @param coordinates the packed coordinates
+     * @param size        the number of positions
+     * @param dimension   the coordinate dimension
+     * @param tolerance   the distance tolerance
+     * @return for each position, whether it is kept
+     */
+    public static boolean[] douglasPeucker(double[] coordinates, int size, int dimension, double tolerance) {
+        return douglasPeucker(coordinates, size, dimension, tolerance * tolerance, false, -1, null);
+    }
+
+    private boolean[] douglasPeucker(Part part, int partIndex, TopologyGuard<?> guard) {
+        return douglasPeucker(part.coordinates, part.size, part.dim, tolerance * tolerance, part.ring, partIndex,
+                guard);
+    }
+
+    // iterative, with an explicit stack of index ranges
+    private static boolean[] douglasPeucker(double[] v, int n, int dim, double sqTolerance, boolean ring,
+                                            int partIndex, TopologyGuard<?> guard) {
+        boolean[] keep = new boolean[n];
+        if (n < 3) {
+            Arrays.fill(keep, true);
+            return keep;
+        }
+        keep[0] = true;
+        keep[n - 1] = true;
+        int kept = 2;
+        int[] stack = new int[2 * n];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            if (last - first < 2) {
+                continue;
+            }
+            double maxDistance = 0;
+            int index = -1;
+            for (int i = first + 1; i < last; i++) {
+                double d = squaredSegmentDistance(v, i * dim, first * dim, last * dim);
+                if (d > maxDistance) {
+                    maxDistance = d;
+                    index = i;
+                }
+            }
+            boolean flatten = maxDistance <= sqTolerance;
+            if (flatten && guard != null) {
+                // the ranges still on the stack may all be flattened, so a ring keeps splitting until it has
+                // kept the minimum number of positions
+                flatten = !(ring && kept < MIN_RING_SIZE) && guard.accepts(partIndex, first, last);
+            }
+            if (flatten) {
+                if (guard != null) {
+                    guard.addShortcut(partIndex, first, last);
+                }
+                continue;
+            }
+            if (index < 0) {
+                index = (first + last) >>> 1;
+            }
+            keep[index] = true;
+            kept++;
+            stack[top++] = first;
+            stack[top++] = index;
+            stack[top++] = index;
+            stack[top++] = last;
+        }
+        return keep;
+    }
+
+    // with an indexed binary min-heap of the positions on their effective area, and linked lists of neighbours
+    private boolean[] visvalingamWhyatt(Part part, int partIndex, TopologyGuard<?> guard) {
+        int n = part.size;
+        boolean[] keep = new boolean[n];
+        Arrays.fill(keep, true);
+        int minSize = part.ring && guard != null ? MIN_RING_SIZE : 2;
+        if (n <= minSize) {
+            return keep;
+        }
+        double[] v = part.coordinates;
+        int dim = part.dim;
+        double areaTolerance = tolerance * tolerance;
+        int[] prev = new int[n];
+        int[] next = new int[n];
+        double[] area = new double[n];
+        int[] heap = new int[n];
+        int[] heapPos = new int[n];
+        int heapSize = 0;
+        for (int i = 0; i < n; i++) {
+            prev[i] = i - 1;
+            next[i] = i + 1;
+            heapPos[i] = -1;
+        }
+        for (int i = 1; i < n - 1; i++) {
+            area[i] = triangleArea(v, (i - 1) * dim, i * dim, (i + 1) * dim);
+            heap[heapSize] = i;
+            heapPos[i] = heapSize++;
+            siftUp(heap, heapPos, area, heapPos[i]);
+        }
+        int remaining = n;
+        while (heapSize > 0 && remaining > minSize) {
+            int i = heap[0];
+            if (area[i] >= areaTolerance) {
+                break;
+            }
+            heapSize = removeTop(heap, heapPos, area, heapSize);
+            int p = prev[i];
+            int q = next[i];
+            if (guard != null) {
+                if (!guard.accepts(partIndex, p, q)) {
+                    continue;
+                }
+                guard.removeShortcuts(partIndex, p, q);
+                guard.addShortcut(partIndex, p, q);
+            }
+            keep[i] = false;
+            remaining--;
+            next[p] = q;
+            prev[q] = p;
+            // the effective area of a neighbour is at least that of the removed position
+            if (heapPos[p] >= 0) {
+                area[p] = Math.max(area[i], triangleArea(v, prev[p] * dim, p * dim, q * dim));
+                update(heap, heapPos, area, heapSize, heapPos[p]);
+            }
+            if (heapPos[q] >= 0) {
+                area[q] = Math.max(area[i], triangleArea(v, p * dim, q * dim, next[q] * dim));
+                update(heap, heapPos, area, heapSize, heapPos[q]);
+            }
+        }
+        return keep;
+    }
+
+    private static int removeTop(int[] heap, int[] heapPos, double[] area, int heapSize) {
+        heapPos[heap[0]] = -1;
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heapPos[heap[0]] = 0;
+            siftDown(heap, heapPos, area, heapSize, 0);
+        }
+        return heapSize;
+    }
+
+    private static void update(int[] heap, int[] heapPos, double[] area, int heapSize, int pos) {
+        siftUp(heap, heapPos, area, pos);
+        siftDown(heap, heapPos, area, heapSize, heapPos[heap[pos]] == pos ? pos : heapPos[heap[pos]]);
+    }
+
+    private static void siftUp(int[] heap, int[] heapPos, double[] area, int pos) {
+        int item = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (area[heap[parent]] <= area[item]) break;
+            heap[pos] = heap[parent];
+            heapPos[heap[pos]] = pos;
+            pos = parent;
+        }
+        heap[pos] = item;
+        heapPos[item] = pos;
+    }
+
+    private static void siftDown(int[] heap, int[] heapPos, double[] area, int heapSize, int pos) {
+        int item = heap[pos];
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && area[heap[child + 1]] < area[heap[child]]) child++;
+            if (area[item] <= area[heap[child]]) break;
+            heap[pos] = heap[child];
+            heapPos[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = item;
+        heapPos[item] = pos;
+    }
+
+    private static double triangleArea(double[] v, int a, int b, int c) {
+        return Math.abs((v[b] - v[a]) * (v[c + 1] - v[a + 1]) - (v[c] - v[a]) * (v[b + 1] - v[a + 1])) / 2;
+    }
+
+    static double squaredSegmentDistance(double[] v, int p, int a, int b) {
+        double x = v[a];
+        double y = v[a + 1];
+        double dx = v[b] - x;
+        double dy = v[b + 1] - y;
+        if (dx != 0 || dy != 0) {
+            double t = ((v[p] - x) * dx + (v[p + 1] - y) * dy) / (dx * dx + dy * dy);
+            if (t > 1) {
+                x = v[b];
+                y = v[b + 1];
+            } else if (t > 0) {
+                x += dx * t;
+                y += dy * t;
+            }
+        }
+        dx = v[p] - x;
+        dy = v[p + 1] - y;
+        return dx * dx + dy * dy;
+    }
+
+    private static void collect(Geometry<?> geometry, List<Part> parts) {
+        if (geometry instanceof LineString) {
+            parts.add(new Part(((LineString<?>) geometry).getPositions(), geometry instanceof LinearRing));
+        } else if (geometry instanceof Polygon) {
+            for (LinearRing<?> ring : ((Polygon<?>) geometry).components()) {
+                parts.add(new Part(ring.getPositions(), true));
+            }
+        } else if (geometry instanceof AbstractGeometryCollection) {
+            for (Geometry<?> component : ((AbstractGeometryCollection<?, ?>) geometry).components()) {
+                collect(component, parts);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <P extends Position> Geometry<P> rebuild(Geometry<P> geometry, Iterator<Part> parts) {
+        CoordinateReferenceSystem<P> crs = geometry.getCoordinateReferenceSystem();
+        if (geometry instanceof LinearRing) {
+            PositionSequence<P> positions = parts.next().result(geometry.getPositions());
+            return positions.size() < MIN_RING_SIZE ? new LinearRing<>(crs) : new LinearRing<>(positions, crs);
+        }
+        if (geometry instanceof LineString) {
+            return new LineString<>(parts.next().result(geometry.getPositions()), crs);
+        }
+        if (geometry instanceof Polygon) {
+            return simplify((Polygon<P>) geometry, parts);
+        }
+        if (geometry instanceof MultiLineString) {
+            LineString<P>[] lines = ((MultiLineString<P>) geometry).components();
+            LineString<P>[] result = (LineString<P>[]) new LineString[lines.length];
+            for (int i = 0; i < lines.length; i++) {
+                result[i] = (LineString<P>) rebuild(lines[i], parts);
+            }
+            return result.length == 0 ? geometry : new MultiLineString<>(result);
+        }
+        if (geometry instanceof MultiPolygon) {
+            List<Polygon<P>> result = new ArrayList<>();
+            for (Polygon<P> polygon : ((MultiPolygon<P>) geometry).components()) {
+                Polygon<P> simplified = simplify(polygon, parts);
+                if (!simplified.isEmpty()) {
+                    result.add(simplified);
+                }
+            }
+            return result.isEmpty() ? new MultiPolygon<>(crs) : new MultiPolygon<>(result.toArray(new Polygon[0]));
+        }
+        if (geometry instanceof GeometryCollection) {
+            Geometry<P>[] components = ((GeometryCollection<P>) geometry).components();
+            Geometry<P>[] result = (Geometry<P>[]) new Geometry[components.length];
+            for (int i = 0; i < components.length; i++) {
+                result[i] = rebuild(components[i], parts);
+            }
+            return result.length == 0 ? geometry : new GeometryCollection<>(result);
+        }
+        // points and multipoints
+        return geometry;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <P extends Position> Polygon<P> simplify(Polygon<P> polygon, Iterator<Part> parts) {
+        LinearRing<P>[] rings = polygon.components();
+        List<LinearRing<P>> result = new ArrayList<>();
+        for (int i = 0; i < rings.length; i++) {
+            PositionSequence<P> positions = parts.next().result(rings[i].getPositions());
+            if (positions.size() >= MIN_RING_SIZE) {
+                result.add(new LinearRing<>(positions, polygon.getCoordinateReferenceSystem()));
+            } else if (i == 0) {
+                // the exterior ring collapsed, skip the interior rings too
+                while (++i < rings.length) {
+                    parts.next();
+                }
+                return new Polygon<>(polygon.getCoordinateReferenceSystem());
+            }
+        }
+        return result.isEmpty() ? polygon : new Polygon<>(result.toArray(new LinearRing[0]));
+    }
+
+    /**
+     * The packed coordinates of a linestring or ring, and the positions that are kept.
+     */
+    private static final class Part {
+        final double[] coordinates;
+        final int size;
+        final int dim;
+        final boolean ring;
+        boolean[] keep;
+
+        Part(PositionSequence<?> positions, boolean ring) {
+            this.size = positions.size();
+            this.dim = positions.getCoordinateDimension();
+            this.ring = ring;
+            this.coordinates = new double[size * dim];
+            double[] buf = new double[dim];
+            for (int i = 0; i < size; i++) {
+                positions.getCoordinates(i, buf);
+                System.arraycopy(buf, 0, coordinates, i * dim, dim);
+            }
+        }
+
+        int count() {
+            int count = 0;
+            for (boolean k : keep) {
+                if (k) count++;
+            }
+            return count;
+        }
+
+        <P extends Position> PositionSequence<P> result(PositionSequence<P> original) {
+            int count = count();
+            if (count == size) {
+                return original;
+            }
+            PositionSequenceBuilder<P> builder = fixedSized(count, original.getPositionClass());
+            double[] buf = new double[dim];
+            for (int i = 0; i < size; i++) {
+                if (keep[i]) {
+                    System.arraycopy(coordinates, i * dim, buf, 0, dim);
+                    builder.add(buf);
+                }
+            }
+            return builder.toPositionSequence();
+        }
+    }
+
+    /**
+     * Checks that a shortcut over a section of a part does not intersect any other segment of the original parts,
+     * nor any other shortcut, and that the area between the section and the shortcut holds no other positions.
+     *
+     * <p>The original segments are held in a {@link PackedRTree}; the shortcuts are few, and are checked one by
+     * one.</p>
+     */
+    private static final class TopologyGuard<P extends Position> implements SpatialIndexVisitor<Integer> {
+
+        private final List<Part> parts;
+        private final int[] segmentPart;
+        private final int[] segmentIndex;
+        private final PackedRTree<P, Integer>.Searcher searcher;
+
+        // the shortcuts, with their part, first and last position index, and whether they are still used
+        private int[] shortcutPart = new int[16];
+        private int[] shortcutFirst = new int[16];
+        private int[] shortcutLast = new int[16];
+        private boolean[] shortcutUsed = new boolean[16];
+        private int shortcuts;
+
+        // the shortcut being checked
+        private int part;
+        private int first;
+        private int last;
+        private double ax, ay, bx, by;
+        private boolean bad;
+
+        TopologyGuard(CoordinateReferenceSystem<P> crs, List<Part> parts) {
+            this.parts = parts;
+            int total = 0;
+            for (Part p : parts) {
+                total += Math.max(p.size - 1, 0);
+            }
+            this.segmentPart = new int[total];
+            this.segmentIndex = new int[total];
+            PackedRTree.Builder<P, Integer> builder = PackedRTree.builder(crs);
+            int s = 0;
+            for (int pi = 0; pi < parts.size(); pi++) {
+                Part p = parts.get(pi);
+                for (int i = 0; i < p.size - 1; i++) {
+                    int a = i * p.dim;
+                    int b = a + p.dim;
+                    double[] v = p.coordinates;
+                    builder.add(Math.min(v[a], v[b]), Math.min(v[a + 1], v[b + 1]),
+                            Math.max(v[a], v[b]), Math.max(v[a + 1], v[b + 1]), s);
+                    segmentPart[s] = pi;
+                    segmentIndex[s] = i;
+                    s++;
+                }
+            }
+            this.searcher = builder.build().newSearcher();
+        }
+
+        boolean accepts(int part, int first, int last) {
+            Part p = parts.get(part);
+            this.part = part;
+            this.first = first;
+            this.last = last;
+            this.ax = p.coordinates[first * p.dim];
+            this.ay = p.coordinates[first * p.dim + 1];
+            this.bx = p.coordinates[last * p.dim];
+            this.by = p.coordinates[last * p.dim + 1];
+            this.bad = false;
+            searcher.query(Math.min(ax, bx), Math.min(ay, by), Math.max(ax, bx), Math.max(ay, by), this);
+            if (bad || enclosesOtherPositions(p)) {
+                return false;
+            }
+            for (int s = 0; s < shortcuts; s++) {
+                if (!shortcutUsed[s] || (shortcutPart[s] == part && shortcutFirst[s] >= first
+                        && shortcutLast[s] <= last)) {
+                    continue;
+                }
+                Part sp = parts.get(shortcutPart[s]);
+                int c = shortcutFirst[s] * sp.dim;
+                int d = shortcutLast[s] * sp.dim;
+                if (badIntersection(sp.coordinates[c], sp.coordinates[c + 1], sp.coordinates[d],
+                        sp.coordinates[d + 1])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // whether the section from first to last, closed by the shortcut, contains positions of other sections
+        private boolean enclosesOtherPositions(Part p) {
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for (int i = first; i <= last; i++) {
+                minX = Math.min(minX, p.coordinates[i * p.dim]);
+                minY = Math.min(minY, p.coordinates[i * p.dim + 1]);
+                maxX = Math.max(maxX, p.coordinates[i * p.dim]);
+                maxY = Math.max(maxY, p.coordinates[i * p.dim + 1]);
+            }
+            searcher.query(minX, minY, maxX, maxY, segment -> {
+                int sp = segmentPart[segment];
+                int si = segmentIndex[segment];
+                if (sp == part && si >= first && si <= last) {
+                    return true;
+                }
+                // the start position of the segment is enough, since the shortcut does not cross any segment
+                Part other = parts.get(sp);
+                double x = other.coordinates[si * other.dim];
+                double y = other.coordinates[si * other.dim + 1];
+                bad = !((x == ax && y == ay) || (x == bx && y == by)) && sectionContains(p, x, y);
+                return !bad;
+            });
+            return bad;
+        }
+
+        // crossing number test over the section and the shortcut
+        private boolean sectionContains(Part p, double x, double y) {
+            boolean inside = false;
+            double[] v = p.coordinates;
+            for (int i = first; i <= last; i++) {
+                int a = i * p.dim;
+                int b = (i < last ? i + 1 : first) * p.dim;
+                if ((v[a + 1] > y) != (v[b + 1] > y)
+                        && x < v[a] + (y - v[a + 1]) * (v[b] - v[a]) / (v[b + 1] - v[a + 1])) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+
+        @Override
+        public boolean visit(Integer segment) {
+            int sp = segmentPart[segment];
+            int si = segmentIndex[segment];
+            // the segments that the shortcut replaces
+            if (sp == part && si >= first && si < last) {
+                return true;
+            }
+            Part p = parts.get(sp);
+            int c = si * p.dim;
+            int d = c + p.dim;
+            bad = badIntersection(p.coordinates[c], p.coordinates[c + 1], p.coordinates[d], p.coordinates[d + 1]);
+            return !bad;
+        }
+
+        void addShortcut(int part, int first, int last) {
+            if (shortcuts == shortcutPart.length) {
+                int capacity = 2 * shortcuts;
+                shortcutPart = Arrays.copyOf(shortcutPart, capacity);
+                shortcutFirst = Arrays.copyOf(shortcutFirst, capacity);
+                shortcutLast = Arrays.copyOf(shortcutLast, capacity);
+                shortcutUsed = Arrays.copyOf(shortcutUsed, capacity);
+            }
+            shortcutPart[shortcuts] = part;
+            shortcutFirst[shortcuts] = first;
+            shortcutLast[shortcuts] = last;
+            shortcutUsed[shortcuts] = true;
+            shortcuts++;
+        }
+
+        // removes the shortcuts that are replaced by a shortcut from first to last
+        void removeShortcuts(int part, int first, int last) {
+            for (int s = 0; s < shortcuts; s++) {
+                if (shortcutPart[s] == part && shortcutFirst[s] >= first && shortcutLast[s] <= last) {
+                    shortcutUsed[s] = false;
+                }
+            }
+        }
+
+        // whether segment (c, d) intersects the shortcut (a, b) other than in a common end point
+        private boolean badIntersection(double cx, double cy, double dx, double dy) {
+            if (Math.max(cx, dx) < Math.min(ax, bx) || Math.min(cx, dx) > Math.max(ax, bx)
+                    || Math.max(cy, dy) < Math.min(ay, by) || Math.min(cy, dy) > Math.max(ay, by)) {
+                return false;
+            }
+            double o1 = orientation(ax, ay, bx, by, cx, cy);
+            double o2 = orientation(ax, ay, bx, by, dx, dy);
+            double o3 = orientation(cx, cy, dx, dy, ax, ay);
+            double o4 = orientation(cx, cy, dx, dy, bx, by);
+            if (o1 * o2 < 0 && o3 * o4 < 0) {
+                return true;
+            }
+            return touches(o1, cx, cy, ax, ay, bx, by) || touches(o2, dx, dy, ax, ay, bx, by)
+                    || touches(o3, ax, ay, cx, cy, dx, dy) || touches(o4, bx, by, cx, cy, dx, dy);
+        }
+
+        // whether point p is on segment (s, t), but is not one of its end points
+        private static boolean touches(double orientation, double px, double py, double sx, double sy,
+                                       double tx, double ty) {
+            if (orientation != 0) {
+                return false;
+            }
+            if ((px == sx && py == sy) || (px == tx && py == ty)) {
+                return false;
+            }
+            return px >= Math.min(sx, tx) && px <= Math.max(sx, tx) && py >= Math.min(sy, ty)
+                    && py <= Math.max(sy, ty);
+        }
+
+        private static double orientation(double ax, double ay, double bx, double by, double cx, double cy) {
+            return Math.signum((bx - ax) * (cy - ay) - (by - ay) * (cx - ax));
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.geolatte.geom.codec;
 import org.geolatte.geom.*;
 import org.geolatte.geom.codec.support.*;
 import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.crs.CrsRegistry;
 
 import static org.geolatte.geom.crs.CoordinateReferenceSystems.PROJECTED_2D_METER;
 import static org.geolatte.geom.crs.CoordinateReferenceSystems.adjustTo;
@@ -17,6 +18,7 @@ class BaseWkbParser<P extends Position> {
     protected GeometryType gtype;
     protected CoordinateReferenceSystem<P> outputCRS;
     protected CoordinateReferenceSystem<?> embeddedCRS;
+    protected CoordinateReferenceSystem<?> defaultCRS = PROJECTED_2D_METER;
 
     @SuppressWarnings("unchecked")
     BaseWkbParser(WkbDialect dialect, ByteBuffer buffer, CoordinateReferenceSystem<P> crs) {
@@ -26,6 +28,19 @@ class BaseWkbParser<P extends Position> {
         this.outputCRS = crs;
     }
 
+    /**
+     * Sets the SRID to assume when the WKB doesn't specify one.
+     *
+     * @param srid the EPSG code of the default SRID, ignored if not positive
+     * @return this parser
+     */
+    BaseWkbParser<P> withDefaultSrid(int srid) {
+        if (srid > 0) {
+            this.defaultCRS = CrsRegistry.getCoordinateReferenceSystemForEPSG(srid, PROJECTED_2D_METER);
+        }
+        return this;
+    }
+
     Geometry<P> parse() throws WkbDecodeException {
         GeometryBuilder builder = parseGeometry();
         CoordinateReferenceSystem<P> crs = resolveCrs();
@@ -42,7 +57,7 @@ class BaseWkbParser<P extends Position> {
             isCrsCompatible(outputCRS);
             return outputCRS;
         } else {
-            CoordinateReferenceSystem<?> crs = embeddedCRS != null ? embeddedCRS : PROJECTED_2D_METER;
+            CoordinateReferenceSystem<?> crs = embeddedCRS != null ? embeddedCRS : defaultCRS;
             return (CoordinateReferenceSystem<P>)adjustTo(crs, hasZ, hasM);
         }
     }
@@ -114,21 +129,30 @@ class BaseWkbParser<P extends Position> {
 
     protected LinearPositionsHolder readLinestring() {
         LinearPositionsHolder lh = new LinearPositionsHolder();
-        long numPositions = buffer.getUInt();
+        long numPositions = readCount();
         for (long i = 0; i < numPositions; i++) {
             lh.push(readPosition());
         }
         return lh;
     }
 
+    /**
+     * Reads the number of elements (positions, rings or geometries) that follow
+     *
+     * @return the number of elements
+     */
+    protected long readCount() {
+        return buffer.getUInt();
+    }
+
     protected void matchPolygon(GeometryBuilder builder) {
         LinearPositionsListHolder llh = readPolygon();
         builder.setPositions(llh);
     }
 
-    private LinearPositionsListHolder readPolygon() {
+    protected LinearPositionsListHolder readPolygon() {
         LinearPositionsListHolder llh = new LinearPositionsListHolder();
-        long numRings = buffer.getUInt();
+        long numRings = readCount();
         for (long i = 0; i < numRings; i++) {
             llh.push(readLinestring());
         }
@@ -7,6 +7,7 @@ import org.geolatte.geom.Position;
 import org.geolatte.geom.codec.support.*;
 import org.geolatte.geom.crs.CoordinateReferenceSystem;
 import org.geolatte.geom.crs.CoordinateReferenceSystems;
+import org.geolatte.geom.crs.CrsRegistry;
 
 import java.util.Map;
 import java.util.Optional;
@@ -24,6 +25,8 @@ class BaseWktParser<P extends Position> {
 
     private CoordinateReferenceSystem<?> matchedSrid;
 
+    private CoordinateReferenceSystem<?> defaultCrs = DEFAULT_CRS;
+
     SimpleTokenizer tokenizer;
 
     GeometryType type;
@@ -40,10 +43,10 @@ class BaseWktParser<P extends Position> {
      * is the WKT contains a SRID code.
      *
      * @param wktDialect The <code>WktVariant</code> to be used by this decoder.
-     * @param wkt        The WKT string to parser
+     * @param wkt        The WKT text to parse
      * @param crs        the CoordinateReferenceSystem for the parse result
      */
-    BaseWktParser(WktDialect wktDialect, String wkt, CoordinateReferenceSystem<P> crs) {
+    BaseWktParser(WktDialect wktDialect, CharSequence wkt, CoordinateReferenceSystem<P> crs) {
         dialect = wktDialect;
         tokenizer = new SimpleTokenizer(wkt);
         this.overrideCrs = crs;
@@ -73,7 +76,7 @@ class BaseWktParser<P extends Position> {
         if (overrideCrs != null) {
             return overrideCrs;
         } else {
-            CoordinateReferenceSystem<?> baseCrs = this.matchedSrid != null ? matchedSrid : DEFAULT_CRS;
+            CoordinateReferenceSystem<?> baseCrs = this.matchedSrid != null ? matchedSrid : defaultCrs;
             return (CoordinateReferenceSystem<P>) widenCrsToCoordinateDimension(baseCrs);
         }
     }
@@ -93,6 +96,20 @@ class BaseWktParser<P extends Position> {
         this.matchedSrid = crs;
     }
 
+    /**
+     * Sets the SRID to assume when the WKT doesn't specify one.
+     *
+     * @param srid the EPSG code of the default SRID, ignored if not positive. An SRID that isn't registered is kept,
+     *             with a projected 2D coordinate reference system
+     * @return this parser
+     */
+    BaseWktParser<P> withDefaultSrid(int srid) {
+        if (srid > 0) {
+            this.defaultCrs = CrsRegistry.ifAbsentReturnProjected2D(srid);
+        }
+        return this;
+    }
+
     protected void matchesGeometryKeyword() {
         for (Map.Entry<GeometryType, Pattern> entry : dialect.geometryTypePatternMap().entrySet()) {
             if (tokenizer.matchPattern(entry.getValue())) {
@@ -2,44 +2,64 @@ package org.geolatte.geom.codec;
 
 import org.geolatte.geom.*;
 
+import java.io.IOException;
+
+/**
+ * Writes the WKT of a {@code Geometry} to an {@code Appendable}, token by token as it is produced, so that writing
+ * to a {@code Writer} does not first build the whole WKT in memory.
+ */
 class BaseWktWriter {
 
-    private final StringBuilder builder;
     private final WktDialect dialect;
+    private Appendable out;
 
     /**
      * Constructs an instance.
      */
-    public BaseWktWriter(WktDialect variant, StringBuilder builder) {
+    public BaseWktWriter(WktDialect variant) {
         this.dialect = variant;
-        this.builder = builder;
     }
 
     public <P extends Position> String writeGeometry(Geometry<P> geometry) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            writeGeometry(geometry, builder);
+        } catch (IOException e) {
+            // a StringBuilder doesn't throw
+            throw new IllegalStateException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes the WKT of the geometry to the {@code Appendable}, as it is produced. The {@code Appendable}, e.g. a
+     * {@code Writer}, is neither flushed nor closed.
+     */
+    public <P extends Position> void writeGeometry(Geometry<P> geometry, Appendable out) throws IOException {
+        this.out = out;
         addSrid(geometry.getSRID());
         addGeometry(geometry, true);
-        return result();
     }
 
-    protected void addSrid(int srid) {
-        dialect.addSrid(builder, srid);
+    protected void addSrid(int srid) throws IOException {
+        dialect.addSrid(out, srid);
     }
 
-    protected <P extends Position> void addGeometry(Geometry<P> geometry, boolean topLevel) {
+    protected <P extends Position> void addGeometry(Geometry<P> geometry, boolean topLevel) throws IOException {
         addGeometryTag(geometry);
         addGeometryZMMarker(geometry);
         addGeometryText(geometry);
     }
 
-    protected void addGeometryTag(Geometry<?> geometry) {
-        dialect.addGeometryTag(builder, geometry);
+    protected void addGeometryTag(Geometry<?> geometry) throws IOException {
+        dialect.addGeometryTag(out, geometry);
     }
 
-    protected void addGeometryZMMarker(Geometry<?> geometry) {
-        dialect.addGeometryZMMarker(builder, geometry);
+    protected void addGeometryZMMarker(Geometry<?> geometry) throws IOException {
+        dialect.addGeometryZMMarker(out, geometry);
     }
 
-    protected <P extends Position> void addGeometryText(Geometry<P> geometry) {
+    protected <P extends Position> void addGeometryText(Geometry<P> geometry) throws IOException {
         if (geometry.isEmpty()) {
             addEmptyKeyword();
             return;
@@ -75,7 +95,7 @@ class BaseWktWriter {
         }
     }
 
-    protected <P extends Position> void addMultiPointText(Geometry<P> geometry) {
+    protected <P extends Position> void addMultiPointText(Geometry<P> geometry) throws IOException {
         if(dialect.writeMultiPointAsListOfPositions()) {
             addPointList(geometry.getPositions());
         } else {
@@ -85,7 +105,7 @@ class BaseWktWriter {
         }
     }
 
-    protected <P extends Position, G extends Geometry<P>> void addGeometries(AbstractGeometryCollection<P, G> collection, boolean withTag) {
+    protected <P extends Position, G extends Geometry<P>> void addGeometries(AbstractGeometryCollection<P, G> collection, boolean withTag) throws IOException {
         for (int i = 0; i < collection.getNumGeometries(); i++) {
             if (i > 0) {
                 addDelimiter();
@@ -99,7 +119,7 @@ class BaseWktWriter {
         }
     }
 
-    protected <P extends Position> void addLinearRings(Polygon<P> geometry) {
+    protected <P extends Position> void addLinearRings(Polygon<P> geometry) throws IOException {
         addRing(geometry.getExteriorRing());
         for (int i = 0; i < geometry.getNumInteriorRing(); i++) {
             addDelimiter();
@@ -107,15 +127,14 @@ class BaseWktWriter {
         }
     }
 
-    protected <P extends Position> void addRing(LinearRing<P> ring) {
+    protected <P extends Position> void addRing(LinearRing<P> ring) throws IOException {
         addPointList(ring.getPositions());
     }
 
-    protected <P extends Position> void addPointList(PositionSequence<P> points) {
+    protected <P extends Position> void addPointList(PositionSequence<P> points) throws IOException {
         addStartList();
         addPositions(points);
         addEndList();
-
     }
 
     protected <P extends Position> double[] createCoordinateBuffer(PositionSequence<P> positions) {
@@ -136,7 +155,7 @@ class BaseWktWriter {
         }
     }
 
-    private <P extends Position> void addPositions(PositionSequence<P> positions) {
+    private <P extends Position> void addPositions(PositionSequence<P> positions) throws IOException {
         double[] coords = createCoordinateBuffer(positions);
         for (int i = 0; i < positions.size(); i++) {
             if (i > 0) {
@@ -145,8 +164,8 @@ class BaseWktWriter {
             setCoordinatesToWrite(positions, i, coords);
             for (int k = 0; k < coords.length; k++) {
                 //this is locale independent as it should be
-                if (k > 0) builder.append(' ');
-                builder.append(formatCoordinate(coords[k]));
+                if (k > 0) out.append(' ');
+                out.append(formatCoordinate(coords[k]));
             }
         }
     }
@@ -159,25 +178,20 @@ class BaseWktWriter {
         }
     }
 
-    private void addEndList() {
-        builder.append(')');
-    }
-
-    private void addDelimiter() {
-        builder.append(",");
+    private void addEndList() throws IOException {
+        out.append(')');
     }
 
-    private void addStartList() {
-        builder.append("(");
+    private void addDelimiter() throws IOException {
+        out.append(',');
     }
 
-    private void addEmptyKeyword() {
-        builder.append(" EMPTY");
+    private void addStartList() throws IOException {
+        out.append('(');
     }
 
-
-    private String result() {
-        return builder.toString();
+    private void addEmptyKeyword() throws IOException {
+        out.append(" EMPTY");
     }
 
 }
@@ -36,12 +36,17 @@ public class HANAWktDecoder implements WktDecoder {
     public <P extends Position> Geometry<P> decode(String wkt, CoordinateReferenceSystem<P> crs) {
         return new HANAWktParser<>(wkt, crs).parse();
     }
+
+    @Override
+    public Geometry<?> decode(CharSequence wkt, int srid) {
+        return new HANAWktParser<>(wkt, null).withDefaultSrid(srid).parse();
+    }
 }
 
 class HANAWktParser<P extends Position> extends PostgisWktParser<P> {
     private final static HANAWktDialect dialect = new HANAWktDialect();
 
-    public HANAWktParser(String wkt, CoordinateReferenceSystem<P> crs) {
+    public HANAWktParser(CharSequence wkt, CoordinateReferenceSystem<P> crs) {
         super(dialect, wkt, crs);
     }
 
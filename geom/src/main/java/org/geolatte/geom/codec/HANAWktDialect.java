@@ -23,6 +23,8 @@ package org.geolatte.geom.codec;
 
 import org.geolatte.geom.Geometry;
 
+import java.io.IOException;
+
 /**
  * Punctuation and keywords for HANA EWKT/WKT representations.
  *
@@ -33,7 +35,7 @@ class HANAWktDialect extends PostgisWktDialect {
     final static HANAWktDialect INSTANCE = new HANAWktDialect();
 
     @Override
-    void addGeometryZMMarker(StringBuilder buffer, Geometry<?> geometry) {
+    void addGeometryZMMarker(Appendable buffer, Geometry<?> geometry) throws IOException {
         if (geometry.hasZ()) {
             buffer.append(" Z");
             if (geometry.hasM()) {
@@ -45,10 +47,10 @@ class HANAWktDialect extends PostgisWktDialect {
     }
 
     @Override
-    public void addSrid(StringBuilder builder, int srid) {
+    public void addSrid(Appendable builder, int srid) throws IOException {
         if (srid < 0) srid = 0;
         builder.append("SRID=")
-                .append(srid)
+                .append(String.valueOf(srid))
                 .append(";");
     }
 }
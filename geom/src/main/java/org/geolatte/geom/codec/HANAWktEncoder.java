@@ -23,6 +23,9 @@ package org.geolatte.geom.codec;
 import org.geolatte.geom.Geometry;
 import org.geolatte.geom.Position;
 
+import java.io.IOException;
+import java.io.Writer;
+
 /**
  * The HANA EWKT representation differs from the Postgis EWKT representation in that HANA always requires an SRID to be
  * written, even if its not specified or 0. Also, HANA uses a slightly different set of keywords.
@@ -34,17 +37,22 @@ public class HANAWktEncoder implements WktEncoder {
 
     @Override
     public <P extends Position> String encode(Geometry<P> geometry) {
-        return new HANAWktWriter(new StringBuilder()).writeGeometry(geometry);
+        return new HANAWktWriter().writeGeometry(geometry);
+    }
+
+    @Override
+    public <P extends Position> void encode(Geometry<P> geometry, Writer writer) throws IOException {
+        new HANAWktWriter().writeGeometry(geometry, writer);
     }
 }
 
 class HANAWktWriter extends BaseWktWriter {
 
-    public HANAWktWriter(StringBuilder builder) {
-        super(HANAWktDialect.INSTANCE, builder);
+    public HANAWktWriter() {
+        super(HANAWktDialect.INSTANCE);
     }
 
-    protected <P extends Position> void addGeometry(Geometry<P> geometry, boolean topLevel) {
+    protected <P extends Position> void addGeometry(Geometry<P> geometry, boolean topLevel) throws IOException {
         addGeometryTag(geometry);
         if(topLevel) addGeometryZMMarker(geometry);
         addGeometryText(geometry);
@@ -0,0 +1,11 @@
+package org.geolatte.geom.codec;
+
+/**
+ * Thrown when a sequence of Mapbox Vector Tile geometry commands can't be decoded
+ */
+public class MvtDecodeException extends RuntimeException {
+
+    MvtDecodeException(String msg) {
+        super(msg);
+    }
+}
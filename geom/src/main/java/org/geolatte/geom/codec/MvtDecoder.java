@@ -0,0 +1,261 @@
+package org.geolatte.geom.codec;
+
+import org.geolatte.geom.*;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.geolatte.geom.codec.MvtEncoder.*;
+
+/**
+ * Decodes Mapbox Vector Tile geometry commands (version 2.1 of the specification) into {@code Geometry}s.
+ *
+ * <p>This is the inverse of the {@link MvtEncoder}: the tile coordinates are transformed back to the
+ * {@code CoordinateReferenceSystem} of the tile bounds. Points decode to a {@code Point} or {@code MultiPoint},
+ * linestrings to a {@code LineString} or {@code MultiLineString}, and polygons to a {@code Polygon} or
+ * {@code MultiPolygon}. Each ring with a positive area in tile coordinates starts a new polygon, the rings with a
+ * negative area are the interior rings of the preceding polygon. Coordinates beyond the first two are set to
+ * 0.</p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ *
+ * @param <P> the {@code Position} type of the tile bounds
+ */
+public class MvtDecoder<P extends C2D> {
+
+    private final CoordinateReferenceSystem<P> crs;
+    private final double minX;
+    private final double maxY;
+    private final double unitX;
+    private final double unitY;
+
+    /**
+     * Constructs a decoder for the tile with the specified bounds, and the default extent
+     *
+     * @param tileBounds the bounds of the tile
+     */
+    public MvtDecoder(Envelope<P> tileBounds) {
+        this(tileBounds, MvtEncoder.DEFAULT_EXTENT);
+    }
+
+    /**
+     * Constructs a decoder for the tile with the specified bounds and extent
+     *
+     * @param tileBounds the bounds of the tile
+     * @param extent     the number of units along the side of the tile
+     * @throws IllegalArgumentException if the tile bounds are empty or the extent is not positive
+     */
+    public MvtDecoder(Envelope<P> tileBounds, int extent) {
+        if (tileBounds.isEmpty() || extent <= 0) {
+            throw new IllegalArgumentException("Require non-empty tile bounds and a positive extent.");
+        }
+        this.crs = tileBounds.getCoordinateReferenceSystem();
+        this.minX = tileBounds.lowerLeft().getX();
+        this.maxY = tileBounds.upperRight().getY();
+        this.unitX = tileBounds.extentAlongDimension(0) / extent;
+        this.unitY = tileBounds.extentAlongDimension(1) / extent;
+    }
+
+    /**
+     * Decodes the specified geometry commands
+     *
+     * @param commands the command integers
+     * @param type     the vector tile geometry type
+     * @return the decoded {@code Geometry}
+     * @throws MvtDecodeException if the commands are not valid for the geometry type
+     */
+    public Geometry<P> decode(int[] commands, MvtGeometryType type) {
+        return decode(commands, 0, commands.length, type);
+    }
+
+    /**
+     * Decodes the geometry commands in the specified part of an array
+     *
+     * @param commands the array with the command integers
+     * @param offset   the index of the first command integer
+     * @param length   the number of command integers
+     * @param type     the vector tile geometry type
+     * @return the decoded {@code Geometry}
+     * @throws MvtDecodeException if the commands are not valid for the geometry type
+     */
+    public Geometry<P> decode(int[] commands, int offset, int length, MvtGeometryType type) {
+        if (type == null || type == MvtGeometryType.UNKNOWN) {
+            throw new MvtDecodeException("Can't decode geometry of unknown type.");
+        }
+        List<int[]> parts = readParts(commands, offset, offset + length, type);
+        switch (type) {
+            case POINT:
+                return toPoints(parts);
+            case LINESTRING:
+                return toLineStrings(parts);
+            default:
+                return toPolygons(parts);
+        }
+    }
+
+    // returns the parts as arrays of tile coordinates (x0, y0, x1, y1, ...)
+    private List<int[]> readParts(int[] commands, int start, int end, MvtGeometryType type) {
+        List<int[]> parts = new ArrayList<>();
+        IntList current = null;
+        int x = 0;
+        int y = 0;
+        int i = start;
+        while (i < end) {
+            int id = commands[i] & 0x7;
+            int count = commands[i++] >>> 3;
+            if (id == CLOSE_PATH) {
+                if (type != MvtGeometryType.POLYGON || current == null || count != 1) {
+                    throw new MvtDecodeException("Unexpected ClosePath command.");
+                }
+                current.add(current.values[0], current.values[1]);
+                parts.add(current.toArray());
+                current = null;
+                continue;
+            }
+            if (id != MOVE_TO && id != LINE_TO) {
+                throw new MvtDecodeException("Unknown command " + id + ".");
+            }
+            if (i + 2 * count > end) {
+                throw new MvtDecodeException("Command has fewer parameters than its count.");
+            }
+            if (id == MOVE_TO) {
+                if (type != MvtGeometryType.POINT) {
+                    if (count != 1) {
+                        throw new MvtDecodeException("MoveTo command must have a count of 1.");
+                    }
+                    if (current != null) {
+                        if (type == MvtGeometryType.POLYGON) {
+                            throw new MvtDecodeException("Ring is not closed.");
+                        }
+                        parts.add(current.toArray());
+                    }
+                    current = new IntList();
+                } else if (current == null) {
+                    current = new IntList();
+                }
+            } else if (current == null || type == MvtGeometryType.POINT) {
+                throw new MvtDecodeException("LineTo command without preceding MoveTo.");
+            }
+            for (int k = 0; k < count; k++) {
+                x += unZigZag(commands[i++]);
+                y += unZigZag(commands[i++]);
+                current.add(x, y);
+            }
+        }
+        if (current != null) {
+            if (type == MvtGeometryType.POLYGON) {
+                throw new MvtDecodeException("Ring is not closed.");
+            }
+            parts.add(current.toArray());
+        }
+        return parts;
+    }
+
+    private Geometry<P> toPoints(List<int[]> parts) {
+        if (parts.isEmpty()) {
+            return new Point<>(crs);
+        }
+        int[] coordinates = parts.get(0);
+        if (coordinates.length == 2) {
+            return new Point<>(toPositionSequence(coordinates), crs);
+        }
+        List<Point<P>> points = new ArrayList<>();
+        double[] position = new double[crs.getCoordinateDimension()];
+        for (int i = 0; i < coordinates.length; i += 2) {
+            position[0] = worldX(coordinates[i]);
+            position[1] = worldY(coordinates[i + 1]);
+            points.add(new Point<>(Positions.mkPosition(crs, position), crs));
+        }
+        return Geometries.mkMultiPoint(points);
+    }
+
+    private Geometry<P> toLineStrings(List<int[]> parts) {
+        if (parts.isEmpty()) {
+            return new LineString<>(crs);
+        }
+        List<LineString<P>> lines = new ArrayList<>();
+        for (int[] part : parts) {
+            if (part.length < 4) {
+                throw new MvtDecodeException("LineString must have at least two positions.");
+            }
+            lines.add(new LineString<>(toPositionSequence(part), crs));
+        }
+        return lines.size() == 1 ? lines.get(0) : Geometries.mkMultiLineString(lines);
+    }
+
+    private Geometry<P> toPolygons(List<int[]> parts) {
+        if (parts.isEmpty()) {
+            return new Polygon<>(crs);
+        }
+        List<Polygon<P>> polygons = new ArrayList<>();
+        List<LinearRing<P>> rings = new ArrayList<>();
+        for (int[] part : parts) {
+            if (part.length < 8) {
+                throw new MvtDecodeException("Ring must have at least three distinct positions.");
+            }
+            long area = 0;
+            for (int i = 0; i + 3 < part.length; i += 2) {
+                area += (long) part[i] * part[i + 3] - (long) part[i + 2] * part[i + 1];
+            }
+            if (area > 0 && !rings.isEmpty()) {
+                polygons.add(Geometries.mkPolygon(rings));
+                rings = new ArrayList<>();
+            } else if (area < 0 && rings.isEmpty()) {
+                throw new MvtDecodeException("Interior ring without exterior ring.");
+            } else if (area == 0) {
+                continue;
+            }
+            rings.add(new LinearRing<>(toPositionSequence(part), crs));
+        }
+        if (!rings.isEmpty()) {
+            polygons.add(Geometries.mkPolygon(rings));
+        }
+        if (polygons.isEmpty()) {
+            return new Polygon<>(crs);
+        }
+        return polygons.size() == 1 ? polygons.get(0) : Geometries.mkMultiPolygon(polygons);
+    }
+
+    private PositionSequence<P> toPositionSequence(int[] coordinates) {
+        PositionSequenceBuilder<P> builder = PositionSequenceBuilders.fixedSized(coordinates.length / 2,
+                crs.getPositionClass());
+        double[] position = new double[crs.getCoordinateDimension()];
+        for (int i = 0; i < coordinates.length; i += 2) {
+            position[0] = worldX(coordinates[i]);
+            position[1] = worldY(coordinates[i + 1]);
+            builder.add(position);
+        }
+        return builder.toPositionSequence();
+    }
+
+    private double worldX(int x) {
+        return minX + x * unitX;
+    }
+
+    private double worldY(int y) {
+        return maxY - y * unitY;
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int x, int y) {
+            if (size + 2 > values.length) {
+                values = Arrays.copyOf(values, 2 * values.length);
+            }
+            values[size++] = x;
+            values[size++] = y;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package org.geolatte.geom.codec;
+
+import org.geolatte.geom.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Encodes {@code Geometry}s as Mapbox Vector Tile geometry commands (version 2.1 of the specification).
+ *
+ * <p>The coordinates are transformed to the integer coordinate space of the tile: the tile bounds are divided in
+ * {@code extent x extent} units, with the origin at the top-left corner and the Y-axis pointing down. The
+ * {@code Geometry} is written as a sequence of MoveTo, LineTo and ClosePath commands, with the parameters as
+ * zig-zag encoded deltas. Positions that coincide in tile coordinates with their predecessor are skipped, and
+ * linestrings and rings that collapse are left out. The rings of polygons are reoriented where needed, so that
+ * exterior rings have a positive area in tile coordinates and interior rings a negative area, as the
+ * specification requires. {@code GeometryCollection}s can't be encoded.</p>
+ *
+ * <p>The commands are written to an output buffer that is reused between calls to {@link #encode(Geometry)}. An
+ * instance is therefore not thread-safe.</p>
+ *
+ * @param <P> the {@code Position} type of the tile bounds
+ */
+public class MvtEncoder<P extends C2D> {
+
+    /**
+     * The default number of units along the side of a tile
+     */
+    public static final int DEFAULT_EXTENT = 4096;
+
+    static final int MOVE_TO = 1;
+    static final int LINE_TO = 2;
+    static final int CLOSE_PATH = 7;
+
+    private final double minX;
+    private final double maxY;
+    private final double scaleX;
+    private final double scaleY;
+
+    private int[] buffer = new int[256];
+    private int size;
+    private int cursorX;
+    private int cursorY;
+
+    // scratch space for the tile coordinates of a linestring or ring
+    private int[] xs = new int[64];
+    private int[] ys = new int[64];
+    private double[] coordinates = new double[4];
+
+    /**
+     * Constructs an encoder for the tile with the specified bounds, and the default extent
+     *
+     * @param tileBounds the bounds of the tile
+     */
+    public MvtEncoder(Envelope<P> tileBounds) {
+        this(tileBounds, DEFAULT_EXTENT);
+    }
+
+    /**
+     * Constructs an encoder for the tile with the specified bounds and extent
+     *
+     * @param tileBounds the bounds of the tile
+     * @param extent     the number of units along the side of the tile
+     * @throws IllegalArgumentException if the tile bounds are empty or the extent is not positive
+     */
+    public MvtEncoder(Envelope<P> tileBounds, int extent) {
+        if (tileBounds.isEmpty() || extent <= 0) {
+            throw new IllegalArgumentException("Require non-empty tile bounds and a positive extent.");
+        }
+        this.minX = tileBounds.lowerLeft().getX();
+        this.maxY = tileBounds.upperRight().getY();
+        this.scaleX = extent / tileBounds.extentAlongDimension(0);
+        this.scaleY = extent / tileBounds.extentAlongDimension(1);
+    }
+
+    /**
+     * Returns the vector tile geometry type for the specified {@code Geometry}
+     *
+     * @param geometry the {@code Geometry}
+     * @return the vector tile geometry type
+     */
+    public static MvtGeometryType geometryType(Geometry<?> geometry) {
+        if (geometry instanceof Point || geometry instanceof MultiPoint) {
+            return MvtGeometryType.POINT;
+        }
+        if (geometry instanceof LineString || geometry instanceof MultiLineString) {
+            return MvtGeometryType.LINESTRING;
+        }
+        if (geometry instanceof Polygon || geometry instanceof MultiPolygon) {
+            return MvtGeometryType.POLYGON;
+        }
+        return MvtGeometryType.UNKNOWN;
+    }
+
+    /**
+     * Encodes the specified {@code Geometry} into the output buffer, replacing its previous content.
+     *
+     * @param geometry the {@code Geometry}
+     * @return the number of command integers in the output buffer
+     * @throws UnsupportedConversionException if the {@code Geometry} is a {@code GeometryCollection}
+     */
+    @SuppressWarnings("unchecked")
+    public int encode(Geometry<P> geometry) {
+        size = 0;
+        cursorX = 0;
+        cursorY = 0;
+        if (geometry.isEmpty()) {
+            return 0;
+        }
+        if (geometry instanceof Point || geometry instanceof MultiPoint) {
+            writePoints(geometry.getPositions());
+        } else if (geometry instanceof LineString) {
+            writeLineString(geometry.getPositions());
+        } else if (geometry instanceof MultiLineString) {
+            for (LineString<P> line : ((MultiLineString<P>) geometry).components()) {
+                writeLineString(line.getPositions());
+            }
+        } else if (geometry instanceof Polygon) {
+            writePolygon((Polygon<P>) geometry);
+        } else if (geometry instanceof MultiPolygon) {
+            for (Polygon<P> polygon : ((MultiPolygon<P>) geometry).components()) {
+                writePolygon(polygon);
+            }
+        } else {
+            throw new UnsupportedConversionException(String.format(
+                    "Can't encode a %s as vector tile geometry.", geometry.getGeometryType()));
+        }
+        return size;
+    }
+
+    /**
+     * Returns the output buffer. Only the first {@link #size()} integers are valid.
+     *
+     * @return the output buffer
+     */
+    public int[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the number of command integers in the output buffer
+     *
+     * @return the number of command integers in the output buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a copy of the command integers in the output buffer
+     *
+     * @return the command integers
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Returns the number of bytes that {@link #writeTo(OutputStream)} writes
+     *
+     * @return the size of the command integers as protobuf varints
+     */
+    public int getVarintSize() {
+        int bytes = 0;
+        for (int i = 0; i < size; i++) {
+            int value = buffer[i];
+            do {
+                bytes++;
+                value >>>= 7;
+            } while (value != 0);
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the command integers in the output buffer as protobuf varints, i.e. as the payload of the packed
+     * {@code geometry} field of a vector tile feature.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing to the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        for (int i = 0; i < size; i++) {
+            int value = buffer[i];
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+    }
+
+    private void writePoints(PositionSequence<P> positions) {
+        int n = positions.size();
+        ensureCapacity(1 + 2 * n);
+        buffer[size++] = command(MOVE_TO, n);
+        for (int i = 0; i < n; i++) {
+            positions.getCoordinates(i, coordinates(positions));
+            writeParameters(tileX(coordinates[0]), tileY(coordinates[1]));
+        }
+    }
+
+    private void writeLineString(PositionSequence<P> positions) {
+        int n = toTileCoordinates(positions);
+        if (n < 2) {
+            return;
+        }
+        ensureCapacity(3 + 2 * n);
+        buffer[size++] = command(MOVE_TO, 1);
+        writeParameters(xs[0], ys[0]);
+        buffer[size++] = command(LINE_TO, n - 1);
+        for (int i = 1; i < n; i++) {
+            writeParameters(xs[i], ys[i]);
+        }
+    }
+
+    private void writePolygon(Polygon<P> polygon) {
+        if (polygon.isEmpty() || !writeRing(polygon.getExteriorRing().getPositions(), true)) {
+            return;
+        }
+        for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+            writeRing(polygon.getInteriorRingN(i).getPositions(), false);
+        }
+    }
+
+    private boolean writeRing(PositionSequence<P> positions, boolean exterior) {
+        int n = toTileCoordinates(positions);
+        // the closing position is implied by ClosePath
+        if (n > 1 && xs[n - 1] == xs[0] && ys[n - 1] == ys[0]) {
+            n--;
+        }
+        if (n < 3) {
+            return false;
+        }
+        long area = 0;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            area += (long) xs[j] * ys[i] - (long) xs[i] * ys[j];
+        }
+        if (area == 0) {
+            return false;
+        }
+        boolean reverse = exterior != area > 0;
+        ensureCapacity(4 + 2 * n);
+        int first = reverse ? n - 1 : 0;
+        buffer[size++] = command(MOVE_TO, 1);
+        writeParameters(xs[first], ys[first]);
+        buffer[size++] = command(LINE_TO, n - 1);
+        for (int k = 1; k < n; k++) {
+            int i = reverse ? n - 1 - k : k;
+            writeParameters(xs[i], ys[i]);
+        }
+        buffer[size++] = command(CLOSE_PATH, 1);
+        return true;
+    }
+
+    // writes the tile coordinates of the positions to the scratch space, skipping repeated coordinates
+    private int toTileCoordinates(PositionSequence<P> positions) {
+        int n = positions.size();
+        if (xs.length < n) {
+            xs = new int[n];
+            ys = new int[n];
+        }
+        double[] c = coordinates(positions);
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            positions.getCoordinates(i, c);
+            int x = tileX(c[0]);
+            int y = tileY(c[1]);
+            if (count == 0 || x != xs[count - 1] || y != ys[count - 1]) {
+                xs[count] = x;
+                ys[count] = y;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private double[] coordinates(PositionSequence<P> positions) {
+        if (coordinates.length < positions.getCoordinateDimension()) {
+            coordinates = new double[positions.getCoordinateDimension()];
+        }
+        return coordinates;
+    }
+
+    private void writeParameters(int x, int y) {
+        buffer[size++] = zigZag(x - cursorX);
+        buffer[size++] = zigZag(y - cursorY);
+        cursorX = x;
+        cursorY = y;
+    }
+
+    private int tileX(double x) {
+        return (int) Math.round((x - minX) * scaleX);
+    }
+
+    private int tileY(double y) {
+        return (int) Math.round((maxY - y) * scaleY);
+    }
+
+    private void ensureCapacity(int additional) {
+        if (size + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(2 * buffer.length, size + additional));
+        }
+    }
+
+    static int command(int id, int count) {
+        return (id & 0x7) | (count << 3);
+    }
+
+    static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+}
@@ -0,0 +1,47 @@
+package org.geolatte.geom.codec;
+
+/**
+ * The geometry types of the Mapbox Vector Tile specification (version 2.1)
+ */
+public enum MvtGeometryType {
+
+    UNKNOWN(0),
+    POINT(1),
+    LINESTRING(2),
+    POLYGON(3);
+
+    private final int code;
+
+    MvtGeometryType(int code) {
+        this.code = code;
+    }
+
+    /**
+     * Returns the value of this type in the {@code GeomType} enumeration of the vector tile protobuf schema
+     *
+     * @return the value of this type
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Returns the type with the specified value in the {@code GeomType} enumeration of the vector tile protobuf
+     * schema
+     *
+     * @param code the value
+     * @return the corresponding {@code MvtGeometryType}, or {@code UNKNOWN} for unknown values
+     */
+    public static MvtGeometryType valueOf(int code) {
+        switch (code) {
+            case 1:
+                return POINT;
+            case 2:
+                return LINESTRING;
+            case 3:
+                return POLYGON;
+            default:
+                return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.geolatte.geom.codec;
+
+import org.geolatte.geom.ByteBuffer;
+import org.geolatte.geom.ByteOrder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * A {@code ByteBuffer} for writing only, that writes its content to an {@code OutputStream} whenever it is full.
+ * This lets a {@code BaseWkbVisitor} stream WKB of any size through a small, fixed-size buffer.
+ *
+ * <p>As the put methods of {@code ByteBuffer} can't throw an {@code IOException}, an {@code IOException} of the
+ * {@code OutputStream} is thrown as an {@code UncheckedIOException}.</p>
+ */
+class OutputStreamByteBuffer extends ByteBuffer {
+
+    private static final int CAPACITY = 8192;
+
+    private final OutputStream out;
+
+    OutputStreamByteBuffer(OutputStream out, ByteOrder byteOrder) {
+        super(java.nio.ByteBuffer.allocate(CAPACITY));
+        this.out = out;
+        if (byteOrder != null) {
+            setByteOrder(byteOrder);
+        }
+    }
+
+    @Override
+    public void put(byte value) {
+        ensureRemaining(1);
+        super.put(value);
+    }
+
+    @Override
+    public void putInt(int value) {
+        ensureRemaining(UINT_SIZE);
+        super.putInt(value);
+    }
+
+    @Override
+    public void putLong(long value) {
+        ensureRemaining(8);
+        super.putLong(value);
+    }
+
+    @Override
+    public void putFloat(float value) {
+        ensureRemaining(4);
+        super.putFloat(value);
+    }
+
+    @Override
+    public void putDouble(Double value) {
+        ensureRemaining(DOUBLE_SIZE);
+        super.putDouble(value);
+    }
+
+    @Override
+    public void putUInt(long value) {
+        ensureRemaining(UINT_SIZE);
+        super.putUInt(value);
+    }
+
+    /**
+     * Writes the bytes put since the last flush to the {@code OutputStream}
+     *
+     * @throws IOException when writing fails
+     */
+    void flush() throws IOException {
+        int size = capacity() - remaining();
+        if (size > 0) {
+            out.write(toByteArray(), 0, size);
+            rewind();
+        }
+    }
+
+    private void ensureRemaining(int size) {
+        if (remaining() >= size) return;
+        try {
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
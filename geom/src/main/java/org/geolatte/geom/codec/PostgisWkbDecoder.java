@@ -52,6 +52,18 @@ public class PostgisWkbDecoder implements WkbDecoder {
         }
     }
 
+    @Override
+    public Geometry<?> decode(ByteBuffer byteBuffer, int srid) {
+        BaseWkbParser<?> parser = new PostgisWkbParser<>(PostgisWkbV1Dialect.INSTANCE, byteBuffer, null).withDefaultSrid(srid);
+        try {
+            return parser.parse();
+        } catch (WkbDecodeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new WkbDecodeException(e);
+        }
+    }
+
 }
 
 class PostgisWkbParser<P extends Position> extends BaseWkbParser<P> {
@@ -41,6 +41,11 @@ public class PostgisWktDecoder implements WktDecoder {
     public <P extends Position> Geometry<P> decode(String wkt, CoordinateReferenceSystem<P> crs) {
         return new PostgisWktParser<P>(wkt, crs).parse();
     }
+
+    @Override
+    public Geometry<?> decode(CharSequence wkt, int srid) {
+        return new PostgisWktParser<>(wkt, null).withDefaultSrid(srid).parse();
+    }
 }
 
 class PostgisWktParser<P extends Position> extends BaseWktParser<P> {
@@ -48,11 +53,11 @@ class PostgisWktParser<P extends Position> extends BaseWktParser<P> {
     private final static PostgisWktDialect dialect = new PostgisWktDialect();
     private final static Pattern SRID_RE = Pattern.compile("^SRID=(.*);", Pattern.CASE_INSENSITIVE);
 
-    public PostgisWktParser(String wkt, CoordinateReferenceSystem<P> crs) {
+    public PostgisWktParser(CharSequence wkt, CoordinateReferenceSystem<P> crs) {
         super(dialect, wkt, crs);
     }
 
-    public PostgisWktParser(PostgisWktDialect dialect, String wkt, CoordinateReferenceSystem<P> crs) {
+    public PostgisWktParser(PostgisWktDialect dialect, CharSequence wkt, CoordinateReferenceSystem<P> crs) {
         super(dialect, wkt, crs);
     }
 
@@ -23,6 +23,8 @@ package org.geolatte.geom.codec;
 
 import org.geolatte.geom.Geometry;
 
+import java.io.IOException;
+
 /**
  * Punctuation and keywords for Postgis EWKT/WKT representations.
  *
@@ -33,17 +35,17 @@ class PostgisWktDialect extends WktDialect {
     final static PostgisWktDialect INSTANCE = new PostgisWktDialect();
 
     @Override
-    void addGeometryZMMarker(StringBuilder builder, Geometry<?> geometry) {
+    void addGeometryZMMarker(Appendable builder, Geometry<?> geometry) throws IOException {
         if (geometry.hasM() && geometry.getCoordinateDimension() < 4) {
             builder.append('M');
         }
     }
 
     @Override
-    public void addSrid(StringBuilder builder, int srid) {
+    public void addSrid(Appendable builder, int srid) throws IOException {
         if (srid > 0) {
             builder.append("SRID=")
-                    .append(srid)
+                    .append(String.valueOf(srid))
                     .append(";");
         }
     }
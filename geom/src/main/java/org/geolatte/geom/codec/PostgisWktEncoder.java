@@ -24,6 +24,9 @@ package org.geolatte.geom.codec;
 import org.geolatte.geom.Geometry;
 import org.geolatte.geom.Position;
 
+import java.io.IOException;
+import java.io.Writer;
+
 /**
  * Encodes geometries to Postgis WKT/EWKT representations.
  *
@@ -34,6 +37,11 @@ public class PostgisWktEncoder implements WktEncoder {
 
     @Override
     public <P extends Position> String encode(Geometry<P> geometry) {
-        return new BaseWktWriter(PostgisWktDialect.INSTANCE, new StringBuilder()).writeGeometry(geometry);
+        return new BaseWktWriter(PostgisWktDialect.INSTANCE).writeGeometry(geometry);
+    }
+
+    @Override
+    public <P extends Position> void encode(Geometry<P> geometry, Writer writer) throws IOException {
+        new BaseWktWriter(PostgisWktDialect.INSTANCE).writeGeometry(geometry, writer);
     }
 }
@@ -23,5 +23,17 @@ public class Sfa110WkbDecoder implements WkbDecoder {
         }
     }
 
+    @Override
+    public Geometry<?> decode(ByteBuffer byteBuffer, int srid) {
+        BaseWkbParser<?> parser = new BaseWkbParser<>(Sfa110WkbDialect.INSTANCE, byteBuffer, null).withDefaultSrid(srid);
+        try {
+            return parser.parse();
+        } catch (WkbDecodeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new WkbDecodeException(e);
+        }
+    }
+
 
 }
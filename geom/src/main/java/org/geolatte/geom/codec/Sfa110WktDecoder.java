@@ -12,13 +12,18 @@ public class Sfa110WktDecoder implements WktDecoder {
         return new Sfa110WktParser<>(wkt, crs).parse();
     }
 
+    @Override
+    public Geometry<?> decode(CharSequence wkt, int srid) {
+        return new Sfa110WktParser<>(wkt, null).withDefaultSrid(srid).parse();
+    }
+
 }
 
 class Sfa110WktParser<P extends Position> extends BaseWktParser<P> {
 
     private final static WktDialect dialect = new WktDialect();
 
-    Sfa110WktParser(String wkt, CoordinateReferenceSystem<P> crs) {
+    Sfa110WktParser(CharSequence wkt, CoordinateReferenceSystem<P> crs) {
         super(dialect, wkt, crs);
     }
 
@@ -3,6 +3,8 @@ package org.geolatte.geom.codec;
 import org.geolatte.geom.Geometry;
 import org.geolatte.geom.Position;
 
+import java.io.IOException;
+
 /**
  * A WKT encoder for the format specified in Simple Feature Access, version 1.1.0
  */
@@ -17,11 +19,11 @@ public class Sfa110WktEncoder implements WktEncoder {
 class Sfa110WktWriter extends BaseWktWriter {
 
     public Sfa110WktWriter() {
-        super(Sfa110WktDialect.INSTANCE, new StringBuilder());
+        super(Sfa110WktDialect.INSTANCE);
     }
 
     @Override
-    protected <P extends Position> void addMultiPointText(Geometry<P> geometry) {
+    protected <P extends Position> void addMultiPointText(Geometry<P> geometry) throws IOException {
         addPointList(geometry.getPositions());
     }
 }
@@ -20,4 +20,16 @@ public class Sfa121WkbDecoder implements WkbDecoder {
             throw new WkbDecodeException(e);
         }
     }
+
+    @Override
+    public Geometry<?> decode(ByteBuffer byteBuffer, int srid) {
+        BaseWkbParser<?> parser = new BaseWkbParser<>(Sfa121WkbDialect.INSTANCE, byteBuffer, null).withDefaultSrid(srid);
+        try {
+            return parser.parse();
+        } catch (WkbDecodeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new WkbDecodeException(e);
+        }
+    }
 }
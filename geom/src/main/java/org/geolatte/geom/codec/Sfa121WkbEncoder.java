@@ -5,6 +5,10 @@ import org.geolatte.geom.ByteOrder;
 import org.geolatte.geom.Geometry;
 import org.geolatte.geom.Position;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
 /**
  * A WKB encoder for the format specified in Simple Feature Access, version 1.2.1
  */
@@ -17,5 +21,20 @@ public class Sfa121WkbEncoder implements WkbEncoder {
         return visitor.result();
     }
 
+    /**
+     * Encodes a <code>Geometry</code> to its WKB representation, and streams it to the {@code OutputStream} through
+     * a small buffer, rather than first allocating a buffer for the whole WKB representation.
+     */
+    @Override
+    public <P extends Position> void encode(Geometry<P> geometry, ByteOrder byteOrder, OutputStream out)
+            throws IOException {
+        OutputStreamByteBuffer buffer = new OutputStreamByteBuffer(out, byteOrder);
+        try {
+            geometry.accept(new BaseWkbVisitor<>(buffer, Sfa121WkbDialect.INSTANCE));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        buffer.flush();
+    }
 
 }
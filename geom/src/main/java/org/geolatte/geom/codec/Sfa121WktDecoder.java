@@ -14,11 +14,16 @@ public class Sfa121WktDecoder implements WktDecoder {
         return new Sfa121WktParser<>(wkt, crs).parse();
     }
 
+    @Override
+    public Geometry<?> decode(CharSequence wkt, int srid) {
+        return new Sfa121WktParser<>(wkt, null).withDefaultSrid(srid).parse();
+    }
+
 }
 
 class Sfa121WktParser<P extends Position> extends BaseWktParser<P> {
 
-    Sfa121WktParser(String wkt, CoordinateReferenceSystem<P> crs) {
+    Sfa121WktParser(CharSequence wkt, CoordinateReferenceSystem<P> crs) {
         super(Sfa110WktDialect.INSTANCE, wkt, crs);
     }
 
@@ -2,12 +2,14 @@ package org.geolatte.geom.codec;
 
 import org.geolatte.geom.Geometry;
 
+import java.io.IOException;
+
 class Sfa121WktDialect extends WktDialect{
 
     final static Sfa121WktDialect INSTANCE = new Sfa121WktDialect();
 
     @Override
-    void addGeometryZMMarker(StringBuilder buffer, Geometry<?> geometry) {
+    void addGeometryZMMarker(Appendable buffer, Geometry<?> geometry) throws IOException {
         if (!(geometry.hasZ() || geometry.hasM())) return;
 
         if (geometry.hasZ() && geometry.hasM())  buffer.append(" ZM");
@@ -10,7 +10,7 @@ public class Sfa121WktEncoder implements WktEncoder {
 
     @Override
     public <P extends Position> String encode(Geometry<P> geometry) {
-        return new BaseWktWriter(Sfa121WktDialect.INSTANCE, new StringBuilder()).writeGeometry(geometry);
+        return new BaseWktWriter(Sfa121WktDialect.INSTANCE).writeGeometry(geometry);
     }
 
 }
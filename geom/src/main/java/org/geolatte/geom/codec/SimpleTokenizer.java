@@ -15,7 +15,7 @@ class SimpleTokenizer {
     private int currentPos = 0;
 
 
-    public SimpleTokenizer(String input) {
+    public SimpleTokenizer(CharSequence input) {
         this.input = input;
     }
 
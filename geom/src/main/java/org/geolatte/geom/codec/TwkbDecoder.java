@@ -0,0 +1,207 @@
+package org.geolatte.geom.codec;
+
+import org.geolatte.geom.ByteBuffer;
+import org.geolatte.geom.Geometry;
+import org.geolatte.geom.Position;
+import org.geolatte.geom.codec.support.*;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+
+import java.util.Arrays;
+
+import static org.geolatte.geom.codec.TwkbDialect.*;
+
+/**
+ * A WKB decoder for the Tiny WKB format (version 0.23 of the <a href="https://github.com/TWKB/Specification">TWKB
+ * specification</a>).
+ *
+ * <p>As TWKB has no SRID, the decoded {@code Geometry} has the specified {@code CoordinateReferenceSystem}, or a
+ * 2D projected reference system extended with the Z and M dimensions of the TWKB. Bounding box and size headers are
+ * skipped. The id list of a multi-geometry or {@code GeometryCollection} is available through {@link #getIds()}
+ * after decoding.</p>
+ *
+ * <p>This decoder is not thread-safe.</p>
+ */
+public class TwkbDecoder implements WkbDecoder {
+
+    private long[] ids;
+
+    @Override
+    public <P extends Position> Geometry<P> decode(ByteBuffer byteBuffer, CoordinateReferenceSystem<P> crs) {
+        return parse(new TwkbParser<>(byteBuffer, crs));
+    }
+
+    @Override
+    public Geometry<?> decode(ByteBuffer byteBuffer, int srid) {
+        return parse(new TwkbParser<>(byteBuffer, null).withDefaultSrid(srid));
+    }
+
+    /**
+     * Returns the id list of the most recently decoded geometry
+     *
+     * @return the ids of the components of the most recently decoded geometry, or null if it had no id list
+     */
+    public long[] getIds() {
+        return ids == null ? null : ids.clone();
+    }
+
+    private <P extends Position> Geometry<P> parse(BaseWkbParser<P> parser) {
+        ids = null;
+        try {
+            Geometry<P> geometry = parser.parse();
+            ids = ((TwkbParser<P>) parser).ids;
+            return geometry;
+        } catch (WkbDecodeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new WkbDecodeException(e);
+        }
+    }
+}
+
+class TwkbParser<P extends Position> extends BaseWkbParser<P> {
+
+    private final double[] divisors = new double[4];
+    private final long[] previous = new long[4];
+    private int dimension;
+    private int depth;
+    long[] ids;
+
+    TwkbParser(ByteBuffer buffer, CoordinateReferenceSystem<P> crs) {
+        super(TwkbDialect.INSTANCE, buffer, crs);
+    }
+
+    @Override
+    protected GeometryBuilder parseGeometry() {
+        int header = buffer.get() & 0xFF;
+        gtype = dialect.parseType(header & 0x0F);
+        int xyPrecision = (int) unZigZag(header >>> 4);
+        int metadata = buffer.get() & 0xFF;
+        hasZ = false;
+        hasM = false;
+        int zPrecision = 0;
+        int mPrecision = 0;
+        if ((metadata & EXTENDED_DIMENSIONS) != 0) {
+            int extended = buffer.get() & 0xFF;
+            hasZ = (extended & 0x01) != 0;
+            hasM = (extended & 0x02) != 0;
+            zPrecision = (extended >>> 2) & 0x07;
+            mPrecision = (extended >>> 5) & 0x07;
+        }
+        dimension = 2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0);
+        divisors[0] = divisors[1] = Math.pow(10, xyPrecision);
+        divisors[2] = Math.pow(10, hasZ ? zPrecision : mPrecision);
+        divisors[3] = Math.pow(10, mPrecision);
+        Arrays.fill(previous, 0);
+
+        if ((metadata & SIZE) != 0) {
+            readUVarint();
+        }
+        if ((metadata & BBOX) != 0) {
+            for (int i = 0; i < 2 * dimension; i++) {
+                readUVarint();
+            }
+        }
+        GeometryBuilder builder = GeometryBuilder.create(gtype);
+        if ((metadata & EMPTY) != 0) {
+            return builder;
+        }
+        boolean idList = (metadata & ID_LIST) != 0;
+        switch (gtype) {
+            case POINT:
+                matchPoint(builder);
+                break;
+            case LINESTRING:
+                matchLineString(builder);
+                break;
+            case POLYGON:
+                matchPolygon(builder);
+                break;
+            case MULTIPOINT: {
+                LinearPositionsHolder lh = new LinearPositionsHolder();
+                long n = readCountAndIds(idList);
+                for (long i = 0; i < n; i++) {
+                    lh.push(readPosition());
+                }
+                builder.setPositions(lh);
+                break;
+            }
+            case MULTILINESTRING: {
+                LinearPositionsListHolder llh = new LinearPositionsListHolder();
+                long n = readCountAndIds(idList);
+                for (long i = 0; i < n; i++) {
+                    llh.push(readLinestring());
+                }
+                builder.setPositions(llh);
+                break;
+            }
+            case MULTIPOLYGON: {
+                PolygonListHolder plh = new PolygonListHolder();
+                long n = readCountAndIds(idList);
+                for (long i = 0; i < n; i++) {
+                    plh.push(readPolygon());
+                }
+                builder.setPositions(plh);
+                break;
+            }
+            case GEOMETRYCOLLECTION: {
+                long n = readCountAndIds(idList);
+                depth++;
+                for (long i = 0; i < n; i++) {
+                    ((CollectionGeometryBuilder) builder).push(parseGeometry());
+                }
+                depth--;
+                break;
+            }
+            default:
+                throw new WkbDecodeException("Can't decode a TWKB of type " + gtype);
+        }
+        return builder;
+    }
+
+    private long readCountAndIds(boolean idList) {
+        long n = readCount();
+        if (idList) {
+            long[] values = new long[(int) n];
+            for (int i = 0; i < n; i++) {
+                values[i] = unZigZag(readUVarint());
+            }
+            if (depth == 0) {
+                ids = values;
+            }
+        }
+        return n;
+    }
+
+    // each counted element takes at least a byte, so a larger count can't be valid, and mustn't size an array
+    @Override
+    protected long readCount() {
+        long n = readUVarint();
+        if (n < 0 || n > buffer.remaining()) {
+            throw new WkbDecodeException(String.format("Count %d exceeds the %d remaining bytes of the TWKB.",
+                    n, buffer.remaining()));
+        }
+        return n;
+    }
+
+    @Override
+    protected PointHolder readPosition() {
+        PointHolder ph = new PointHolder();
+        for (int k = 0; k < dimension; k++) {
+            previous[k] += unZigZag(readUVarint());
+            ph.push(previous[k] / divisors[k]);
+        }
+        return ph;
+    }
+
+    private long readUVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new WkbDecodeException("Malformed varint in TWKB.");
+    }
+}
@@ -0,0 +1,244 @@
+package org.geolatte.geom.codec;
+
+import org.geolatte.geom.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * The Tiny WKB dialect (version 0.23 of the <a href="https://github.com/TWKB/Specification">TWKB
+ * specification</a>).
+ *
+ * <p>TWKB uses the same geometry type codes as WKB, but has no byte order or SRID. Coordinates are rounded to a
+ * fixed number of decimal places and written as zig-zag encoded variable length integers, relative to the previous
+ * position.</p>
+ */
+class TwkbDialect extends WkbDialect {
+
+    final static TwkbDialect INSTANCE = new TwkbDialect();
+
+    static final int BBOX = 0x01;
+    static final int SIZE = 0x02;
+    static final int ID_LIST = 0x04;
+    static final int EXTENDED_DIMENSIONS = 0x08;
+    static final int EMPTY = 0x10;
+
+    @Override
+    boolean emptyPointAsNaN() {
+        return false;
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes a {@code Geometry} as TWKB.
+     *
+     * <p>The components of multi-geometries are written without header, the components of
+     * {@code GeometryCollection}s as complete TWKB geometries. Every geometry with a header starts the delta encoding
+     * from the origin.</p>
+     */
+    static class TwkbVisitor<P extends Position> implements GeometryVisitor<P> {
+
+        private final int xyPrecision;
+        private final int zPrecision;
+        private final int mPrecision;
+        private final boolean boundingBox;
+        private final boolean sizes;
+        private final long[] ids;
+
+        private final double[] scales = new double[4];
+        private final long[] previous = new long[4];
+        private final Deque<int[]> collections = new ArrayDeque<>();
+        private double[] coordinates = new double[4];
+        private byte[] bytes = new byte[64];
+        private int length;
+
+        TwkbVisitor(int xyPrecision, int zPrecision, int mPrecision, boolean boundingBox, boolean sizes,
+                    long[] ids) {
+            this.xyPrecision = xyPrecision;
+            this.zPrecision = zPrecision;
+            this.mPrecision = mPrecision;
+            this.boundingBox = boundingBox;
+            this.sizes = sizes;
+            this.ids = ids;
+        }
+
+        ByteBuffer result() {
+            return ByteBuffer.from(Arrays.copyOf(bytes, length));
+        }
+
+        @Override
+        public void visit(Point<P> point) {
+            if (inMultiGeometry()) {
+                // the point count of a multipoint includes every point, and an empty point has no coordinates
+                if (point.isEmpty()) {
+                    throw new IllegalArgumentException("TWKB can't encode an empty point in a multipoint.");
+                }
+                writePositions(point.getPositions());
+                return;
+            }
+            int sizeMark = writeHeader(point);
+            if (!point.isEmpty()) {
+                writePositions(point.getPositions());
+            }
+            writeSize(sizeMark);
+        }
+
+        @Override
+        public void visit(LineString<P> lineString) {
+            boolean component = inMultiGeometry();
+            int sizeMark = component ? -1 : writeHeader(lineString);
+            if (component || !lineString.isEmpty()) {
+                writeUVarint(lineString.getNumPositions());
+                writePositions(lineString.getPositions());
+            }
+            writeSize(sizeMark);
+        }
+
+        @Override
+        public void visit(Polygon<P> polygon) {
+            boolean component = inMultiGeometry();
+            int sizeMark = component ? -1 : writeHeader(polygon);
+            if (component || !polygon.isEmpty()) {
+                writeUVarint(polygon.isEmpty() ? 0 : polygon.getNumInteriorRing() + 1);
+                for (LinearRing<P> ring : polygon) {
+                    writeUVarint(ring.getNumPositions());
+                    writePositions(ring.getPositions());
+                }
+            }
+            writeSize(sizeMark);
+        }
+
+        @Override
+        public <G extends Geometry<P>> void visit(AbstractGeometryCollection<P, G> collection) {
+            long[] collectionIds = collections.isEmpty() ? ids : null;
+            if (collectionIds != null && collectionIds.length != collection.getNumGeometries()) {
+                throw new IllegalArgumentException("Number of ids must equal the number of geometries.");
+            }
+            int sizeMark = writeHeader(collection);
+            if (!collection.isEmpty()) {
+                writeUVarint(collection.getNumGeometries());
+                if (collectionIds != null) {
+                    for (long id : collectionIds) {
+                        writeUVarint(zigZag(id));
+                    }
+                }
+            }
+            int multi = collection.getGeometryType() == GeometryType.GEOMETRYCOLLECTION ? 0 : 1;
+            collections.push(new int[]{multi, sizeMark});
+        }
+
+        @Override
+        public <G extends Geometry<P>> void endVisit(AbstractGeometryCollection<P, G> collection) {
+            writeSize(collections.pop()[1]);
+        }
+
+        private boolean inMultiGeometry() {
+            return !collections.isEmpty() && collections.peek()[0] == 1;
+        }
+
+        // writes the header and returns the position where the size is to be inserted, or -1
+        private int writeHeader(Geometry<P> geometry) {
+            boolean hasZ = geometry.hasZ();
+            boolean hasM = geometry.hasM();
+            long type = INSTANCE.geometryTypeCode(geometry);
+            writeByte((int) type | (int) zigZag(xyPrecision) << 4);
+            boolean empty = geometry.isEmpty();
+            boolean withIds = ids != null && collections.isEmpty() && geometry instanceof AbstractGeometryCollection;
+            int metadata = (boundingBox && !empty ? BBOX : 0) | (sizes ? SIZE : 0) | (withIds && !empty ? ID_LIST : 0)
+                    | (hasZ || hasM ? EXTENDED_DIMENSIONS : 0) | (empty ? EMPTY : 0);
+            writeByte(metadata);
+            if (hasZ || hasM) {
+                writeByte((hasZ ? 1 : 0) | (hasM ? 2 : 0) | (hasZ ? zPrecision << 2 : 0) | (hasM ? mPrecision << 5 : 0));
+            }
+
+            scales[0] = scales[1] = Math.pow(10, xyPrecision);
+            scales[2] = Math.pow(10, hasZ ? zPrecision : mPrecision);
+            scales[3] = Math.pow(10, mPrecision);
+            Arrays.fill(previous, 0);
+
+            int sizeMark = sizes ? length : -1;
+            if (boundingBox && !empty) {
+                writeBoundingBox(geometry);
+            }
+            return sizeMark;
+        }
+
+        private void writeBoundingBox(Geometry<P> geometry) {
+            int dimension = geometry.getCoordinateDimension();
+            long[] min = new long[dimension];
+            long[] max = new long[dimension];
+            Arrays.fill(min, Long.MAX_VALUE);
+            Arrays.fill(max, Long.MIN_VALUE);
+            PositionSequence<P> positions = geometry.getPositions();
+            double[] c = coordinates(dimension);
+            for (int i = 0; i < positions.size(); i++) {
+                positions.getCoordinates(i, c);
+                for (int k = 0; k < dimension; k++) {
+                    long value = Math.round(c[k] * scales[k]);
+                    min[k] = Math.min(min[k], value);
+                    max[k] = Math.max(max[k], value);
+                }
+            }
+            for (int k = 0; k < dimension; k++) {
+                writeUVarint(zigZag(min[k]));
+                writeUVarint(zigZag(max[k] - min[k]));
+            }
+        }
+
+        private void writePositions(PositionSequence<P> positions) {
+            int dimension = positions.getCoordinateDimension();
+            double[] c = coordinates(dimension);
+            for (int i = 0; i < positions.size(); i++) {
+                positions.getCoordinates(i, c);
+                for (int k = 0; k < dimension; k++) {
+                    long value = Math.round(c[k] * scales[k]);
+                    writeUVarint(zigZag(value - previous[k]));
+                    previous[k] = value;
+                }
+            }
+        }
+
+        private double[] coordinates(int dimension) {
+            if (coordinates.length < dimension) {
+                coordinates = new double[dimension];
+            }
+            return coordinates;
+        }
+
+        // inserts the size of everything written after the mark at the mark
+        private void writeSize(int mark) {
+            if (mark < 0) {
+                return;
+            }
+            int end = length;
+            writeUVarint(end - mark);
+            int sizeLength = length - end;
+            byte[] size = Arrays.copyOfRange(bytes, end, length);
+            System.arraycopy(bytes, mark, bytes, mark + sizeLength, end - mark);
+            System.arraycopy(size, 0, bytes, mark, sizeLength);
+        }
+
+        private void writeUVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        private void writeByte(int value) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, 2 * length);
+            }
+            bytes[length++] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.geolatte.geom.codec;
+
+import org.geolatte.geom.*;
+
+/**
+ * A WKB encoder for the Tiny WKB format (version 0.23 of the <a href="https://github.com/TWKB/Specification">TWKB
+ * specification</a>).
+ *
+ * <p>Coordinates are rounded to the configured number of decimal places. Unless set explicitly, the XY precision is
+ * 7 decimal places (about 1 cm) for geographic coordinate reference systems and 3 decimal places for all others. The
+ * Z and M precision default to 3 decimal places. Bounding box and size headers are optional, an id list can be
+ * written for multi-geometries and {@code GeometryCollection}s. As TWKB has no byte order, the byte order argument
+ * is ignored.</p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ */
+public class TwkbEncoder implements WkbEncoder {
+
+    /**
+     * The default number of decimal places for Z and M coordinates
+     */
+    public static final int DEFAULT_ZM_PRECISION = 3;
+
+    private static final int AUTO = Integer.MIN_VALUE;
+
+    private final int xyPrecision;
+    private final int zPrecision;
+    private final int mPrecision;
+    private final boolean boundingBox;
+    private final boolean size;
+
+    /**
+     * Constructs an encoder with the default precision, and without bounding box and size headers
+     */
+    public TwkbEncoder() {
+        this(AUTO, DEFAULT_ZM_PRECISION, DEFAULT_ZM_PRECISION, false, false);
+    }
+
+    private TwkbEncoder(int xyPrecision, int zPrecision, int mPrecision, boolean boundingBox, boolean size) {
+        this.xyPrecision = xyPrecision;
+        this.zPrecision = zPrecision;
+        this.mPrecision = mPrecision;
+        this.boundingBox = boundingBox;
+        this.size = size;
+    }
+
+    /**
+     * Returns a copy of this encoder with the specified number of decimal places for X and Y coordinates
+     *
+     * @param xyPrecision the number of decimal places, negative values round to tens, hundreds, ...
+     * @return a new {@code TwkbEncoder}
+     * @throws IllegalArgumentException if xyPrecision is not between -7 and 7
+     */
+    public TwkbEncoder withPrecision(int xyPrecision) {
+        return withPrecision(xyPrecision, zPrecision, mPrecision);
+    }
+
+    /**
+     * Returns a copy of this encoder with the specified number of decimal places
+     *
+     * @param xyPrecision the number of decimal places for X and Y, negative values round to tens, hundreds, ...
+     * @param zPrecision  the number of decimal places for Z
+     * @param mPrecision  the number of decimal places for M
+     * @return a new {@code TwkbEncoder}
+     * @throws IllegalArgumentException if xyPrecision is not between -7 and 7, or zPrecision or mPrecision are not
+     *                                  between 0 and 7
+     */
+    public TwkbEncoder withPrecision(int xyPrecision, int zPrecision, int mPrecision) {
+        if (xyPrecision < -7 || xyPrecision > 7) {
+            throw new IllegalArgumentException("XY precision must be between -7 and 7.");
+        }
+        if (zPrecision < 0 || zPrecision > 7 || mPrecision < 0 || mPrecision > 7) {
+            throw new IllegalArgumentException("Z and M precision must be between 0 and 7.");
+        }
+        return new TwkbEncoder(xyPrecision, zPrecision, mPrecision, boundingBox, size);
+    }
+
+    /**
+     * Returns a copy of this encoder that does or does not write bounding boxes
+     *
+     * @param boundingBox whether to write bounding boxes
+     * @return a new {@code TwkbEncoder}
+     */
+    public TwkbEncoder withBoundingBox(boolean boundingBox) {
+        return new TwkbEncoder(xyPrecision, zPrecision, mPrecision, boundingBox, size);
+    }
+
+    /**
+     * Returns a copy of this encoder that does or does not write the size of geometries
+     *
+     * @param size whether to write sizes
+     * @return a new {@code TwkbEncoder}
+     */
+    public TwkbEncoder withSize(boolean size) {
+        return new TwkbEncoder(xyPrecision, zPrecision, mPrecision, boundingBox, size);
+    }
+
+    @Override
+    public <P extends Position> ByteBuffer encode(Geometry<P> geometry, ByteOrder byteOrder) {
+        return encode(geometry, (long[]) null);
+    }
+
+    /**
+     * Encodes a multi-geometry or {@code GeometryCollection} with an id for each of its components
+     *
+     * @param geometry the geometry to encode
+     * @param ids      the ids of the components, or null to write no ids
+     * @return a ByteBuffer containing the TWKB representation of the geometry
+     * @throws IllegalArgumentException if ids are specified for a geometry that is not a collection, or the number of
+     *                                  ids differs from the number of components
+     */
+    public <P extends Position> ByteBuffer encode(Geometry<P> geometry, long[] ids) {
+        if (ids != null && !(geometry instanceof AbstractGeometryCollection)) {
+            throw new IllegalArgumentException("Ids can only be written for multi-geometries and collections.");
+        }
+        TwkbDialect.TwkbVisitor<P> visitor = new TwkbDialect.TwkbVisitor<>(xyPrecision(geometry), zPrecision,
+                mPrecision, boundingBox, size, ids);
+        geometry.accept(visitor);
+        return visitor.result();
+    }
+
+    private int xyPrecision(Geometry<?> geometry) {
+        if (xyPrecision != AUTO) {
+            return xyPrecision;
+        }
+        return G2D.class.isAssignableFrom(geometry.getCoordinateReferenceSystem().getPositionClass()) ? 7 : 3;
+    }
+}
@@ -66,6 +66,12 @@ public class Wkb {
 
         MYSQL_WKB,
         HANA_EWKB,
+
+        /**
+         * Tiny WKB, version 0.23 of the <a href="https://github.com/TWKB/Specification">TWKB specification</a>.
+         * Use {@link TwkbEncoder} directly to configure the precision, or to write bounding boxes, sizes or ids.
+         */
+        TWKB,
     }
 
     private static final Dialect DEFAULT_DIALECT = Dialect.POSTGIS_EWKB_2;
@@ -81,12 +87,14 @@ public class Wkb {
         DECODERS.put(Dialect.POSTGIS_EWKB_2, PostgisWkbDecoder.class);
         DECODERS.put(Dialect.MYSQL_WKB, MySqlWkbDecoder.class);
         DECODERS.put(Dialect.HANA_EWKB, HANAWkbDecoder.class);
+        DECODERS.put(Dialect.TWKB, TwkbDecoder.class);
         ENCODERS.put(Dialect.SFA_1_1_0, Sfa110WkbEncoder.class);
         ENCODERS.put(Dialect.SFA_1_2_1, Sfa121WkbEncoder.class);
         ENCODERS.put(Dialect.POSTGIS_EWKB_1, PostgisWkbEncoder.class);
         ENCODERS.put(Dialect.POSTGIS_EWKB_2, PostgisWkbV2Encoder.class);
         ENCODERS.put(Dialect.MYSQL_WKB, MySqlWkbEncoder.class);
         ENCODERS.put(Dialect.HANA_EWKB, HANAWkbEncoder.class);
+        ENCODERS.put(Dialect.TWKB, TwkbEncoder.class);
     }
 
 
@@ -25,6 +25,8 @@ import org.geolatte.geom.ByteBuffer;
 import org.geolatte.geom.Geometry;
 import org.geolatte.geom.Position;
 import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.crs.CoordinateReferenceSystems;
+import org.geolatte.geom.crs.CrsRegistry;
 
 /**
  * A decoder for WKB (Well-Known Binary) encoded <code>Geometries</code>.
@@ -59,4 +61,25 @@ public interface WkbDecoder {
      * @throws WkbDecodeException if the specified ByteBuffer is an illegal or unsupported WKB representation
      */
     <P extends Position> Geometry<P> decode(ByteBuffer byteBuffer, CoordinateReferenceSystem<P> crs);
+
+    /**
+     * Decodes a WKB encoded representation of a <code>Geometry</code>, assuming the specified SRID if the WKB doesn't
+     * specify one.
+     *
+     * @param byteBuffer the WKB encoded binary representation
+     * @param srid       the EPSG code of the SRID to assume when the WKB doesn't specify one. If not positive, the
+     *                   default for this decoder is assumed
+     * @return the represented <code>Geometry</code>
+     * @throws WkbDecodeException if the specified ByteBuffer is an illegal or unsupported WKB representation
+     */
+    default Geometry<?> decode(ByteBuffer byteBuffer, int srid) {
+        Geometry<?> geometry = decode(byteBuffer);
+        if (srid <= 0 || geometry.getSRID() > 0) {
+            return geometry;
+        }
+        CoordinateReferenceSystem<?> crs = CrsRegistry.getCoordinateReferenceSystemForEPSG(srid,
+                CoordinateReferenceSystems.PROJECTED_2D_METER);
+        return Geometry.forceToCrs(geometry, CoordinateReferenceSystems.adjustTo(crs,
+                geometry.getCoordinateReferenceSystem().hasZ(), geometry.getCoordinateReferenceSystem().hasM()));
+    }
 }
@@ -26,6 +26,9 @@ import org.geolatte.geom.ByteOrder;
 import org.geolatte.geom.Geometry;
 import org.geolatte.geom.Position;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * An encoder for WKB (Well-Known Binary) encoded <code>Geometries</code>.
  *
@@ -54,4 +57,20 @@ public interface WkbEncoder {
         return encode(geometry, ByteOrder.NDR);
     }
 
+    /**
+     * Encodes a <code>Geometry</code> to its WKB representation, and writes it to the {@code OutputStream}.
+     *
+     * <p>The {@code OutputStream} is neither flushed nor closed.</p>
+     *
+     * @param geometry  the geometry to encode
+     * @param byteOrder the bye-order for the WKB representation
+     * @param out       the {@code OutputStream} to write the WKB representation to
+     * @throws IOException when writing fails
+     */
+    default <P extends Position> void encode(Geometry<P> geometry, ByteOrder byteOrder, OutputStream out)
+            throws IOException {
+        ByteBuffer wkb = encode(geometry, byteOrder);
+        out.write(wkb.toByteArray(), 0, wkb.limit());
+    }
+
 }
@@ -24,6 +24,11 @@ package org.geolatte.geom.codec;
 import org.geolatte.geom.Geometry;
 import org.geolatte.geom.Position;
 import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.crs.CoordinateReferenceSystems;
+import org.geolatte.geom.crs.CrsRegistry;
+
+import java.io.IOException;
+import java.io.Reader;
 
 /**
  * A decoder for WKT (Well-Known Text) representations.
@@ -58,5 +63,53 @@ public interface WktDecoder {
      */
     <P extends Position> Geometry<P> decode(String wkt, CoordinateReferenceSystem<P> crs);
 
+    /**
+     * Decodes a WKT representation, assuming the specified SRID if the WKT doesn't specify one.
+     *
+     * <p>The WKT is parsed directly from the {@code CharSequence}, so large WKT that is already held in a buffer (e.g. a
+     * {@code StringBuilder}) need not first be copied into a {@code String}.</p>
+     *
+     * @param wkt  the WKT text to decode
+     * @param srid the EPSG code of the SRID to assume when the WKT doesn't specify one. If not positive, the default
+     *             for this decoder is assumed
+     * @return the decoded {@code Geometry}
+     * @throws WktDecodeException when the text is an invalid or unsupported WKT representation
+     */
+    default Geometry<?> decode(CharSequence wkt, int srid) {
+        Geometry<?> geometry = decode(wkt.toString());
+        if (srid <= 0 || geometry.getSRID() > 0) {
+            return geometry;
+        }
+        CoordinateReferenceSystem<?> crs = CrsRegistry.ifAbsentReturnProjected2D(srid);
+        return Geometry.forceToCrs(geometry, CoordinateReferenceSystems.adjustTo(crs,
+                geometry.getCoordinateReferenceSystem().hasZ(), geometry.getCoordinateReferenceSystem().hasM()));
+    }
+
+    /**
+     * Decodes the WKT representation read from the {@code Reader}, assuming the specified SRID if the WKT doesn't
+     * specify one.
+     *
+     * <p>The {@code Reader} is read until its end, but not closed.</p>
+     *
+     * @param reader the {@code Reader} to read the WKT text from
+     * @param srid   the EPSG code of the SRID to assume when the WKT doesn't specify one. If not positive, the default
+     *               for this decoder is assumed
+     * @return the decoded {@code Geometry}
+     * @throws WktDecodeException when the text is an invalid or unsupported WKT representation, or reading fails
+     */
+    default Geometry<?> decode(Reader reader, int srid) {
+        StringBuilder wkt = new StringBuilder();
+        char[] buffer = new char[8192];
+        try {
+            int read;
+            while ((read = reader.read(buffer)) >= 0) {
+                wkt.append(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new WktDecodeException("Failure reading WKT", e);
+        }
+        return decode(wkt, srid);
+    }
+
 
 }
@@ -3,6 +3,7 @@ package org.geolatte.geom.codec;
 import org.geolatte.geom.Geometry;
 import org.geolatte.geom.GeometryType;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -32,7 +33,7 @@ class WktDialect {
         return Collections.unmodifiableMap(GEOMETRY_TYPE_PATTERN_MAP);
     }
 
-    void addGeometryTag(StringBuilder buffer, Geometry<?> geometry) {
+    void addGeometryTag(Appendable buffer, Geometry<?> geometry) throws IOException {
         switch (geometry.getGeometryType()) {
             case POINT:
                 buffer.append("POINT");
@@ -74,13 +75,13 @@ class WktDialect {
         return false;
     }
 
-    void addGeometryZMMarker(StringBuilder buffer, Geometry<?> geometry) {
+    void addGeometryZMMarker(Appendable buffer, Geometry<?> geometry) throws IOException {
         if (geometry.hasM() && geometry.getCoordinateDimension() < 4)
             buffer.append('M');
     }
 
 
-    public void addSrid(StringBuilder builder, int srid) {
+    public void addSrid(Appendable builder, int srid) throws IOException {
 
     }
 
@@ -24,6 +24,9 @@ package org.geolatte.geom.codec;
 import org.geolatte.geom.Geometry;
 import org.geolatte.geom.Position;
 
+import java.io.IOException;
+import java.io.Writer;
+
 /**
  * An Encoder for WKT (Well-Known Text) representations.
  * <p>In general <code>WktEncoder</code> implementations are not be thread-safe.</p>
@@ -38,4 +41,17 @@ public interface WktEncoder {
      * @return a WKT representation of the specified object.
      */
     <P extends Position> String encode(Geometry<P> geometry);
+
+    /**
+     * Encodes an object to its WKT representation, and writes it to the {@code Writer}.
+     *
+     * <p>The {@code Writer} is neither flushed nor closed.</p>
+     *
+     * @param geometry the <code>Geometry</code> instance to encode
+     * @param writer   the {@code Writer} to write the WKT representation to
+     * @throws IOException when writing fails
+     */
+    default <P extends Position> void encode(Geometry<P> geometry, Writer writer) throws IOException {
+        writer.write(encode(geometry));
+    }
 }
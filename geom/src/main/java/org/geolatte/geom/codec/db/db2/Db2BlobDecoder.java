@@ -0,0 +1,81 @@
+package org.geolatte.geom.codec.db.db2;
+
+import org.geolatte.geom.ByteBuffer;
+import org.geolatte.geom.Geometry;
+import org.geolatte.geom.codec.Wkb;
+import org.geolatte.geom.codec.WkbDecoder;
+import org.geolatte.geom.codec.db.Decoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.SQLException;
+
+/**
+ * A {@code Decoder} for DB2 geometries that are exchanged as WKB (e.g. using {@code ST_AsBinary}).
+ * <p>
+ * The WKB is read from the binary stream of the {@code Blob} directly into the buffer that is decoded.
+ *
+ * @see Db2BlobEncoder
+ */
+public class Db2BlobDecoder implements Decoder<Blob> {
+
+    final private Integer srid;
+
+    /**
+     * The EPSG code that will be assumed for the decoded geometries, as WKB doesn't carry an SRID.
+     *
+     * @param srid
+     */
+    public Db2BlobDecoder(Integer srid) {
+        this.srid = srid;
+    }
+
+    @Override
+    public Geometry<?> decode(Blob blob) {
+        WkbDecoder decoder = Wkb.newDecoder(Wkb.Dialect.SFA_1_2_1);
+        return decoder.decode(ByteBuffer.from(readBlob(blob)), srid == null ? 0 : srid);
+    }
+
+    @Override
+    public boolean accepts(Blob blob) {
+        return true;
+    }
+
+    /**
+     * @param blob - spatial value represented as WKB comes in as Blob type
+     * @return The spatial value as WKB bytes
+     */
+    private byte[] readBlob(Blob blob) {
+        try (InputStream in = blob.getBinaryStream()) {
+            long length = blob.length();
+            if (length > 0 && length < Integer.MAX_VALUE) {
+                return readFully(in, (int) length);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[0x10000];
+            int read;
+            while ((read = in.read(buffer, 0, buffer.length)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException | SQLException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int read = in.read(bytes, offset, length - offset);
+            if (read < 0) {
+                throw new IOException(String.format("Unexpected end of Blob stream after %d of %d bytes", offset, length));
+            }
+            offset += read;
+        }
+        return bytes;
+    }
+
+}
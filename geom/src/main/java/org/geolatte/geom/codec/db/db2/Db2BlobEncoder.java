@@ -0,0 +1,78 @@
+package org.geolatte.geom.codec.db.db2;
+
+import org.geolatte.geom.ByteBuffer;
+import org.geolatte.geom.ByteOrder;
+import org.geolatte.geom.Geometry;
+import org.geolatte.geom.Position;
+import org.geolatte.geom.codec.Wkb;
+import org.geolatte.geom.codec.WkbEncoder;
+import org.geolatte.geom.codec.db.Encoder;
+
+import javax.sql.rowset.serial.SerialBlob;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Blob;
+import java.sql.SQLException;
+
+/**
+ * An {@code Encoder} for DB2 geometries that are exchanged as WKB (e.g. using {@code ST_GeomFromWKB}).
+ * <p>
+ * WKB doesn't carry an SRID, so it needs to be passed separately to DB2.
+ *
+ * @see Db2BlobDecoder
+ */
+public class Db2BlobEncoder implements Encoder<Blob> {
+
+    @Override
+    public <P extends Position, G extends Geometry<P>> Blob encode(G geom) {
+        try {
+            return new SerialBlob(toWkb(geom).toByteArray());
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Writes the WKB of the geometry to the {@code OutputStream}, e.g. the binary stream of a {@code Blob}. The WKB
+     * is streamed as it is encoded, without first encoding it to a buffer.
+     *
+     * @param geom the geometry to encode
+     * @param out  the {@code OutputStream} to write the WKB to
+     * @throws IOException when writing fails
+     */
+    public <P extends Position, G extends Geometry<P>> void encode(G geom, OutputStream out) throws IOException {
+        newEncoder().encode(geom, ByteOrder.NDR, out);
+    }
+
+    /**
+     * Writes the WKB of the geometry to the {@code Blob}, replacing its current content.
+     *
+     * @param geom the geometry to encode
+     * @param blob the {@code Blob} to write to
+     * @return the {@code Blob}
+     */
+    public <P extends Position, G extends Geometry<P>> Blob encode(G geom, Blob blob) {
+        try {
+            blob.truncate(0);
+            try (OutputStream out = blob.setBinaryStream(1)) {
+                encode(geom, out);
+            }
+            return blob;
+        } catch (IOException | SQLException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    @Override
+    public <P extends Position> boolean accepts(Geometry<P> geom) {
+        return true;
+    }
+
+    private ByteBuffer toWkb(Geometry<?> geom) {
+        return newEncoder().encode(geom, ByteOrder.NDR);
+    }
+
+    private WkbEncoder newEncoder() {
+        return Wkb.newEncoder(Wkb.Dialect.SFA_1_2_1);
+    }
+}
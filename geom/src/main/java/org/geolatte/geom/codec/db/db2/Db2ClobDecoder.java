@@ -6,7 +6,6 @@ import org.geolatte.geom.codec.WktDecoder;
 import org.geolatte.geom.codec.db.Decoder;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.sql.Clob;
@@ -25,7 +24,7 @@ public class Db2ClobDecoder implements Decoder<Clob> {
     final private Integer srid;
 
     /**
-     * The EPSG code that will be prepended before decoding.
+     * The EPSG code that will be assumed when the WKT doesn't specify one.
      *
      * @param srid
      */
@@ -35,14 +34,8 @@ public class Db2ClobDecoder implements Decoder<Clob> {
 
     @Override
     public Geometry<?> decode(Clob clob) {
-        String wkt = clobToString(clob);
         WktDecoder decoder = Wkt.newDecoder(Wkt.Dialect.DB2_WKT);
-        if (wkt.substring(0, 4).toUpperCase().startsWith("SRID")) {
-            return decoder.decode(wkt);
-        } else {
-            return decoder.decode(String.format("SRID=%d;%s", srid, wkt));
-        }
-
+        return decoder.decode(readClob(clob), srid == null ? 0 : srid);
     }
 
     @Override
@@ -51,40 +44,25 @@ public class Db2ClobDecoder implements Decoder<Clob> {
     }
 
     /**
+     * Reads the WKT in the clob into a buffer that is sized to the length of the clob, so that the WKT is copied
+     * only once before it is parsed.
+     *
      * @param clob - spatial value represented as WKT comes in as Clob type
-     * @return The spatial value as WKT String type
+     * @return The spatial value as WKT
      */
-    private String clobToString(Clob clob) {
-        InputStream in = null;
-        Reader in2 = null;
-        final char[] buffer = new char[0x10000];
-        StringBuilder out = new StringBuilder();
-        try {
-            in = clob.getAsciiStream();
-            in2 = new InputStreamReader(in);
+    private CharSequence readClob(Clob clob) {
+        try (Reader in = new InputStreamReader(clob.getAsciiStream())) {
+            long length = clob.length();
+            StringBuilder out = new StringBuilder(length > 0 && length < Integer.MAX_VALUE ? (int) length : 16);
+            final char[] buffer = new char[0x10000];
             int read;
-            do {
-                read = in2.read(buffer, 0, buffer.length);
-                if (read > 0) {
-                    out.append(buffer, 0, read);
-                }
-            } while (read >= 0);
-
+            while ((read = in.read(buffer, 0, buffer.length)) >= 0) {
+                out.append(buffer, 0, read);
+            }
+            return out;
         } catch (IOException | SQLException ex) {
             throw new RuntimeException(ex);
-        } finally {
-            try {
-                if (in != null) {
-                    in.close();
-                }
-                if (in2 != null) {
-                    in2.close();
-                }
-            } catch (IOException e) {
-                // nothing to do
-            }
         }
-        return out.toString();
     }
 
 }
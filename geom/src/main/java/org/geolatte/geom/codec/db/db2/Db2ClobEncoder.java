@@ -6,6 +6,11 @@ import org.geolatte.geom.codec.Wkt;
 import org.geolatte.geom.codec.WktEncoder;
 import org.geolatte.geom.codec.db.Encoder;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Clob;
+import java.sql.SQLException;
+
 /**
  * An {@code Encoder} for DB2 as used in Hibernate Spatial
  * <p>
@@ -23,6 +28,37 @@ public class Db2ClobEncoder implements Encoder<String> {
         return encoder.encode(geom);
     }
 
+    /**
+     * Writes the WKT of the geometry to the {@code Writer}, e.g. the character stream of a {@code Clob}
+     *
+     * @param geom   the geometry to encode
+     * @param writer the {@code Writer} to write the WKT to
+     * @throws IOException when writing fails
+     */
+    public <P extends Position, G extends Geometry<P>> void encode(G geom, Writer writer) throws IOException {
+        WktEncoder encoder = Wkt.newEncoder(Wkt.Dialect.DB2_WKT);
+        encoder.encode(geom, writer);
+    }
+
+    /**
+     * Writes the WKT of the geometry to the {@code Clob}, replacing its current content.
+     *
+     * @param geom the geometry to encode
+     * @param clob the {@code Clob} to write to
+     * @return the {@code Clob}
+     */
+    public <P extends Position, G extends Geometry<P>> Clob encode(G geom, Clob clob) {
+        try {
+            clob.truncate(0);
+            try (Writer writer = clob.setCharacterStream(1)) {
+                encode(geom, writer);
+            }
+            return clob;
+        } catch (IOException | SQLException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     @Override
     public <P extends Position> boolean accepts(Geometry<P> geom) {
         return false;
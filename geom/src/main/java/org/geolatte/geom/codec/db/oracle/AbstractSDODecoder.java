@@ -1,12 +1,15 @@
 package org.geolatte.geom.codec.db.oracle;
 
 import org.geolatte.geom.*;
-import org.geolatte.geom.cga.CircularArcLinearizer;
+import org.geolatte.geom.cga.ArcLinearizer;
 import org.geolatte.geom.codec.db.Decoder;
 import org.geolatte.geom.crs.CoordinateReferenceSystem;
 import org.geolatte.geom.crs.CoordinateReferenceSystems;
 import org.geolatte.geom.crs.CrsRegistry;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.geolatte.geom.PositionSequenceBuilders.fixedSized;
 
 /**
@@ -17,6 +20,8 @@ abstract public class AbstractSDODecoder implements Decoder<SDOGeometry> {
 
     //TODO -- this should be parameterized.
     private static final double LINEARIZER_EPSILON = 0.0001;
+    private static final ArcLinearizer LINEARIZER = new ArcLinearizer(LINEARIZER_EPSILON)
+            .withCache(Settings.arcCacheSize());
     private CoordinateReferenceSystem<?> crs;
 
     @Override
@@ -62,9 +67,23 @@ abstract public class AbstractSDODecoder implements Decoder<SDOGeometry> {
     }
 
     //Note in these and subsequent private methods we pass in the crs so that type inferencing can occur
-    protected <P extends Position> PositionSequence<P> convertOrdinateArray(Double[] oordinates, SDOGeometry sdoGeom, CoordinateReferenceSystem<P> crs) {
+    protected <P extends Position> PositionSequence<P> convertOrdinateArray(double[] oordinates, SDOGeometry sdoGeom, CoordinateReferenceSystem<P> crs) {
+        return convertOrdinateArray(oordinates, 0, oordinates.length, sdoGeom, crs);
+    }
+
+    /**
+     * Converts a range of an ordinate array to a {@code PositionSequence}.
+     *
+     * @param oordinates the ordinate array
+     * @param offset     the (0-based) index of the first ordinate to convert
+     * @param length     the number of ordinates to convert
+     * @param sdoGeom    the {@code SDOGeometry} that determines the layout of the ordinates
+     * @param crs        the {@code CoordinateReferenceSystem} of the result
+     * @return a {@code PositionSequence} for the specified range of ordinates
+     */
+    protected <P extends Position> PositionSequence<P> convertOrdinateArray(double[] oordinates, int offset, int length, SDOGeometry sdoGeom, CoordinateReferenceSystem<P> crs) {
         final int dim = sdoGeom.getDimension();
-        int numPos = oordinates.length / dim;
+        int numPos = length / dim;
 
         PositionSequenceBuilder<P> sequenceBuilder = fixedSized(numPos, crs.getPositionClass());
 
@@ -72,22 +91,19 @@ abstract public class AbstractSDODecoder implements Decoder<SDOGeometry> {
         final int lrsDim = sdoGeom.getLRSDimension() - 1;
 
         double[] buffer = new double[dim];
-        for (int posIdx = 0; posIdx < numPos; posIdx++) {
+        for (int posIdx = 0, base = offset; posIdx < numPos; posIdx++, base += dim) {
             int componentIdx = 0; //tracks component in Position
-            buffer[componentIdx] = oordinates[posIdx * dim + componentIdx]; //x
+            buffer[componentIdx] = oordinates[base]; //x
             componentIdx++;
-            buffer[componentIdx] = oordinates[posIdx * dim + componentIdx]; //y
+            buffer[componentIdx] = oordinates[base + 1]; //y
             if (zDim > 0) {
                 componentIdx++;
-                /*
-                 * Z ordinate can be null! This is valid in ORACLE, but leads to an NPE because of autoboxing.
-                 */
-                Double zOrdinate = oordinates[posIdx * dim + zDim];
-                buffer[componentIdx] = zOrdinate == null ? Double.NaN : zOrdinate;
+                // Z ordinate can be null in ORACLE, these are already mapped to NaN.
+                buffer[componentIdx] = oordinates[base + zDim];
             }
             if (lrsDim > 0) {
                 componentIdx++;
-                buffer[componentIdx] = oordinates[posIdx * dim + lrsDim];
+                buffer[componentIdx] = oordinates[base + lrsDim];
             }
 
             sequenceBuilder.add(buffer);
@@ -108,52 +124,53 @@ abstract public class AbstractSDODecoder implements Decoder<SDOGeometry> {
         }
         int totalSize = seq1.size() - seq1Offset + seq2.size() - seq2Offset;
         PositionSequenceBuilder<P> builder = fixedSized(totalSize, seq1.getPositionClass());
-        CombiningVisitor<P> visitor = new CombiningVisitor<P>(builder);
-
-        addToBuilder(seq1, seq1Offset, builder, visitor);
-        addToBuilder(seq2, seq2Offset, builder, visitor);
+        addToBuilder(seq1, seq1Offset, builder);
+        addToBuilder(seq2, seq2Offset, builder);
         return builder.toPositionSequence();
 
     }
 
-    private <P extends Position> void addToBuilder(PositionSequence<P> seq, int skip, PositionSequenceBuilder<P> builder, CombiningVisitor<P> visitor) {
-        if (skip == 0) {
-            seq.accept(visitor);
-        } else {
-            for (P pos : seq) {
-                if (skip-- <= 0) {
-                    builder.add(pos);
-                }
+    /**
+     * Concatenates the specified sequences in a single pass.
+     *
+     * @param sequences the sequences to concatenate
+     * @param skipFirst if true, the first position of each but the first sequence is skipped, because it is the
+     *                  same as the last position of the preceding sequence
+     * @return the concatenated {@code PositionSequence}
+     */
+    protected <P extends Position> PositionSequence<P> concat(List<PositionSequence<P>> sequences, boolean skipFirst) {
+        if (sequences.isEmpty()) {
+            return null;
+        }
+        if (sequences.size() == 1) {
+            return sequences.get(0);
+        }
+        int totalSize = 0;
+        for (int i = 0; i < sequences.size(); i++) {
+            totalSize += sequences.get(i).size();
+            if (skipFirst && i > 0 && sequences.get(i).size() > 0) {
+                totalSize--;
             }
         }
+        PositionSequence<P> first = sequences.get(0);
+        PositionSequenceBuilder<P> builder = fixedSized(totalSize, first.getPositionClass());
+        for (int i = 0; i < sequences.size(); i++) {
+            addToBuilder(sequences.get(i), skipFirst && i > 0 ? 1 : 0, builder);
+        }
+        return builder.toPositionSequence();
     }
 
-
-    abstract Geometry<?> internalDecode(SDOGeometry nativeGeom);
-
-
-    static class CombiningVisitor<P extends Position> implements LLAPositionVisitor {
-
-        final PositionSequenceBuilder<P> builder;
-
-        CombiningVisitor(PositionSequenceBuilder<P> builder) {
-            this.builder = builder;
+    private <P extends Position> void addToBuilder(PositionSequence<P> seq, int skip, PositionSequenceBuilder<P> builder) {
+        double[] buffer = new double[seq.getCoordinateDimension()];
+        for (int i = skip; i < seq.size(); i++) {
+            seq.getCoordinates(i, buffer);
+            builder.add(buffer);
         }
+    }
 
-        /**
-         * The visit method that is executed for each coordinate.
-         *
-         * @param coordinate the visited coordinate in array representation
-         */
-        @Override
-        public void visit(double[] coordinate) {
-            this.builder.add(coordinate);
-        }
 
-        PositionSequence<P> result() {
-            return builder.toPositionSequence();
-        }
-    }
+    abstract Geometry<?> internalDecode(SDOGeometry nativeGeom);
+
 
     /**
      * Gets the CoordinateSequence corresponding to a compound element.
@@ -164,17 +181,13 @@ abstract public class AbstractSDODecoder implements Decoder<SDOGeometry> {
      * @return
      */
     protected <P extends Position> PositionSequence<P> getCompoundCSeq(int idxFirst, int idxLast, SDOGeometry sdoGeom) {
-        PositionSequence<P> cs = null;
+        List<PositionSequence<P>> parts = new ArrayList<>(idxLast - idxFirst + 1);
         for (int i = idxFirst; i <= idxLast; i++) {
-            // pop off the last element as it is added with the next
-            // coordinate sequence
-            if (cs != null && cs.size() > 0) {
-                cs = add(cs, 0, getElementCSeq(i, sdoGeom, (i < idxLast), (CoordinateReferenceSystem<P>) crs), 1);
-            } else {
-                cs = add(cs, getElementCSeq(i, sdoGeom, (i < idxLast), (CoordinateReferenceSystem<P>) crs));
-            }
+            // the last element of each sub-element is the first of the next, so it is
+            // popped off when concatenating
+            parts.add(getElementCSeq(i, sdoGeom, (i < idxLast), (CoordinateReferenceSystem<P>) crs));
         }
-        return cs;
+        return concat(parts, true);
     }
 
     /**
@@ -186,15 +199,17 @@ abstract public class AbstractSDODecoder implements Decoder<SDOGeometry> {
      */
     protected <P extends Position> PositionSequence<P> getElementCSeq(int i, SDOGeometry sdoGeom, boolean hasNextSE, CoordinateReferenceSystem<P> crs) {
         final ElementType type = sdoGeom.getInfo().getElementType(i);
-        final Double[] elemOrdinates = extractOrdinatesOfElement(i, sdoGeom, hasNextSE);
+        final double[] ordinates = sdoGeom.getOrdinates().getOrdinateArray();
+        final int start = getElementStartIndex(i, sdoGeom);
+        final int length = getElementEndIndex(i, sdoGeom, hasNextSE) - start;
         PositionSequence<P> cs;
         if (type.isStraightSegment()) {
-            cs = convertOrdinateArray(elemOrdinates, sdoGeom, crs);
+            cs = convertOrdinateArray(ordinates, start, length, sdoGeom, crs);
         } else if (type.isArcSegment() || type.isCircle()) {
-            cs = linearize(convertOrdinateArray(elemOrdinates, sdoGeom, crs),
+            cs = linearize(convertOrdinateArray(ordinates, start, length, sdoGeom, crs),
                     type.isCircle());
         } else if (type.isRect()) {
-            cs = convertOrdinateArray(elemOrdinates, sdoGeom, crs);
+            cs = convertOrdinateArray(ordinates, start, length, sdoGeom, crs);
             cs = env2Seq(cs.getPositionN(0), cs.getPositionN(1), type.isExteriorRing());
         } else {
             throw new RuntimeException(
@@ -230,7 +245,7 @@ abstract public class AbstractSDODecoder implements Decoder<SDOGeometry> {
      * @return linearized interpolation of arcs or circle
      */
     protected <P extends Position> PositionSequence<P> linearize(PositionSequence<P> positions, boolean entireCirlce) {
-        PositionSequence<P> result = null;
+        List<PositionSequence<P>> arcs = new ArrayList<>();
         int idx = 0;
 
         while (idx < positions.size() - 2) { //only iterate if we have at least three more points
@@ -238,44 +253,40 @@ abstract public class AbstractSDODecoder implements Decoder<SDOGeometry> {
             P p1 = positions.getPositionN(idx++);
             P p2 = positions.getPositionN(idx); //dont' increment, we repeat next iteration from this index
 
-            CircularArcLinearizer<P> linearizer = new CircularArcLinearizer<P>(p0, p1, p2,
-                    LINEARIZER_EPSILON);
-
-
-            PositionSequence<P> ps;
             if (entireCirlce) {
-                ps = linearizer.linearizeCircle();
+                arcs.add(LINEARIZER.linearizeCircle(p0, p1, p2));
             } else {
-                ps = linearizer.linearize();
-            }
-
-
-            // if this is not the first arcsegment, the first linearized
-            // point is already in linearizedArc, so disregard this.
-            if (result == null) { // this is the first iteration
-                result = ps;
-            } else {
-                result = add(result, 0, ps, 1);
+                arcs.add(LINEARIZER.linearize(p0, p1, p2));
             }
         }
-        return result;
+        // if this is not the first arcsegment, the first linearized
+        // point is already in the result, so disregard this.
+        return concat(arcs, true);
+    }
+
+    /**
+     * Returns the (0-based) index of the first ordinate of the specified element.
+     */
+    protected int getElementStartIndex(int element, SDOGeometry sdoGeom) {
+        return sdoGeom.getInfo().getOrdinatesOffset(element) - 1;
     }
 
-    protected Double[] extractOrdinatesOfElement(int element, SDOGeometry sdoGeom, boolean hasNextSE) {
-        final int start = sdoGeom.getInfo().getOrdinatesOffset(element);
+    /**
+     * Returns the (0-based, exclusive) index of the last ordinate of the specified element.
+     */
+    protected int getElementEndIndex(int element, SDOGeometry sdoGeom, boolean hasNextSE) {
         if (element < sdoGeom.getInfo().getSize() - 1) {
-            int end = sdoGeom.getInfo().getOrdinatesOffset(element + 1);
+            int end = sdoGeom.getInfo().getOrdinatesOffset(element + 1) - 1;
             // if this is a subelement of a compound geometry,
             // the last point is the first point of
             // the next subelement.
             if (hasNextSE) {
                 end += sdoGeom.getDimension();
             }
-            return sdoGeom.getOrdinates().getOrdinatesArray(start, end);
+            return end;
         } else {
-            return sdoGeom.getOrdinates().getOrdinatesArray(start);
+            return sdoGeom.getOrdinates().size();
         }
     }
 
-
 }
@@ -4,10 +4,6 @@ import org.geolatte.geom.*;
 import org.geolatte.geom.cga.NumericalMethods;
 import org.geolatte.geom.codec.db.Encoder;
 
-import java.util.Stack;
-
-import static org.geolatte.geom.PositionSequenceBuilders.fixedSized;
-
 /**
  * Created by Karel Maesen, Geovise BVBA on 01/04/15.
  */
@@ -25,36 +21,30 @@ abstract public class AbstractSDOEncoder implements Encoder<SDOGeometry> {
         return 0;
     }
 
-    protected SDOGeometry addPolygon(SDOGeometry sdoGeom, Polygon polygon) {
+    protected SDOGeometry addPolygon(SDOGeometry sdoGeom, Polygon<?> polygon) {
         final int numInteriorRings = polygon.getNumInteriorRing();
         final ElemInfo info = new ElemInfo(numInteriorRings + 1);
         int ordinatesPreviousOffset = 0;
         if (sdoGeom.getOrdinates() != null) {
-            ordinatesPreviousOffset = sdoGeom.getOrdinates().getOrdinateArray().length;
+            ordinatesPreviousOffset = sdoGeom.getOrdinates().size();
         }
-        int ordinatesOffset = ordinatesPreviousOffset + 1;
-        Double[] ordinates = new Double[]{};
+        final double[] ordinates = new double[polygon.getNumPositions() * polygon.getCoordinateDimension()];
+        int idx = 0;
         for (int i = 0; i < info.getSize(); i++) {
             ElementType et;
-            PositionSequence<?> positionSequence;
+            LinearRing<?> ring;
+            boolean reverse;
             if (i == 0) {
                 et = ElementType.EXTERIOR_RING_STRAIGHT_SEGMENTS;
-                LinearRing<?> exteriorRing = polygon.getExteriorRing();
-                positionSequence = exteriorRing.getPositions();
-                if (!isCounterClockwise(exteriorRing)) {
-                    positionSequence = reverse(positionSequence);
-                }
+                ring = polygon.getExteriorRing();
+                reverse = !isCounterClockwise(ring);
             } else {
                 et = ElementType.INTERIOR_RING_STRAIGHT_SEGMENTS;
-                LinearRing<?> interiorRing = polygon.getInteriorRingN(i - 1);
-                positionSequence = interiorRing.getPositions();
-                if (isCounterClockwise(interiorRing)) {
-                    positionSequence = reverse(positionSequence);
-                }
+                ring = polygon.getInteriorRingN(i - 1);
+                reverse = isCounterClockwise(ring);
             }
-            info.setElement(i, ordinatesOffset, et, 0);
-            ordinates = addOrdinates(ordinates, convertPositionSequence(positionSequence));
-            ordinatesOffset = ordinatesPreviousOffset + ordinates.length + 1;
+            info.setElement(i, ordinatesPreviousOffset + idx + 1, et, 0);
+            idx = copyOrdinates(ring.getPositions(), reverse, ordinates, idx);
         }
         ElemInfo newInfo = addElementInfo(sdoGeom.getInfo(), info);
         Ordinates newOrdiantes = addOrdinates(sdoGeom.getOrdinates(), ordinates);
@@ -67,7 +57,7 @@ abstract public class AbstractSDOEncoder implements Encoder<SDOGeometry> {
         return oldInfo;
     }
 
-    protected Ordinates addOrdinates(Ordinates oldOrdinates, Double[] newOrdinates) {
+    protected Ordinates addOrdinates(Ordinates oldOrdinates, double[] newOrdinates) {
         if (oldOrdinates == null) {
             return new Ordinates(newOrdinates);
         } else {
@@ -76,50 +66,35 @@ abstract public class AbstractSDOEncoder implements Encoder<SDOGeometry> {
         }
     }
 
-    protected Double[] convertPositionSequence(PositionSequence<?> coordinates) {
+    protected double[] convertPositionSequence(PositionSequence<?> coordinates) {
         int dim = coordinates.getCoordinateDimension();
         if (dim > 4) {
             throw new IllegalArgumentException("Dim parameter value cannot be greater than 4");
         }
-        final Double[] converted = new Double[coordinates.size() * dim];
-        LLAPositionVisitor visitor = new ToArrayVisitor(converted);
-        coordinates.accept(visitor);
+        final double[] converted = new double[coordinates.size() * dim];
+        copyOrdinates(coordinates, false, converted, 0);
         return converted;
     }
 
-    protected <P extends Position> PositionSequence<P> reverse(PositionSequence<P> positions) {
-        PositionSequenceBuilder<P> builder = fixedSized(positions.size(), positions.getPositionClass());
-        Stack<P> stack = new Stack<P>();
-        for (P pos : positions) {
-            stack.push(pos);
-        }
-        while (!stack.empty()) {
-            builder.add(stack.pop());
-        }
-        return builder.toPositionSequence();
-    }
-
-    protected Double[] addOrdinates(Double[] oldOrdinates, Double[] newOrdinates) {
-        final Double[] combined = new Double[oldOrdinates.length + newOrdinates.length];
-        System.arraycopy(oldOrdinates, 0, combined, 0, oldOrdinates.length);
-        System.arraycopy(newOrdinates, 0, combined, oldOrdinates.length, newOrdinates.length);
-        return combined;
-    }
-
-    static class ToArrayVisitor implements LLAPositionVisitor {
-        private final Double[] result;
-        int idx = 0;
-
-        ToArrayVisitor(Double[] result) {
-            this.result = result;
-        }
-
-        @Override
-        public void visit(double[] coordinate) {
-            for (int i = 0; i < coordinate.length; i++) {
-                result[idx++] = toDouble(coordinate[i]);
-            }
+    /**
+     * Copies the ordinates of the positions in the sequence into the target array.
+     *
+     * @param positions the positions to copy
+     * @param reverse   if true, the positions are copied in reverse order
+     * @param target    the target array
+     * @param offset    the index in the target array where to start copying
+     * @return the index in the target array after the last copied ordinate
+     */
+    protected int copyOrdinates(PositionSequence<?> positions, boolean reverse, double[] target, int offset) {
+        final int dim = positions.getCoordinateDimension();
+        final double[] buffer = new double[dim];
+        final int size = positions.size();
+        for (int i = 0; i < size; i++) {
+            positions.getCoordinates(reverse ? size - 1 - i : i, buffer);
+            System.arraycopy(buffer, 0, target, offset, dim);
+            offset += dim;
         }
+        return offset;
     }
 
     private boolean isCounterClockwise(LinearRing<?> ring) {
@@ -132,15 +107,4 @@ abstract public class AbstractSDOEncoder implements Encoder<SDOGeometry> {
         }
     }
 
-    /**
-     * This method converts a double primitive to a Double wrapper instance, but
-     * treats a Double.NaN value as null.
-     *
-     * @param d the value to be converted
-     * @return A Double instance of d, Null if the parameter is Double.NaN
-     */
-    private static Double toDouble(double d) {
-        return Double.isNaN(d) ? null : d;
-    }
-
 }
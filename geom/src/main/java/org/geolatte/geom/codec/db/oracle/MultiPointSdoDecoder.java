@@ -17,7 +17,7 @@ public class MultiPointSdoDecoder extends AbstractSDODecoder {
     @SuppressWarnings("unchecked")
     Geometry<?> internalDecode(SDOGeometry sdoGeom) {
         CoordinateReferenceSystem<?> crs = getCoordinateReferenceSystem(sdoGeom);
-        final Double[] ordinates = sdoGeom.getOrdinates().getOrdinateArray();
+        final double[] ordinates = sdoGeom.getOrdinates().getOrdinateArray();
         PositionSequence<? extends Position> positions = convertOrdinateArray(ordinates, sdoGeom, crs);
         Point[] pnts = new Point[positions.size()];
         int i = 0;
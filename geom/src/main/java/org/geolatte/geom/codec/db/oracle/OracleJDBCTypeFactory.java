@@ -149,10 +149,22 @@ public class OracleJDBCTypeFactory implements SQLTypeFactory {
     @Override
     public Array createOrdinatesArray(Ordinates ordinates, Connection conn) throws SQLException {
         final Object arrayDescriptor = createArrayDescriptor(Ordinates.TYPE_NAME, conn);
-        return createArray(arrayDescriptor, conn, ordinates.getOrdinateArray());
+        return createArray(arrayDescriptor, conn, toBigDecimals(ordinates.getOrdinateArray()));
 
     }
 
+    /**
+     * Converts the ordinates in a single pass to the {@code BigDecimal}s expected by the Oracle driver,
+     * mapping {@code Double.NaN} to NULL.
+     */
+    private static BigDecimal[] toBigDecimals(double[] ordinates) {
+        final BigDecimal[] result = new BigDecimal[ordinates.length];
+        for (int i = 0; i < ordinates.length; i++) {
+            result[i] = Double.isNaN(ordinates[i]) ? null : BigDecimal.valueOf(ordinates[i]);
+        }
+        return result;
+    }
+
     private Array createArray(Object descriptor, Connection conn, Object[] data) {
         boolean shouldConvertToBigDecimal = Arrays.stream(data).allMatch(e -> e instanceof Double || e == null);
         try {
@@ -25,6 +25,10 @@ import java.sql.Array;
 import java.util.Arrays;
 
 /**
+ * The SDO_ORDINATE_ARRAY of an {@code SDOGeometry}.
+ *
+ * <p>Ordinates are held in a primitive {@code double[]}. Oracle NULL values are represented as {@code Double.NaN}.</p>
+ *
  * @author Karel Maesen, Geovise BVBA
  * creation-date: Jul 1, 2010
  */
@@ -32,22 +36,34 @@ class Ordinates {
 
     static final String TYPE_NAME = "MDSYS.SDO_ORDINATE_ARRAY";
 
-    private Double[] ordinates;
+    private double[] ordinates;
 
-    public Ordinates(Double[] ordinates) {
+    private int size;
+
+    public Ordinates(double[] ordinates) {
         this.ordinates = ordinates;
+        this.size = ordinates.length;
+    }
+
+    public Ordinates(Double[] ordinates) {
+        this.ordinates = new double[ordinates.length];
+        this.size = ordinates.length;
+        for (int i = 0; i < ordinates.length; i++) {
+            this.ordinates[i] = ordinates[i] != null ? ordinates[i] : Double.NaN;
+        }
     }
 
     public Ordinates(Array array) {
         if (array == null) {
-            this.ordinates = new Double[]{};
+            this.ordinates = new double[0];
             return;
         }
         try {
-            final Number[] ords = (Number[]) array.getArray();
-            this.ordinates = new Double[ords.length];
+            final Object[] ords = (Object[]) array.getArray();
+            this.ordinates = new double[ords.length];
+            this.size = ords.length;
             for (int i = 0; i < ords.length; i++) {
-                this.ordinates[i] = ords[i] != null ? ords[i].doubleValue()
+                this.ordinates[i] = ords[i] != null ? ((Number) ords[i]).doubleValue()
                         : Double.NaN;
             }
         } catch (Exception e) {
@@ -55,42 +71,67 @@ class Ordinates {
         }
     }
 
-    public Double[] getOrdinateArray() {
+    /**
+     * Returns the ordinates as a primitive array.
+     *
+     * <p>The returned array is the backing array of this instance, and should not be modified.</p>
+     *
+     * @return the ordinates
+     */
+    public double[] getOrdinateArray() {
+        if (this.ordinates.length != size) {
+            this.ordinates = Arrays.copyOf(this.ordinates, size);
+        }
         return this.ordinates;
     }
 
-    public Double[] getOrdinatesArray(int startPosition, int endPosition) {
-        final Double[] a = new Double[endPosition - startPosition];
-        System.arraycopy(this.ordinates, startPosition - 1, a, 0, a.length);
-        return a;
+    public double[] getOrdinatesArray(int startPosition, int endPosition) {
+        return Arrays.copyOfRange(this.ordinates, startPosition - 1, endPosition - 1);
+    }
+
+    public double[] getOrdinatesArray(int startPosition) {
+        return Arrays.copyOfRange(this.ordinates, startPosition - 1, size);
     }
 
-    public Double[] getOrdinatesArray(int startPosition) {
-        final Double[] a = new Double[this.ordinates.length - (startPosition - 1)];
-        System.arraycopy(this.ordinates, startPosition - 1, a, 0, a.length);
-        return a;
+    /**
+     * Returns the ordinate at the specified (0-based) index
+     *
+     * @param index the index of the ordinate
+     * @return the ordinate value, or {@code Double.NaN} if the ordinate is NULL.
+     */
+    public double get(int index) {
+        return this.ordinates[index];
+    }
+
+    public int size() {
+        return size;
     }
 
     public boolean isEmpty() {
-        return ordinates.length == 0;
+        return size == 0;
     }
 
     public String toString() {
-        return SDOGeometry.arrayToString(this.ordinates);
+        return SDOGeometry.arrayToString(getOrdinateArray());
+    }
+
+    /**
+     * Appends the specified ordinates.
+     *
+     * <p>The backing array grows geometrically, so that repeatedly appending ordinates takes amortized linear time.</p>
+     *
+     * @param ordinatesToAdd the ordinates to append
+     */
+    public void addOrdinates(double[] ordinatesToAdd) {
+        ensureCapacity(size + ordinatesToAdd.length);
+        System.arraycopy(ordinatesToAdd, 0, this.ordinates, size, ordinatesToAdd.length);
+        size += ordinatesToAdd.length;
     }
 
-    public void addOrdinates(Double[] ordinatesToAdd) {
-        final Double[] newOrdinates = new Double[this.ordinates.length
-                + ordinatesToAdd.length];
-        System.arraycopy(
-                this.ordinates, 0, newOrdinates, 0,
-                this.ordinates.length
-        );
-        System.arraycopy(
-                ordinatesToAdd, 0, newOrdinates,
-                this.ordinates.length, ordinatesToAdd.length
-        );
-        this.ordinates = newOrdinates;
+    private void ensureCapacity(int required) {
+        if (required <= this.ordinates.length) return;
+        int newCapacity = Math.max(required, (this.ordinates.length * 3) / 2 + 1);
+        this.ordinates = Arrays.copyOf(this.ordinates, newCapacity);
     }
 
     @Override
@@ -100,11 +141,11 @@ class Ordinates {
 
         Ordinates ordinates1 = (Ordinates) o;
 
-        return Arrays.equals(ordinates, ordinates1.ordinates);
+        return Arrays.equals(getOrdinateArray(), ordinates1.getOrdinateArray());
     }
 
     @Override
     public int hashCode() {
-        return ordinates != null ? Arrays.hashCode(ordinates) : 0;
+        return Arrays.hashCode(getOrdinateArray());
     }
 }
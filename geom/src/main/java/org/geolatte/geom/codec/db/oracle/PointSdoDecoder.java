@@ -21,13 +21,9 @@ public class PointSdoDecoder extends AbstractSDODecoder {
     protected Geometry<?> internalDecode(SDOGeometry nativeGeom) {
         CoordinateReferenceSystem<? extends Position> crs = getCoordinateReferenceSystem(nativeGeom);
 
-        Double[] ordinates;
+        double[] ordinates;
         if (nativeGeom.getPoint() != null) {
-            if (nativeGeom.getDimension() == 2) {
-                ordinates = new Double[]{nativeGeom.getPoint().x, nativeGeom.getPoint().y};
-            } else {
-                ordinates = new Double[]{nativeGeom.getPoint().x, nativeGeom.getPoint().y, nativeGeom.getPoint().z};
-            }
+            ordinates = nativeGeom.getPoint().toArray(nativeGeom.getDimension());
         } else {
             ordinates = nativeGeom.getOrdinates().getOrdinateArray();
         }
@@ -210,17 +210,12 @@ public class SDOGeometry {
     }
 
     private Ordinates buildOrdinates(ElemInfoTriplet[] elemInfos, int start, int next) {
-        Double[] ordinateArray = this.ordinates.getOrdinateArray();
-        int length;
         int srcPos = elemInfos[start].getStartingOffset();
         if (next < elemInfos.length) {
-            length = elemInfos[next].getStartingOffset() - srcPos;
+            return new Ordinates(this.ordinates.getOrdinatesArray(srcPos, elemInfos[next].getStartingOffset()));
         } else {
-            length = (ordinateArray.length + 1) - srcPos;
+            return new Ordinates(this.ordinates.getOrdinatesArray(srcPos));
         }
-        Double[] out = new Double[length];
-        System.arraycopy(ordinateArray, srcPos - 1, out, 0, length);
-        return new Ordinates(out);
     }
 
 
@@ -45,8 +45,8 @@ class SDOPoint {
         this.z = z;
     }
 
-    public SDOPoint(Double[] ordinates) {
-        this(ordinates[0], ordinates[1], ordinates.length > 2 ? ordinates[2] : null);
+    public SDOPoint(double[] ordinates) {
+        this(ordinates[0], ordinates[1], ordinates.length > 2 && !Double.isNaN(ordinates[2]) ? ordinates[2] : null);
     }
 
     public SDOPoint(Struct struct) {
@@ -63,6 +63,19 @@ class SDOPoint {
         }
     }
 
+    /**
+     * Returns the coordinates of this point as a primitive array, with a NULL z-value mapped to {@code Double.NaN}.
+     *
+     * @param dim the number of coordinates to return (2 or 3)
+     * @return the coordinates of this point
+     */
+    double[] toArray(int dim) {
+        if (dim == 2) {
+            return new double[]{x, y};
+        }
+        return new double[]{x, y, z == null ? Double.NaN : z};
+    }
+
     public String toString() {
         final StringBuilder stb = new StringBuilder();
         stb.append("(").append(x).append(",").append(y).append(",").append(z).append(")");
@@ -43,7 +43,7 @@ public class SdoGeometryCollectionEncoder extends AbstractSDOEncoder {
             Ordinates resultOrdinates = null;
             for (int i = 0; i < sdoElements.length; i++) {
                 final ElemInfo element = sdoElements[i].getInfo();
-                final Double[] ordinates = sdoElements[i].getOrdinates().getOrdinateArray();
+                final double[] ordinates = sdoElements[i].getOrdinates().getOrdinateArray();
                 if (element != null && element.getSize() > 0) {
                     final int shift = ordinatesOffset - element.getOrdinatesOffset(0);
                     SDOGeometry.shiftOrdinateOffset(element, shift);
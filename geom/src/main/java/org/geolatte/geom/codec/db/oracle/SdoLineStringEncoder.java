@@ -18,7 +18,7 @@ public class SdoLineStringEncoder extends AbstractSDOEncoder {
         final int dim = geom.getCoordinateDimension();
         final int lrsPos = getLRSDim(geom);
         final boolean isLrs = lrsPos > 0;
-        final Double[] ordinates = convertPositionSequence(geom.getPositions());
+        final double[] ordinates = convertPositionSequence(geom.getPositions());
         final ElemInfo info = new ElemInfo(1);
         info.setElement(0, 1, ElementType.LINE_STRAITH_SEGMENTS, 0);
         return new SDOGeometry(
@@ -25,12 +25,11 @@ public class SdoMultiLineStringEncoder extends AbstractSDOEncoder {
         SDOGType sdoGtype = new SDOGType(dim, lrsDim, TypeGeometry.MULTILINE);
 
         final ElemInfo info = new ElemInfo(multiLineString.getNumGeometries());
-        int oordinatesOffset = 1;
-        Double[] ordinates = new Double[]{};
+        final double[] ordinates = new double[multiLineString.getNumPositions() * dim];
+        int idx = 0;
         for (int i = 0; i < multiLineString.getNumGeometries(); i++) {
-            info.setElement(i, oordinatesOffset, ElementType.LINE_STRAITH_SEGMENTS, 0);
-            ordinates = addOrdinates(ordinates, convertPositionSequence(multiLineString.getGeometryN(i).getPositions()));
-            oordinatesOffset = ordinates.length + 1;
+            info.setElement(i, idx + 1, ElementType.LINE_STRAITH_SEGMENTS, 0);
+            idx = copyOrdinates(multiLineString.getGeometryN(i).getPositions(), false, ordinates, idx);
         }
         return new SDOGeometry(sdoGtype, geom.getSRID(), null, info, new Ordinates(ordinates));
     }
@@ -23,25 +23,14 @@ public class SdoMultiPointEncoder extends AbstractSDOEncoder {
         MultiPoint<P> multiPoint = (MultiPoint<P>) geom;
 
         final ElemInfo info = new ElemInfo(multiPoint.getNumGeometries());
-        int oordinatesOffset = 1;
-        Double[] ordinates = new Double[]{};
+        final double[] ordinates = new double[multiPoint.getNumPositions() * dim];
+        int idx = 0;
         for (int i = 0; i < multiPoint.getNumGeometries(); i++) {
-            info.setElement(i, oordinatesOffset, ElementType.POINT, 0);
-            ordinates = addOrdinates(ordinates, pointToOrdinates(multiPoint, i));
-            oordinatesOffset = ordinates.length + 1;
+            info.setElement(i, idx + 1, ElementType.POINT, 0);
+            idx = copyOrdinates(multiPoint.getGeometryN(i).getPositions(), false, ordinates, idx);
         }
-
         return new SDOGeometry(new SDOGType(dim, lrsDim, TypeGeometry.MULTIPOINT), geom.getSRID(), null, info, new
                 Ordinates(ordinates));
     }
 
-    private Double[] pointToOrdinates(MultiPoint<?> multiPoint, int i) {
-        Double[] pointOrdinates = new Double[multiPoint.getCoordinateDimension()];
-        int idx = 0;
-        for (double d : multiPoint.getGeometryN(i).getPosition().toArray(null)) {
-            pointOrdinates[idx++] = d;
-        }
-        return pointOrdinates;
-    }
-
 }
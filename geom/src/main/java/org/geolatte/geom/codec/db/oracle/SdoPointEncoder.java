@@ -20,7 +20,7 @@ public class SdoPointEncoder extends AbstractSDOEncoder {
         final int lrsDim = getLRSDim(geom);
         final boolean isLrs = (lrsDim != 0);
 
-        final Double[] coord = convertPositionSequence(geom.getPositions());
+        final double[] coord = convertPositionSequence(geom.getPositions());
 
         if (Settings.useSdoPointType() && !isLrs && !geom.isEmpty()) {
             return new SDOGeometry(
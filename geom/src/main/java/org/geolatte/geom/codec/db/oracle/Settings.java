@@ -7,12 +7,27 @@ public class Settings {
 
     final public static String USE_SDO_POINT = "GEOLATTE_USE_SDO_POINT_TYPE";
 
+    final public static String ARC_CACHE_SIZE = "GEOLATTE_ARC_CACHE_SIZE";
+
 
     public static boolean useSdoPointType() {
         String use = System.getProperty(USE_SDO_POINT);
         return determineValue(use);
     }
 
+    /**
+     * Returns the number of linearized arcs that decoders cache, or 0 (the default) if they don't cache.
+     */
+    public static int arcCacheSize() {
+        String size = System.getProperty(ARC_CACHE_SIZE);
+        if (size == null) return 0;
+        try {
+            return Math.max(Integer.parseInt(size.trim()), 0);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     private static boolean determineValue(String val) {
         if (val == null) return false;
         return val.equalsIgnoreCase("true") || val.equalsIgnoreCase("1");
@@ -38,23 +38,37 @@ public class CountingPositionSequenceBuilder<P extends Position> implements Posi
     int num = 0;
 
     public CountingPositionSequenceBuilder(CoordinateReferenceSystem<P> crs) {
-        delegate = PositionSequenceBuilders.variableSized(crs.getPositionClass());
+        this(crs, true);
+    }
+
+    /**
+     * Creates an instance that, if {@code retainPositions} is false, only counts the added positions.
+     *
+     * @param crs             the {@code CoordinateReferenceSystem} of the positions
+     * @param retainPositions if false, the added positions are not stored and {@link #toPositionSequence()}
+     *                        cannot be invoked.
+     */
+    CountingPositionSequenceBuilder(CoordinateReferenceSystem<P> crs, boolean retainPositions) {
+        delegate = retainPositions ? PositionSequenceBuilders.variableSized(crs.getPositionClass()) : null;
         dim = crs.getCoordinateDimension();
     }
 
     @Override
     public PositionSequenceBuilder<P> add(double... coordinates) {
         num++;
-        return delegate.add(coordinates);
+        return delegate == null ? this : delegate.add(coordinates);
     }
 
     public PositionSequenceBuilder<P> add(P position) {
         num++;
-        return delegate.add(position);
+        return delegate == null ? this : delegate.add(position);
     }
 
     @Override
     public PositionSequence<P> toPositionSequence() {
+        if (delegate == null) {
+            throw new IllegalStateException("Positions are not retained by this builder.");
+        }
         return delegate.toPositionSequence();
     }
 
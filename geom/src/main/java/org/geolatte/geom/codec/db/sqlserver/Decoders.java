@@ -24,6 +24,7 @@ package org.geolatte.geom.codec.db.sqlserver;
 import org.geolatte.geom.Geometry;
 import org.geolatte.geom.codec.db.Decoder;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -69,6 +70,20 @@ public class Decoders {
         return decoder.decode(sqlServerGeom);
     }
 
+    /**
+     * Decodes the SQL Server Geometry object that starts at the current position of the buffer.
+     *
+     * <p>The positions of the geometry are read directly from the buffer, without intermediate copies.</p>
+     *
+     * @param raw the buffer containing the serialized SQL Server Geometry
+     * @return the decoded {@code Geometry}
+     */
+    public static Geometry decode(ByteBuffer raw) {
+        SqlServerGeometry sqlServerGeom = SqlServerGeometry.deserialize(raw);
+        Decoder decoder = decoderFor(sqlServerGeom);
+        return decoder.decode(sqlServerGeom);
+    }
+
     /**
      * Returns the decoder capable of decoding an object of the specified OpenGisType
      *
@@ -24,6 +24,9 @@ package org.geolatte.geom.codec.db.sqlserver;
 import org.geolatte.geom.Geometry;
 import org.geolatte.geom.codec.db.Encoder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -59,9 +62,45 @@ public class Encoders {
     }
 
     public static byte[] encode(Geometry<?> geom) {
-        Encoder<SqlServerGeometry> encoder = encoderFor(geom);
-        SqlServerGeometry sqlServerGeometry = encoder.encode(geom);
-        return SqlServerGeometry.serialize(sqlServerGeometry);
+        SqlServerGeometryWriter writer = new SqlServerGeometryWriter(geom);
+        byte[] bytes = new byte[writer.size()];
+        writer.write(ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Returns the number of bytes required to serialize the specified geometry.
+     *
+     * @param geom the geometry to serialize
+     * @return the size in bytes of the serialized geometry
+     */
+    public static int encodedSize(Geometry<?> geom) {
+        return new SqlServerGeometryWriter(geom).size();
+    }
+
+    /**
+     * Serializes the geometry into the specified buffer, starting at its current position.
+     *
+     * <p>The byte order of the buffer is set to little-endian, and its position is advanced by the number of bytes
+     * written.</p>
+     *
+     * @param geom   the geometry to serialize
+     * @param target the buffer to write to
+     * @throws IllegalArgumentException if the buffer has fewer than {@link #encodedSize(Geometry)} bytes remaining
+     */
+    public static void encode(Geometry<?> geom, ByteBuffer target) {
+        new SqlServerGeometryWriter(geom).write(target);
+    }
+
+    /**
+     * Serializes the geometry to the specified output stream.
+     *
+     * @param geom   the geometry to serialize
+     * @param target the stream to write to
+     * @throws IOException when writing to the stream fails
+     */
+    public static void encode(Geometry<?> geom, OutputStream target) throws IOException {
+        new SqlServerGeometryWriter(geom).write(target);
     }
 
 }
@@ -27,6 +27,7 @@ import org.geolatte.geom.PositionSequenceBuilder;
 import org.geolatte.geom.PositionSequenceBuilders;
 import org.geolatte.geom.crs.*;
 
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -56,9 +57,15 @@ public class SqlServerGeometry {
     private ByteBuffer buffer;
     private Integer srid = 0;
     private CoordinateReferenceSystem<?> crs = DEFAULT_CRS;
+    private CoordinateReferenceSystem<?> positionCrs;
     private byte version;
     private byte serializationPropertiesByte;
     private int numberOfPoints;
+    // when deserialized, the coordinates are read directly from the buffer at these offsets
+    // instead of being copied to the points, zValues and mValues arrays.
+    private int pointsOffset;
+    private int zValuesOffset;
+    private int mValuesOffset;
     private double[] points;
     private double[] mValues;
     private double[] zValues;
@@ -68,7 +75,11 @@ public class SqlServerGeometry {
     private Shape[] shapes = null;
 
     private SqlServerGeometry(byte[] bytes) {
-        buffer = ByteBuffer.wrap(bytes);
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    private SqlServerGeometry(ByteBuffer source) {
+        buffer = source.slice();
         buffer.order(ByteOrder.LITTLE_ENDIAN);
     }
 
@@ -87,17 +98,17 @@ public class SqlServerGeometry {
             buffer.putInt(sqlServerGeom.numberOfPoints);
         }
         for (int i = 0; i < sqlServerGeom.getNumPoints(); i++) {
-            buffer.putDouble(sqlServerGeom.points[2 * i]);
-            buffer.putDouble(sqlServerGeom.points[2 * i + 1]);
+            buffer.putDouble(sqlServerGeom.getX(i));
+            buffer.putDouble(sqlServerGeom.getY(i));
         }
         if (sqlServerGeom.hasZValues()) {
-            for (int i = 0; i < sqlServerGeom.zValues.length; i++) {
-                buffer.putDouble(sqlServerGeom.zValues[i]);
+            for (int i = 0; i < sqlServerGeom.getNumPoints(); i++) {
+                buffer.putDouble(sqlServerGeom.getZ(i));
             }
         }
         if (sqlServerGeom.hasMValues()) {
-            for (int i = 0; i < sqlServerGeom.mValues.length; i++) {
-                buffer.putDouble(sqlServerGeom.mValues[i]);
+            for (int i = 0; i < sqlServerGeom.getNumPoints(); i++) {
+                buffer.putDouble(sqlServerGeom.getM(i));
             }
         }
         if (sqlServerGeom.isSingleLineSegment() || sqlServerGeom.isSinglePoint()) {
@@ -124,20 +135,63 @@ public class SqlServerGeometry {
         return result;
     }
 
+    /**
+     * Deserializes the native SQL Server geometry starting at the current position of the specified buffer.
+     *
+     * <p>The coordinates are not copied, but read from the buffer when the positions of the geometry are created.
+     * The buffer should therefore not be modified while the returned instance is in use. The position of the
+     * buffer is not changed.</p>
+     *
+     * @param source the buffer that holds the serialized geometry
+     * @return the {@code SqlServerGeometry} for the serialized geometry
+     */
+    public static SqlServerGeometry deserialize(ByteBuffer source) {
+        SqlServerGeometry result = new SqlServerGeometry(source);
+        result.parse();
+        return result;
+    }
+
+    static byte serializationProperties(boolean isValid, boolean hasZValues, boolean hasMValues,
+                                        boolean isSinglePoint, boolean isSingleLineSegment) {
+        byte properties = 0;
+        if (isValid) properties |= isValidMask;
+        if (hasZValues) properties |= hasZValuesMask;
+        if (hasMValues) properties |= hasMValuesMask;
+        if (isSinglePoint) properties |= isSinglePointMask;
+        if (isSingleLineSegment) properties |= SqlServerGeometry.isSingleLineSegment;
+        return properties;
+    }
+
     <P extends Position> void copyCoordinate(int index, double[] coords, CoordinateReferenceSystem<P> crs) {
-        coords[0] = points[2 * index];
-        coords[1] = points[2 * index + 1];
+        coords[0] = getX(index);
+        coords[1] = getY(index);
         int idx = 2;
         if (hasZValues()) {
             assert (hasVerticalAxis(crs));
-            coords[idx++] = zValues[index];
+            coords[idx++] = getZ(index);
         }
         if (hasMValues()) {
             assert (CoordinateReferenceSystems.hasMeasureAxis(crs));
-            coords[idx] = mValues[index];
+            coords[idx] = getM(index);
         }
     }
 
+    private double getX(int index) {
+        return points != null ? points[2 * index] : buffer.getDouble(pointsOffset + 16 * index);
+    }
+
+    private double getY(int index) {
+        return points != null ? points[2 * index + 1] : buffer.getDouble(pointsOffset + 16 * index + 8);
+    }
+
+    private double getZ(int index) {
+        return zValues != null ? zValues[index] : buffer.getDouble(zValuesOffset + 8 * index);
+    }
+
+    private double getM(int index) {
+        return mValues != null ? mValues[index] : buffer.getDouble(mValuesOffset + 8 * index);
+    }
+
     void setCoordinateReferenceSystem(CoordinateReferenceSystem<?> crs) {
         this.crs = crs;
         this.srid = crs.getCrsId().getCode();
@@ -198,7 +252,10 @@ public class SqlServerGeometry {
     }
 
     PositionSequence<?> coordinateRange(IndexRange range) {
-        crs = getCRS(getSrid(), hasZValues(), hasMValues());
+        if (positionCrs == null) {
+            positionCrs = getCRS(getSrid(), hasZValues(), hasMValues());
+        }
+        crs = positionCrs;
         PositionSequenceBuilder<?> psBuilder = PositionSequenceBuilders.fixedSized(range.end - range.start, crs.getPositionClass());
         double[] coordinates = new double[crs.getCoordinateDimension()];
         for (int idx = range.start, i = 0; idx < range.end; idx++, i++) {
@@ -295,13 +352,7 @@ public class SqlServerGeometry {
         }
         serializationPropertiesByte = buffer.get();
         determineNumberOfPoints();
-        readPoints();
-        if (hasZValues()) {
-            readZValues();
-        }
-        if (hasMValues()) {
-            readMValues();
-        }
+        skipPoints();
 
         if (isSingleLineSegment() ||
                 isSinglePoint()) {
@@ -391,27 +442,19 @@ public class SqlServerGeometry {
 
     }
 
-    private void readPoints() {
-        points = new double[2 * numberOfPoints];
-        for (int i = 0; i < numberOfPoints; i++) {
-            points[2 * i] = buffer.getDouble();
-            points[2 * i + 1] = buffer.getDouble();
-        }
-    }
-
-    private void readZValues() {
-        zValues = new double[numberOfPoints];
-        for (int i = 0; i < numberOfPoints; i++) {
-            zValues[i] = buffer.getDouble();
+    private void skipPoints() {
+        int offset = buffer.position();
+        pointsOffset = offset;
+        offset += 16 * numberOfPoints;
+        if (hasZValues()) {
+            zValuesOffset = offset;
+            offset += 8 * numberOfPoints;
         }
-    }
-
-
-    private void readMValues() {
-        mValues = new double[numberOfPoints];
-        for (int i = 0; i < numberOfPoints; i++) {
-            mValues[i] = buffer.getDouble();
+        if (hasMValues()) {
+            mValuesOffset = offset;
+            offset += 8 * numberOfPoints;
         }
+        ((Buffer) buffer).position(offset);
     }
 
     private void determineNumberOfPoints() {
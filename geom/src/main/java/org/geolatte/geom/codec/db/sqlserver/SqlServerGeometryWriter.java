@@ -0,0 +1,196 @@
+package org.geolatte.geom.codec.db.sqlserver;
+
+import org.geolatte.geom.Geometry;
+import org.geolatte.geom.LLAPositionVisitor;
+import org.geolatte.geom.Point;
+import org.geolatte.geom.PositionSequence;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes a {@code Geometry} directly to the SQL Server native format.
+ *
+ * <p>Contrary to {@link SqlServerGeometry#serialize(SqlServerGeometry)}, the coordinates are not first copied into an
+ * intermediate {@code SqlServerGeometry}. Only the (small) figure and shape structures are computed up front, the
+ * coordinates are written straight from the {@code PositionSequence} of the geometry.</p>
+ */
+class SqlServerGeometryWriter {
+
+    private static final int HEADER_SIZE = 6;
+    private static final int STREAM_CHUNK_SIZE = 8192;
+
+    private final Geometry<?> geom;
+    private final List<Figure> figures = new ArrayList<>();
+    private final List<Shape> shapes = new ArrayList<>();
+    private final int srid;
+    private final int numPoints;
+    private final boolean hasZ;
+    private final boolean hasM;
+    private final boolean isSinglePoint;
+    private final boolean isSingleLineSegment;
+
+    private ByteBuffer out;
+    private OutputStream stream;
+
+    SqlServerGeometryWriter(Geometry<?> geom) {
+        this.geom = geom;
+        CoordinateReferenceSystem<?> crs = geom.getCoordinateReferenceSystem();
+        this.srid = geom.getSRID() > 0 ? crs.getCrsId().getCode() : 0;
+        AbstractSqlServerEncoder encoder = (AbstractSqlServerEncoder) Encoders.encoderFor(geom);
+        CountingPositionSequenceBuilder<?> counter = new CountingPositionSequenceBuilder<>(crs, false);
+        if (geom instanceof Point && geom.isEmpty()) {
+            // an empty point is serialized without Z- or M-values
+            this.hasZ = false;
+            this.hasM = false;
+        } else {
+            this.hasZ = crs.hasZ();
+            this.hasM = crs.hasM();
+        }
+        encoder.encode(geom, -1, counter, figures, shapes);
+        this.numPoints = counter.getNumAdded();
+        this.isSinglePoint = geom instanceof Point && numPoints == 1;
+        this.isSingleLineSegment = encoder instanceof LineStringSqlServerEncoder && numPoints == 2;
+    }
+
+    /**
+     * Returns the size in bytes of the serialized geometry
+     *
+     * @return the size in bytes of the serialized geometry
+     */
+    int size() {
+        int pointsSize = numPoints * (16 + (hasZ ? 8 : 0) + (hasM ? 8 : 0));
+        if (isSinglePoint || isSingleLineSegment) {
+            return HEADER_SIZE + pointsSize;
+        }
+        return HEADER_SIZE + 4 + pointsSize
+                + 4 + figures.size() * Figure.getByteSize()
+                + 4 + shapes.size() * Shape.getByteSize();
+    }
+
+    /**
+     * Writes the serialized geometry to the target buffer, starting at its current position.
+     *
+     * <p>The byte order of the target buffer is set to little-endian.</p>
+     *
+     * @param target the buffer to write to
+     * @throws IllegalArgumentException if the target has insufficient remaining capacity
+     */
+    void write(ByteBuffer target) {
+        if (target.remaining() < size()) {
+            throw new IllegalArgumentException(String.format("Buffer has insufficient capacity: %d bytes " +
+                    "remaining, %d bytes required", target.remaining(), size()));
+        }
+        this.out = target;
+        this.out.order(ByteOrder.LITTLE_ENDIAN);
+        writeAll();
+    }
+
+    /**
+     * Writes the serialized geometry to the output stream.
+     *
+     * @param target the stream to write to
+     * @throws IOException when writing to the stream fails
+     */
+    void write(OutputStream target) throws IOException {
+        this.stream = target;
+        this.out = ByteBuffer.allocate(Math.min(STREAM_CHUNK_SIZE, size()));
+        this.out.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            writeAll();
+            flush();
+        } catch (StreamWriteException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeAll() {
+        ensureRemaining(HEADER_SIZE + 4);
+        out.putInt(srid);
+        out.put(SqlServerGeometry.SUPPORTED_VERSION);
+        out.put(SqlServerGeometry.serializationProperties(true, hasZ, hasM, isSinglePoint, isSingleLineSegment));
+        if (!isSinglePoint && !isSingleLineSegment) {
+            out.putInt(numPoints);
+        }
+        writePoints();
+        if (isSinglePoint || isSingleLineSegment) {
+            return;
+        }
+        ensureRemaining(4);
+        out.putInt(figures.size());
+        for (Figure figure : figures) {
+            ensureRemaining(Figure.getByteSize());
+            figure.store(out);
+        }
+        ensureRemaining(4);
+        out.putInt(shapes.size());
+        for (Shape shape : shapes) {
+            ensureRemaining(Shape.getByteSize());
+            shape.store(out);
+        }
+    }
+
+    private void writePoints() {
+        if (numPoints == 0) {
+            return;
+        }
+        PositionSequence<?> positions = geom.getPositions();
+        positions.accept(new LLAPositionVisitor() {
+            @Override
+            public void visit(double[] coordinate) {
+                ensureRemaining(16);
+                out.putDouble(coordinate[0]);
+                out.putDouble(coordinate[1]);
+            }
+        });
+        if (hasZ) {
+            writeOrdinate(positions, 2);
+        }
+        if (hasM) {
+            writeOrdinate(positions, hasZ ? 3 : 2);
+        }
+    }
+
+    private void writeOrdinate(PositionSequence<?> positions, final int ordinateIndex) {
+        positions.accept(new LLAPositionVisitor() {
+            @Override
+            public void visit(double[] coordinate) {
+                ensureRemaining(8);
+                out.putDouble(coordinate[ordinateIndex]);
+            }
+        });
+    }
+
+    private void ensureRemaining(int numBytes) {
+        if (stream != null && out.remaining() < numBytes) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        try {
+            stream.write(out.array(), 0, out.position());
+            ((Buffer) out).clear();
+        } catch (IOException e) {
+            throw new StreamWriteException(e);
+        }
+    }
+
+    private static class StreamWriteException extends RuntimeException {
+        StreamWriteException(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+}
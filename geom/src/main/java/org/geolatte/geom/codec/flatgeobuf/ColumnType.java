@@ -0,0 +1,130 @@
+package org.geolatte.geom.codec.flatgeobuf;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The column types of FlatGeobuf, in the order of the {@code ColumnType} enumeration of the schema.
+ */
+enum ColumnType {
+
+    BYTE, UBYTE, BOOL, SHORT, USHORT, INT, UINT, LONG, ULONG, FLOAT, DOUBLE, STRING, JSON, DATETIME, BINARY;
+
+    /**
+     * Returns the column type for a property value
+     *
+     * @throws IllegalArgumentException if values of this type can't be stored
+     */
+    static ColumnType of(Object value) {
+        if (value instanceof Byte) return BYTE;
+        if (value instanceof Boolean) return BOOL;
+        if (value instanceof Short) return SHORT;
+        if (value instanceof Integer) return INT;
+        if (value instanceof Long) return LONG;
+        if (value instanceof Float) return FLOAT;
+        if (value instanceof Double) return DOUBLE;
+        if (value instanceof String) return STRING;
+        if (value instanceof byte[]) return BINARY;
+        throw new IllegalArgumentException("Can't store property values of type " + value.getClass().getName());
+    }
+
+    static ColumnType valueOf(int code) {
+        ColumnType[] values = values();
+        if (code < 0 || code >= values.length) {
+            throw new FlatGeobufDecodeException("Unknown column type " + code);
+        }
+        return values[code];
+    }
+
+    /**
+     * Returns the number of bytes needed for the value
+     */
+    int size(Object value) {
+        switch (this) {
+            case BYTE:
+            case BOOL:
+                return 1;
+            case SHORT:
+                return 2;
+            case INT:
+            case FLOAT:
+                return 4;
+            case LONG:
+            case DOUBLE:
+                return 8;
+            case BINARY:
+                return 4 + ((byte[]) value).length;
+            default:
+                return 4 + value.toString().getBytes(StandardCharsets.UTF_8).length;
+        }
+    }
+
+    /**
+     * Writes a value of one of the types returned by {@link #of(Object)}
+     */
+    void write(ByteBuffer out, Object value) {
+        switch (this) {
+            case BYTE:
+                out.put((Byte) value);
+                break;
+            case BOOL:
+                out.put((byte) ((Boolean) value ? 1 : 0));
+                break;
+            case SHORT:
+                out.putShort((Short) value);
+                break;
+            case INT:
+                out.putInt((Integer) value);
+                break;
+            case LONG:
+                out.putLong((Long) value);
+                break;
+            case FLOAT:
+                out.putFloat((Float) value);
+                break;
+            case DOUBLE:
+                out.putDouble((Double) value);
+                break;
+            case BINARY:
+                out.putInt(((byte[]) value).length).put((byte[]) value);
+                break;
+            default:
+                byte[] utf8 = value.toString().getBytes(StandardCharsets.UTF_8);
+                out.putInt(utf8.length).put(utf8);
+        }
+    }
+
+    /**
+     * Reads a value at the position of the buffer, and advances the position. Unsigned values are widened, JSON
+     * and date-time values are returned as strings.
+     */
+    Object read(ByteBuffer in) {
+        switch (this) {
+            case BYTE:
+                return in.get();
+            case UBYTE:
+                return (short) (in.get() & 0xFF);
+            case BOOL:
+                return in.get() != 0;
+            case SHORT:
+                return in.getShort();
+            case USHORT:
+                return in.getShort() & 0xFFFF;
+            case INT:
+                return in.getInt();
+            case UINT:
+                return in.getInt() & 0xFFFFFFFFL;
+            case LONG:
+            case ULONG:
+                return in.getLong();
+            case FLOAT:
+                return in.getFloat();
+            case DOUBLE:
+                return in.getDouble();
+            default:
+                byte[] bytes = new byte[in.getInt()];
+                in.get(bytes);
+                return this == BINARY ? bytes : new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
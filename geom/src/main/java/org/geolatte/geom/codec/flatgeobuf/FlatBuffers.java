@@ -0,0 +1,342 @@
+package org.geolatte.geom.codec.flatgeobuf;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A minimal implementation of the <a href="https://flatbuffers.dev/">FlatBuffers</a> binary format, sufficient for
+ * the FlatGeobuf header and feature tables.
+ *
+ * <p>Tables are assembled as {@link Table} objects, and serialized front to back: each table is preceded by its
+ * vtable and followed by the strings, vectors and tables it refers to. Reading is done directly on a little-endian
+ * {@code ByteBuffer}, with absolute positions.</p>
+ */
+final class FlatBuffers {
+
+    private FlatBuffers() {
+    }
+
+    /**
+     * A table under construction. Fields are identified by their index in the schema.
+     */
+    static final class Table {
+
+        private final List<Object> values = new ArrayList<>();
+        private final List<Integer> sizes = new ArrayList<>();
+
+        Table putByte(int field, int value) {
+            return put(field, (byte) value, 1);
+        }
+
+        Table putBoolean(int field, boolean value) {
+            return put(field, (byte) (value ? 1 : 0), 1);
+        }
+
+        Table putShort(int field, int value) {
+            return put(field, (short) value, 2);
+        }
+
+        Table putInt(int field, int value) {
+            return put(field, value, 4);
+        }
+
+        Table putLong(int field, long value) {
+            return put(field, value, 8);
+        }
+
+        Table putString(int field, String value) {
+            return value == null ? this : put(field, value, 0);
+        }
+
+        Table putBytes(int field, byte[] value) {
+            return value == null ? this : put(field, value, 0);
+        }
+
+        Table putInts(int field, int[] value) {
+            return value == null ? this : put(field, value, 0);
+        }
+
+        Table putDoubles(int field, double[] value) {
+            return value == null ? this : put(field, value, 0);
+        }
+
+        Table putTable(int field, Table value) {
+            return value == null ? this : put(field, value, 0);
+        }
+
+        Table putTables(int field, List<Table> value) {
+            return value == null ? this : put(field, value, 0);
+        }
+
+        private Table put(int field, Object value, int size) {
+            while (values.size() <= field) {
+                values.add(null);
+                sizes.add(0);
+            }
+            values.set(field, value);
+            sizes.set(field, size);
+            return this;
+        }
+    }
+
+    /**
+     * Serializes the table as a size-prefixed FlatBuffer
+     *
+     * @param root the root table
+     * @return the serialized bytes, starting with the size of the remainder
+     */
+    static byte[] toSizePrefixedBytes(Table root) {
+        Output out = new Output();
+        out.putInt(0);
+        out.putInt(0);
+        int table = out.writeTable(root);
+        out.setInt(4, table - 4);
+        out.setInt(0, out.length - 4);
+        return Arrays.copyOf(out.bytes, out.length);
+    }
+
+    private static final class Output {
+
+        private byte[] bytes = new byte[256];
+        private int length;
+
+        int writeTable(Table table) {
+            int numFields = table.values.size();
+            int[] fieldOffsets = new int[numFields];
+            int size = 4;
+            for (int i = 0; i < numFields; i++) {
+                if (table.values.get(i) == null) {
+                    continue;
+                }
+                // references are 4-byte offsets
+                int fieldSize = table.sizes.get(i) == 0 ? 4 : table.sizes.get(i);
+                size = align(size, fieldSize);
+                fieldOffsets[i] = size;
+                size += fieldSize;
+            }
+
+            pad(2);
+            int vtable = length;
+            putShort(4 + 2 * numFields);
+            putShort(size);
+            for (int offset : fieldOffsets) {
+                putShort(offset);
+            }
+            // align the table on 8 bytes, so that the fields are aligned as well
+            pad(8);
+            int start = length;
+            putInt(start - vtable);
+            ensureCapacity(size - 4);
+            length = start + size;
+
+            for (int i = 0; i < numFields; i++) {
+                Object value = table.values.get(i);
+                int pos = start + fieldOffsets[i];
+                if (value instanceof Byte) {
+                    bytes[pos] = (Byte) value;
+                } else if (value instanceof Short) {
+                    setShort(pos, (Short) value);
+                } else if (value instanceof Integer) {
+                    setInt(pos, (Integer) value);
+                } else if (value instanceof Long) {
+                    setLong(pos, (Long) value);
+                }
+            }
+            for (int i = 0; i < numFields; i++) {
+                Object value = table.values.get(i);
+                if (value == null || table.sizes.get(i) != 0) {
+                    continue;
+                }
+                int pos = start + fieldOffsets[i];
+                setInt(pos, writeReference(value) - pos);
+            }
+            return start;
+        }
+
+        @SuppressWarnings("unchecked")
+        private int writeReference(Object value) {
+            if (value instanceof String) {
+                byte[] utf8 = ((String) value).getBytes(StandardCharsets.UTF_8);
+                int pos = writeVector(utf8.length + 1, 1);
+                System.arraycopy(utf8, 0, bytes, pos + 4, utf8.length);
+                setInt(pos, utf8.length);
+                return pos;
+            }
+            if (value instanceof byte[]) {
+                byte[] array = (byte[]) value;
+                int pos = writeVector(array.length, 1);
+                System.arraycopy(array, 0, bytes, pos + 4, array.length);
+                return pos;
+            }
+            if (value instanceof int[]) {
+                int[] array = (int[]) value;
+                int pos = writeVector(array.length, 4);
+                for (int i = 0; i < array.length; i++) {
+                    setInt(pos + 4 + 4 * i, array[i]);
+                }
+                return pos;
+            }
+            if (value instanceof double[]) {
+                double[] array = (double[]) value;
+                int pos = writeVector(array.length, 8);
+                for (int i = 0; i < array.length; i++) {
+                    setLong(pos + 4 + 8 * i, Double.doubleToRawLongBits(array[i]));
+                }
+                return pos;
+            }
+            if (value instanceof Table) {
+                return writeTable((Table) value);
+            }
+            List<Table> tables = (List<Table>) value;
+            int pos = writeVector(tables.size(), 4);
+            for (int i = 0; i < tables.size(); i++) {
+                int slot = pos + 4 + 4 * i;
+                setInt(slot, writeTable(tables.get(i)) - slot);
+            }
+            return pos;
+        }
+
+        // reserves a vector with the specified number of elements, and returns the position of its length field
+        private int writeVector(int numElements, int elementSize) {
+            pad(4);
+            while ((length + 4) % elementSize != 0) {
+                putInt(0);
+            }
+            int pos = length;
+            putInt(numElements);
+            ensureCapacity(numElements * elementSize);
+            Arrays.fill(bytes, length, length + numElements * elementSize, (byte) 0);
+            length += numElements * elementSize;
+            return pos;
+        }
+
+        private static int align(int pos, int alignment) {
+            return (pos + alignment - 1) / alignment * alignment;
+        }
+
+        private void pad(int alignment) {
+            int aligned = align(length, alignment);
+            ensureCapacity(aligned - length);
+            while (length < aligned) {
+                bytes[length++] = 0;
+            }
+        }
+
+        private void putShort(int value) {
+            ensureCapacity(2);
+            setShort(length, value);
+            length += 2;
+        }
+
+        private void putInt(int value) {
+            ensureCapacity(4);
+            setInt(length, value);
+            length += 4;
+        }
+
+        private void setShort(int pos, int value) {
+            bytes[pos] = (byte) value;
+            bytes[pos + 1] = (byte) (value >>> 8);
+        }
+
+        private void setInt(int pos, int value) {
+            for (int i = 0; i < 4; i++) {
+                bytes[pos + i] = (byte) (value >>> 8 * i);
+            }
+        }
+
+        private void setLong(int pos, long value) {
+            for (int i = 0; i < 8; i++) {
+                bytes[pos + i] = (byte) (value >>> 8 * i);
+            }
+        }
+
+        private void ensureCapacity(int additional) {
+            if (length + additional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, length + additional));
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the root table of the FlatBuffer at the specified position
+     */
+    static int root(ByteBuffer buffer, int start) {
+        return start + buffer.getInt(start);
+    }
+
+    /**
+     * Returns the absolute position of a field of a table, or 0 if the field is absent
+     */
+    static int field(ByteBuffer buffer, int table, int index) {
+        int vtable = table - buffer.getInt(table);
+        int entry = 4 + 2 * index;
+        if (entry >= (buffer.getShort(vtable) & 0xFFFF)) {
+            return 0;
+        }
+        int offset = buffer.getShort(vtable + entry) & 0xFFFF;
+        return offset == 0 ? 0 : table + offset;
+    }
+
+    static int getUByte(ByteBuffer buffer, int table, int index, int defaultValue) {
+        int pos = field(buffer, table, index);
+        return pos == 0 ? defaultValue : buffer.get(pos) & 0xFF;
+    }
+
+    static boolean getBoolean(ByteBuffer buffer, int table, int index) {
+        return getUByte(buffer, table, index, 0) != 0;
+    }
+
+    static int getUShort(ByteBuffer buffer, int table, int index, int defaultValue) {
+        int pos = field(buffer, table, index);
+        return pos == 0 ? defaultValue : buffer.getShort(pos) & 0xFFFF;
+    }
+
+    static int getInt(ByteBuffer buffer, int table, int index, int defaultValue) {
+        int pos = field(buffer, table, index);
+        return pos == 0 ? defaultValue : buffer.getInt(pos);
+    }
+
+    static long getLong(ByteBuffer buffer, int table, int index, long defaultValue) {
+        int pos = field(buffer, table, index);
+        return pos == 0 ? defaultValue : buffer.getLong(pos);
+    }
+
+    /**
+     * Returns the position of the table, string or vector referenced by a field, or 0 if the field is absent
+     */
+    static int reference(ByteBuffer buffer, int table, int index) {
+        int pos = field(buffer, table, index);
+        return pos == 0 ? 0 : pos + buffer.getInt(pos);
+    }
+
+    static String getString(ByteBuffer buffer, int table, int index) {
+        int pos = reference(buffer, table, index);
+        if (pos == 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[buffer.getInt(pos)];
+        for (int i = 0; i < utf8.length; i++) {
+            utf8[i] = buffer.get(pos + 4 + i);
+        }
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of elements of the vector at the specified position, or 0 if the position is 0
+     */
+    static int vectorLength(ByteBuffer buffer, int vector) {
+        return vector == 0 ? 0 : buffer.getInt(vector);
+    }
+
+    /**
+     * Returns the position of the table at the specified index of a vector of tables
+     */
+    static int tableAt(ByteBuffer buffer, int vector, int index) {
+        int slot = vector + 4 + 4 * index;
+        return slot + buffer.getInt(slot);
+    }
+}
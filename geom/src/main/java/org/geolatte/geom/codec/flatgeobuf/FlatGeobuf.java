@@ -0,0 +1,69 @@
+package org.geolatte.geom.codec.flatgeobuf;
+
+import org.geolatte.geom.GeometryType;
+
+/**
+ * Constants of the FlatGeobuf format (version 3): the magic bytes, and the field indices of the header and feature
+ * schemas.
+ */
+final class FlatGeobuf {
+
+    static final byte[] MAGIC = {0x66, 0x67, 0x62, 0x03, 0x66, 0x67, 0x62, 0x00};
+
+    // fields of the Header table
+    static final int HEADER_NAME = 0;
+    static final int HEADER_ENVELOPE = 1;
+    static final int HEADER_GEOMETRY_TYPE = 2;
+    static final int HEADER_HAS_Z = 3;
+    static final int HEADER_HAS_M = 4;
+    static final int HEADER_COLUMNS = 7;
+    static final int HEADER_FEATURES_COUNT = 8;
+    static final int HEADER_INDEX_NODE_SIZE = 9;
+    static final int HEADER_CRS = 10;
+
+    // fields of the Crs table
+    static final int CRS_ORG = 0;
+    static final int CRS_CODE = 1;
+
+    // fields of the Column table
+    static final int COLUMN_NAME = 0;
+    static final int COLUMN_TYPE = 1;
+
+    // fields of the Feature table
+    static final int FEATURE_GEOMETRY = 0;
+    static final int FEATURE_PROPERTIES = 1;
+
+    // fields of the Geometry table
+    static final int GEOMETRY_ENDS = 0;
+    static final int GEOMETRY_XY = 1;
+    static final int GEOMETRY_Z = 2;
+    static final int GEOMETRY_M = 3;
+    static final int GEOMETRY_TYPE = 6;
+    static final int GEOMETRY_PARTS = 7;
+
+    static final int UNKNOWN = 0;
+
+    // the FlatGeobuf geometry types, up to GeometryCollection
+    private static final GeometryType[] GEOMETRY_TYPES = {null, GeometryType.POINT, GeometryType.LINESTRING,
+            GeometryType.POLYGON, GeometryType.MULTIPOINT, GeometryType.MULTILINESTRING, GeometryType.MULTIPOLYGON,
+            GeometryType.GEOMETRYCOLLECTION};
+
+    private FlatGeobuf() {
+    }
+
+    static int geometryTypeCode(GeometryType type) {
+        for (int i = 1; i < GEOMETRY_TYPES.length; i++) {
+            if (GEOMETRY_TYPES[i] == type) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Can't write geometries of type " + type);
+    }
+
+    static GeometryType geometryType(int code) {
+        if (code < 1 || code >= GEOMETRY_TYPES.length) {
+            throw new FlatGeobufDecodeException("Unsupported geometry type " + code);
+        }
+        return GEOMETRY_TYPES[code];
+    }
+}
@@ -0,0 +1,15 @@
+package org.geolatte.geom.codec.flatgeobuf;
+
+/**
+ * Thrown when a FlatGeobuf file is malformed or uses features that are not supported
+ */
+public class FlatGeobufDecodeException extends RuntimeException {
+
+    FlatGeobufDecodeException(String msg) {
+        super(msg);
+    }
+
+    FlatGeobufDecodeException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+}
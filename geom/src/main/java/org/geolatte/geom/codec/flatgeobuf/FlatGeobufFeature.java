@@ -0,0 +1,48 @@
+package org.geolatte.geom.codec.flatgeobuf;
+
+import org.geolatte.geom.Feature;
+import org.geolatte.geom.Geometry;
+import org.geolatte.geom.Position;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A {@code Feature} read from a FlatGeobuf file. The id is the position of the feature in the file.
+ */
+final class FlatGeobufFeature<P extends Position> implements Feature<P, Long> {
+
+    private final Geometry<P> geometry;
+    private final Long id;
+    private final Map<String, Object> properties;
+
+    FlatGeobufFeature(Geometry<P> geometry, long id, Map<String, Object> properties) {
+        this.geometry = geometry;
+        this.id = id;
+        this.properties = Collections.unmodifiableMap(properties);
+    }
+
+    @Override
+    public Geometry<P> getGeometry() {
+        return geometry;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public Map<String, Object> getProperties() {
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        return "FlatGeobufFeature{" +
+                "geometry=" + geometry +
+                ", id=" + id +
+                ", properties=" + properties +
+                '}';
+    }
+}
@@ -0,0 +1,457 @@
+package org.geolatte.geom.codec.flatgeobuf;
+
+import org.geolatte.geom.*;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.crs.CoordinateReferenceSystems;
+import org.geolatte.geom.crs.CrsRegistry;
+import org.geolatte.geom.index.SpatialIndexVisitor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.geolatte.geom.codec.flatgeobuf.FlatBuffers.*;
+import static org.geolatte.geom.codec.flatgeobuf.FlatGeobuf.*;
+
+/**
+ * Reads <a href="https://flatgeobuf.org/">FlatGeobuf</a> files.
+ *
+ * <p>The reader works on a {@code ByteBuffer} holding the complete file, typically a memory-mapped file obtained
+ * with {@link #open(Path)}. Features are only decoded when they are read. Window queries use the spatial index of
+ * the file, if it has one, so that only the index nodes and the features that intersect the window are accessed.
+ * Files of 2 GB or more can't be memory-mapped as a single buffer, and are not supported.</p>
+ *
+ * <p>The id of a feature is its position in the file. Properties that are absent have no entry in the properties of
+ * the feature. Unsigned integers are widened to the next larger type, JSON and date-time values are returned as
+ * strings.</p>
+ *
+ * <p>The reader can be used by several threads concurrently.</p>
+ *
+ * @param <P> the {@code Position} type of the geometries
+ */
+public class FlatGeobufReader<P extends Position> implements Closeable {
+
+    private final ByteBuffer buffer;
+    private final Closeable resource;
+    private final CoordinateReferenceSystem<P> crs;
+    private final String name;
+    private final GeometryType geometryType;
+    private final boolean hasZ;
+    private final boolean hasM;
+    private final String[] columnNames;
+    private final ColumnType[] columnTypes;
+    private final long numFeatures;
+    private final int nodeSize;
+    private final Envelope<P> envelope;
+    private final int indexStart;
+    private final int featuresStart;
+
+    private FlatGeobufReader(ByteBuffer buffer, CoordinateReferenceSystem<P> crs, Closeable resource) {
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.resource = resource;
+        for (int i = 0; i < 3; i++) {
+            if (this.buffer.limit() < 12 || this.buffer.get(i) != MAGIC[i] || this.buffer.get(i + 4) != MAGIC[i + 4]) {
+                throw new FlatGeobufDecodeException("Not a FlatGeobuf file.");
+            }
+        }
+        if (this.buffer.get(3) != MAGIC[3]) {
+            throw new FlatGeobufDecodeException("Unsupported FlatGeobuf version " + this.buffer.get(3));
+        }
+        int headerStart = MAGIC.length;
+        int header = root(this.buffer, headerStart + 4);
+        this.name = getString(this.buffer, header, HEADER_NAME);
+        int type = getUByte(this.buffer, header, HEADER_GEOMETRY_TYPE, UNKNOWN);
+        this.geometryType = type == UNKNOWN ? null : FlatGeobuf.geometryType(type);
+        this.hasZ = getBoolean(this.buffer, header, HEADER_HAS_Z);
+        this.hasM = getBoolean(this.buffer, header, HEADER_HAS_M);
+        this.numFeatures = getLong(this.buffer, header, HEADER_FEATURES_COUNT, 0);
+        this.nodeSize = getUShort(this.buffer, header, HEADER_INDEX_NODE_SIZE, 16);
+
+        int columns = reference(this.buffer, header, HEADER_COLUMNS);
+        this.columnNames = new String[vectorLength(this.buffer, columns)];
+        this.columnTypes = new ColumnType[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            int column = tableAt(this.buffer, columns, i);
+            columnNames[i] = getString(this.buffer, column, COLUMN_NAME);
+            columnTypes[i] = ColumnType.valueOf(getUByte(this.buffer, column, COLUMN_TYPE, 0));
+        }
+
+        this.crs = crs != null ? crs : headerCrs(header);
+        if ((hasZ && !this.crs.hasZ()) || (hasM && !this.crs.hasM())) {
+            throw new IllegalArgumentException("Coordinate reference system lacks the dimensions of the file.");
+        }
+        int extent = reference(this.buffer, header, HEADER_ENVELOPE);
+        this.envelope = vectorLength(this.buffer, extent) < 4 ? new Envelope<>(this.crs)
+                : new Envelope<>(this.buffer.getDouble(extent + 4), this.buffer.getDouble(extent + 12),
+                this.buffer.getDouble(extent + 20), this.buffer.getDouble(extent + 28), this.crs);
+
+        this.indexStart = headerStart + 4 + this.buffer.getInt(headerStart);
+        long indexSize = PackedHilbertRTree.size(numFeatures, nodeSize);
+        if (indexStart + indexSize > this.buffer.limit()) {
+            throw new FlatGeobufDecodeException("File is truncated.");
+        }
+        this.featuresStart = (int) (indexStart + indexSize);
+    }
+
+    /**
+     * Opens a FlatGeobuf file by memory-mapping it
+     *
+     * @param file the path of the file
+     * @return a reader for the file, with the coordinate reference system of the file
+     * @throws IOException if the file can't be opened or mapped
+     */
+    public static FlatGeobufReader<?> open(Path file) throws IOException {
+        return open(file, null);
+    }
+
+    /**
+     * Opens a FlatGeobuf file by memory-mapping it, assuming the specified {@code CoordinateReferenceSystem}
+     *
+     * @param file the path of the file
+     * @param crs  the {@code CoordinateReferenceSystem} of the geometries, or null to use the one of the file
+     * @return a reader for the file
+     * @throws IOException if the file can't be opened or mapped
+     */
+    public static <Q extends Position> FlatGeobufReader<Q> open(Path file, CoordinateReferenceSystem<Q> crs)
+            throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new FlatGeobufReader<>(mapped, crs, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a reader for a FlatGeobuf file held in a buffer
+     *
+     * @param buffer the contents of the file, from position 0 up to the limit
+     * @return a reader, with the coordinate reference system of the file
+     */
+    public static FlatGeobufReader<?> wrap(ByteBuffer buffer) {
+        return new FlatGeobufReader<>(buffer, null, null);
+    }
+
+    /**
+     * Creates a reader for a FlatGeobuf file held in a buffer, assuming the specified
+     * {@code CoordinateReferenceSystem}
+     *
+     * @param buffer the contents of the file, from position 0 up to the limit
+     * @param crs    the {@code CoordinateReferenceSystem} of the geometries
+     * @return a reader
+     */
+    public static <Q extends Position> FlatGeobufReader<Q> wrap(ByteBuffer buffer, CoordinateReferenceSystem<Q> crs) {
+        return new FlatGeobufReader<>(buffer, crs, null);
+    }
+
+    /**
+     * Returns the {@code CoordinateReferenceSystem} of the geometries
+     *
+     * @return the {@code CoordinateReferenceSystem} of the geometries
+     */
+    public CoordinateReferenceSystem<P> getCoordinateReferenceSystem() {
+        return crs;
+    }
+
+    /**
+     * Returns the name of the dataset
+     *
+     * @return the name, or null
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of features, as declared in the header
+     *
+     * @return the number of features, or 0 if unknown
+     */
+    public long getFeatureCount() {
+        return numFeatures;
+    }
+
+    /**
+     * Returns the extent of the features, as declared in the header
+     *
+     * @return the extent, or an empty {@code Envelope} if unknown
+     */
+    public Envelope<P> getEnvelope() {
+        return envelope;
+    }
+
+    /**
+     * Returns the names of the columns, i.e. the properties of the features
+     *
+     * @return the column names
+     */
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(Arrays.asList(columnNames));
+    }
+
+    /**
+     * Returns whether the file has a spatial index
+     *
+     * @return true if the file has a spatial index
+     */
+    public boolean hasIndex() {
+        return nodeSize > 0 && numFeatures > 0;
+    }
+
+    /**
+     * Returns all features, in the order of the file
+     *
+     * @return a sequential stream of the features
+     */
+    public Stream<Feature<P, Long>> features() {
+        Iterator<Feature<P, Long>> iterator = new Iterator<Feature<P, Long>>() {
+            private int position = featuresStart;
+            private long index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return numFeatures > 0 ? index < numFeatures : position < buffer.limit();
+            }
+
+            @Override
+            public Feature<P, Long> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Feature<P, Long> feature = readFeature(position, index++);
+                position += 4 + buffer.getInt(position);
+                return feature;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Returns the features with a bounding box that intersects the window, in the order of the file
+     *
+     * @param window the window
+     * @return the features that intersect the window
+     * @throws IllegalArgumentException if the window has another {@code CoordinateReferenceSystem}
+     */
+    public List<Feature<P, Long>> query(Envelope<P> window) {
+        List<Feature<P, Long>> result = new ArrayList<>();
+        query(window, result::add);
+        return result;
+    }
+
+    /**
+     * Visits the features with a bounding box that intersects the window, in the order of the file
+     *
+     * @param window  the window
+     * @param visitor the visitor, which can stop the query by returning false
+     * @return the number of features visited
+     * @throws IllegalArgumentException if the window has another {@code CoordinateReferenceSystem}
+     */
+    public int query(Envelope<P> window, SpatialIndexVisitor<? super Feature<P, Long>> visitor) {
+        if (!crs.equals(window.getCoordinateReferenceSystem())) {
+            throw new IllegalArgumentException("Window must have the coordinate reference system of the reader.");
+        }
+        if (window.isEmpty()) {
+            return 0;
+        }
+        double minX = window.lowerLeft().getCoordinate(0);
+        double minY = window.lowerLeft().getCoordinate(1);
+        double maxX = window.upperRight().getCoordinate(0);
+        double maxY = window.upperRight().getCoordinate(1);
+        int count = 0;
+        if (!hasIndex()) {
+            Iterator<Feature<P, Long>> features = features().iterator();
+            while (features.hasNext()) {
+                Feature<P, Long> feature = features.next();
+                Geometry<P> geometry = feature.getGeometry();
+                if (geometry == null || geometry.isEmpty()) {
+                    continue;
+                }
+                Envelope<P> bounds = geometry.getEnvelope();
+                if (bounds.lowerLeft().getCoordinate(0) <= maxX && bounds.lowerLeft().getCoordinate(1) <= maxY
+                        && bounds.upperRight().getCoordinate(0) >= minX
+                        && bounds.upperRight().getCoordinate(1) >= minY) {
+                    count++;
+                    if (!visitor.visit(feature)) {
+                        break;
+                    }
+                }
+            }
+            return count;
+        }
+        long[][] found = PackedHilbertRTree.search(buffer, indexStart, numFeatures, nodeSize, minX, minY, maxX, maxY);
+        for (long[] item : found) {
+            count++;
+            if (!visitor.visit(readFeature(featuresStart + (int) item[1], item[0]))) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Closes the underlying file, if any
+     *
+     * @throws IOException if closing the file fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (resource != null) {
+            resource.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private CoordinateReferenceSystem<P> headerCrs(int header) {
+        CoordinateReferenceSystem<?> base = CoordinateReferenceSystems.PROJECTED_2D_METER;
+        int crsTable = reference(buffer, header, HEADER_CRS);
+        if (crsTable != 0) {
+            int code = getInt(buffer, crsTable, CRS_CODE, 0);
+            String org = getString(buffer, crsTable, CRS_ORG);
+            if (code > 0 && (org == null || org.equalsIgnoreCase("EPSG"))) {
+                base = CrsRegistry.getCoordinateReferenceSystemForEPSG(code, CoordinateReferenceSystems.PROJECTED_2D_METER);
+            }
+        }
+        return (CoordinateReferenceSystem<P>) CoordinateReferenceSystems.adjustTo(base, hasZ, hasM);
+    }
+
+    private Feature<P, Long> readFeature(int position, long id) {
+        try {
+            int feature = root(buffer, position + 4);
+            int geometry = reference(buffer, feature, FEATURE_GEOMETRY);
+            Geometry<P> decoded = geometry == 0 ? null : readGeometry(geometry, geometryType);
+            return new FlatGeobufFeature<>(decoded, id, readProperties(reference(buffer, feature, FEATURE_PROPERTIES)));
+        } catch (IndexOutOfBoundsException e) {
+            throw new FlatGeobufDecodeException("Malformed feature at position " + position, e);
+        }
+    }
+
+    private Map<String, Object> readProperties(int vector) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        int length = vectorLength(buffer, vector);
+        if (length == 0) {
+            return properties;
+        }
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        in.position(vector + 4).limit(vector + 4 + length);
+        while (in.hasRemaining()) {
+            int column = in.getShort() & 0xFFFF;
+            if (column >= columnTypes.length) {
+                throw new FlatGeobufDecodeException("Unknown column " + column);
+            }
+            properties.put(columnNames[column], columnTypes[column].read(in));
+        }
+        return properties;
+    }
+
+    private Geometry<P> readGeometry(int table, GeometryType headerType) {
+        GeometryType type = headerType != null ? headerType
+                : FlatGeobuf.geometryType(getUByte(buffer, table, GEOMETRY_TYPE, UNKNOWN));
+        if (type == GeometryType.MULTIPOLYGON || type == GeometryType.GEOMETRYCOLLECTION) {
+            int parts = reference(buffer, table, GEOMETRY_PARTS);
+            int numParts = vectorLength(buffer, parts);
+            if (numParts == 0) {
+                return Geometries.mkEmptyGeometry(type, crs);
+            }
+            List<Geometry<P>> components = new ArrayList<>(numParts);
+            for (int i = 0; i < numParts; i++) {
+                GeometryType partType = type == GeometryType.MULTIPOLYGON ? GeometryType.POLYGON : null;
+                components.add(readGeometry(tableAt(buffer, parts, i), partType));
+            }
+            if (type == GeometryType.GEOMETRYCOLLECTION) {
+                return Geometries.mkGeometryCollection(components);
+            }
+            List<Polygon<P>> polygons = new ArrayList<>(numParts);
+            for (Geometry<P> component : components) {
+                polygons.add((Polygon<P>) component);
+            }
+            return Geometries.mkMultiPolygon(polygons);
+        }
+
+        int xy = reference(buffer, table, GEOMETRY_XY);
+        int numPositions = vectorLength(buffer, xy) / 2;
+        if (numPositions == 0) {
+            return Geometries.mkEmptyGeometry(type, crs);
+        }
+        int z = reference(buffer, table, GEOMETRY_Z);
+        int m = reference(buffer, table, GEOMETRY_M);
+        int ends = reference(buffer, table, GEOMETRY_ENDS);
+        int numEnds = vectorLength(buffer, ends);
+        int[] bounds = new int[Math.max(numEnds, 1) + 1];
+        bounds[1] = numPositions;
+        for (int i = 0; i < numEnds; i++) {
+            bounds[i + 1] = buffer.getInt(ends + 4 + 4 * i);
+        }
+        Coordinates coordinates = new Coordinates(xy, z, m);
+        switch (type) {
+            case POINT:
+                return new Point<>(coordinates.sequence(0, 1), crs);
+            case LINESTRING:
+                return Geometries.mkLineString(coordinates.sequence(0, numPositions), crs);
+            case MULTIPOINT:
+                return Geometries.mkMultiPoint(coordinates.sequence(0, numPositions), crs);
+            case POLYGON: {
+                List<LinearRing<P>> rings = new ArrayList<>(bounds.length - 1);
+                for (int i = 0; i < bounds.length - 1; i++) {
+                    rings.add(Geometries.mkLinearRing(coordinates.sequence(bounds[i], bounds[i + 1]), crs));
+                }
+                return Geometries.mkPolygon(rings);
+            }
+            case MULTILINESTRING: {
+                List<LineString<P>> lines = new ArrayList<>(bounds.length - 1);
+                for (int i = 0; i < bounds.length - 1; i++) {
+                    lines.add(Geometries.mkLineString(coordinates.sequence(bounds[i], bounds[i + 1]), crs));
+                }
+                return Geometries.mkMultiLineString(lines);
+            }
+            default:
+                throw new FlatGeobufDecodeException("Unsupported geometry type " + type);
+        }
+    }
+
+    /**
+     * The coordinate vectors of a geometry
+     */
+    private final class Coordinates {
+        private final int xy;
+        private final int z;
+        private final int m;
+        private final double[] position = new double[crs.getCoordinateDimension()];
+
+        Coordinates(int xy, int z, int m) {
+            this.xy = xy;
+            this.z = z;
+            this.m = m;
+        }
+
+        PositionSequence<P> sequence(int start, int end) {
+            if (start < 0 || end > vectorLength(buffer, xy) / 2 || start >= end) {
+                throw new FlatGeobufDecodeException("Invalid ends of geometry parts.");
+            }
+            PositionSequenceBuilder<P> builder = PositionSequenceBuilders.fixedSized(end - start,
+                    crs.getPositionClass());
+            int mIndex = crs.hasZ() ? 3 : 2;
+            for (int i = start; i < end; i++) {
+                position[0] = buffer.getDouble(xy + 4 + 16 * i);
+                position[1] = buffer.getDouble(xy + 12 + 16 * i);
+                if (crs.hasZ()) {
+                    position[2] = z == 0 ? 0 : buffer.getDouble(z + 4 + 8 * i);
+                }
+                if (crs.hasM()) {
+                    position[mIndex] = m == 0 ? 0 : buffer.getDouble(m + 4 + 8 * i);
+                }
+                builder.add(position);
+            }
+            return builder.toPositionSequence();
+        }
+    }
+}
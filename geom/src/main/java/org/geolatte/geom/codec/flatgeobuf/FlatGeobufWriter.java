@@ -0,0 +1,371 @@
+package org.geolatte.geom.codec.flatgeobuf;
+
+import org.geolatte.geom.*;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.crs.CrsId;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+
+import static org.geolatte.geom.codec.flatgeobuf.FlatGeobuf.*;
+
+/**
+ * Writes {@code Geometry}s and {@code Feature}s to a <a href="https://flatgeobuf.org/">FlatGeobuf</a> file.
+ *
+ * <p>Each feature is encoded as soon as it is written, so the geometries need not be retained. As the spatial index
+ * precedes the features in the file, the encoded features are buffered in memory until {@link #finish()} or
+ * {@link #close()} is called. The features are then written in the order of a Hilbert curve through the centers of
+ * their bounding boxes, preceded by a packed Hilbert R-tree.</p>
+ *
+ * <p>With a node size of 0 no index is written, and each feature is written to the stream as soon as it is written
+ * to this writer, so nothing is buffered. The header then precedes the features it describes, so it has no feature
+ * count, envelope or geometry type, and its columns are those of the non-null properties of the first feature.</p>
+ *
+ * <p>The columns of the file are the union of the property names of the features. The column type is determined
+ * by the first non-null value, and must be the same for all features. Supported values are {@code Byte},
+ * {@code Boolean}, {@code Short}, {@code Integer}, {@code Long}, {@code Float}, {@code Double}, {@code String} and
+ * {@code byte[]}.</p>
+ *
+ * <p>A {@code FlatGeobufWriter} is not thread-safe.</p>
+ *
+ * @param <P> the {@code Position} type of the geometries
+ */
+public class FlatGeobufWriter<P extends Position> implements Closeable {
+
+    /**
+     * The default number of children of an index node
+     */
+    public static final int DEFAULT_NODE_SIZE = 16;
+
+    private final OutputStream out;
+    private final CoordinateReferenceSystem<P> crs;
+    private final String name;
+    private final int nodeSize;
+
+    private final List<byte[]> features = new ArrayList<>();
+    private double[] bounds = new double[64];
+    private final double[] extent = {Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+    private final Map<String, Integer> columnIndices = new LinkedHashMap<>();
+    private final List<ColumnType> columnTypes = new ArrayList<>();
+    // -1 as long as no geometry is written, UNKNOWN if the geometry types differ
+    private int geometryType = -1;
+    private double[] coordinates = new double[4];
+    // whether the header is written, which only happens before the features without an index
+    private boolean headerWritten;
+    private boolean finished;
+
+    /**
+     * Constructs a writer that writes an index with the default node size
+     *
+     * @param out the stream to write to
+     * @param crs the {@code CoordinateReferenceSystem} of the geometries
+     */
+    public FlatGeobufWriter(OutputStream out, CoordinateReferenceSystem<P> crs) {
+        this(out, crs, null, DEFAULT_NODE_SIZE);
+    }
+
+    /**
+     * Constructs a writer
+     *
+     * @param out      the stream to write to
+     * @param crs      the {@code CoordinateReferenceSystem} of the geometries
+     * @param name     the name of the dataset, or null
+     * @param nodeSize the number of children of an index node, or 0 to write no index
+     * @throws IllegalArgumentException if the node size is not 0 and not between 2 and 65535
+     */
+    public FlatGeobufWriter(OutputStream out, CoordinateReferenceSystem<P> crs, String name, int nodeSize) {
+        if (nodeSize != 0 && (nodeSize < 2 || nodeSize > 65535)) {
+            throw new IllegalArgumentException("Node size must be 0, or between 2 and 65535.");
+        }
+        this.out = out;
+        this.crs = crs;
+        this.name = name;
+        this.nodeSize = nodeSize;
+    }
+
+    /**
+     * Writes a {@code Geometry} without properties
+     *
+     * @param geometry the {@code Geometry}, or null
+     * @throws IllegalArgumentException if the {@code Geometry} has another {@code CoordinateReferenceSystem}
+     * @throws IOException              if writing to the stream fails
+     */
+    public void write(Geometry<P> geometry) throws IOException {
+        write(geometry, Collections.emptyMap());
+    }
+
+    /**
+     * Writes a {@code Feature}. The id of the feature is not written.
+     *
+     * @param feature the {@code Feature}
+     * @throws IllegalArgumentException if the geometry has another {@code CoordinateReferenceSystem}, or a property
+     *                                  value has an unsupported type or another type than the earlier values of the
+     *                                  property
+     * @throws IOException              if writing to the stream fails
+     */
+    public void write(Feature<P, ?> feature) throws IOException {
+        write(feature.getGeometry(), feature.getProperties() == null ? Collections.emptyMap() : feature.getProperties());
+    }
+
+    /**
+     * Writes a {@code Geometry} with properties
+     *
+     * @param geometry   the {@code Geometry}, or null
+     * @param properties the properties
+     * @throws IllegalArgumentException if the geometry has another {@code CoordinateReferenceSystem}, or a property
+     *                                  value has an unsupported type or another type than the earlier values of the
+     *                                  property, or without an index a property that the first feature doesn't have
+     * @throws IOException              if writing to the stream fails
+     */
+    public void write(Geometry<P> geometry, Map<String, ?> properties) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Writer is finished.");
+        }
+        if (geometry != null && !crs.equals(geometry.getCoordinateReferenceSystem())) {
+            throw new IllegalArgumentException("Geometry must have the coordinate reference system of the writer.");
+        }
+        FlatBuffers.Table feature = new FlatBuffers.Table()
+                .putBytes(FEATURE_PROPERTIES, encodeProperties(properties));
+        if (geometry != null) {
+            feature.putTable(FEATURE_GEOMETRY, encodeGeometry(geometry));
+        }
+        if (nodeSize == 0) {
+            if (!headerWritten) {
+                writeHeader(0);
+            }
+            out.write(FlatBuffers.toSizePrefixedBytes(feature));
+            return;
+        }
+        if (geometry != null) {
+            int type = geometryTypeCode(geometry.getGeometryType());
+            geometryType = geometryType == -1 || geometryType == type ? type : UNKNOWN;
+        }
+        addBounds(geometry);
+        features.add(FlatBuffers.toSizePrefixedBytes(feature));
+    }
+
+    /**
+     * Writes the header, index and features to the stream, and flushes it. Nothing can be written after this.
+     *
+     * @throws IOException if writing to the stream fails
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (nodeSize == 0) {
+            if (!headerWritten) {
+                writeHeader(0);
+            }
+            out.flush();
+            return;
+        }
+        int numFeatures = features.size();
+        boolean indexed = numFeatures > 0;
+        int[] order = new int[numFeatures];
+        if (indexed) {
+            double[] curveExtent = Double.isNaN(extent[0]) ? new double[4] : extent;
+            order = PackedHilbertRTree.hilbertOrder(bounds, numFeatures, curveExtent);
+        }
+
+        writeHeader(numFeatures);
+        if (indexed) {
+            double[] sortedBounds = new double[4 * numFeatures];
+            long[] offsets = new long[numFeatures];
+            long offset = 0;
+            for (int i = 0; i < numFeatures; i++) {
+                System.arraycopy(bounds, 4 * order[i], sortedBounds, 4 * i, 4);
+                offsets[i] = offset;
+                offset += features.get(order[i]).length;
+            }
+            out.write(PackedHilbertRTree.build(sortedBounds, offsets, numFeatures, nodeSize));
+        }
+        for (int i = 0; i < numFeatures; i++) {
+            out.write(features.get(order[i]));
+            features.set(order[i], null);
+        }
+        out.flush();
+    }
+
+    /**
+     * Finishes writing, and closes the stream
+     *
+     * @throws IOException if writing to or closing the stream fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeHeader(int numFeatures) throws IOException {
+        out.write(MAGIC);
+        out.write(FlatBuffers.toSizePrefixedBytes(header(numFeatures)));
+        headerWritten = true;
+    }
+
+    private FlatBuffers.Table header(int numFeatures) {
+        List<FlatBuffers.Table> columns = new ArrayList<>();
+        for (Map.Entry<String, Integer> column : columnIndices.entrySet()) {
+            columns.add(new FlatBuffers.Table()
+                    .putString(COLUMN_NAME, column.getKey())
+                    .putByte(COLUMN_TYPE, columnTypes.get(column.getValue()).ordinal()));
+        }
+        FlatBuffers.Table header = new FlatBuffers.Table()
+                .putString(HEADER_NAME, name)
+                .putDoubles(HEADER_ENVELOPE, Double.isNaN(extent[0]) ? null : extent.clone())
+                .putByte(HEADER_GEOMETRY_TYPE, Math.max(geometryType, UNKNOWN))
+                .putBoolean(HEADER_HAS_Z, crs.hasZ())
+                .putBoolean(HEADER_HAS_M, crs.hasM())
+                .putTables(HEADER_COLUMNS, columns.isEmpty() ? null : columns)
+                .putLong(HEADER_FEATURES_COUNT, numFeatures)
+                .putShort(HEADER_INDEX_NODE_SIZE, nodeSize);
+        CrsId crsId = crs.getCrsId();
+        if (crsId.getCode() > 0) {
+            header.putTable(HEADER_CRS, new FlatBuffers.Table()
+                    .putString(CRS_ORG, crsId.getAuthority())
+                    .putInt(CRS_CODE, crsId.getCode()));
+        }
+        return header;
+    }
+
+    private byte[] encodeProperties(Map<String, ?> properties) {
+        int size = 0;
+        for (Map.Entry<String, ?> property : properties.entrySet()) {
+            if (property.getValue() != null) {
+                size += 2 + columnType(property.getKey(), property.getValue()).size(property.getValue());
+            }
+        }
+        if (size == 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        for (Map.Entry<String, ?> property : properties.entrySet()) {
+            if (property.getValue() != null) {
+                int index = columnIndices.get(property.getKey());
+                buffer.putShort((short) index);
+                columnTypes.get(index).write(buffer, property.getValue());
+            }
+        }
+        return buffer.array();
+    }
+
+    // returns the type of the column, and adds the column if it is new
+    private ColumnType columnType(String name, Object value) {
+        ColumnType type = ColumnType.of(value);
+        Integer index = columnIndices.get(name);
+        if (index == null) {
+            if (headerWritten) {
+                throw new IllegalArgumentException(String.format("Property %s is not a column of the first feature.",
+                        name));
+            }
+            if (columnIndices.size() == 65536) {
+                throw new IllegalArgumentException("Too many columns.");
+            }
+            columnIndices.put(name, columnTypes.size());
+            columnTypes.add(type);
+        } else if (columnTypes.get(index) != type) {
+            throw new IllegalArgumentException(String.format("Property %s has values of type %s and %s.", name,
+                    columnTypes.get(index), type));
+        }
+        return type;
+    }
+
+    @SuppressWarnings("unchecked")
+    private FlatBuffers.Table encodeGeometry(Geometry<P> geometry) {
+        FlatBuffers.Table table = new FlatBuffers.Table()
+                .putByte(GEOMETRY_TYPE, geometryTypeCode(geometry.getGeometryType()));
+        if (geometry.isEmpty()) {
+            return table;
+        }
+        switch (geometry.getGeometryType()) {
+            case MULTIPOLYGON:
+            case GEOMETRYCOLLECTION:
+                List<FlatBuffers.Table> parts = new ArrayList<>();
+                for (Geometry<P> part : (AbstractGeometryCollection<P, ?>) geometry) {
+                    parts.add(encodeGeometry(part));
+                }
+                return table.putTables(GEOMETRY_PARTS, parts);
+            case POLYGON:
+                Polygon<P> polygon = (Polygon<P>) geometry;
+                if (polygon.getNumInteriorRing() > 0) {
+                    table.putInts(GEOMETRY_ENDS, ends(polygon));
+                }
+                break;
+            case MULTILINESTRING:
+                MultiLineString<P> lines = (MultiLineString<P>) geometry;
+                if (lines.getNumGeometries() > 1) {
+                    table.putInts(GEOMETRY_ENDS, ends(lines));
+                }
+                break;
+            default:
+        }
+        return putCoordinates(table, geometry.getPositions());
+    }
+
+    private static int[] ends(Iterable<? extends Geometry<?>> parts) {
+        List<Integer> ends = new ArrayList<>();
+        int end = 0;
+        for (Geometry<?> part : parts) {
+            end += part.getNumPositions();
+            ends.add(end);
+        }
+        int[] result = new int[ends.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ends.get(i);
+        }
+        return result;
+    }
+
+    private FlatBuffers.Table putCoordinates(FlatBuffers.Table table, PositionSequence<P> positions) {
+        int n = positions.size();
+        boolean hasZ = crs.hasZ();
+        boolean hasM = crs.hasM();
+        double[] xy = new double[2 * n];
+        double[] z = hasZ ? new double[n] : null;
+        double[] m = hasM ? new double[n] : null;
+        if (coordinates.length < positions.getCoordinateDimension()) {
+            coordinates = new double[positions.getCoordinateDimension()];
+        }
+        for (int i = 0; i < n; i++) {
+            positions.getCoordinates(i, coordinates);
+            xy[2 * i] = coordinates[0];
+            xy[2 * i + 1] = coordinates[1];
+            if (hasZ) {
+                z[i] = coordinates[2];
+            }
+            if (hasM) {
+                m[i] = coordinates[hasZ ? 3 : 2];
+            }
+        }
+        return table.putDoubles(GEOMETRY_XY, xy).putDoubles(GEOMETRY_Z, z).putDoubles(GEOMETRY_M, m);
+    }
+
+    private void addBounds(Geometry<P> geometry) {
+        int i = features.size();
+        if (bounds.length < 4 * (i + 1)) {
+            bounds = Arrays.copyOf(bounds, 2 * bounds.length);
+        }
+        if (geometry == null || geometry.isEmpty()) {
+            Arrays.fill(bounds, 4 * i, 4 * i + 4, Double.NaN);
+            return;
+        }
+        Envelope<P> envelope = geometry.getEnvelope();
+        bounds[4 * i] = envelope.lowerLeft().getCoordinate(0);
+        bounds[4 * i + 1] = envelope.lowerLeft().getCoordinate(1);
+        bounds[4 * i + 2] = envelope.upperRight().getCoordinate(0);
+        bounds[4 * i + 3] = envelope.upperRight().getCoordinate(1);
+        for (int k = 0; k < 4; k++) {
+            double value = bounds[4 * i + k];
+            extent[k] = Double.isNaN(extent[k]) ? value : k < 2 ? Math.min(extent[k], value) : Math.max(extent[k], value);
+        }
+    }
+}
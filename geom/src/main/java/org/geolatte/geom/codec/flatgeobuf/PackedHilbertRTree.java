@@ -0,0 +1,203 @@
+package org.geolatte.geom.codec.flatgeobuf;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The static packed Hilbert R-tree of FlatGeobuf.
+ *
+ * <p>The items are sorted along a Hilbert curve through the centers of their bounding boxes, and grouped bottom-up
+ * into nodes of at most {@code nodeSize} children. The nodes are stored level by level, the root first and the
+ * leaves last. Each node is 40 bytes: minX, minY, maxX, maxY and an offset. For leaves, the offset is the byte offset
+ * of the feature in the feature section; for the other nodes it is the index of the first child node.</p>
+ */
+final class PackedHilbertRTree {
+
+    static final int NODE_ITEM_SIZE = 40;
+
+    private static final int HILBERT_MAX = (1 << 16) - 1;
+
+    private PackedHilbertRTree() {
+    }
+
+    /**
+     * Returns the start and end node index of each level, from the leaves to the root
+     */
+    static int[][] levelBounds(long numItems, int nodeSize) {
+        List<Long> levelNumNodes = new ArrayList<>();
+        long n = numItems;
+        long numNodes = n;
+        levelNumNodes.add(n);
+        do {
+            n = (n + nodeSize - 1) / nodeSize;
+            numNodes += n;
+            levelNumNodes.add(n);
+        } while (n != 1);
+        if (numNodes * NODE_ITEM_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Index too large.");
+        }
+        int[][] bounds = new int[levelNumNodes.size()][];
+        long end = numNodes;
+        for (int i = 0; i < bounds.length; i++) {
+            long start = end - levelNumNodes.get(i);
+            bounds[i] = new int[]{(int) start, (int) end};
+            end = start;
+        }
+        return bounds;
+    }
+
+    /**
+     * Returns the size in bytes of the index for the specified number of items
+     */
+    static long size(long numItems, int nodeSize) {
+        if (numItems == 0 || nodeSize == 0) {
+            return 0;
+        }
+        int[][] bounds = levelBounds(numItems, nodeSize);
+        return (long) bounds[0][1] * NODE_ITEM_SIZE;
+    }
+
+    /**
+     * Returns the order of the items along the Hilbert curve through the centers of their bounding boxes. Items with
+     * an empty (NaN) bounding box come last.
+     *
+     * @param bounds the bounding boxes of the items: minX, minY, maxX, maxY for each item
+     * @param extent the extent of the items: minX, minY, maxX, maxY
+     */
+    static int[] hilbertOrder(double[] bounds, int numItems, double[] extent) {
+        double width = extent[2] - extent[0];
+        double height = extent[3] - extent[1];
+        long[] keys = new long[numItems];
+        for (int i = 0; i < numItems; i++) {
+            long hilbert = 0xFFFFFFFFL;
+            if (!Double.isNaN(bounds[4 * i])) {
+                int x = width > 0 ? (int) (HILBERT_MAX * ((bounds[4 * i] + bounds[4 * i + 2]) / 2 - extent[0]) / width) : 0;
+                int y = height > 0 ? (int) (HILBERT_MAX * ((bounds[4 * i + 1] + bounds[4 * i + 3]) / 2 - extent[1]) / height) : 0;
+                hilbert = hilbert(x, y);
+            }
+            // the hilbert value has 32 bits, so the index fits in the low 31 bits
+            keys[i] = hilbert << 31 | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[numItems];
+        for (int i = 0; i < numItems; i++) {
+            order[i] = (int) (keys[i] & Integer.MAX_VALUE);
+        }
+        return order;
+    }
+
+    // the distance along the Hilbert curve of order 16
+    static long hilbert(int x, int y) {
+        long d = 0;
+        for (int s = 1 << 15; s > 0; s >>>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = HILBERT_MAX - x;
+                    y = HILBERT_MAX - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Builds the index
+     *
+     * @param bounds  the bounding boxes of the items, in the order of the features
+     * @param offsets the byte offsets of the features
+     * @return the index, as it is written to the file
+     */
+    static byte[] build(double[] bounds, long[] offsets, int numItems, int nodeSize) {
+        int[][] levels = levelBounds(numItems, nodeSize);
+        int numNodes = levels[0][1];
+        double[] boxes = new double[4 * numNodes];
+        long[] nodeOffsets = new long[numNodes];
+        System.arraycopy(bounds, 0, boxes, 4 * levels[0][0], 4 * numItems);
+        System.arraycopy(offsets, 0, nodeOffsets, levels[0][0], numItems);
+        for (int level = 0; level < levels.length - 1; level++) {
+            int parent = levels[level + 1][0];
+            for (int child = levels[level][0]; child < levels[level][1]; child += nodeSize) {
+                int end = Math.min(child + nodeSize, levels[level][1]);
+                double minX = Double.NaN;
+                double minY = Double.NaN;
+                double maxX = Double.NaN;
+                double maxY = Double.NaN;
+                for (int i = child; i < end; i++) {
+                    if (Double.isNaN(boxes[4 * i])) {
+                        continue;
+                    }
+                    minX = Double.isNaN(minX) ? boxes[4 * i] : Math.min(minX, boxes[4 * i]);
+                    minY = Double.isNaN(minY) ? boxes[4 * i + 1] : Math.min(minY, boxes[4 * i + 1]);
+                    maxX = Double.isNaN(maxX) ? boxes[4 * i + 2] : Math.max(maxX, boxes[4 * i + 2]);
+                    maxY = Double.isNaN(maxY) ? boxes[4 * i + 3] : Math.max(maxY, boxes[4 * i + 3]);
+                }
+                boxes[4 * parent] = minX;
+                boxes[4 * parent + 1] = minY;
+                boxes[4 * parent + 2] = maxX;
+                boxes[4 * parent + 3] = maxY;
+                nodeOffsets[parent] = child;
+                parent++;
+            }
+        }
+        ByteBuffer out = ByteBuffer.allocate(numNodes * NODE_ITEM_SIZE).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < numNodes; i++) {
+            out.putDouble(boxes[4 * i]).putDouble(boxes[4 * i + 1]).putDouble(boxes[4 * i + 2])
+                    .putDouble(boxes[4 * i + 3]).putLong(nodeOffsets[i]);
+        }
+        return out.array();
+    }
+
+    /**
+     * Searches the index for the items with a bounding box that intersects the window.
+     *
+     * @param buffer the buffer holding the index
+     * @param start  the position of the index in the buffer
+     * @return the feature index and byte offset of each item found, sorted by offset
+     */
+    static long[][] search(ByteBuffer buffer, int start, long numItems, int nodeSize, double minX, double minY,
+                           double maxX, double maxY) {
+        int[][] levels = levelBounds(numItems, nodeSize);
+        int leafStart = levels[0][0];
+        int[] nodes = new int[16];
+        int[] nodeLevels = new int[16];
+        int top = 0;
+        nodes[top] = 0;
+        nodeLevels[top++] = levels.length - 1;
+
+        List<long[]> found = new ArrayList<>();
+        while (top > 0) {
+            int node = nodes[--top];
+            int level = nodeLevels[top];
+            int end = Math.min(node + nodeSize, levels[level][1]);
+            for (int pos = node; pos < end; pos++) {
+                int item = start + pos * NODE_ITEM_SIZE;
+                if (!(buffer.getDouble(item) <= maxX && buffer.getDouble(item + 8) <= maxY
+                        && buffer.getDouble(item + 16) >= minX && buffer.getDouble(item + 24) >= minY)) {
+                    continue;
+                }
+                long offset = buffer.getLong(item + 32);
+                if (node >= leafStart) {
+                    found.add(new long[]{pos - leafStart, offset});
+                } else {
+                    if (top == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, 2 * top);
+                        nodeLevels = Arrays.copyOf(nodeLevels, 2 * top);
+                    }
+                    nodes[top] = (int) offset;
+                    nodeLevels[top++] = level - 1;
+                }
+            }
+        }
+        long[][] result = found.toArray(new long[0][]);
+        Arrays.sort(result, (a, b) -> Long.compare(a[1], b[1]));
+        return result;
+    }
+}
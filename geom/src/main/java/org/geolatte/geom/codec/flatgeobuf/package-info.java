@@ -0,0 +1,5 @@
+/**
+ * Reading and writing of <a href="https://flatgeobuf.org/">FlatGeobuf</a> files, with their packed Hilbert R-tree
+ * index.
+ */
+package org.geolatte.geom.codec.flatgeobuf;
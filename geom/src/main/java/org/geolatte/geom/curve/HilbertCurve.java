@@ -0,0 +1,73 @@
+package org.geolatte.geom.curve;
+
+import org.geolatte.geom.C2D;
+
+/**
+ * The Hilbert curve, with {@code long} cell ids.
+ *
+ * <p>Cells that are consecutive along the Hilbert curve are always adjacent, so the Hilbert curve keeps
+ * neighbouring cells closer together in key order than the Morton curve. At the first level, the curve runs from the
+ * lower-left quadrant, to the upper-left, upper-right and lower-right quadrant.</p>
+ *
+ * @param <P> the {@code Position} type of the {@code MortonContext}
+ */
+public class HilbertCurve<P extends C2D> extends SpaceFillingCurve<P> {
+
+    /**
+     * Constructs an instance for the QuadTree determined by the specified {@code MortonContext}
+     *
+     * @param context the {@code MortonContext}
+     */
+    public HilbertCurve(MortonContext<P> context) {
+        super(context);
+    }
+
+    @Override
+    protected long encode(int col, int row, int level) {
+        long key = 0;
+        int x = col;
+        int y = row;
+        int mask = (1 << level) - 1;
+        for (int s = 1 << (level - 1); s > 0; s >>>= 1) {
+            int rx = (x & s) != 0 ? 1 : 0;
+            int ry = (y & s) != 0 ? 1 : 0;
+            key = (key << 2) | ((3 * rx) ^ ry);
+            // rotate the quadrant, so that the sub-curve starts in the lower-left corner
+            if (ry == 0) {
+                if (rx == 1) {
+                    x ^= mask;
+                    y ^= mask;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return key;
+    }
+
+    @Override
+    protected long decode(long key, int level) {
+        int x = 0;
+        int y = 0;
+        for (int i = 0; i < level; i++) {
+            int s = 1 << i;
+            int label = (int) (key >>> (2 * i)) & 3;
+            int rx = label >>> 1;
+            int ry = (label ^ rx) & 1;
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+            x += s * rx;
+            y += s * ry;
+        }
+        return ((long) x << 32) | y;
+    }
+
+}
@@ -0,0 +1,71 @@
+package org.geolatte.geom.curve;
+
+/**
+ * A half-open range {@code [start, end)} of cell ids of a {@link SpaceFillingCurve}.
+ */
+public final class KeyRange {
+
+    private final long start;
+    private final long end;
+
+    /**
+     * Constructs a range
+     *
+     * @param start the first cell id in the range
+     * @param end   the cell id after the last cell id in the range
+     * @throws IllegalArgumentException if end is not greater than start
+     */
+    public KeyRange(long start, long end) {
+        if (end <= start) {
+            throw new IllegalArgumentException("End of range must be greater than start.");
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Returns the first cell id in this range
+     *
+     * @return the first cell id in this range
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the cell id after the last cell id in this range
+     *
+     * @return the (exclusive) end of this range
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Checks whether this range contains the specified cell id
+     *
+     * @param cellId the cell id
+     * @return true if the cell id is in this range, false otherwise
+     */
+    public boolean contains(long cellId) {
+        return cellId >= start && cellId < end;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        KeyRange keyRange = (KeyRange) o;
+        return start == keyRange.start && end == keyRange.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(start) + Long.hashCode(end);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + end + ")";
+    }
+}
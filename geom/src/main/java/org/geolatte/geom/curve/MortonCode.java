@@ -51,6 +51,9 @@ import java.util.regex.Pattern;
  *
  * </ul>
  *
+ * <p>{@link MortonCurve} calculates the same codes as {@code long} cell ids, which are cheaper to calculate, store
+ * and sort.</p>
+ *
  * @author Karel Maesen, Geovise BVBA
  *         creation-date: 2/19/13
  */
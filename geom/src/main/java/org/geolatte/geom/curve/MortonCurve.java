@@ -0,0 +1,99 @@
+package org.geolatte.geom.curve;
+
+import org.geolatte.geom.C2D;
+
+/**
+ * The Morton (Z-order) curve, with {@code long} cell ids.
+ *
+ * <p>The key of a cell interleaves the bits of its column and row, so that the key of a leaf cell is the interleaved
+ * value that {@link MortonCode} writes as a {@code String}. The quadrants are labeled as in {@code MortonCode}, and
+ * {@link #toMortonCode(long)} and {@link #cellId(String)} convert between both representations.</p>
+ *
+ * @param <P> the {@code Position} type of the {@code MortonContext}
+ */
+public class MortonCurve<P extends C2D> extends SpaceFillingCurve<P> {
+
+    /**
+     * Constructs an instance for the QuadTree determined by the specified {@code MortonContext}
+     *
+     * @param context the {@code MortonContext}
+     */
+    public MortonCurve(MortonContext<P> context) {
+        super(context);
+    }
+
+    @Override
+    protected long encode(int col, int row, int level) {
+        return (spread(col) << 1) | spread(row);
+    }
+
+    @Override
+    protected long decode(long key, int level) {
+        return ((long) compact(key >>> 1) << 32) | compact(key);
+    }
+
+    /**
+     * Returns the Morton code of the cell with the specified id, as calculated by {@link MortonCode}
+     *
+     * @param cellId the cell id
+     * @return the Morton code of the cell
+     * @throws IllegalArgumentException if the cell id is not valid for this curve
+     */
+    public String toMortonCode(long cellId) {
+        int level = level(cellId);
+        long key = key(cellId);
+        char[] cbuf = new char[level];
+        for (int pos = level - 1; pos >= 0; pos--) {
+            cbuf[pos] = (char) ('0' + (key & 3));
+            key >>>= 2;
+        }
+        return String.valueOf(cbuf);
+    }
+
+    /**
+     * Returns the id of the cell with the specified Morton code, as calculated by {@link MortonCode}
+     *
+     * @param mortonCode the Morton code
+     * @return the id of the cell
+     * @throws IllegalArgumentException if the Morton code is not valid for this curve
+     */
+    public long cellId(String mortonCode) {
+        if (mortonCode == null || mortonCode.length() > getDepth()) {
+            throw new IllegalArgumentException(String.format(
+                    "Parameter %s is not a valid mortoncode with max. depth %d.", mortonCode, getDepth()));
+        }
+        long key = 0;
+        for (int i = 0; i < mortonCode.length(); i++) {
+            int label = mortonCode.charAt(i) - '0';
+            if (label < 0 || label > 3) {
+                throw new IllegalArgumentException(String.format(
+                        "Parameter %s is not a valid mortoncode with max. depth %d.", mortonCode, getDepth()));
+            }
+            key = (key << 2) | label;
+        }
+        return toCellId(key, mortonCode.length());
+    }
+
+    // spreads the 32 bits of the value over the even bits of a long
+    private static long spread(int value) {
+        long x = value & 0xFFFFFFFFL;
+        x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        x = (x | (x << 1)) & 0x5555555555555555L;
+        return x;
+    }
+
+    // the inverse of spread: collects the even bits of a long
+    private static int compact(long value) {
+        long x = value & 0x5555555555555555L;
+        x = (x | (x >>> 1)) & 0x3333333333333333L;
+        x = (x | (x >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x >>> 4)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x >>> 8)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x >>> 16)) & 0x00000000FFFFFFFFL;
+        return (int) x;
+    }
+
+}
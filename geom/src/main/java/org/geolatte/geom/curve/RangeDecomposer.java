@@ -0,0 +1,326 @@
+package org.geolatte.geom.curve;
+
+import org.geolatte.geom.C2D;
+import org.geolatte.geom.Envelope;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Decomposes a query window into ranges of cell ids of a {@link SpaceFillingCurve}, so that a store sorted by cell
+ * id can answer window queries with range scans.
+ *
+ * <p>The decomposition starts from the smallest cell that contains the window, and refines the cells that partially
+ * overlap the window level by level. It stops as soon as the over-fetch is within bounds, the maximum level is
+ * reached, or the number of ranges exceeds the maximum. The over-fetch is the area of the cells that are scanned,
+ * but lie outside the window, relative to the area of the window. If the last refinement yields too many ranges,
+ * the ranges that are closest in key order are merged until the maximum number of ranges is reached. The
+ * over-fetch can then exceed its maximum; {@link #overfetch(List, Envelope)} reports the over-fetch of the
+ * result.</p>
+ *
+ * <p>Each range covers a cell and all its descendants. When the store also holds cell ids of envelopes, i.e. cells
+ * above the leaf level, then items in the ancestors of these cells can also intersect the window. These are only
+ * included in the ranges if {@link #withAncestors(boolean)} is set.</p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ *
+ * @param <P> the {@code Position} type of the curve
+ */
+public class RangeDecomposer<P extends C2D> {
+
+    /**
+     * The default maximum number of ranges
+     */
+    public static final int DEFAULT_MAX_RANGES = 64;
+
+    /**
+     * The default maximum over-fetch
+     */
+    public static final double DEFAULT_MAX_OVERFETCH = 0.1;
+
+    private final SpaceFillingCurve<P> curve;
+    private final int maxRanges;
+    private final int maxLevel;
+    private final double maxOverfetch;
+    private final boolean ancestors;
+
+    /**
+     * Constructs an instance for the specified curve, with the default maximum number of ranges and over-fetch, and
+     * the depth of the curve as maximum level.
+     *
+     * @param curve the {@code SpaceFillingCurve}
+     */
+    public RangeDecomposer(SpaceFillingCurve<P> curve) {
+        this(curve, DEFAULT_MAX_RANGES, curve.getDepth(), DEFAULT_MAX_OVERFETCH, false);
+    }
+
+    private RangeDecomposer(SpaceFillingCurve<P> curve, int maxRanges, int maxLevel, double maxOverfetch,
+                            boolean ancestors) {
+        this.curve = curve;
+        this.maxRanges = maxRanges;
+        this.maxLevel = maxLevel;
+        this.maxOverfetch = maxOverfetch;
+        this.ancestors = ancestors;
+    }
+
+    /**
+     * Returns a copy of this instance with the specified maximum number of ranges
+     *
+     * @param maxRanges the maximum number of ranges
+     * @return a new {@code RangeDecomposer}
+     * @throws IllegalArgumentException if maxRanges is less than 1
+     */
+    public RangeDecomposer<P> withMaxRanges(int maxRanges) {
+        if (maxRanges < 1) {
+            throw new IllegalArgumentException("Maximum number of ranges must be at least 1.");
+        }
+        return new RangeDecomposer<>(curve, maxRanges, maxLevel, maxOverfetch, ancestors);
+    }
+
+    /**
+     * Returns a copy of this instance with the specified maximum level of the cells
+     *
+     * @param maxLevel the maximum level
+     * @return a new {@code RangeDecomposer}
+     * @throws IllegalArgumentException if maxLevel is negative or greater than the depth of the curve
+     */
+    public RangeDecomposer<P> withMaxLevel(int maxLevel) {
+        if (maxLevel < 0 || maxLevel > curve.getDepth()) {
+            throw new IllegalArgumentException("Maximum level must be between 0 and the depth of the curve.");
+        }
+        return new RangeDecomposer<>(curve, maxRanges, maxLevel, maxOverfetch, ancestors);
+    }
+
+    /**
+     * Returns a copy of this instance with the specified maximum over-fetch
+     *
+     * @param maxOverfetch the maximum area outside the window, relative to the area of the window
+     * @return a new {@code RangeDecomposer}
+     * @throws IllegalArgumentException if maxOverfetch is negative or NaN
+     */
+    public RangeDecomposer<P> withMaxOverfetch(double maxOverfetch) {
+        if (!(maxOverfetch >= 0)) {
+            throw new IllegalArgumentException("Maximum over-fetch must be a non-negative number.");
+        }
+        return new RangeDecomposer<>(curve, maxRanges, maxLevel, maxOverfetch, ancestors);
+    }
+
+    /**
+     * Returns a copy of this instance that does or does not include the ids of ancestor cells in the ranges
+     *
+     * @param ancestors whether to include the ids of ancestor cells
+     * @return a new {@code RangeDecomposer}
+     */
+    public RangeDecomposer<P> withAncestors(boolean ancestors) {
+        return new RangeDecomposer<>(curve, maxRanges, maxLevel, maxOverfetch, ancestors);
+    }
+
+    /**
+     * Returns the sorted, non-overlapping and non-adjacent ranges of cell ids that cover the specified window.
+     *
+     * <p>The window is closed, so the ranges also cover the cells that only touch its maximum edges.</p>
+     *
+     * @param window the query window
+     * @return the ranges covering the window, or an empty list if the window does not intersect the extent of the
+     * curve
+     * @throws IllegalArgumentException if the window has a different {@code CoordinateReferenceSystem} than the curve
+     */
+    public List<KeyRange> decompose(Envelope<P> window) {
+        Envelope<P> extent = curve.getContext().getExtent();
+        if (!extent.getCoordinateReferenceSystem().equals(window.getCoordinateReferenceSystem())) {
+            throw new IllegalArgumentException("Window must have the same coordinate reference system as the curve.");
+        }
+        if (window.isEmpty() || !window.intersects(extent)) {
+            return new ArrayList<>();
+        }
+        return decompose(Math.max(window.lowerLeft().getX(), extent.lowerLeft().getX()),
+                Math.max(window.lowerLeft().getY(), extent.lowerLeft().getY()),
+                Math.min(window.upperRight().getX(), extent.upperRight().getX()),
+                Math.min(window.upperRight().getY(), extent.upperRight().getY()));
+    }
+
+    private List<KeyRange> decompose(double minX, double minY, double maxX, double maxY) {
+        long start = curve.cellId(minX, minY, maxX, maxY);
+        if (curve.level(start) > maxLevel) {
+            start = curve.parent(start, maxLevel);
+        }
+        double leafArea = curve.getContext().getLeafWidth() * curve.getContext().getLeafHeight();
+        double windowArea = Math.max((maxX - minX) * (maxY - minY), leafArea);
+        double[] bounds = new double[4];
+
+        LongList covered = new LongList();
+        LongList partial = new LongList();
+        LongList refined = new LongList();
+        if (ancestors) {
+            for (int level = 0; level < curve.level(start); level++) {
+                refined.add(curve.parent(start, level));
+            }
+        }
+        curve.bounds(start, bounds, 0);
+        if (within(bounds, minX, minY, maxX, maxY)) {
+            covered.add(start);
+        } else {
+            partial.add(start);
+        }
+
+        int level = curve.level(start);
+        while (partial.size > 0 && level < maxLevel
+                && overfetch(covered, partial, bounds, minX, minY, maxX, maxY, windowArea) > maxOverfetch
+                && ranges(covered, partial, refined).length / 2 <= maxRanges) {
+            LongList next = new LongList();
+            for (int i = 0; i < partial.size; i++) {
+                long cell = partial.values[i];
+                if (ancestors) {
+                    refined.add(cell);
+                }
+                long lsb = Long.lowestOneBit(cell);
+                long childLsb = lsb >>> 2;
+                for (int j = 0; j < 4; j++) {
+                    long child = cell - lsb + (2 * j + 1) * childLsb;
+                    curve.bounds(child, bounds, 0);
+                    if (within(bounds, minX, minY, maxX, maxY)) {
+                        covered.add(child);
+                    } else if (intersects(bounds, minX, minY, maxX, maxY)) {
+                        next.add(child);
+                    }
+                }
+            }
+            partial = next;
+            level++;
+        }
+        return merge(ranges(covered, partial, refined), maxRanges);
+    }
+
+    private double overfetch(LongList covered, LongList partial, double[] bounds, double minX, double minY,
+                             double maxX, double maxY, double windowArea) {
+        // the covered cells lie within the window, so only the partial cells contribute
+        double outside = 0;
+        for (int i = 0; i < partial.size; i++) {
+            curve.bounds(partial.values[i], bounds, 0);
+            double area = (bounds[2] - bounds[0]) * (bounds[3] - bounds[1]);
+            double inside = (Math.min(bounds[2], maxX) - Math.max(bounds[0], minX))
+                    * (Math.min(bounds[3], maxY) - Math.max(bounds[1], minY));
+            outside += area - inside;
+        }
+        return outside / windowArea;
+    }
+
+    // returns the sorted and merged ranges as start, end pairs
+    private long[] ranges(LongList covered, LongList partial, LongList refined) {
+        long[] cells = new long[covered.size + partial.size];
+        System.arraycopy(covered.values, 0, cells, 0, covered.size);
+        System.arraycopy(partial.values, 0, cells, covered.size, partial.size);
+        Arrays.sort(cells);
+        // the refined cells are not contained in the other cells, and only their own id is included
+        long[] singles = Arrays.copyOf(refined.values, refined.size);
+        Arrays.sort(singles);
+        long[] ranges = new long[2 * (cells.length + singles.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < cells.length || j < singles.length) {
+            long start;
+            long end;
+            if (j == singles.length || (i < cells.length && cells[i] < singles[j])) {
+                start = curve.rangeMin(cells[i]);
+                end = curve.rangeMax(cells[i++]) + 1;
+            } else {
+                start = singles[j];
+                end = singles[j++] + 1;
+            }
+            // without ancestors, the single ids between the ranges of sibling cells are not needed, so these gaps
+            // are closed as well
+            if (count > 0 && start <= ranges[2 * count - 1] + (ancestors ? 0 : 1)) {
+                ranges[2 * count - 1] = Math.max(ranges[2 * count - 1], end);
+            } else {
+                ranges[2 * count] = start;
+                ranges[2 * count + 1] = end;
+                count++;
+            }
+        }
+        return Arrays.copyOf(ranges, 2 * count);
+    }
+
+    // merges the ranges with the smallest gaps between them, until at most maxRanges remain
+    static List<KeyRange> merge(long[] ranges, int maxRanges) {
+        int n = ranges.length / 2;
+        boolean[] closed = new boolean[Math.max(n - 1, 0)];
+        if (n > maxRanges) {
+            Integer[] order = new Integer[n - 1];
+            for (int i = 0; i < n - 1; i++) {
+                order[i] = i;
+            }
+            // by gap, and by position for equal gaps
+            Arrays.sort(order, Comparator.<Integer>comparingLong(i -> ranges[2 * i + 2] - ranges[2 * i + 1])
+                    .thenComparingInt(i -> i));
+            for (int i = 0; i < n - maxRanges; i++) {
+                closed[order[i]] = true;
+            }
+        }
+        List<KeyRange> result = new ArrayList<>();
+        long start = ranges.length > 0 ? ranges[0] : 0;
+        for (int i = 0; i < n; i++) {
+            if (i == n - 1 || !closed[i]) {
+                result.add(new KeyRange(start, ranges[2 * i + 1]));
+                if (i < n - 1) {
+                    start = ranges[2 * i + 2];
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the over-fetch of ranges for a window: the area of the leaf cells in the ranges that lie outside the
+     * window, relative to the area of the window.
+     *
+     * <p>If the maximum number of ranges is reached before the maximum over-fetch, {@link #decompose(Envelope)}
+     * merges ranges, and the over-fetch of the result can exceed the maximum. This method allows callers to detect
+     * that, and e.g. to retry with more ranges.</p>
+     *
+     * @param ranges the ranges, as returned by {@link #decompose(Envelope)} for the window
+     * @param window the query window
+     * @return the over-fetch, or 0 if the window does not intersect the extent of the curve
+     */
+    public double overfetch(List<KeyRange> ranges, Envelope<P> window) {
+        MortonContext<P> context = curve.getContext();
+        Envelope<P> extent = context.getExtent();
+        if (window.isEmpty() || !window.intersects(extent)) {
+            return 0;
+        }
+        double width = Math.min(window.upperRight().getX(), extent.upperRight().getX())
+                - Math.max(window.lowerLeft().getX(), extent.lowerLeft().getX());
+        double height = Math.min(window.upperRight().getY(), extent.upperRight().getY())
+                - Math.max(window.lowerLeft().getY(), extent.lowerLeft().getY());
+        double leafArea = context.getLeafWidth() * context.getLeafHeight();
+        double windowArea = Math.max(width * height, leafArea);
+        // the ids of leaf cells are odd
+        long leafCells = 0;
+        for (KeyRange range : ranges) {
+            leafCells += range.getEnd() / 2 - range.getStart() / 2;
+        }
+        return Math.max(0, leafCells * leafArea - windowArea) / windowArea;
+    }
+
+    private static boolean within(double[] bounds, double minX, double minY, double maxX, double maxY) {
+        return bounds[0] >= minX && bounds[1] >= minY && bounds[2] <= maxX && bounds[3] <= maxY;
+    }
+
+    private static boolean intersects(double[] bounds, double minX, double minY, double maxX, double maxY) {
+        return bounds[0] <= maxX && bounds[1] <= maxY && bounds[2] >= minX && bounds[3] >= minY;
+    }
+
+    private static final class LongList {
+        private long[] values = new long[16];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package org.geolatte.geom.curve;
+
+import org.geolatte.geom.C2D;
+import org.geolatte.geom.Envelope;
+import org.geolatte.geom.Geometry;
+import org.geolatte.geom.PositionSequence;
+
+/**
+ * A space-filling curve over the QuadTree determined by a {@code MortonContext}, with cells labeled by {@code long}
+ * cell ids.
+ *
+ * <p>A cell at level {@code L} of the QuadTree has a key of {@code 2L} bits: the position of the cell along the
+ * curve, among all cells at that level. The cells of a level-{@code L} cell at the next level have the keys
+ * {@code 4 * key} to {@code 4 * key + 3}, so the key of a cell is a prefix of the keys of all its descendants.</p>
+ *
+ * <p>The cell id combines the key and the level in a single {@code long}: it is the key, followed by a 1-bit
+ * and {@code 2 * (depth - L)} 0-bits. The level can therefore be recovered from the number of trailing zeros, and
+ * the ids of all descendants of a cell form a contiguous range around the id of the cell (see
+ * {@link #rangeMin(long)} and {@link #rangeMax(long)}). Sorting cell ids sorts the cells along the curve. As the
+ * depth of a {@code MortonContext} is at most 31, cell ids are always positive.</p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ *
+ * @param <P> the {@code Position} type of the {@code MortonContext}
+ */
+public abstract class SpaceFillingCurve<P extends C2D> {
+
+    private final MortonContext<P> context;
+    private final int depth;
+    private final int maxCell;
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+    private final double leafWidth;
+    private final double leafHeight;
+
+    protected SpaceFillingCurve(MortonContext<P> context) {
+        if (context == null) {
+            throw new IllegalArgumentException("No Null arguments allowed.");
+        }
+        this.context = context;
+        this.depth = context.getDepth();
+        this.maxCell = context.getNumberOfDivisionsAlongAxis() - 1;
+        this.minX = context.getMinX();
+        this.minY = context.getMinY();
+        this.maxX = context.getMaxX();
+        this.maxY = context.getMaxY();
+        this.leafWidth = context.getLeafWidth();
+        this.leafHeight = context.getLeafHeight();
+    }
+
+    /**
+     * Returns the key of the cell at the specified column and row of the grid at the specified level.
+     *
+     * @param col   the column, less than {@code 2^level}
+     * @param row   the row, less than {@code 2^level}
+     * @param level the level
+     * @return the key of the cell
+     */
+    protected abstract long encode(int col, int row, int level);
+
+    /**
+     * Returns the column and row of the cell with the specified key at the specified level, as
+     * {@code (col << 32) | row}
+     *
+     * @param key   the key
+     * @param level the level
+     * @return the column and row of the cell
+     */
+    protected abstract long decode(long key, int level);
+
+    /**
+     * Returns the {@code MortonContext} that determines the QuadTree of this curve
+     *
+     * @return the {@code MortonContext} of this curve
+     */
+    public MortonContext<P> getContext() {
+        return context;
+    }
+
+    /**
+     * Returns the depth of the QuadTree, which is the level of the leaf cells
+     *
+     * @return the depth of the QuadTree
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the id of the leaf cell that contains the specified coordinates
+     *
+     * @param x the X-coordinate
+     * @param y the Y-coordinate
+     * @return the id of the leaf cell that contains the coordinates
+     * @throws IllegalArgumentException if the coordinates are not contained in the extent of the {@code MortonContext}
+     */
+    public long cellId(double x, double y) {
+        return toCellId(encode(col(x), row(y), depth), depth);
+    }
+
+    /**
+     * Returns the id of the leaf cell that contains the specified {@code Position}
+     *
+     * @param position the {@code Position}
+     * @return the id of the leaf cell that contains the {@code Position}
+     * @throws IllegalArgumentException if the {@code Position} is not contained in the extent of the
+     *                                  {@code MortonContext}
+     */
+    public long cellId(P position) {
+        return cellId(position.getX(), position.getY());
+    }
+
+    /**
+     * Returns the id of the smallest cell that contains the specified {@code Envelope}
+     *
+     * @param envelope the {@code Envelope}
+     * @return the id of the smallest cell that contains the {@code Envelope}
+     * @throws IllegalArgumentException if the {@code Envelope} is empty or not contained in the extent of the
+     *                                  {@code MortonContext}
+     */
+    public long cellId(Envelope<P> envelope) {
+        if (envelope.isEmpty()) {
+            throw new IllegalArgumentException("Empty envelope has no cell id.");
+        }
+        return cellId(envelope.lowerLeft().getX(), envelope.lowerLeft().getY(),
+                envelope.upperRight().getX(), envelope.upperRight().getY());
+    }
+
+    /**
+     * Returns the id of the smallest cell that contains the envelope of the specified {@code Geometry}
+     *
+     * @param geometry the {@code Geometry}
+     * @return the id of the smallest cell that contains the envelope of the {@code Geometry}
+     * @throws IllegalArgumentException if the {@code Geometry} is empty, or its envelope is not contained in the
+     *                                  extent of the {@code MortonContext}
+     */
+    public long cellId(Geometry<P> geometry) {
+        return cellId(geometry.getEnvelope());
+    }
+
+    /**
+     * Returns the id of the smallest cell that contains the specified bounding box
+     *
+     * @param minX the minimum X-coordinate
+     * @param minY the minimum Y-coordinate
+     * @param maxX the maximum X-coordinate
+     * @param maxY the maximum Y-coordinate
+     * @return the id of the smallest cell that contains the bounding box
+     * @throws IllegalArgumentException if the bounding box is not contained in the extent of the
+     *                                  {@code MortonContext}
+     */
+    public long cellId(double minX, double minY, double maxX, double maxY) {
+        int colMin = col(minX);
+        int rowMin = row(minY);
+        int colMax = col(maxX);
+        int rowMax = row(maxY);
+        int level = depth - (Integer.SIZE - Integer.numberOfLeadingZeros((colMin ^ colMax) | (rowMin ^ rowMax)));
+        if (level < 0) {
+            throw new IllegalArgumentException("Bounding box not in extent of this MortonContext.");
+        }
+        int shift = depth - level;
+        return toCellId(encode(colMin >> shift, rowMin >> shift, level), level);
+    }
+
+    /**
+     * Calculates the ids of the leaf cells that contain the specified coordinates
+     *
+     * @param coordinates the coordinates, as consecutive X,Y pairs
+     * @param cellIds     receives the cell ids, must have at least half the length of the coordinates array
+     * @throws IllegalArgumentException if a pair of coordinates is not contained in the extent of the
+     *                                  {@code MortonContext}
+     */
+    public void cellIds(double[] coordinates, long[] cellIds) {
+        int n = coordinates.length / 2;
+        if (cellIds.length < n) {
+            throw new IllegalArgumentException("Array for cell ids is too small.");
+        }
+        for (int i = 0; i < n; i++) {
+            cellIds[i] = toCellId(encode(col(coordinates[2 * i]), row(coordinates[2 * i + 1]), depth), depth);
+        }
+    }
+
+    /**
+     * Calculates the ids of the leaf cells that contain the {@code Position}s of the specified
+     * {@code PositionSequence}
+     *
+     * @param positions the {@code PositionSequence}
+     * @param cellIds   receives the cell ids, must have at least the size of the {@code PositionSequence}
+     * @throws IllegalArgumentException if a {@code Position} is not contained in the extent of the
+     *                                  {@code MortonContext}
+     */
+    public void cellIds(PositionSequence<P> positions, long[] cellIds) {
+        if (cellIds.length < positions.size()) {
+            throw new IllegalArgumentException("Array for cell ids is too small.");
+        }
+        double[] coordinates = new double[positions.getCoordinateDimension()];
+        for (int i = 0; i < positions.size(); i++) {
+            positions.getCoordinates(i, coordinates);
+            cellIds[i] = toCellId(encode(col(coordinates[0]), row(coordinates[1]), depth), depth);
+        }
+    }
+
+    /**
+     * Returns the id of the cell with the specified key at the specified level
+     *
+     * @param key   the key of the cell
+     * @param level the level of the cell
+     * @return the id of the cell
+     * @throws IllegalArgumentException if the level is not between 0 and the depth, or the key has more than
+     *                                  {@code 2 * level} bits
+     */
+    public long fromKey(long key, int level) {
+        if (level < 0 || level > depth || key < 0 || key >>> (2 * level) != 0) {
+            throw new IllegalArgumentException(String.format("Invalid key %d for level %d.", key, level));
+        }
+        return toCellId(key, level);
+    }
+
+    /**
+     * Returns the level of the cell with the specified id
+     *
+     * @param cellId the cell id
+     * @return the level of the cell
+     * @throws IllegalArgumentException if the cell id is not valid for this curve
+     */
+    public int level(long cellId) {
+        int trailingZeros = Long.numberOfTrailingZeros(cellId);
+        if ((trailingZeros & 1) != 0 || trailingZeros > 2 * depth || cellId >>> (2 * depth + 1) != 0) {
+            throw new IllegalArgumentException(String.format("Invalid cell id %d.", cellId));
+        }
+        return depth - trailingZeros / 2;
+    }
+
+    /**
+     * Returns the key of the cell with the specified id
+     *
+     * @param cellId the cell id
+     * @return the key of the cell
+     * @throws IllegalArgumentException if the cell id is not valid for this curve
+     */
+    public long key(long cellId) {
+        return cellId >>> (2 * (depth - level(cellId)) + 1);
+    }
+
+    /**
+     * Returns the id of the ancestor at the specified level of the cell with the specified id
+     *
+     * @param cellId the cell id
+     * @param level  the level of the ancestor, not greater than the level of the cell
+     * @return the id of the ancestor
+     * @throws IllegalArgumentException if the cell id is not valid, or the level is not between 0 and the level of
+     *                                  the cell
+     */
+    public long parent(long cellId, int level) {
+        int cellLevel = level(cellId);
+        if (level < 0 || level > cellLevel) {
+            throw new IllegalArgumentException(String.format("Invalid level %d for cell at level %d.", level,
+                    cellLevel));
+        }
+        long lsb = 1L << (2 * (depth - level));
+        return (cellId & -lsb) | lsb;
+    }
+
+    /**
+     * Returns the smallest id of the descendants of the cell with the specified id, including the cell itself
+     *
+     * @param cellId the cell id
+     * @return the smallest id of the descendants
+     */
+    public long rangeMin(long cellId) {
+        return cellId - Long.lowestOneBit(cellId) + 1;
+    }
+
+    /**
+     * Returns the largest id of the descendants of the cell with the specified id, including the cell itself
+     *
+     * @param cellId the cell id
+     * @return the largest id of the descendants
+     */
+    public long rangeMax(long cellId) {
+        return cellId + Long.lowestOneBit(cellId) - 1;
+    }
+
+    /**
+     * Checks whether the first cell contains the second
+     *
+     * @param cellId the id of the first cell
+     * @param other  the id of the second cell
+     * @return true if the second cell is the first cell or one of its descendants
+     */
+    public boolean contains(long cellId, long other) {
+        return other >= rangeMin(cellId) && other <= rangeMax(cellId);
+    }
+
+    /**
+     * Returns the bounds of the cell with the specified id
+     *
+     * @param cellId the cell id
+     * @return the bounds of the cell
+     * @throws IllegalArgumentException if the cell id is not valid for this curve
+     */
+    public Envelope<P> envelopeOf(long cellId) {
+        double[] bounds = new double[4];
+        bounds(cellId, bounds, 0);
+        return new Envelope<>(bounds[0], bounds[1], bounds[2], bounds[3], context.getExtent()
+                .getCoordinateReferenceSystem());
+    }
+
+    /**
+     * Writes the bounds of the cell with the specified id to an array, as minX, minY, maxX and maxY
+     *
+     * @param cellId the cell id
+     * @param bounds receives the bounds
+     * @param offset the index in the array of the minimum X-coordinate
+     * @throws IllegalArgumentException if the cell id is not valid for this curve
+     */
+    public void bounds(long cellId, double[] bounds, int offset) {
+        int level = level(cellId);
+        long colRow = decode(cellId >>> (2 * (depth - level) + 1), level);
+        int shift = depth - level;
+        long col = colRow >>> 32;
+        long row = colRow & 0xFFFFFFFFL;
+        long lastCell = (1L << level) - 1;
+        bounds[offset] = minX + (col << shift) * leafWidth;
+        bounds[offset + 1] = minY + (row << shift) * leafHeight;
+        bounds[offset + 2] = col == lastCell ? maxX : minX + ((col + 1) << shift) * leafWidth;
+        bounds[offset + 3] = row == lastCell ? maxY : minY + ((row + 1) << shift) * leafHeight;
+    }
+
+    /**
+     * Writes the bounds of the cells with the specified ids to an array, as consecutive minX, minY, maxX and maxY
+     * values
+     *
+     * @param cellIds the cell ids
+     * @param bounds  receives the bounds, must have at least four times the length of the cell ids array
+     * @throws IllegalArgumentException if a cell id is not valid for this curve
+     */
+    public void bounds(long[] cellIds, double[] bounds) {
+        if (bounds.length < 4 * cellIds.length) {
+            throw new IllegalArgumentException("Array for bounds is too small.");
+        }
+        for (int i = 0; i < cellIds.length; i++) {
+            bounds(cellIds[i], bounds, 4 * i);
+        }
+    }
+
+    long toCellId(long key, int level) {
+        return ((key << 1) | 1L) << (2 * (depth - level));
+    }
+
+    private int col(double x) {
+        if (!(x >= minX && x <= maxX)) {
+            throw new IllegalArgumentException("Coordinate not in extent of this MortonContext.");
+        }
+        int col = (int) ((x - minX) / leafWidth);
+        return col > maxCell ? maxCell : col;
+    }
+
+    private int row(double y) {
+        if (!(y >= minY && y <= maxY)) {
+            throw new IllegalArgumentException("Coordinate not in extent of this MortonContext.");
+        }
+        int row = (int) ((y - minY) / leafHeight);
+        return row > maxCell ? maxCell : row;
+    }
+
+}
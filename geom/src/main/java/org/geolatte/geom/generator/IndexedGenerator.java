@@ -0,0 +1,55 @@
+package org.geolatte.geom.generator;
+
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Generates the element at an index of a reproducible, possibly unbounded, sequence.
+ *
+ * <p>The element at an index only depends on the seed of the generator and the index, so a sequence can be
+ * generated in parallel, or in parts on different machines, with the same result.</p>
+ *
+ * @param <T> the type of the generated elements
+ */
+@FunctionalInterface
+public interface IndexedGenerator<T> {
+
+    /**
+     * Generates the element at the specified index
+     *
+     * @param index the index, which need not be positive
+     * @return the element at the index
+     */
+    T generate(long index);
+
+    /**
+     * Returns a parallel, ordered stream of the elements from index 0 (inclusive) to count (exclusive)
+     *
+     * @param count the number of elements
+     * @return a stream of elements
+     */
+    default Stream<T> stream(long count) {
+        return stream(0, count);
+    }
+
+    /**
+     * Returns a parallel, ordered stream of the elements from index from (inclusive) to to (exclusive)
+     *
+     * @param from the index of the first element
+     * @param to   the index after the last element
+     * @return a stream of elements
+     */
+    default Stream<T> stream(long from, long to) {
+        return LongStream.range(from, to).parallel().mapToObj(this::generate);
+    }
+
+    /**
+     * Returns a {@code Generator} that generates the elements from index 0 on, one after the other
+     *
+     * @return a new {@code Generator}
+     */
+    default Generator<T> sequential() {
+        long[] next = new long[1];
+        return () -> generate(next[0]++);
+    }
+}
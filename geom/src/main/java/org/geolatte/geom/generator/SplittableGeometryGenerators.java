@@ -0,0 +1,222 @@
+package org.geolatte.geom.generator;
+
+import org.geolatte.geom.*;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+
+import java.util.SplittableRandom;
+
+import static org.geolatte.geom.PositionSequenceBuilders.fixedSized;
+
+/**
+ * Factory methods for seeded {@code IndexedGenerator}s of {@code Geometry}s, for generating large data sets in
+ * parallel.
+ *
+ * <p>Each {@code Geometry} is generated with its own {@code SplittableRandom}, seeded from the seed of the generator
+ * and the index of the {@code Geometry}, so the result does not depend on the number of threads. The coordinates
+ * are written directly into packed {@code PositionSequence}s.</p>
+ *
+ * <p>The polygons are star-shaped around a center, and so are valid. Their holes are star-shaped polygons that
+ * are disjoint, and lie within the exterior ring. The number of vertices, holes and polygons is skewed towards
+ * small values, with a long tail up to the specified maximum.</p>
+ */
+public class SplittableGeometryGenerators {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final int MIN_RING_VERTICES = 3;
+
+    private SplittableGeometryGenerators() {
+    }
+
+    public static <P extends Position> IndexedGenerator<Point<P>> point(Box<P> bbox, long seed) {
+        return index -> {
+            SplittableRandom random = random(seed, index);
+            double[] coordinates = new double[bbox.getCoordinateDimension()];
+            positionWithin(bbox, random, coordinates);
+            return new Point<>(Positions.mkPosition(bbox.getCoordinateReferenceSystem(), coordinates),
+                    bbox.getCoordinateReferenceSystem());
+        };
+    }
+
+    public static <P extends Position> IndexedGenerator<LineString<P>> lineString(int numPoints, Box<P> bbox,
+                                                                                 long seed) {
+        if (numPoints < 2) throw new IllegalArgumentException("A linestring requires at least 2 points");
+        return index -> {
+            SplittableRandom random = random(seed, index);
+            CoordinateReferenceSystem<P> crs = bbox.getCoordinateReferenceSystem();
+            PositionSequenceBuilder<P> builder = fixedSized(numPoints, crs.getPositionClass());
+            double[] coordinates = new double[crs.getCoordinateDimension()];
+            for (int i = 0; i < numPoints; i++) {
+                positionWithin(bbox, random, coordinates);
+                builder.add(coordinates);
+            }
+            return new LineString<>(builder.toPositionSequence(), crs);
+        };
+    }
+
+    /**
+     * Creates a generator of valid polygons within the specified {@code Box}
+     *
+     * @param maxPoints the maximum number of vertices of the exterior ring, at least 3
+     * @param maxHoles  the maximum number of holes
+     * @param bbox      the {@code Box} that contains the polygons
+     * @param seed      the seed
+     * @return a new generator
+     */
+    public static <P extends Position> IndexedGenerator<Polygon<P>> polygon(int maxPoints, int maxHoles, Box<P> bbox,
+                                                                           long seed) {
+        checkPolygonArguments(maxPoints, maxHoles);
+        return index -> {
+            SplittableRandom random = random(seed, index);
+            return polygon(random, maxPoints, maxHoles, bbox.lowerLeft().getCoordinate(0),
+                    bbox.lowerLeft().getCoordinate(1), bbox.upperRight().getCoordinate(0),
+                    bbox.upperRight().getCoordinate(1), bbox);
+        };
+    }
+
+    /**
+     * Creates a generator of valid multipolygons within the specified {@code Box}. The polygons of a multipolygon
+     * are placed in distinct cells of a grid over the {@code Box}.
+     *
+     * @param maxPolygons the maximum number of polygons
+     * @param maxPoints   the maximum number of vertices of an exterior ring, at least 3
+     * @param maxHoles    the maximum number of holes per polygon
+     * @param bbox        the {@code Box} that contains the multipolygons
+     * @param seed        the seed
+     * @return a new generator
+     */
+    @SuppressWarnings("unchecked")
+    public static <P extends Position> IndexedGenerator<MultiPolygon<P>> multiPolygon(int maxPolygons, int maxPoints,
+                                                                                     int maxHoles, Box<P> bbox,
+                                                                                     long seed) {
+        if (maxPolygons < 1) throw new IllegalArgumentException("A multipolygon requires at least 1 polygon");
+        checkPolygonArguments(maxPoints, maxHoles);
+        return index -> {
+            SplittableRandom random = random(seed, index);
+            int count = skewed(random, 1, maxPolygons);
+            int columns = (int) Math.ceil(Math.sqrt(count));
+            int rows = (count + columns - 1) / columns;
+            double minX = bbox.lowerLeft().getCoordinate(0);
+            double minY = bbox.lowerLeft().getCoordinate(1);
+            double width = (bbox.upperRight().getCoordinate(0) - minX) / columns;
+            double height = (bbox.upperRight().getCoordinate(1) - minY) / rows;
+            Polygon<P>[] polygons = (Polygon<P>[]) new Polygon[count];
+            for (int i = 0; i < count; i++) {
+                double x = minX + (i % columns) * width;
+                double y = minY + (i / columns) * height;
+                polygons[i] = polygon(random, maxPoints, maxHoles, x, y, x + width, y + height, bbox);
+            }
+            return new MultiPolygon<>(polygons);
+        };
+    }
+
+    private static void checkPolygonArguments(int maxPoints, int maxHoles) {
+        if (maxPoints < MIN_RING_VERTICES) {
+            throw new IllegalArgumentException("A polygon requires at least 3 vertices");
+        }
+        if (maxHoles < 0) throw new IllegalArgumentException("The number of holes must not be negative");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <P extends Position> Polygon<P> polygon(SplittableRandom random, int maxPoints, int maxHoles,
+                                                         double minX, double minY, double maxX, double maxY,
+                                                         Box<P> bbox) {
+        double maxRadius = Math.min(maxX - minX, maxY - minY) / 2;
+        double radius = maxRadius * (0.2 + 0.8 * random.nextDouble());
+        double cx = minX + radius + (maxX - minX - 2 * radius) * random.nextDouble();
+        double cy = minY + radius + (maxY - minY - 2 * radius) * random.nextDouble();
+
+        int n = skewed(random, MIN_RING_VERTICES, maxPoints);
+        double[] xy = new double[2 * n];
+        starShape(random, n, cx, cy, radius, xy);
+        int holes = maxHoles == 0 ? 0 : skewed(random, 0, maxHoles);
+        LinearRing<P>[] rings = (LinearRing<P>[]) new LinearRing[1 + holes];
+        rings[0] = ring(xy, n, false, random, bbox);
+
+        // the holes lie within the largest circle around the center that is inside the exterior ring
+        double inner = innerRadius(xy, n, cx, cy);
+        for (int h = 0; h < holes; h++) {
+            double hx = cx, hy = cy, hr = inner / 2;
+            if (holes > 1) {
+                double angle = 2 * Math.PI * h / holes;
+                hx += inner / 2 * Math.cos(angle);
+                hy += inner / 2 * Math.sin(angle);
+                hr = 0.45 * inner * Math.min(1, Math.sin(Math.PI / holes));
+            }
+            int hn = skewed(random, MIN_RING_VERTICES, Math.max(MIN_RING_VERTICES, n / 2));
+            double[] hxy = new double[2 * hn];
+            starShape(random, hn, hx, hy, hr, hxy);
+            rings[1 + h] = ring(hxy, hn, true, random, bbox);
+        }
+        return new Polygon<>(rings);
+    }
+
+    // vertices at increasing angles, and at distances between half and all of the radius. The gap between
+    // consecutive angles stays below 180 degrees, so that the center lies within the shape.
+    private static void starShape(SplittableRandom random, int n, double cx, double cy, double radius, double[] xy) {
+        double step = 2 * Math.PI / n;
+        double offset = random.nextDouble() * step;
+        for (int i = 0; i < n; i++) {
+            double angle = offset + step * (i + 0.4 * random.nextDouble());
+            double r = radius * (0.5 + 0.5 * random.nextDouble());
+            xy[2 * i] = cx + r * Math.cos(angle);
+            xy[2 * i + 1] = cy + r * Math.sin(angle);
+        }
+    }
+
+    // the smallest distance from the center to the edges of the star-shaped ring
+    private static double innerRadius(double[] xy, int n, double cx, double cy) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            double ax = xy[2 * i] - cx, ay = xy[2 * i + 1] - cy;
+            double bx = xy[2 * j] - cx, by = xy[2 * j + 1] - cy;
+            double length = Math.hypot(bx - ax, by - ay);
+            double distance = length == 0 ? Math.hypot(ax, ay) : Math.abs(ax * by - ay * bx) / length;
+            min = Math.min(min, distance);
+        }
+        return min;
+    }
+
+    // a closed ring, counterclockwise or clockwise, with the other ordinates within the box
+    private static <P extends Position> LinearRing<P> ring(double[] xy, int n, boolean clockwise,
+                                                         SplittableRandom random, Box<P> bbox) {
+        CoordinateReferenceSystem<P> crs = bbox.getCoordinateReferenceSystem();
+        PositionSequenceBuilder<P> builder = fixedSized(n + 1, crs.getPositionClass());
+        double[] coordinates = new double[crs.getCoordinateDimension()];
+        double[] first = new double[coordinates.length];
+        for (int i = 0; i < n; i++) {
+            int k = clockwise ? n - 1 - i : i;
+            positionWithin(bbox, random, coordinates);
+            coordinates[0] = xy[2 * k];
+            coordinates[1] = xy[2 * k + 1];
+            if (i == 0) System.arraycopy(coordinates, 0, first, 0, coordinates.length);
+            builder.add(coordinates);
+        }
+        builder.add(first);
+        return new LinearRing<>(builder.toPositionSequence(), crs);
+    }
+
+    private static <P extends Position> void positionWithin(Box<P> bbox, SplittableRandom random,
+                                                           double[] coordinates) {
+        P ll = bbox.lowerLeft();
+        P ur = bbox.upperRight();
+        for (int i = 0; i < coordinates.length; i++) {
+            double min = ll.getCoordinate(i);
+            coordinates[i] = min + (ur.getCoordinate(i) - min) * random.nextDouble();
+        }
+    }
+
+    // a value in [min, max], mostly close to min: the cube of a uniform value has a long tail
+    private static int skewed(SplittableRandom random, int min, int max) {
+        double u = random.nextDouble();
+        return min + (int) ((max - min + 1) * u * u * u);
+    }
+
+    // a generator for each index, with SplitMix64 mixing of the seed and index
+    private static SplittableRandom random(long seed, long index) {
+        long z = seed + (index + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return new SplittableRandom(z ^ (z >>> 31));
+    }
+}
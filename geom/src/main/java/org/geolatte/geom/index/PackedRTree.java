@@ -0,0 +1,593 @@
+package org.geolatte.geom.index;
+
+import org.geolatte.geom.Box;
+import org.geolatte.geom.Envelope;
+import org.geolatte.geom.Position;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable, bulk-loaded R-tree of items keyed by their bounding box.
+ *
+ * <p>The tree is packed using Sort-Tile-Recursive (STR) ordering of the leaves. Node bounding boxes are stored in a
+ * single {@code double} array, and the tree structure in {@code int} arrays, so that queries don't dereference node
+ * objects. The index is two-dimensional: only the first two coordinates of the bounding boxes are taken into
+ * account.</p>
+ *
+ * <p>The tree is immutable, and can be queried concurrently. The query methods on the tree allocate a
+ * {@link Searcher} per query. To avoid that, a {@code Searcher} can be obtained with {@link #newSearcher()} and be
+ * reused for many queries by a single thread.</p>
+ *
+ * @param <P> the {@code Position} type of the bounding boxes
+ * @param <T> the type of the indexed items
+ */
+public class PackedRTree<P extends Position, T> {
+
+    /**
+     * The default maximum number of children of a node
+     */
+    public static final int DEFAULT_NODE_SIZE = 16;
+
+    private final CoordinateReferenceSystem<P> crs;
+    private final int nodeSize;
+    private final int numItems;
+    private final int numLevels;
+    private final Object[] items;
+    // minX, minY, maxX, maxY for every node. Nodes 0 .. numItems - 1 are the leaves, the root is the last node
+    private final double[] boxes;
+    // range of child nodes of the internal nodes, at index node - numItems
+    private final int[] firstChild;
+    private final int[] endChild;
+
+    private PackedRTree(Builder<P, T> builder) {
+        this.crs = builder.crs;
+        this.nodeSize = builder.nodeSize;
+        this.numItems = builder.size;
+
+        int numNodes = numItems;
+        int levels = 1;
+        for (int n = numItems; n > 1; n = (n + nodeSize - 1) / nodeSize) {
+            numNodes += (n + nodeSize - 1) / nodeSize;
+            levels++;
+        }
+        this.numLevels = levels;
+        this.items = new Object[numItems];
+        this.boxes = new double[4 * numNodes];
+        this.firstChild = new int[numNodes - numItems];
+        this.endChild = new int[numNodes - numItems];
+
+        int[] order = strOrder(builder.bounds, numItems, nodeSize);
+        for (int i = 0; i < numItems; i++) {
+            items[i] = builder.items[order[i]];
+            System.arraycopy(builder.bounds, 4 * order[i], boxes, 4 * i, 4);
+        }
+
+        int levelStart = 0;
+        int levelEnd = numItems;
+        int pos = numItems;
+        while (levelEnd - levelStart > 1) {
+            for (int child = levelStart; child < levelEnd; child += nodeSize) {
+                int end = Math.min(child + nodeSize, levelEnd);
+                firstChild[pos - numItems] = child;
+                endChild[pos - numItems] = end;
+                setUnionOfBoxes(pos, child, end);
+                pos++;
+            }
+            levelStart = levelEnd;
+            levelEnd = pos;
+        }
+    }
+
+    /**
+     * Creates a {@code Builder} for a {@code PackedRTree}
+     *
+     * @param crs the {@code CoordinateReferenceSystem} of the bounding boxes
+     * @param <P> the {@code Position} type of the bounding boxes
+     * @param <T> the type of the indexed items
+     * @return a new {@code Builder}
+     */
+    public static <P extends Position, T> Builder<P, T> builder(CoordinateReferenceSystem<P> crs) {
+        return new Builder<>(crs);
+    }
+
+    /**
+     * Returns the number of indexed items
+     *
+     * @return the number of indexed items
+     */
+    public int size() {
+        return numItems;
+    }
+
+    /**
+     * Returns true if no items are indexed
+     *
+     * @return true if no items are indexed
+     */
+    public boolean isEmpty() {
+        return numItems == 0;
+    }
+
+    /**
+     * Returns the {@code CoordinateReferenceSystem} of the bounding boxes
+     *
+     * @return the {@code CoordinateReferenceSystem} of the bounding boxes
+     */
+    public CoordinateReferenceSystem<P> getCoordinateReferenceSystem() {
+        return crs;
+    }
+
+    /**
+     * Returns the bounding box of all indexed items
+     *
+     * @return the bounding box of all indexed items, or an empty {@code Envelope} if the index is empty
+     */
+    public Envelope<P> getExtent() {
+        if (isEmpty()) {
+            return new Envelope<>(crs);
+        }
+        int root = 4 * (numNodes() - 1);
+        return new Envelope<>(boxes[root], boxes[root + 1], boxes[root + 2], boxes[root + 3], crs);
+    }
+
+    /**
+     * Returns all items with a bounding box that intersects the query window.
+     *
+     * @param window the query window
+     * @return the items with a bounding box that intersects the query window
+     */
+    public List<T> query(Envelope<P> window) {
+        List<T> result = new ArrayList<>();
+        query(window, item -> result.add(item));
+        return result;
+    }
+
+    /**
+     * Visits all items with a bounding box that intersects the query window.
+     *
+     * @param window  the query window
+     * @param visitor the visitor for the items found
+     * @return the number of items visited
+     */
+    public int query(Envelope<P> window, SpatialIndexVisitor<? super T> visitor) {
+        return searcher().query(window, visitor);
+    }
+
+    /**
+     * Visits all items with a bounding box that intersects the query window.
+     *
+     * @param minX    the minimum first coordinate of the query window
+     * @param minY    the minimum second coordinate of the query window
+     * @param maxX    the maximum first coordinate of the query window
+     * @param maxY    the maximum second coordinate of the query window
+     * @param visitor the visitor for the items found
+     * @return the number of items visited
+     */
+    public int query(double minX, double minY, double maxX, double maxY, SpatialIndexVisitor<? super T> visitor) {
+        return searcher().query(minX, minY, maxX, maxY, visitor);
+    }
+
+    /**
+     * Returns the k items with the bounding boxes nearest to the position, ordered by increasing distance.
+     *
+     * @param position the position
+     * @param k        the maximum number of items to return
+     * @return the k items nearest to the position
+     */
+    public List<T> nearest(P position, int k) {
+        List<T> result = new ArrayList<>(Math.min(k, numItems));
+        nearest(position.getCoordinate(0), position.getCoordinate(1), k, Double.POSITIVE_INFINITY,
+                item -> result.add(item));
+        return result;
+    }
+
+    /**
+     * Visits the k items with the bounding boxes nearest to the specified coordinates, by increasing distance.
+     *
+     * @param x           the first coordinate
+     * @param y           the second coordinate
+     * @param k           the maximum number of items to visit
+     * @param maxDistance the maximum distance of the items to visit
+     * @param visitor     the visitor for the items found
+     * @return the number of items visited
+     */
+    public int nearest(double x, double y, int k, double maxDistance, SpatialIndexVisitor<? super T> visitor) {
+        return searcher().nearest(x, y, k, maxDistance, visitor);
+    }
+
+    /**
+     * Creates a new {@code Searcher} for this tree.
+     *
+     * @return a new {@code Searcher}
+     */
+    public Searcher newSearcher() {
+        return new Searcher();
+    }
+
+    private Searcher searcher() {
+        // a new Searcher per query, since a pooled Searcher would keep this tree reachable from the pooling threads
+        return new Searcher();
+    }
+
+    private int numNodes() {
+        return boxes.length / 4;
+    }
+
+    private int root() {
+        return numNodes() - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T item(int node) {
+        return (T) items[node];
+    }
+
+    private void setUnionOfBoxes(int node, int start, int end) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = start; i < end; i++) {
+            minX = Math.min(minX, boxes[4 * i]);
+            minY = Math.min(minY, boxes[4 * i + 1]);
+            maxX = Math.max(maxX, boxes[4 * i + 2]);
+            maxY = Math.max(maxY, boxes[4 * i + 3]);
+        }
+        boxes[4 * node] = minX;
+        boxes[4 * node + 1] = minY;
+        boxes[4 * node + 2] = maxX;
+        boxes[4 * node + 3] = maxY;
+    }
+
+    private double squaredDistance(int node, double x, double y) {
+        double dx = Math.max(Math.max(boxes[4 * node] - x, x - boxes[4 * node + 2]), 0);
+        double dy = Math.max(Math.max(boxes[4 * node + 1] - y, y - boxes[4 * node + 3]), 0);
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Returns the order of the items according to the Sort-Tile-Recursive algorithm: the items are sorted by the first
+     * coordinate of their center in vertical slices, and within each slice by the second coordinate of their center.
+     */
+    private static int[] strOrder(double[] bounds, int numItems, int nodeSize) {
+        int[] order = new int[numItems];
+        double[] centerX = new double[numItems];
+        double[] centerY = new double[numItems];
+        for (int i = 0; i < numItems; i++) {
+            order[i] = i;
+            centerX[i] = (bounds[4 * i] + bounds[4 * i + 2]) / 2;
+            centerY[i] = (bounds[4 * i + 1] + bounds[4 * i + 3]) / 2;
+        }
+        int numLeafNodes = (numItems + nodeSize - 1) / nodeSize;
+        int numSlices = (int) Math.ceil(Math.sqrt(numLeafNodes));
+        int sliceSize = nodeSize * (int) Math.ceil((double) numLeafNodes / Math.max(numSlices, 1));
+        sort(order, centerX, 0, numItems);
+        for (int start = 0; start < numItems; start += sliceSize) {
+            sort(order, centerY, start, Math.min(start + sliceSize, numItems));
+        }
+        return order;
+    }
+
+    /**
+     * Sorts the range [from, to) of the order array, by the keys of the elements.
+     */
+    private static void sort(int[] order, double[] keys, int from, int to) {
+        while (to - from > 16) {
+            double pivot = medianOfThree(keys[order[from]], keys[order[(from + to) >>> 1]], keys[order[to - 1]]);
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (keys[order[i]] < pivot) i++;
+                while (keys[order[j]] > pivot) j--;
+                if (i <= j) {
+                    int h = order[i];
+                    order[i++] = order[j];
+                    order[j--] = h;
+                }
+            }
+            // recurse into the smaller part to bound the stack depth
+            if (j + 1 - from < to - i) {
+                sort(order, keys, from, j + 1);
+                from = i;
+            } else {
+                sort(order, keys, i, to);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            int current = order[i];
+            int j = i - 1;
+            while (j >= from && keys[order[j]] > keys[current]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = current;
+        }
+    }
+
+    private static double medianOfThree(double a, double b, double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    /**
+     * Executes queries on a {@code PackedRTree}, reusing its internal buffers between queries.
+     *
+     * <p>A {@code Searcher} is not thread-safe. It should be used by a single thread, and not be used for a new query
+     * by the visitor of a query.</p>
+     */
+    public final class Searcher {
+
+        private final int[] stack = new int[nodeSize * numLevels + 1];
+        // allocated by the first nearest neighbour query
+        private int[] heapNodes;
+        private double[] heapDistances;
+        private int heapSize;
+
+        private Searcher() {
+        }
+
+        /**
+         * Visits all items with a bounding box that intersects the query window.
+         *
+         * @param window  the query window
+         * @param visitor the visitor for the items found
+         * @return the number of items visited
+         * @throws IllegalArgumentException if the query window has a different {@code CoordinateReferenceSystem}
+         */
+        public int query(Envelope<P> window, SpatialIndexVisitor<? super T> visitor) {
+            checkCrs(window.getCoordinateReferenceSystem());
+            if (window.isEmpty()) {
+                return 0;
+            }
+            return query(window.lowerLeft().getCoordinate(0), window.lowerLeft().getCoordinate(1),
+                    window.upperRight().getCoordinate(0), window.upperRight().getCoordinate(1), visitor);
+        }
+
+        /**
+         * Visits all items with a bounding box that intersects the query window.
+         *
+         * @param minX    the minimum first coordinate of the query window
+         * @param minY    the minimum second coordinate of the query window
+         * @param maxX    the maximum first coordinate of the query window
+         * @param maxY    the maximum second coordinate of the query window
+         * @param visitor the visitor for the items found
+         * @return the number of items visited
+         */
+        public int query(double minX, double minY, double maxX, double maxY,
+                         SpatialIndexVisitor<? super T> visitor) {
+            if (numItems == 0) {
+                return 0;
+            }
+            int count = 0;
+            int top = 0;
+            stack[top++] = root();
+            while (top > 0) {
+                int node = stack[--top];
+                if (boxes[4 * node] > maxX || boxes[4 * node + 1] > maxY
+                        || boxes[4 * node + 2] < minX || boxes[4 * node + 3] < minY) {
+                    continue;
+                }
+                if (node < numItems) {
+                    count++;
+                    if (!visitor.visit(item(node))) {
+                        break;
+                    }
+                } else {
+                    // push in reverse, so that children are visited in order
+                    for (int child = endChild[node - numItems] - 1; child >= firstChild[node - numItems]; child--) {
+                        stack[top++] = child;
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Visits the k items with the bounding boxes nearest to the specified coordinates, by increasing distance.
+         *
+         * @param x           the first coordinate
+         * @param y           the second coordinate
+         * @param k           the maximum number of items to visit
+         * @param maxDistance the maximum distance of the items to visit
+         * @param visitor     the visitor for the items found
+         * @return the number of items visited
+         */
+        public int nearest(double x, double y, int k, double maxDistance, SpatialIndexVisitor<? super T> visitor) {
+            if (numItems == 0 || k <= 0) {
+                return 0;
+            }
+            if (heapNodes == null) {
+                heapNodes = new int[nodeSize * 4];
+                heapDistances = new double[nodeSize * 4];
+            }
+            double maxSquaredDistance = maxDistance * maxDistance;
+            int count = 0;
+            heapSize = 0;
+            push(root(), squaredDistance(root(), x, y));
+            while (heapSize > 0) {
+                double distance = heapDistances[0];
+                int node = pop();
+                if (distance > maxSquaredDistance) {
+                    break;
+                }
+                if (node < numItems) {
+                    count++;
+                    if (!visitor.visit(item(node)) || count == k) {
+                        break;
+                    }
+                } else {
+                    for (int child = firstChild[node - numItems]; child < endChild[node - numItems]; child++) {
+                        double childDistance = squaredDistance(child, x, y);
+                        if (childDistance <= maxSquaredDistance) {
+                            push(child, childDistance);
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        private void push(int node, double distance) {
+            if (heapSize == heapNodes.length) {
+                heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+                heapDistances = Arrays.copyOf(heapDistances, heapSize * 2);
+            }
+            int pos = heapSize++;
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (heapDistances[parent] <= distance) {
+                    break;
+                }
+                heapNodes[pos] = heapNodes[parent];
+                heapDistances[pos] = heapDistances[parent];
+                pos = parent;
+            }
+            heapNodes[pos] = node;
+            heapDistances[pos] = distance;
+        }
+
+        private int pop() {
+            int top = heapNodes[0];
+            int lastNode = heapNodes[--heapSize];
+            double lastDistance = heapDistances[heapSize];
+            int pos = 0;
+            int half = heapSize >>> 1;
+            while (pos < half) {
+                int child = 2 * pos + 1;
+                if (child + 1 < heapSize && heapDistances[child + 1] < heapDistances[child]) {
+                    child++;
+                }
+                if (heapDistances[child] >= lastDistance) {
+                    break;
+                }
+                heapNodes[pos] = heapNodes[child];
+                heapDistances[pos] = heapDistances[child];
+                pos = child;
+            }
+            heapNodes[pos] = lastNode;
+            heapDistances[pos] = lastDistance;
+            return top;
+        }
+    }
+
+    private void checkCrs(CoordinateReferenceSystem<?> other) {
+        if (other != crs && !crs.equals(other)) {
+            throw new IllegalArgumentException("Envelope has a different CRS than the index");
+        }
+    }
+
+    /**
+     * Collects the items and their bounding boxes for a {@code PackedRTree}.
+     *
+     * @param <P> the {@code Position} type of the bounding boxes
+     * @param <T> the type of the indexed items
+     */
+    public static class Builder<P extends Position, T> {
+
+        private final CoordinateReferenceSystem<P> crs;
+        private int nodeSize = DEFAULT_NODE_SIZE;
+        private double[] bounds = new double[64];
+        private Object[] items = new Object[16];
+        private int size = 0;
+
+        private Builder(CoordinateReferenceSystem<P> crs) {
+            if (crs == null) {
+                throw new IllegalArgumentException("Null CRS argument not allowed");
+            }
+            this.crs = crs;
+        }
+
+        /**
+         * Sets the maximum number of children of a node.
+         *
+         * @param nodeSize the maximum number of children of a node, at least 2
+         * @return this builder
+         */
+        public Builder<P, T> nodeSize(int nodeSize) {
+            if (nodeSize < 2) {
+                throw new IllegalArgumentException("Node size must be at least 2");
+            }
+            this.nodeSize = nodeSize;
+            return this;
+        }
+
+        /**
+         * Adds an item with the specified bounding box
+         *
+         * @param envelope the bounding box of the item
+         * @param item     the item
+         * @return this builder
+         * @throws IllegalArgumentException if the envelope is empty, or has a different
+         *                                  {@code CoordinateReferenceSystem}
+         */
+        public Builder<P, T> add(Envelope<P> envelope, T item) {
+            checkCrs(envelope.getCoordinateReferenceSystem());
+            if (envelope.isEmpty()) {
+                throw new IllegalArgumentException("Empty envelopes can't be indexed");
+            }
+            return add(envelope.lowerLeft(), envelope.upperRight(), item);
+        }
+
+        /**
+         * Adds an item with the specified bounding box
+         *
+         * @param box  the bounding box of the item
+         * @param item the item
+         * @return this builder
+         * @throws IllegalArgumentException if the box is empty, or has a different {@code CoordinateReferenceSystem}
+         */
+        public Builder<P, T> add(Box<P> box, T item) {
+            checkCrs(box.getCoordinateReferenceSystem());
+            if (box.isEmpty()) {
+                throw new IllegalArgumentException("Empty boxes can't be indexed");
+            }
+            return add(box.lowerLeft(), box.upperRight(), item);
+        }
+
+        /**
+         * Adds an item with the specified bounding box
+         *
+         * @param minX the minimum first coordinate of the bounding box
+         * @param minY the minimum second coordinate of the bounding box
+         * @param maxX the maximum first coordinate of the bounding box
+         * @param maxY the maximum second coordinate of the bounding box
+         * @param item the item
+         * @return this builder
+         */
+        public Builder<P, T> add(double minX, double minY, double maxX, double maxY, T item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+                bounds = Arrays.copyOf(bounds, size * 8);
+            }
+            bounds[4 * size] = Math.min(minX, maxX);
+            bounds[4 * size + 1] = Math.min(minY, maxY);
+            bounds[4 * size + 2] = Math.max(minX, maxX);
+            bounds[4 * size + 3] = Math.max(minY, maxY);
+            items[size++] = item;
+            return this;
+        }
+
+        /**
+         * Builds the {@code PackedRTree}
+         *
+         * @return a new {@code PackedRTree} with the added items
+         */
+        public PackedRTree<P, T> build() {
+            return new PackedRTree<>(this);
+        }
+
+        private Builder<P, T> add(P lowerLeft, P upperRight, T item) {
+            return add(lowerLeft.getCoordinate(0), lowerLeft.getCoordinate(1),
+                    upperRight.getCoordinate(0), upperRight.getCoordinate(1), item);
+        }
+
+        private void checkCrs(CoordinateReferenceSystem<?> other) {
+            if (other != crs && !crs.equals(other)) {
+                throw new IllegalArgumentException("Bounding box has a different CRS than the index");
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.geolatte.geom.index;
+
+/**
+ * Receives the items found by a spatial index query.
+ *
+ * @param <T> the type of the indexed items
+ */
+public interface SpatialIndexVisitor<T> {
+
+    /**
+     * Visits an item found by the query.
+     *
+     * @param item the item
+     * @return true to continue the query, false to stop it
+     */
+    boolean visit(T item);
+
+}
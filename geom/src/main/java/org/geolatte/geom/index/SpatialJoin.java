@@ -0,0 +1,403 @@
+package org.geolatte.geom.index;
+
+import org.geolatte.geom.C2D;
+import org.geolatte.geom.Envelope;
+import org.geolatte.geom.Feature;
+import org.geolatte.geom.Geometry;
+import org.geolatte.geom.JTSGeometryOperations;
+import org.geolatte.geom.PreparedGeometry;
+import org.geolatte.geom.ProjectedGeometryOperations;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.jts.JTS;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Joins two collections of items on a spatial predicate between their {@code Geometry}s.
+ *
+ * <p>The right-hand items are indexed in a {@link PackedRTree} on the envelopes of their {@code Geometry}s. The
+ * left-hand items then probe the index in parallel on a {@link ForkJoinPool}, and the candidates are refined with the
+ * {@link ProjectedGeometryOperations}. A left-hand {@code Geometry} that has more than one candidate is prepared
+ * once (see {@link ProjectedGeometryOperations#prepare(Geometry)}) before it is tested against its candidates. With
+ * the JTS-based operations, the right-hand {@code Geometry}s are converted to JTS once, when the index is built,
+ * rather than for every candidate pair.</p>
+ *
+ * <p>The matches are returned ordered by the position of the left-hand item, and then by the position of the
+ * right-hand item in their respective inputs. Items with an empty {@code Geometry} never match.</p>
+ *
+ * <p>A {@code SpatialJoin} is immutable and can be reused.</p>
+ *
+ * @param <P> the {@code Position} type of the {@code Geometry}s
+ */
+public class SpatialJoin<P extends C2D> {
+
+    /**
+     * The number of left-hand items below which the index is probed in the calling thread
+     */
+    static final int SEQUENTIAL_THRESHOLD = 256;
+
+    private enum Relation {INTERSECTS, CONTAINS, WITHIN_DISTANCE}
+
+    private final Relation relation;
+    private final double distance;
+    private final ProjectedGeometryOperations operations;
+    private final ForkJoinPool pool;
+    // whether the candidates are refined with JTS geometries that are converted once
+    private final boolean convertOnce;
+
+    private SpatialJoin(Relation relation, double distance, ProjectedGeometryOperations operations,
+                        ForkJoinPool pool) {
+        this.relation = relation;
+        this.distance = distance;
+        this.operations = operations;
+        this.pool = pool;
+        this.convertOnce = relation != Relation.WITHIN_DISTANCE && operations instanceof JTSGeometryOperations;
+    }
+
+    /**
+     * Creates a join that matches items of which the {@code Geometry}s intersect
+     *
+     * @param <P> the {@code Position} type of the {@code Geometry}s
+     * @return a new {@code SpatialJoin}
+     * @see ProjectedGeometryOperations#intersects(Geometry, Geometry)
+     */
+    public static <P extends C2D> SpatialJoin<P> intersects() {
+        return new SpatialJoin<>(Relation.INTERSECTS, 0, ProjectedGeometryOperations.Default,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a join that matches items of which the left-hand {@code Geometry} contains the right-hand
+     * {@code Geometry}
+     *
+     * @param <P> the {@code Position} type of the {@code Geometry}s
+     * @return a new {@code SpatialJoin}
+     * @see ProjectedGeometryOperations#contains(Geometry, Geometry)
+     */
+    public static <P extends C2D> SpatialJoin<P> contains() {
+        return new SpatialJoin<>(Relation.CONTAINS, 0, ProjectedGeometryOperations.Default,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a join that matches items of which the {@code Geometry}s are within the specified distance of each
+     * other
+     *
+     * @param distance the maximum distance, in the units of the {@code CoordinateReferenceSystem}
+     * @param <P>      the {@code Position} type of the {@code Geometry}s
+     * @return a new {@code SpatialJoin}
+     * @throws IllegalArgumentException if the distance is negative or NaN
+     * @see ProjectedGeometryOperations#distance(Geometry, Geometry)
+     */
+    public static <P extends C2D> SpatialJoin<P> withinDistance(double distance) {
+        if (!(distance >= 0)) {
+            throw new IllegalArgumentException("Distance must be a non-negative number");
+        }
+        return new SpatialJoin<>(Relation.WITHIN_DISTANCE, distance, ProjectedGeometryOperations.Default,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns a copy of this join that refines the candidates with the specified operations
+     *
+     * @param operations the {@code ProjectedGeometryOperations} to use
+     * @return a new {@code SpatialJoin}
+     */
+    public SpatialJoin<P> withOperations(ProjectedGeometryOperations operations) {
+        return new SpatialJoin<>(relation, distance, Objects.requireNonNull(operations), pool);
+    }
+
+    /**
+     * Returns a copy of this join that probes the index on the specified pool
+     *
+     * @param pool the {@code ForkJoinPool} to use
+     * @return a new {@code SpatialJoin}
+     */
+    public SpatialJoin<P> withPool(ForkJoinPool pool) {
+        return new SpatialJoin<>(relation, distance, operations, Objects.requireNonNull(pool));
+    }
+
+    /**
+     * Joins two collections of {@code Geometry}s
+     *
+     * @param left  the left-hand {@code Geometry}s
+     * @param right the right-hand {@code Geometry}s
+     * @param <L>   the type of the left-hand {@code Geometry}s
+     * @param <R>   the type of the right-hand {@code Geometry}s
+     * @return the matching pairs
+     * @throws IllegalArgumentException if not all {@code Geometry}s have the same {@code CoordinateReferenceSystem}
+     */
+    public <L extends Geometry<P>, R extends Geometry<P>> List<Match<L, R>> join(Iterable<L> left, Iterable<R> right) {
+        return join(left, Function.identity(), right, Function.identity());
+    }
+
+    /**
+     * Joins two collections of {@code Feature}s
+     *
+     * @param left  the left-hand {@code Feature}s
+     * @param right the right-hand {@code Feature}s
+     * @param <L>   the type of the left-hand {@code Feature}s
+     * @param <R>   the type of the right-hand {@code Feature}s
+     * @return the matching pairs
+     * @throws IllegalArgumentException if not all {@code Geometry}s have the same {@code CoordinateReferenceSystem}
+     */
+    public <L extends Feature<P, ?>, R extends Feature<P, ?>> List<Match<L, R>> joinFeatures(Iterable<L> left,
+                                                                                          Iterable<R> right) {
+        return join(left, Feature::getGeometry, right, Feature::getGeometry);
+    }
+
+    /**
+     * Joins two streams of items. Both streams are consumed before the join starts.
+     *
+     * @param left          the left-hand items
+     * @param leftGeometry  extracts the {@code Geometry} of a left-hand item
+     * @param right         the right-hand items
+     * @param rightGeometry extracts the {@code Geometry} of a right-hand item
+     * @param <L>           the type of the left-hand items
+     * @param <R>           the type of the right-hand items
+     * @return the matching pairs
+     * @throws IllegalArgumentException if not all {@code Geometry}s have the same {@code CoordinateReferenceSystem}
+     */
+    public <L, R> List<Match<L, R>> join(Stream<L> left, Function<? super L, ? extends Geometry<P>> leftGeometry,
+                                         Stream<R> right, Function<? super R, ? extends Geometry<P>> rightGeometry) {
+        return join(left.collect(Collectors.toList()), leftGeometry, right.collect(Collectors.toList()),
+                rightGeometry);
+    }
+
+    /**
+     * Joins two collections of items
+     *
+     * @param left          the left-hand items
+     * @param leftGeometry  extracts the {@code Geometry} of a left-hand item
+     * @param right         the right-hand items
+     * @param rightGeometry extracts the {@code Geometry} of a right-hand item
+     * @param <L>           the type of the left-hand items
+     * @param <R>           the type of the right-hand items
+     * @return the matching pairs
+     * @throws IllegalArgumentException if not all {@code Geometry}s have the same {@code CoordinateReferenceSystem}
+     */
+    public <L, R> List<Match<L, R>> join(Iterable<L> left, Function<? super L, ? extends Geometry<P>> leftGeometry,
+                                         Iterable<R> right, Function<? super R, ? extends Geometry<P>> rightGeometry) {
+        PackedRTree<P, Entry<R>> index = buildIndex(right, rightGeometry);
+        if (index == null) {
+            return new ArrayList<>();
+        }
+        List<L> probes = left instanceof List ? (List<L>) left : toList(left);
+        ProbeTask<L, R> task = new ProbeTask<>(index, probes, leftGeometry, 0, probes.size());
+        return probes.size() < SEQUENTIAL_THRESHOLD ? task.compute() : pool.invoke(task);
+    }
+
+    private <R> PackedRTree<P, Entry<R>> buildIndex(Iterable<R> items,
+                                                    Function<? super R, ? extends Geometry<P>> geometry) {
+        PackedRTree.Builder<P, Entry<R>> builder = null;
+        int position = 0;
+        for (R item : items) {
+            Geometry<P> geom = geometry.apply(item);
+            if (builder == null) {
+                builder = PackedRTree.builder(geom.getCoordinateReferenceSystem());
+            }
+            if (!geom.isEmpty()) {
+                Envelope<P> envelope = geom.getEnvelope();
+                builder.add(envelope, new Entry<>(item, geom, envelope, convertOnce ? JTS.to(geom) : null,
+                        position));
+            }
+            position++;
+        }
+        return builder == null ? null : builder.build();
+    }
+
+    private static <T> List<T> toList(Iterable<T> items) {
+        List<T> result = new ArrayList<>();
+        for (T item : items) {
+            result.add(item);
+        }
+        return result;
+    }
+
+    private boolean refine(Geometry<P> geometry, Envelope<P> envelope, PreparedGeometry<P> prepared,
+                           Entry<?> candidate) {
+        switch (relation) {
+            case INTERSECTS:
+                return prepared != null ? prepared.intersects(candidate.geometry)
+                        : operations.intersects(geometry, candidate.geometry);
+            case CONTAINS:
+                if (!envelope.contains(candidate.envelope)) {
+                    return false;
+                }
+                return prepared != null ? prepared.contains(candidate.geometry)
+                        : operations.contains(geometry, candidate.geometry);
+            default:
+                return operations.distance(geometry, candidate.geometry) <= distance;
+        }
+    }
+
+    // refines with the JTS geometry of the candidate, that was converted when the index was built
+    private boolean refine(org.locationtech.jts.geom.Geometry geometry, Envelope<P> envelope,
+                           org.locationtech.jts.geom.prep.PreparedGeometry prepared, Entry<?> candidate) {
+        if (relation == Relation.CONTAINS) {
+            if (!envelope.contains(candidate.envelope)) {
+                return false;
+            }
+            return prepared != null ? prepared.contains(candidate.jts) : geometry.contains(candidate.jts);
+        }
+        return prepared != null ? prepared.intersects(candidate.jts) : geometry.intersects(candidate.jts);
+    }
+
+    private class ProbeTask<L, R> extends RecursiveTask<List<Match<L, R>>> {
+
+        private final PackedRTree<P, Entry<R>> index;
+        private final List<L> probes;
+        private final Function<? super L, ? extends Geometry<P>> geometry;
+        private final int start;
+        private final int end;
+
+        ProbeTask(PackedRTree<P, Entry<R>> index, List<L> probes, Function<? super L, ? extends Geometry<P>> geometry,
+                  int start, int end) {
+            this.index = index;
+            this.probes = probes;
+            this.geometry = geometry;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected List<Match<L, R>> compute() {
+            if (end - start > SEQUENTIAL_THRESHOLD) {
+                int mid = (start + end) >>> 1;
+                ProbeTask<L, R> head = new ProbeTask<>(index, probes, geometry, start, mid);
+                ProbeTask<L, R> tail = new ProbeTask<>(index, probes, geometry, mid, end);
+                tail.fork();
+                List<Match<L, R>> result = head.compute();
+                result.addAll(tail.join());
+                return result;
+            }
+            return probe();
+        }
+
+        private List<Match<L, R>> probe() {
+            List<Match<L, R>> result = new ArrayList<>();
+            List<Entry<R>> candidates = new ArrayList<>();
+            PackedRTree<P, Entry<R>>.Searcher searcher = index.newSearcher();
+            CoordinateReferenceSystem<P> crs = index.getCoordinateReferenceSystem();
+            for (int i = start; i < end; i++) {
+                L item = probes.get(i);
+                Geometry<P> geom = geometry.apply(item);
+                if (!crs.equals(geom.getCoordinateReferenceSystem())) {
+                    throw new IllegalArgumentException("Geometries must have the same coordinate reference system");
+                }
+                if (geom.isEmpty()) {
+                    continue;
+                }
+                Envelope<P> envelope = geom.getEnvelope();
+                candidates.clear();
+                searcher.query(envelope.lowerLeft().getX() - distance, envelope.lowerLeft().getY() - distance,
+                        envelope.upperRight().getX() + distance, envelope.upperRight().getY() + distance,
+                        candidates::add);
+                if (candidates.isEmpty()) {
+                    continue;
+                }
+                if (candidates.size() > 1) {
+                    candidates.sort((e1, e2) -> Integer.compare(e1.position, e2.position));
+                }
+                if (convertOnce) {
+                    org.locationtech.jts.geom.Geometry jts = JTS.to(geom);
+                    org.locationtech.jts.geom.prep.PreparedGeometry prepared = candidates.size() > 1 ?
+                            PreparedGeometryFactory.prepare(jts) : null;
+                    for (Entry<R> candidate : candidates) {
+                        if (refine(jts, envelope, prepared, candidate)) {
+                            result.add(new Match<>(item, candidate.item));
+                        }
+                    }
+                    continue;
+                }
+                PreparedGeometry<P> prepared = candidates.size() > 1 && relation != Relation.WITHIN_DISTANCE ?
+                        operations.prepare(geom) : null;
+                for (Entry<R> candidate : candidates) {
+                    if (refine(geom, envelope, prepared, candidate)) {
+                        result.add(new Match<>(item, candidate.item));
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    private final class Entry<T> {
+        private final T item;
+        private final Geometry<P> geometry;
+        private final Envelope<P> envelope;
+        // null, unless the candidates are refined with JTS geometries
+        private final org.locationtech.jts.geom.Geometry jts;
+        private final int position;
+
+        Entry(T item, Geometry<P> geometry, Envelope<P> envelope, org.locationtech.jts.geom.Geometry jts,
+              int position) {
+            this.item = item;
+            this.geometry = geometry;
+            this.envelope = envelope;
+            this.jts = jts;
+            this.position = position;
+        }
+    }
+
+    /**
+     * A pair of matching items
+     *
+     * @param <L> the type of the left-hand item
+     * @param <R> the type of the right-hand item
+     */
+    public static final class Match<L, R> {
+
+        private final L left;
+        private final R right;
+
+        Match(L left, R right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        /**
+         * Returns the left-hand item of this match
+         *
+         * @return the left-hand item
+         */
+        public L getLeft() {
+            return left;
+        }
+
+        /**
+         * Returns the right-hand item of this match
+         *
+         * @return the right-hand item
+         */
+        public R getRight() {
+            return right;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Match<?, ?> match = (Match<?, ?>) o;
+            return Objects.equals(left, match.left) && Objects.equals(right, match.right);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(left, right);
+        }
+
+        @Override
+        public String toString() {
+            return "Match{" + left + ", " + right + "}";
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * In-memory spatial indexes.
+ */
+package org.geolatte.geom.index;
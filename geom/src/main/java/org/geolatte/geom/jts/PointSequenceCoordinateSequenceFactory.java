@@ -55,35 +55,74 @@ class PointSequenceCoordinateSequenceFactory implements CoordinateSequenceFactor
 
     @Override
     public CoordinateSequence create(int size, int dimension) {
-        // This is causing problems when working with Geotools JTS class in
-        // transformation.
-        // This is just a quick fix in order to get this working...
-//        if (dimension > 3)
-//            throw new IllegalArgumentException("dimension must be <= 3");
-        return new CoordinateArraySequence(size, dimension);
+        return create(size, dimension, 0);
     }
 
+    /**
+     * Creates a packed {@code PositionSequence} of the specified size, with all coordinates 0.
+     *
+     * <p>Sequences created by JTS operations on geometries from this factory can thus be adopted without copying by
+     * {@link #toPositionSequence(CoordinateSequence, Class, CoordinateReferenceSystem)}. Combinations of dimension and
+     * measures that have no corresponding {@code Position} type fall back to a {@code CoordinateArraySequence}.</p>
+     */
+    @Override
+    public CoordinateSequence create(int size, int dimension, int measures) {
+        Class<? extends Position> posType = positionTypeFor(dimension, measures);
+        if (posType == null) {
+            // Dimensions > 3 without measures were used with Geotools JTS classes in transformations.
+            return new CoordinateArraySequence(size, dimension, measures);
+        }
+        return newPositionSequence(size, dimension, posType);
+    }
+
+    private static <P extends Position> CoordinateSequence newPositionSequence(int size, int dimension,
+                                                                              Class<P> posType) {
+        PositionSequenceBuilder<P> builder = PositionSequenceBuilders.fixedSized(size, posType);
+        double[] origin = new double[dimension];
+        for (int i = 0; i < size; i++) {
+            builder.add(origin);
+        }
+        return (CoordinateSequence) builder.toPositionSequence();
+    }
+
+    private static Class<? extends Position> positionTypeFor(int dimension, int measures) {
+        if (measures == 0 && dimension == 2) return C2D.class;
+        if (measures == 0 && dimension == 3) return C3D.class;
+        if (measures == 1 && dimension == 3) return C2DM.class;
+        if (measures == 1 && dimension == 4) return C3DM.class;
+        return null;
+    }
+
+    /**
+     * Converts the {@code CoordinateSequence} to a {@code PositionSequence} of the specified position type.
+     *
+     * <p>If the {@code CoordinateSequence} is already a {@code PositionSequence} with the same coordinate layout as
+     * the position type, its coordinates are not copied.</p>
+     */
     @SuppressWarnings("unchecked")
     public <P extends Position> PositionSequence<P> toPositionSequence(CoordinateSequence cs, Class<P> posType,
                                                                        CoordinateReferenceSystem<P> crs) {
-        if (cs instanceof PositionSequence && ((PositionSequence) cs).getPositionClass().equals(posType)) {
-            return (PositionSequence<P>) cs;
+        if (cs instanceof PositionSequence && hasSameLayout(((PositionSequence<?>) cs).getPositionFactory(),
+                Positions.getFactoryFor(posType))) {
+            return Positions.share((PositionSequence<?>) cs, posType);
         }
 
         Coordinate c = new Coordinate();
         double[] psc = new double[crs.getCoordinateDimension()];
         Arrays.fill(psc, Double.NaN);
         PositionSequenceBuilder<P> builder = PositionSequenceBuilders.fixedSized(cs.size(), posType);
+        final boolean hasZ = crs.hasZ();
+        final boolean hasM = crs.hasM();
         for (int i = 0; i < cs.size(); i++) {
             psc[0] = cs.getX(i);
             psc[1] = cs.getY(i);
-            if (hasVerticalAxis(crs)) {
+            if (hasZ) {
                 psc[2] = cs.getZ(i);
             }
 
             // transfer measure values to position
-            if (hasMeasureAxis(crs)) {
-                final int idxM = hasVerticalAxis(crs) ? 3 : 2;
+            if (hasM) {
+                final int idxM = hasZ ? 3 : 2;
                 final double mOrdinate = cs.getM(i);
                 psc[idxM] = mOrdinate;
             }
@@ -93,6 +132,12 @@ class PointSequenceCoordinateSequenceFactory implements CoordinateSequenceFactor
         return builder.toPositionSequence();
     }
 
+    private static boolean hasSameLayout(PositionFactory<?> factory, PositionFactory<?> other) {
+        return factory.getCoordinateDimension() == other.getCoordinateDimension()
+                && factory.hasZComponent() == other.hasZComponent()
+                && factory.hasMComponent() == other.hasMComponent();
+    }
+
     private CoordinateReferenceSystem<?> determineCRS(Coordinate[] coordinates) {
         boolean hasZ, hasM = false;
         if (coordinates == null || coordinates.length == 0) {
@@ -129,12 +174,12 @@ class PointSequenceCoordinateSequenceFactory implements CoordinateSequenceFactor
     private <P extends Position> void copy(Coordinate co, double[] ordinates, CoordinateReferenceSystem<P> crs) {
         ordinates[0] = co.getX();
         ordinates[1] = co.getY();
-        boolean hasVerticalAxis = hasVerticalAxis(crs);
-        if (hasVerticalAxis) {
+        boolean hasZ = crs.hasZ();
+        if (hasZ) {
             ordinates[2] = co.getZ();
         }
-        if (hasMeasureAxis(crs)) {
-            int idxM = hasVerticalAxis ? 3 : 2;
+        if (crs.hasM()) {
+            int idxM = hasZ ? 3 : 2;
             ordinates[idxM] = co.getM();
         }
     }
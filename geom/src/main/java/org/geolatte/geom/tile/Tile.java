@@ -0,0 +1,79 @@
+package org.geolatte.geom.tile;
+
+/**
+ * Identifies a tile in a {@link TilePyramid} by its zoom level, column and row.
+ *
+ * <p>Tiles are numbered as in the XYZ tiling scheme: column 0 is at the left of the extent, and row 0 at the top.</p>
+ */
+public final class Tile {
+
+    private final int zoom;
+    private final int x;
+    private final int y;
+
+    /**
+     * Constructs a {@code Tile}
+     *
+     * @param zoom the zoom level
+     * @param x    the column, counted from the left
+     * @param y    the row, counted from the top
+     * @throws IllegalArgumentException if the zoom level is negative or greater than 30, or the column or row are not
+     *                                  in the range {@code 0 .. 2^zoom - 1}
+     */
+    public Tile(int zoom, int x, int y) {
+        if (zoom < 0 || zoom > 30) {
+            throw new IllegalArgumentException("Zoom level must be between 0 and 30.");
+        }
+        if (x < 0 || y < 0 || x >= 1 << zoom || y >= 1 << zoom) {
+            throw new IllegalArgumentException(String.format("Invalid tile %d/%d/%d.", zoom, x, y));
+        }
+        this.zoom = zoom;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns the zoom level of this tile
+     *
+     * @return the zoom level
+     */
+    public int getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Returns the column of this tile, counted from the left
+     *
+     * @return the column
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Returns the row of this tile, counted from the top
+     *
+     * @return the row
+     */
+    public int getY() {
+        return y;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Tile tile = (Tile) o;
+        return zoom == tile.zoom && x == tile.x && y == tile.y;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * zoom + x) + y;
+    }
+
+    @Override
+    public String toString() {
+        return zoom + "/" + x + "/" + y;
+    }
+}
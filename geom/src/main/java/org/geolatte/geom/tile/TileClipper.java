@@ -0,0 +1,519 @@
+package org.geolatte.geom.tile;
+
+import org.geolatte.geom.*;
+import org.geolatte.geom.cga.Simplifier;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clips {@code Geometry}s to the tiles of a {@link TilePyramid}, and simplifies and quantizes the results for
+ * vector tiles.
+ *
+ * <p>Each tile is divided in a grid of {@code extent x extent} units (4096 by default). A {@code Geometry} is
+ * processed in three steps:</p>
+ * <ol>
+ * <li>it is clipped to the bounds of the tile, enlarged by a buffer of a number of units on each side (64 by
+ * default). Points are filtered, linestrings are clipped segment by segment (Liang-Barsky), and the rings of
+ * polygons are clipped against each side of the buffered tile (Sutherland-Hodgman). Clipping a ring can leave
+ * degenerate edges along the buffer, which fall outside the tile proper.</li>
+ * <li>linestrings and rings are simplified with the Douglas-Peucker algorithm, with a tolerance in units (1 by
+ * default).</li>
+ * <li>all coordinates are snapped to the grid of the tile, and repeated positions are removed.</li>
+ * </ol>
+ *
+ * <p>Linestrings and rings that collapse in the process are dropped, as are polygons of which the exterior ring
+ * collapses. Clipping can split a {@code LineString} into a {@code MultiLineString}. The results have the
+ * {@code CoordinateReferenceSystem} of the input. Only the first two coordinates are clipped and quantized; the
+ * other coordinates are interpolated where lines are cut.</p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ *
+ * @param <P> the {@code Position} type of the pyramid
+ */
+public class TileClipper<P extends C2D> {
+
+    /**
+     * The default number of units along the side of a tile
+     */
+    public static final int DEFAULT_EXTENT = 4096;
+
+    /**
+     * The default buffer around a tile, in units
+     */
+    public static final int DEFAULT_BUFFER = 64;
+
+    /**
+     * The default simplification tolerance, in units
+     */
+    public static final double DEFAULT_TOLERANCE = 1.0;
+
+    private final TilePyramid<P> pyramid;
+    private final int extent;
+    private final int buffer;
+    private final double tolerance;
+
+    /**
+     * Constructs an instance for the specified pyramid, with the default extent, buffer and tolerance
+     *
+     * @param pyramid the {@code TilePyramid}
+     */
+    public TileClipper(TilePyramid<P> pyramid) {
+        this(pyramid, DEFAULT_EXTENT, DEFAULT_BUFFER, DEFAULT_TOLERANCE);
+    }
+
+    private TileClipper(TilePyramid<P> pyramid, int extent, int buffer, double tolerance) {
+        this.pyramid = pyramid;
+        this.extent = extent;
+        this.buffer = buffer;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Returns a copy of this instance with the specified number of units along the side of a tile
+     *
+     * @param extent the number of units
+     * @return a new {@code TileClipper}
+     * @throws IllegalArgumentException if the extent is not positive
+     */
+    public TileClipper<P> withExtent(int extent) {
+        if (extent <= 0) {
+            throw new IllegalArgumentException("Extent must be positive.");
+        }
+        return new TileClipper<>(pyramid, extent, buffer, tolerance);
+    }
+
+    /**
+     * Returns a copy of this instance with the specified buffer around the tiles
+     *
+     * @param buffer the buffer, in units
+     * @return a new {@code TileClipper}
+     * @throws IllegalArgumentException if the buffer is negative
+     */
+    public TileClipper<P> withBuffer(int buffer) {
+        if (buffer < 0) {
+            throw new IllegalArgumentException("Buffer must not be negative.");
+        }
+        return new TileClipper<>(pyramid, extent, buffer, tolerance);
+    }
+
+    /**
+     * Returns a copy of this instance with the specified simplification tolerance
+     *
+     * @param tolerance the tolerance, in units. A tolerance of 0 disables simplification.
+     * @return a new {@code TileClipper}
+     * @throws IllegalArgumentException if the tolerance is negative or NaN
+     */
+    public TileClipper<P> withTolerance(double tolerance) {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("Tolerance must be a non-negative number.");
+        }
+        return new TileClipper<>(pyramid, extent, buffer, tolerance);
+    }
+
+    /**
+     * Returns the {@code TilePyramid} of this instance
+     *
+     * @return the {@code TilePyramid}
+     */
+    public TilePyramid<P> getPyramid() {
+        return pyramid;
+    }
+
+    /**
+     * Returns the number of units along the side of a tile
+     *
+     * @return the number of units along the side of a tile
+     */
+    public int getExtent() {
+        return extent;
+    }
+
+    /**
+     * Clips the specified {@code Geometry} to the tiles at the specified zoom level
+     *
+     * @param geometry the {@code Geometry}
+     * @param zoom     the zoom level
+     * @return the non-empty results, by tile, ordered by row and then by column
+     * @throws IllegalArgumentException if the zoom level is greater than the maximum zoom level of the pyramid, or the
+     *                                  {@code Geometry} has a different {@code CoordinateReferenceSystem}
+     */
+    public Map<Tile, Geometry<P>> clip(Geometry<P> geometry, int zoom) {
+        Map<Tile, Geometry<P>> result = new LinkedHashMap<>();
+        if (geometry.isEmpty()) {
+            return result;
+        }
+        Envelope<P> envelope = geometry.getEnvelope();
+        double bufferX = pyramid.getTileWidth(zoom) * buffer / extent;
+        double bufferY = pyramid.getTileHeight(zoom) * buffer / extent;
+        Envelope<P> searchWindow = new Envelope<>(envelope.lowerLeft().getX() - bufferX,
+                envelope.lowerLeft().getY() - bufferY, envelope.upperRight().getX() + bufferX,
+                envelope.upperRight().getY() + bufferY, envelope.getCoordinateReferenceSystem());
+        for (Tile tile : pyramid.getTiles(searchWindow, zoom)) {
+            Geometry<P> clipped = clip(geometry, tile);
+            if (!clipped.isEmpty()) {
+                result.put(tile, clipped);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Clips the specified {@code Geometry} to the specified tile
+     *
+     * @param geometry the {@code Geometry}
+     * @param tile     the tile
+     * @return the clipped, simplified and quantized {@code Geometry}, or an empty {@code Geometry} of the same type
+     * if nothing remains
+     * @throws IllegalArgumentException if the zoom level of the tile is greater than the maximum zoom level of the
+     *                                  pyramid, or the {@code Geometry} has a different {@code CoordinateReferenceSystem}
+     */
+    public Geometry<P> clip(Geometry<P> geometry, Tile tile) {
+        if (!pyramid.getExtent().getCoordinateReferenceSystem().equals(geometry.getCoordinateReferenceSystem())) {
+            throw new IllegalArgumentException("Geometry must have the same coordinate reference system as the pyramid.");
+        }
+        Geometry<P> result = new TileContext(geometry.getCoordinateReferenceSystem(), tile).clip(geometry);
+        return result != null ? result : Geometries.mkEmptyGeometry(geometry.getGeometryType(),
+                geometry.getCoordinateReferenceSystem());
+    }
+
+    /**
+     * Clips the geometries for a single tile. Operates on arrays of coordinates, with the coordinate dimension as
+     * stride.
+     */
+    private class TileContext {
+
+        private final CoordinateReferenceSystem<P> crs;
+        private final int dim;
+        private final double minX;
+        private final double minY;
+        private final double maxX;
+        private final double maxY;
+        // the origin and scale of the grid of the tile
+        private final double originX;
+        private final double originY;
+        private final double scaleX;
+        private final double scaleY;
+        private final double simplifyTolerance;
+        private final double[] position;
+
+        TileContext(CoordinateReferenceSystem<P> crs, Tile tile) {
+            this.crs = crs;
+            this.dim = crs.getCoordinateDimension();
+            double[] bounds = new double[4];
+            pyramid.getBounds(tile, bounds);
+            this.originX = bounds[0];
+            this.originY = bounds[1];
+            this.scaleX = extent / (bounds[2] - bounds[0]);
+            this.scaleY = extent / (bounds[3] - bounds[1]);
+            this.minX = bounds[0] - buffer / scaleX;
+            this.minY = bounds[1] - buffer / scaleY;
+            this.maxX = bounds[2] + buffer / scaleX;
+            this.maxY = bounds[3] + buffer / scaleY;
+            this.simplifyTolerance = tolerance / Math.max(scaleX, scaleY);
+            this.position = new double[dim];
+        }
+
+        @SuppressWarnings("unchecked")
+        Geometry<P> clip(Geometry<P> geometry) {
+            if (geometry.isEmpty()) {
+                return null;
+            }
+            if (geometry instanceof Point) {
+                return clipPoint((Point<P>) geometry);
+            }
+            if (geometry instanceof LineString) {
+                List<LineString<P>> parts = clipLineString((LineString<P>) geometry);
+                if (parts.isEmpty()) {
+                    return null;
+                }
+                return parts.size() == 1 ? parts.get(0) : Geometries.mkMultiLineString(parts);
+            }
+            if (geometry instanceof Polygon) {
+                return clipPolygon((Polygon<P>) geometry);
+            }
+            if (geometry instanceof MultiPoint) {
+                List<Point<P>> points = new ArrayList<>();
+                for (Point<P> point : ((MultiPoint<P>) geometry).components()) {
+                    Point<P> clipped = clipPoint(point);
+                    if (clipped != null) {
+                        points.add(clipped);
+                    }
+                }
+                return points.isEmpty() ? null : Geometries.mkMultiPoint(points);
+            }
+            if (geometry instanceof MultiLineString) {
+                List<LineString<P>> lines = new ArrayList<>();
+                for (LineString<P> line : ((MultiLineString<P>) geometry).components()) {
+                    lines.addAll(clipLineString(line));
+                }
+                return lines.isEmpty() ? null : Geometries.mkMultiLineString(lines);
+            }
+            if (geometry instanceof MultiPolygon) {
+                List<Polygon<P>> polygons = new ArrayList<>();
+                for (Polygon<P> polygon : ((MultiPolygon<P>) geometry).components()) {
+                    Polygon<P> clipped = clipPolygon(polygon);
+                    if (clipped != null) {
+                        polygons.add(clipped);
+                    }
+                }
+                return polygons.isEmpty() ? null : Geometries.mkMultiPolygon(polygons);
+            }
+            if (geometry instanceof GeometryCollection) {
+                List<Geometry<P>> parts = new ArrayList<>();
+                for (Geometry<P> part : ((GeometryCollection<P>) geometry).components()) {
+                    Geometry<P> clipped = clip(part);
+                    if (clipped != null) {
+                        parts.add(clipped);
+                    }
+                }
+                return parts.isEmpty() ? null : Geometries.mkGeometryCollection(parts);
+            }
+            throw new IllegalArgumentException("Unsupported geometry type: " + geometry.getGeometryType());
+        }
+
+        private Point<P> clipPoint(Point<P> point) {
+            if (point.isEmpty()) {
+                return null;
+            }
+            double[] coordinates = point.getPosition().toArray(null);
+            if (!inside(coordinates[0], coordinates[1])) {
+                return null;
+            }
+            coordinates[0] = snapX(coordinates[0]);
+            coordinates[1] = snapY(coordinates[1]);
+            return Geometries.mkPoint(Positions.mkPosition(crs, coordinates), crs);
+        }
+
+        private List<LineString<P>> clipLineString(LineString<P> line) {
+            List<LineString<P>> result = new ArrayList<>();
+            if (line.isEmpty()) {
+                return result;
+            }
+            double[] coordinates = toArray(line.getPositions());
+            int n = line.getNumPositions();
+            Coordinates part = new Coordinates(dim);
+            double[] p = new double[dim];
+            for (int i = 0; i + 1 < n; i++) {
+                int a = i * dim;
+                int b = a + dim;
+                double x0 = coordinates[a];
+                double y0 = coordinates[a + 1];
+                double dx = coordinates[b] - x0;
+                double dy = coordinates[b + 1] - y0;
+                // Liang-Barsky: clip the parameter range [0, 1] of the segment against the four sides
+                double[] t = {0, 1};
+                if (!clipT(-dx, x0 - minX, t) || !clipT(dx, maxX - x0, t) || !clipT(-dy, y0 - minY, t)
+                        || !clipT(dy, maxY - y0, t)) {
+                    addLine(part, result);
+                    continue;
+                }
+                if (part.size == 0 || t[0] > 0) {
+                    addLine(part, result);
+                    interpolate(coordinates, a, b, t[0], p);
+                    part.add(p, 0);
+                }
+                interpolate(coordinates, a, b, t[1], p);
+                part.add(p, 0);
+                if (t[1] < 1) {
+                    addLine(part, result);
+                }
+            }
+            addLine(part, result);
+            return result;
+        }
+
+        private Polygon<P> clipPolygon(Polygon<P> polygon) {
+            if (polygon.isEmpty()) {
+                return null;
+            }
+            List<LinearRing<P>> rings = new ArrayList<>();
+            for (int r = 0; r <= polygon.getNumInteriorRing(); r++) {
+                LinearRing<P> ring = r == 0 ? polygon.getExteriorRing() : polygon.getInteriorRingN(r - 1);
+                LinearRing<P> clipped = clipRing(ring);
+                if (clipped == null && r == 0) {
+                    return null;
+                }
+                if (clipped != null) {
+                    rings.add(clipped);
+                }
+            }
+            return Geometries.mkPolygon(rings);
+        }
+
+        private LinearRing<P> clipRing(LinearRing<P> ring) {
+            if (ring.isEmpty()) {
+                return null;
+            }
+            // the ring without its closing position
+            Coordinates vertices = new Coordinates(dim);
+            double[] coordinates = toArray(ring.getPositions());
+            vertices.addAll(coordinates, ring.getNumPositions() - 1);
+            // Sutherland-Hodgman: clip against each side in turn
+            vertices = clipSide(vertices, 0, minX, false);
+            vertices = clipSide(vertices, 0, maxX, true);
+            vertices = clipSide(vertices, 1, minY, false);
+            vertices = clipSide(vertices, 1, maxY, true);
+            if (vertices.size < 3) {
+                return null;
+            }
+            vertices.add(vertices.values, 0);
+            Coordinates result = process(vertices);
+            return result.size < 4 ? null : Geometries.mkLinearRing(toPositionSequence(result), crs);
+        }
+
+        private Coordinates clipSide(Coordinates input, int axis, double value, boolean isMax) {
+            Coordinates output = new Coordinates(dim);
+            int n = input.size;
+            if (n == 0) {
+                return output;
+            }
+            double[] v = input.values;
+            double[] p = new double[dim];
+            int prev = (n - 1) * dim;
+            boolean prevInside = isMax ? v[prev + axis] <= value : v[prev + axis] >= value;
+            for (int i = 0; i < n; i++) {
+                int cur = i * dim;
+                boolean curInside = isMax ? v[cur + axis] <= value : v[cur + axis] >= value;
+                if (curInside != prevInside) {
+                    double t = (value - v[prev + axis]) / (v[cur + axis] - v[prev + axis]);
+                    interpolate(v, prev, cur, t, p);
+                    p[axis] = value;
+                    output.add(p, 0);
+                }
+                if (curInside) {
+                    output.add(v, cur);
+                }
+                prev = cur;
+                prevInside = curInside;
+            }
+            return output;
+        }
+
+        private void addLine(Coordinates part, List<LineString<P>> lines) {
+            if (part.size >= 2) {
+                Coordinates processed = process(part);
+                if (processed.size >= 2) {
+                    lines.add(Geometries.mkLineString(toPositionSequence(processed), crs));
+                }
+            }
+            part.size = 0;
+        }
+
+        // simplifies and quantizes a linestring or closed ring
+        private Coordinates process(Coordinates coordinates) {
+            boolean[] keep = simplify(coordinates);
+            Coordinates result = new Coordinates(dim);
+            for (int i = 0; i < coordinates.size; i++) {
+                if (!keep[i]) {
+                    continue;
+                }
+                int offset = i * dim;
+                double x = snapX(coordinates.values[offset]);
+                double y = snapY(coordinates.values[offset + 1]);
+                int last = (result.size - 1) * dim;
+                if (result.size > 0 && result.values[last] == x && result.values[last + 1] == y) {
+                    continue;
+                }
+                result.add(coordinates.values, offset);
+                result.values[last + dim] = x;
+                result.values[last + dim + 1] = y;
+            }
+            return result;
+        }
+
+        private boolean[] simplify(Coordinates coordinates) {
+            if (simplifyTolerance == 0) {
+                boolean[] keep = new boolean[coordinates.size];
+                Arrays.fill(keep, true);
+                return keep;
+            }
+            return Simplifier.douglasPeucker(coordinates.values, coordinates.size, dim, simplifyTolerance);
+        }
+
+        private boolean clipT(double p, double q, double[] t) {
+            if (p == 0) {
+                return q >= 0;
+            }
+            double r = q / p;
+            if (p < 0) {
+                if (r > t[1]) return false;
+                if (r > t[0]) t[0] = r;
+            } else {
+                if (r < t[0]) return false;
+                if (r < t[1]) t[1] = r;
+            }
+            return true;
+        }
+
+        private void interpolate(double[] v, int a, int b, double t, double[] result) {
+            for (int d = 0; d < dim; d++) {
+                result[d] = t == 0 ? v[a + d] : t == 1 ? v[b + d] : v[a + d] + t * (v[b + d] - v[a + d]);
+            }
+        }
+
+        private boolean inside(double x, double y) {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY;
+        }
+
+        private double snapX(double x) {
+            return originX + Math.round((x - originX) * scaleX) / scaleX;
+        }
+
+        private double snapY(double y) {
+            return originY + Math.round((y - originY) * scaleY) / scaleY;
+        }
+
+        private double[] toArray(PositionSequence<P> positions) {
+            double[] result = new double[positions.size() * dim];
+            for (int i = 0; i < positions.size(); i++) {
+                positions.getCoordinates(i, position);
+                System.arraycopy(position, 0, result, i * dim, dim);
+            }
+            return result;
+        }
+
+        private PositionSequence<P> toPositionSequence(Coordinates coordinates) {
+            PositionSequenceBuilder<P> builder = PositionSequenceBuilders.fixedSized(coordinates.size,
+                    crs.getPositionClass());
+            for (int i = 0; i < coordinates.size; i++) {
+                System.arraycopy(coordinates.values, i * dim, position, 0, dim);
+                builder.add(position);
+            }
+            return builder.toPositionSequence();
+        }
+    }
+
+    private static final class Coordinates {
+        private final int dim;
+        private double[] values;
+        private int size;
+
+        Coordinates(int dim) {
+            this.dim = dim;
+            this.values = new double[16 * dim];
+        }
+
+        void add(double[] source, int offset) {
+            ensureCapacity(size + 1);
+            System.arraycopy(source, offset, values, size * dim, dim);
+            size++;
+        }
+
+        void addAll(double[] source, int count) {
+            ensureCapacity(size + count);
+            System.arraycopy(source, 0, values, size * dim, count * dim);
+            size += count;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity * dim > values.length) {
+                values = Arrays.copyOf(values, Math.max(2 * values.length, capacity * dim));
+            }
+        }
+    }
+}
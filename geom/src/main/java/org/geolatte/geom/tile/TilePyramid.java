@@ -0,0 +1,175 @@
+package org.geolatte.geom.tile;
+
+import org.geolatte.geom.C2D;
+import org.geolatte.geom.Envelope;
+import org.geolatte.geom.curve.MortonContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pyramid of square tiling schemes over a spatial extent.
+ *
+ * <p>The pyramid has the same structure as the QuadTree of a {@link MortonContext}: at zoom level {@code z}, the
+ * extent is divided in {@code 2^z} columns and {@code 2^z} rows of tiles. The maximum zoom level is the depth of the
+ * {@code MortonContext}.</p>
+ *
+ * @param <P> the {@code Position} type of the extent
+ */
+public class TilePyramid<P extends C2D> {
+
+    private final MortonContext<P> context;
+    private final int maxZoom;
+    private final double minX;
+    private final double maxY;
+    private final double width;
+    private final double height;
+
+    /**
+     * Constructs a {@code TilePyramid} for the QuadTree of the specified {@code MortonContext}
+     *
+     * @param context the {@code MortonContext}
+     * @throws IllegalArgumentException if the depth of the {@code MortonContext} is greater than 30
+     */
+    public TilePyramid(MortonContext<P> context) {
+        if (context.getDepth() > 30) {
+            throw new IllegalArgumentException("Max. zoom level is limited to 30.");
+        }
+        this.context = context;
+        this.maxZoom = context.getDepth();
+        this.minX = context.getMinX();
+        this.maxY = context.getMaxY();
+        this.width = context.getMaxX() - context.getMinX();
+        this.height = context.getMaxY() - context.getMinY();
+    }
+
+    /**
+     * Constructs a {@code TilePyramid} with the specified extent and maximum zoom level
+     *
+     * @param extent  the extent
+     * @param maxZoom the maximum zoom level
+     */
+    public TilePyramid(Envelope<P> extent, int maxZoom) {
+        this(new MortonContext<>(extent, maxZoom));
+    }
+
+    /**
+     * Returns the {@code MortonContext} with the extent and depth of this pyramid
+     *
+     * @return the {@code MortonContext} of this pyramid
+     */
+    public MortonContext<P> getContext() {
+        return context;
+    }
+
+    /**
+     * Returns the extent of this pyramid
+     *
+     * @return the extent
+     */
+    public Envelope<P> getExtent() {
+        return context.getExtent();
+    }
+
+    /**
+     * Returns the maximum zoom level of this pyramid
+     *
+     * @return the maximum zoom level
+     */
+    public int getMaxZoom() {
+        return maxZoom;
+    }
+
+    /**
+     * Returns the width of the tiles at the specified zoom level
+     *
+     * @param zoom the zoom level
+     * @return the width of the tiles
+     */
+    public double getTileWidth(int zoom) {
+        return width / (1 << zoom);
+    }
+
+    /**
+     * Returns the height of the tiles at the specified zoom level
+     *
+     * @param zoom the zoom level
+     * @return the height of the tiles
+     */
+    public double getTileHeight(int zoom) {
+        return height / (1 << zoom);
+    }
+
+    /**
+     * Returns the bounds of the specified tile
+     *
+     * @param tile the tile
+     * @return the bounds of the tile
+     * @throws IllegalArgumentException if the zoom level of the tile is greater than the maximum zoom level
+     */
+    public Envelope<P> getBounds(Tile tile) {
+        double[] bounds = new double[4];
+        getBounds(tile, bounds);
+        return new Envelope<>(bounds[0], bounds[1], bounds[2], bounds[3], context.getExtent()
+                .getCoordinateReferenceSystem());
+    }
+
+    /**
+     * Writes the bounds of the specified tile to an array, as minX, minY, maxX and maxY
+     *
+     * @param tile   the tile
+     * @param bounds receives the bounds
+     * @throws IllegalArgumentException if the zoom level of the tile is greater than the maximum zoom level
+     */
+    public void getBounds(Tile tile, double[] bounds) {
+        checkZoom(tile.getZoom());
+        double w = getTileWidth(tile.getZoom());
+        double h = getTileHeight(tile.getZoom());
+        bounds[0] = minX + tile.getX() * w;
+        bounds[1] = maxY - (tile.getY() + 1) * h;
+        bounds[2] = minX + (tile.getX() + 1) * w;
+        bounds[3] = maxY - tile.getY() * h;
+    }
+
+    /**
+     * Returns the tiles at the specified zoom level that intersect the specified {@code Envelope}, ordered by row and
+     * then by column
+     *
+     * @param envelope the {@code Envelope}
+     * @param zoom     the zoom level
+     * @return the tiles that intersect the {@code Envelope}
+     * @throws IllegalArgumentException if the zoom level is negative or greater than the maximum zoom level
+     */
+    public List<Tile> getTiles(Envelope<P> envelope, int zoom) {
+        checkZoom(zoom);
+        List<Tile> result = new ArrayList<>();
+        if (envelope.isEmpty() || !envelope.intersects(context.getExtent())) {
+            return result;
+        }
+        int n = 1 << zoom;
+        int minCol = index((envelope.lowerLeft().getX() - minX) / getTileWidth(zoom), n);
+        int maxCol = index((envelope.upperRight().getX() - minX) / getTileWidth(zoom), n);
+        int minRow = index((maxY - envelope.upperRight().getY()) / getTileHeight(zoom), n);
+        int maxRow = index((maxY - envelope.lowerLeft().getY()) / getTileHeight(zoom), n);
+        for (int y = minRow; y <= maxRow; y++) {
+            for (int x = minCol; x <= maxCol; x++) {
+                result.add(new Tile(zoom, x, y));
+            }
+        }
+        return result;
+    }
+
+    private static int index(double value, int n) {
+        return (int) Math.max(0, Math.min(n - 1, Math.floor(value)));
+    }
+
+    private void checkZoom(int zoom) {
+        if (zoom < 0) {
+            throw new IllegalArgumentException(String.format("Zoom level %d is negative.", zoom));
+        }
+        if (zoom > maxZoom) {
+            throw new IllegalArgumentException(String.format("Zoom level %d exceeds max. zoom level %d.", zoom,
+                    maxZoom));
+        }
+    }
+}
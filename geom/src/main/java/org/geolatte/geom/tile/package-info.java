@@ -0,0 +1,4 @@
+/**
+ * Tile pyramids, and the clipping of geometries to tiles.
+ */
+package org.geolatte.geom.tile;
@@ -0,0 +1,112 @@
+package org.geolatte.geom;
+
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.geolatte.geom.builder.DSL.g;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.WGS84;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link GeodesicCap}
+ */
+public class GeodesicCapTest {
+
+    private final CoordinateReferenceSystem<G2D> crs = WGS84;
+    private final GeographicGeometryOperations ellipsoidal = GeographicGeometryOperations.Default;
+    private final GeographicGeometryOperations spherical = GeographicGeometryOperations.Spherical;
+
+    @Test
+    public void testEnvelopeOnEquator() {
+        List<Envelope<G2D>> envelopes = ellipsoidal.cap(g(10, 0), 111000, crs).getEnvelopes();
+        assertEquals(1, envelopes.size());
+        Envelope<G2D> envelope = envelopes.get(0);
+        // one degree of latitude is about 110.6 km, and of longitude about 111.3 km on the equator
+        assertEquals(-1.004, envelope.lowerLeft().getLat(), 0.005);
+        assertEquals(1.004, envelope.upperRight().getLat(), 0.005);
+        assertEquals(9.003, envelope.lowerLeft().getLon(), 0.005);
+        assertEquals(10.997, envelope.upperRight().getLon(), 0.005);
+    }
+
+    @Test
+    public void testEnvelopesAcrossAntimeridian() {
+        List<Envelope<G2D>> envelopes = spherical.cap(g(179.5, 10), 200000, crs).getEnvelopes();
+        assertEquals(2, envelopes.size());
+        assertEquals(180, envelopes.get(0).upperRight().getLon(), 0);
+        assertTrue(envelopes.get(0).lowerLeft().getLon() > 177);
+        assertEquals(-180, envelopes.get(1).lowerLeft().getLon(), 0);
+        assertTrue(envelopes.get(1).upperRight().getLon() < -178);
+        assertEquals(2, ellipsoidal.cap(g(-179.5, -10), 200000, crs).getEnvelopes().size());
+    }
+
+    @Test
+    public void testEnvelopeAroundPole() {
+        List<Envelope<G2D>> envelopes = ellipsoidal.cap(g(30, 89.5), 100000, crs).getEnvelopes();
+        assertEquals(1, envelopes.size());
+        assertEquals(-180, envelopes.get(0).lowerLeft().getLon(), 0);
+        assertEquals(180, envelopes.get(0).upperRight().getLon(), 0);
+        assertEquals(90, envelopes.get(0).upperRight().getLat(), 0);
+        assertEquals(88.6, envelopes.get(0).lowerLeft().getLat(), 0.05);
+        GeodesicCap<G2D> cap = ellipsoidal.cap(g(30, 89.5), 100000, crs);
+        assertTrue(cap.contains(-150, 89.9));
+        assertFalse(cap.contains(-150, 88.6));
+    }
+
+    @Test
+    public void testFilterMatchesDistances() {
+        Random random = new Random(47);
+        double[][] centers = {{10, 45}, {179.9, -20}, {-60, 88}, {0, 0}};
+        for (GeographicGeometryOperations ops : new GeographicGeometryOperations[]{ellipsoidal, spherical}) {
+            for (double[] c : centers) {
+                G2D center = g(c[0], c[1]);
+                double radius = 300000;
+                GeodesicCap<G2D> cap = ops.cap(center, radius, crs);
+                double[] coordinates = new double[3 * 5000];
+                for (int i = 0; i < coordinates.length; i += 3) {
+                    coordinates[i] = wrap(c[0] + random.nextGaussian() * 5);
+                    coordinates[i + 1] = Math.max(-90, Math.min(90, c[1] + random.nextGaussian() * 3));
+                    coordinates[i + 2] = random.nextDouble();
+                }
+                int[] selected = new int[5000];
+                int count = cap.filter(coordinates, 3, selected);
+                int expected = 0;
+                for (int i = 0; i < 5000; i++) {
+                    G2D position = g(coordinates[3 * i], coordinates[3 * i + 1]);
+                    if (ops.distance(center, position, crs) <= radius) {
+                        assertEquals(i, selected[expected++]);
+                        assertTrue(inEnvelopes(cap.getEnvelopes(), position));
+                    }
+                }
+                assertEquals(expected, count);
+                assertTrue(count > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testWholeWorld() {
+        GeodesicCap<G2D> cap = spherical.cap(g(0, 0), 3e7, crs);
+        assertEquals(1, cap.getEnvelopes().size());
+        assertTrue(cap.contains(180, 0));
+        assertTrue(cap.contains(g(-100, -80)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeRadius() {
+        ellipsoidal.cap(g(0, 0), -1, crs);
+    }
+
+    private static boolean inEnvelopes(List<Envelope<G2D>> envelopes, G2D position) {
+        for (Envelope<G2D> envelope : envelopes) {
+            if (envelope.contains(position)) return true;
+        }
+        return false;
+    }
+
+    private static double wrap(double lon) {
+        return lon > 180 ? lon - 360 : (lon < -180 ? lon + 360 : lon);
+    }
+}
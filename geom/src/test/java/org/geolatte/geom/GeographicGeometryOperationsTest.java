@@ -0,0 +1,100 @@
+package org.geolatte.geom;
+
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.junit.Test;
+
+import static org.geolatte.geom.builder.DSL.*;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.WGS84;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link GeographicGeometryOperations}
+ */
+public class GeographicGeometryOperationsTest {
+
+    private static final double A = 6378137.0;
+    private static final double B = A * (1 - 1 / 298.257223563);
+    private static final double MEAN_RADIUS = (2 * A + B) / 3;
+    // the surface area of the WGS 84 ellipsoid
+    private static final double SURFACE = 5.10065621724e14;
+
+    private final CoordinateReferenceSystem<G2D> crs = WGS84;
+    private final GeographicGeometryOperations ellipsoidal = GeographicGeometryOperations.Default;
+    private final GeographicGeometryOperations spherical = GeographicGeometryOperations.Spherical;
+
+    @Test
+    public void testDistanceBetweenPositions() {
+        // Flinders Peak to Buninyong, the example of Vincenty's paper
+        G2D flinders = g(144 + 25 / 60. + 29.52440 / 3600, -(37 + 57 / 60. + 3.72030 / 3600));
+        G2D buninyong = g(143 + 55 / 60. + 35.38390 / 3600, -(37 + 39 / 60. + 10.15610 / 3600));
+        assertEquals(54972.271, ellipsoidal.distance(flinders, buninyong, crs), 1e-3);
+        // one degree on the equator, and along a meridian
+        assertEquals(A * Math.PI / 180, ellipsoidal.distance(g(10, 0), g(11, 0), crs), 1e-6);
+        assertEquals(110574.389, ellipsoidal.distance(g(5, 0), g(5, 1), crs), 1e-3);
+        assertEquals(MEAN_RADIUS * Math.PI / 180, spherical.distance(g(10, 0), g(11, 0), crs), 1e-6);
+        assertEquals(MEAN_RADIUS * Math.PI / 180, spherical.distance(g(179.5, 0), g(-179.5, 0), crs), 1e-6);
+        assertEquals(0, ellipsoidal.distance(g(3, 4), g(3, 4), crs), 0);
+        // nearly antipodal positions, where Vincenty's formula does not converge
+        assertEquals(spherical.distance(g(0, 0), g(179.7, 0.5), crs),
+                ellipsoidal.distance(g(0, 0), g(179.7, 0.5), crs), 0);
+    }
+
+    @Test
+    public void testLength() {
+        LineString<G2D> line = linestring(crs, g(10, 0), g(11, 0), g(11, 1));
+        assertEquals(A * Math.PI / 180 + 110574.389, ellipsoidal.length(line), 1e-2);
+        assertEquals(2 * MEAN_RADIUS * Math.PI / 180, spherical.length(line), 1e-6);
+        assertEquals(2 * ellipsoidal.length(line), ellipsoidal.length(multilinestring(line, line)), 1e-6);
+        assertEquals(0, ellipsoidal.length(new LineString<>(crs)), 0);
+    }
+
+    @Test
+    public void testAreaOfOctant() {
+        // the equator and two meridians are geodesics
+        Polygon<G2D> octant = polygon(crs, ring(g(0, 0), g(90, 0), g(0, 90), g(0, 0)));
+        assertEquals(SURFACE / 8, ellipsoidal.area(octant), 1e6);
+        assertEquals(4 * Math.PI * MEAN_RADIUS * MEAN_RADIUS / 8, spherical.area(octant), 1);
+        // orientation does not matter
+        assertEquals(SURFACE / 8, ellipsoidal.area(polygon(crs, ring(g(0, 0), g(0, 90), g(90, 0), g(0, 0)))), 1e6);
+    }
+
+    @Test
+    public void testAreaOfSmallPolygonWithHole() {
+        // about 1 km by 1 km, with a hole of about 100 m by 100 m
+        double d = 1 / 111.3195;
+        Polygon<G2D> square = polygon(crs, ring(g(0, 0), g(d, 0), g(d, d), g(0, d), g(0, 0)),
+                ring(g(0.1 * d, 0.1 * d), g(0.1 * d, 0.2 * d), g(0.2 * d, 0.2 * d), g(0.2 * d, 0.1 * d),
+                        g(0.1 * d, 0.1 * d)));
+        double width = A * Math.PI / 180 * d;
+        double height = 110574.389 * d;
+        assertEquals(0.99 * width * height, ellipsoidal.area(square), 10);
+        assertEquals(2 * ellipsoidal.area(square), ellipsoidal.area(multipolygon(square, square)), 1e-6);
+    }
+
+    @Test
+    public void testDistanceToLine() {
+        LineString<G2D> equator = linestring(crs, g(-1, 0), g(1, 0));
+        assertEquals(110574.389, ellipsoidal.distanceToLine(g(0, 1), equator), 1e-3);
+        assertEquals(2 * A * Math.PI / 180, ellipsoidal.distanceToLine(g(3, 0), equator), 1e-6);
+        assertEquals(MEAN_RADIUS * Math.PI / 180, spherical.distanceToLine(g(0.5, -1), equator), 1e-6);
+        assertEquals(0, ellipsoidal.distanceToLine(g(0.5, 0), equator), 1e-6);
+        assertTrue(Double.isNaN(ellipsoidal.distanceToLine(g(0, 1), new LineString<>(crs))));
+    }
+
+    @Test
+    public void testDistanceBetweenGeometries() {
+        Polygon<G2D> square = polygon(crs, ring(g(0, 0), g(2, 0), g(2, 2), g(0, 2), g(0, 0)));
+        assertEquals(0, ellipsoidal.distance(square, point(crs, g(1, 1))), 0);
+        assertEquals(0, ellipsoidal.distance(square, linestring(crs, g(-1, 1), g(3, 1))), 0);
+        assertEquals(0, ellipsoidal.distance(linestring(crs, g(1, -1), g(1, 3)), linestring(crs, g(-1, 1), g(3, 1))),
+                0);
+        assertEquals(A * Math.PI / 180, ellipsoidal.distance(square, point(crs, g(3, 0))), 1e-6);
+        // the edges are geodesics, not parallels
+        assertEquals(ellipsoidal.distanceToLine(g(1, 3), linestring(crs, g(2, 2), g(0, 2))),
+                ellipsoidal.distance(square, multipoint(point(crs, g(1, 3)), point(crs, g(1, 5)))), 1e-6);
+        assertTrue(ellipsoidal.distance(square, point(crs, g(1, 3))) < ellipsoidal.distance(g(1, 3), g(1, 2), crs));
+        assertEquals(spherical.distanceToLine(g(1, -1), linestring(crs, g(0, 0), g(2, 0))),
+                spherical.distance(square, point(crs, g(1, -1))), 1e-6);
+        assertEquals(0, ellipsoidal.distance(square, new Point<>(crs)), 0);
+    }
+}
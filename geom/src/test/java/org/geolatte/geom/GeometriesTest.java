@@ -0,0 +1,86 @@
+package org.geolatte.geom;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.geolatte.geom.builder.DSL.*;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.PROJECTED_2D_METER;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for the {@link Geometries} factory methods for geometries that share a coordinates array
+ */
+public class GeometriesTest {
+
+    // two polygons, the second with a hole, followed by unused capacity
+    private final double[] coordinates = {
+            0, 0, 1, 0, 1, 1, 0, 0,
+            5, 5, 9, 5, 9, 9, 5, 5,
+            8, 6, 8, 7, 7, 6, 8, 6,
+            0, 0};
+    private final int[] ringOffsets = {0, 4, 8, 12};
+    private final int[] polygonOffsets = {0, 1, 3};
+
+    @Test
+    public void testMultiPolygon() {
+        MultiPolygon<C2D> result = Geometries.mkMultiPolygon(coordinates, ringOffsets, polygonOffsets,
+                PROJECTED_2D_METER);
+        MultiPolygon<C2D> expected = multipolygon(
+                polygon(PROJECTED_2D_METER, ring(c(0, 0), c(1, 0), c(1, 1), c(0, 0))),
+                polygon(PROJECTED_2D_METER, ring(c(5, 5), c(9, 5), c(9, 9), c(5, 5)),
+                        ring(c(8, 6), c(8, 7), c(7, 6), c(8, 6))));
+        assertEquals(expected, result);
+        assertEquals(expected.hashCode(), result.hashCode());
+        assertEquals(12, result.getNumPositions());
+        assertEquals(c(7, 6), result.getPositionN(10));
+        assertNotNull(((NestedPositionSequence<C2D>) result.getPositions()).flat());
+        assertNotNull(((NestedPositionSequence<C2D>) result.getGeometryN(1).getPositions()).flat());
+    }
+
+    @Test
+    public void testSharedCoordinatesAreCountedOnce() {
+        int n = 1000;
+        double[] triangles = new double[8 * n];
+        int[] offsets = new int[n + 1];
+        int[] polygonOffsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(new double[]{i, 0, i + 1, 0, i, 1, i, 0}, 0, triangles, 8 * i, 8);
+            offsets[i + 1] = 4 * (i + 1);
+            polygonOffsets[i + 1] = i + 1;
+        }
+        MultiPolygon<C2D> shared = Geometries.mkMultiPolygon(triangles, offsets, polygonOffsets, PROJECTED_2D_METER);
+        // the polygons of a multipolygon from the DSL have their own arrays
+        Polygon<C2D>[] polygons = shared.components();
+        for (int i = 0; i < n; i++) {
+            polygons[i] = polygon(PROJECTED_2D_METER, ring(c(i, 0), c(i + 1, 0), c(i, 1), c(i, 0)));
+        }
+        assertTrue(MemoryFootprint.estimateSize(shared) < MemoryFootprint.estimateSize(new MultiPolygon<>(polygons)));
+
+        // a longer shared array adds to the size once, and the multipolygon then has a view on part of it
+        double[] longer = Arrays.copyOf(triangles, triangles.length + 100);
+        MultiPolygon<C2D> withSlack = Geometries.mkMultiPolygon(longer, offsets, polygonOffsets, PROJECTED_2D_METER);
+        assertEquals(800 + 8, MemoryFootprint.estimateSize(withSlack) - MemoryFootprint.estimateSize(shared));
+    }
+
+    @Test
+    public void testMultiLineStringAndPolygon() {
+        MultiLineString<C2D> lines = Geometries.mkMultiLineString(coordinates, new int[]{4, 6, 8}, PROJECTED_2D_METER);
+        assertEquals(multilinestring(PROJECTED_2D_METER, linestring(c(5, 5), c(9, 5)), linestring(c(9, 9), c(5, 5))),
+                lines);
+        Polygon<C2D> polygon = Geometries.mkPolygon(coordinates, new int[]{4, 8, 12}, PROJECTED_2D_METER);
+        assertEquals(1, polygon.getNumInteriorRing());
+        assertTrue(Geometries.mkPolygon(coordinates, new int[0], PROJECTED_2D_METER).isEmpty());
+        assertTrue(Geometries.mkMultiPolygon(coordinates, ringOffsets, new int[]{0}, PROJECTED_2D_METER).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecreasingOffsets() {
+        Geometries.mkMultiLineString(coordinates, new int[]{0, 4, 2}, PROJECTED_2D_METER);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOffsetBeyondCoordinates() {
+        Geometries.mkMultiLineString(coordinates, new int[]{0, 14}, PROJECTED_2D_METER);
+    }
+}
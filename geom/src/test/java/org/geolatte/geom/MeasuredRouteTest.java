@@ -0,0 +1,172 @@
+package org.geolatte.geom;
+
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.geolatte.geom.builder.DSL.*;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.PROJECTED_2DM_METER;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.PROJECTED_3DM_METER;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link MeasuredRoute}
+ */
+public class MeasuredRouteTest {
+
+    private final MeasureGeometryOperations measureOps = MeasureGeometryOperations.Default;
+    private final CoordinateReferenceSystem<C2DM> crs = PROJECTED_2DM_METER;
+
+    @Test
+    public void testMeasureAtMatchesDefaultImplementation() {
+        Random random = new Random(7);
+        LineString<C2DM> line = randomWalk(random, 5000, 0);
+        MeasuredRoute<C2DM> route = measureOps.prepare(line);
+        for (int i = 0; i < 500; i++) {
+            C2D pos = c(random.nextDouble() * 400 - 200, random.nextDouble() * 400 - 200);
+            assertEquals(measureOps.measureAt(line, pos, 1000), route.measureAt(pos, 1000), 1e-9);
+        }
+        // a position on a vertex
+        C2D vertex = c(line.getPositionN(1234).getX(), line.getPositionN(1234).getY());
+        assertEquals(line.getPositionN(1234).getM(), route.measureAt(vertex, 0), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMeasureAtOutsideTolerance() {
+        MeasuredRoute<C2DM> route = measureOps.prepare(linestring(crs, cM(0, 0, 0), cM(10, 0, 10)));
+        route.measureAt(c(5, 2), 1);
+    }
+
+    @Test
+    public void testMeasureAtOnMultiLineString() {
+        MultiLineString<C2DM> lines = multilinestring(
+                linestring(crs, cM(0, 0, 0), cM(10, 0, 10)),
+                linestring(crs, cM(20, 0, 20), cM(30, 0, 30), cM(30, 10, 40)));
+        MeasuredRoute<C2DM> route = measureOps.prepare(lines);
+        assertEquals(5, route.measureAt(c(5, 1), 1), 0);
+        assertEquals(35, route.measureAt(c(31, 5), 1), 0);
+        assertEquals(10, route.measureAt(c(12, 0), 5), 0);
+    }
+
+    @Test
+    public void testLocateMatchesDefaultImplementation() {
+        Random random = new Random(11);
+        // monotone measures, and measures that go up and down
+        for (double noise : new double[]{0, 5}) {
+            MultiLineString<C2DM> lines = multilinestring(randomWalk(random, 300, noise), randomWalk(random, 200, noise));
+            MeasuredRoute<C2DM> route = measureOps.prepare(lines);
+            for (int i = 0; i < 200; i++) {
+                double start = random.nextDouble() * 350;
+                double end = start + (i % 4 == 0 ? 0 : random.nextDouble() * 30);
+                assertSameLocation(measureOps.locateBetween(lines, start, end), route.locateBetween(start, end));
+                assertSameLocation(measureOps.locateBetween(lines, end, start), route.locateBetween(end, start));
+            }
+            assertSameLocation(measureOps.locateAlong(lines, 100), route.locateAlong(100));
+            assertSameLocation(measureOps.locateAlong(lines, -1), route.locateAlong(-1));
+        }
+    }
+
+    @Test
+    public void testLocateBetweenOnRouteThatReturns() {
+        LineString<C2DM> line = linestring(crs, cM(0, 0, 0), cM(10, 0, 10), cM(10, 10, 20), cM(0, 10, 10),
+                cM(0, 20, 0));
+        Geometry<C2DM> expected = multilinestring(
+                linestring(crs, cM(5, 0, 5), cM(7, 0, 7)),
+                linestring(crs, cM(0, 13, 7), cM(0, 15, 5)));
+        assertEquals(expected, measureOps.prepare(line).locateBetween(5, 7));
+        assertEquals(expected, measureOps.locateBetween(line, 5, 7));
+        assertEquals(multipoint(point(crs, cM(10, 10, 20))), measureOps.prepare(line).locateAlong(20));
+    }
+
+    @Test
+    public void testLocateOn3DMRoute() {
+        LineString<C3DM> line = linestring(PROJECTED_3DM_METER, c(0, 0, 100, 0), c(10, 0, 200, 10));
+        MeasuredRoute<C3DM> route = measureOps.prepare(line);
+        assertEquals(multipoint(point(PROJECTED_3DM_METER, c(4, 0, 140, 4))), route.locateAlong(4));
+        assertEquals(4, route.measureAt(c(4, 3), 5), 0);
+    }
+
+    @Test
+    public void testBatchMeasureAtMatchesSingleQueries() {
+        Random random = new Random(3);
+        LineString<C2DM> line = randomWalk(random, 2000, 0);
+        MeasuredRoute<C2DM> route = measureOps.prepare(line);
+        // large enough to be split over several tasks
+        double[] xy = new double[2 * 20000];
+        for (int i = 0; i < xy.length; i++) {
+            xy[i] = random.nextDouble() * 300 - 150;
+        }
+        double[] measures = route.batchMeasureAt(xy, 20);
+        int outside = 0;
+        for (int i = 0; i < measures.length; i++) {
+            C2D pos = c(xy[2 * i], xy[2 * i + 1]);
+            try {
+                assertEquals(route.measureAt(pos, 20), measures[i], 0);
+            } catch (IllegalArgumentException e) {
+                assertTrue(Double.isNaN(measures[i]));
+                outside++;
+            }
+        }
+        assertTrue(outside > 0 && outside < measures.length);
+        assertArrayEquals(measures, measureOps.batchMeasureAt(line, xy, 20), 0);
+    }
+
+    @Test
+    public void testBatchLocateAlongReturnsFirstPosition() {
+        LineString<C2DM> line = linestring(crs, cM(0, 0, 0), cM(10, 0, 10), cM(10, 10, 20), cM(0, 10, 10),
+                cM(0, 20, 0));
+        double[] positions = measureOps.batchLocateAlong(line, new double[]{5, 20, 15, 25, -1, 0});
+        assertArrayEquals(new double[]{5, 0, 5, 10, 10, 20, 10, 5, 15, Double.NaN, Double.NaN, Double.NaN,
+                Double.NaN, Double.NaN, Double.NaN, 0, 0, 0}, positions, 0);
+
+        Random random = new Random(5);
+        MultiLineString<C2DM> lines = multilinestring(randomWalk(random, 300, 3), randomWalk(random, 300, 3));
+        MeasuredRoute<C2DM> route = measureOps.prepare(lines);
+        double[] measures = new double[10000];
+        for (int i = 0; i < measures.length; i++) {
+            measures[i] = random.nextDouble() * 200;
+        }
+        positions = route.batchLocateAlong(measures);
+        for (int i = 0; i < measures.length; i++) {
+            Geometry<C2DM> located = route.locateAlong(measures[i]);
+            C2DM first = located.getPositionN(0);
+            assertEquals(first.getX(), positions[3 * i], 1e-9);
+            assertEquals(first.getY(), positions[3 * i + 1], 1e-9);
+            assertEquals(first.getM(), positions[3 * i + 2], 1e-9);
+        }
+    }
+
+    @Test
+    public void testEmptyRoute() {
+        MeasuredRoute<C2DM> route = measureOps.prepare(new LineString<C2DM>(crs));
+        assertTrue(Double.isNaN(route.measureAt(c(1, 1), 1)));
+        assertTrue(route.locateAlong(1).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRouteMustBeLinear() {
+        measureOps.prepare(point(crs, cM(1, 1, 1)));
+    }
+
+    // no match is a point with NaN coordinates, which is not equal to itself
+    private static void assertSameLocation(Geometry<C2DM> expected, Geometry<C2DM> received) {
+        if (Double.isNaN(expected.getPositionN(0).getX())) {
+            assertTrue(Double.isNaN(received.getPositionN(0).getX()));
+        } else {
+            assertEquals(expected, received);
+        }
+    }
+
+    private LineString<C2DM> randomWalk(Random random, int size, double measureNoise) {
+        C2DM[] positions = new C2DM[size];
+        double x = 0, y = 0, m = 0;
+        for (int i = 0; i < size; i++) {
+            positions[i] = cM(x, y, m + measureNoise * random.nextGaussian());
+            x += random.nextDouble() * 4 - 1;
+            y += random.nextDouble() * 4 - 2;
+            m += random.nextDouble();
+        }
+        return linestring(crs, positions);
+    }
+}
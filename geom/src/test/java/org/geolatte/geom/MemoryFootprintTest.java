@@ -0,0 +1,57 @@
+package org.geolatte.geom;
+
+import org.junit.Test;
+
+import static org.geolatte.geom.builder.DSL.*;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.WGS84;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryFootprintTest {
+
+    private final LineString<G2D> line = linestring(WGS84, g(0, 0), g(1, 1), g(2, 2));
+    private final Polygon<G2D> polygon = polygon(WGS84, ring(g(0, 0), g(10, 0), g(10, 10), g(0, 10), g(0, 0)),
+            ring(g(1, 1), g(2, 1), g(2, 2), g(1, 1)));
+
+    @Test
+    public void testLineStringSize() {
+        // 24 (geometry) + 24 (sequence) + 16 + 6 * 8 (coordinates)
+        assertEquals(112, MemoryFootprint.estimateSize(line));
+    }
+
+    @Test
+    public void testSizeGrowsWithNumberOfPositions() {
+        LineString<G2D> longer = linestring(WGS84, g(0, 0), g(1, 1), g(2, 2), g(3, 3));
+        assertEquals(16, MemoryFootprint.estimateSize(longer) - MemoryFootprint.estimateSize(line));
+    }
+
+    @Test
+    public void testSharedPositionsAreCountedOnce() {
+        MultiPolygon<G2D> multiPolygon = multipolygon(polygon, polygon);
+        long polygonSize = MemoryFootprint.estimateSize(polygon);
+        long multiPolygonSize = MemoryFootprint.estimateSize(multiPolygon);
+        assertTrue(multiPolygonSize > 2 * polygonSize);
+        // only the geometry, the component array and the nested sequence with its children array are added
+        assertEquals(24 + 24 + 24 + 24, multiPolygonSize - 2 * polygonSize);
+    }
+
+    @Test
+    public void testNestedSequenceSize() {
+        long ringsSize = MemoryFootprint.estimateSize(polygon.getExteriorRing().getPositions())
+                + MemoryFootprint.estimateSize(polygon.getInteriorRingN(0).getPositions());
+        assertEquals(24 + 24 + ringsSize, MemoryFootprint.estimateSize(polygon.getPositions()));
+    }
+
+    @Test
+    public void testCounter() {
+        MemoryFootprint.Counter counter = new MemoryFootprint.Counter();
+        counter.add(line);
+        counter.add(polygon);
+        assertEquals(MemoryFootprint.estimateSize(line) + MemoryFootprint.estimateSize(polygon), counter.getTotal());
+        counter.remove(line);
+        assertEquals(MemoryFootprint.estimateSize(polygon), counter.getTotal());
+        counter.reset();
+        assertEquals(0, counter.getTotal());
+    }
+
+}
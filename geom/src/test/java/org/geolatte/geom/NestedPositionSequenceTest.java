@@ -2,7 +2,7 @@ package org.geolatte.geom;
 
 import org.junit.Test;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 /**
  * Created by Karel Maesen, Geovise BVBA on 06/02/16.
@@ -27,4 +27,25 @@ public class NestedPositionSequenceTest {
 
         assertEquals(rnps, nps.reverse());
     }
+
+    @Test
+    public void testChildrenSharingAnArrayHaveFlatView() {
+        double[] coordinates = {0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 9, 9};
+        PositionFactory<C2D> factory = Positions.getFactoryFor(C2D.class);
+        PackedPositionSequence<C2D> first = PackedPositionSequence.view(factory, coordinates, 0, 4);
+        PackedPositionSequence<C2D> second = PackedPositionSequence.view(factory, coordinates, 4, 6);
+        NestedPositionSequence<C2D> nested = NestedPositionSequence.of(new PositionSequence[]{first, second});
+        assertNotNull(nested.flat());
+        assertEquals(5, nested.size());
+        assertEquals(new C2D(3, 3), nested.getPositionN(3));
+        nested.setOrdinate(2, 1, -2);
+        assertEquals(-2, second.getPositionN(0).getY(), 0);
+        // equal to, and with the same hash code as, a sequence of children with their own arrays
+        NestedPositionSequence<C2D> copied = new NestedPositionSequence<>(new PositionSequence[]{first.copy(),
+                second.copy()});
+        assertEquals(copied, nested);
+        assertEquals(copied.hashCode(), nested.hashCode());
+        assertNull(NestedPositionSequence.of(new PositionSequence[]{second, first}).flat());
+        assertNull(NestedPositionSequence.of(new PositionSequence[]{first, second.copy()}).flat());
+    }
 }
@@ -388,5 +388,25 @@ public class PackedPointSequenceTest {
         Assert.assertFalse(testSeq2D.equals(clone));
     }
 
+    @Test
+    public void testViewRejectsPositionsOutsideItsRange() {
+        double[] coordinates = {0, 0, 1, 1, 5, 5, 6, 6};
+        PackedPositionSequence<C2D> view = PackedPositionSequence.view(des2D, coordinates, 0, 4);
+        assertEquals(2, view.size());
+        try {
+            view.getPositionN(2);
+            fail("Expected ArrayIndexOutOfBoundsException");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            view.setOrdinate(2, 0, -1);
+            fail("Expected ArrayIndexOutOfBoundsException");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // expected
+        }
+        assertEquals(5, coordinates[4], 0);
+    }
+
 
 }
@@ -0,0 +1,111 @@
+package org.geolatte.geom;
+
+import org.junit.Test;
+
+import static org.geolatte.geom.builder.DSL.*;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.PROJECTED_2DM_METER;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.PROJECTED_2D_METER;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link StreamingGeometryBuilder}
+ */
+public class StreamingGeometryBuilderTest {
+
+    @Test
+    public void testMultiLineStringFromChunks() {
+        StreamingGeometryBuilder<C2DM> builder = new StreamingGeometryBuilder<>(PROJECTED_2DM_METER, 1);
+        double[] track = {0, 0, 1, 1, 1, 2, 2, 2, 3, 5, 5, 4};
+        // chunks that split positions
+        builder.addAll(track, 0, 4).addAll(track, 4, 5).endPart();
+        builder.addAll(track, 9, 3).add(6, 6, 5).add(7, 7, 6);
+        assertEquals(6, builder.getNumPositions());
+        MultiLineString<C2DM> result = builder.toMultiLineString();
+        MultiLineString<C2DM> expected = multilinestring(PROJECTED_2DM_METER,
+                linestring(cM(0, 0, 1), cM(1, 1, 2), cM(2, 2, 3)),
+                linestring(cM(5, 5, 4), cM(6, 6, 5), cM(7, 7, 6)));
+        assertEquals(expected, result);
+        assertEquals(0, builder.getNumPositions());
+    }
+
+    @Test
+    public void testPartsShareBackingArray() {
+        StreamingGeometryBuilder<C2D> builder = new StreamingGeometryBuilder<>(PROJECTED_2D_METER);
+        builder.add(0, 0).add(10, 0).add(10, 10).add(0, 10).add(0, 0).endPart();
+        builder.add(2, 2).add(2, 4).add(4, 4).add(2, 2);
+        Polygon<C2D> polygon = builder.toPolygon();
+        assertEquals(polygon(PROJECTED_2D_METER,
+                ring(c(0, 0), c(10, 0), c(10, 10), c(0, 10), c(0, 0)),
+                ring(c(2, 2), c(2, 4), c(4, 4), c(2, 2))), polygon);
+        PackedPositionSequence<C2D> shell = (PackedPositionSequence<C2D>) polygon.getExteriorRing().getPositions();
+        PackedPositionSequence<C2D> hole = (PackedPositionSequence<C2D>) polygon.getInteriorRingN(0).getPositions();
+        shell.setOrdinate(0, 0, -1);
+        hole.setOrdinate(3, 1, -2);
+        assertEquals(-1, shell.getPositionN(0).getX(), 0);
+        assertEquals(0, shell.getPositionN(4).getX(), 0);
+        assertEquals(4, hole.size());
+        assertArrayEquals(new double[]{2, 2, 2, 4, 4, 4, 2, -2}, hole.coordinates(), 0);
+        assertEquals(hole.copy(), hole);
+        assertEquals(hole.copy().hashCode(), hole.hashCode());
+    }
+
+    @Test
+    public void testMultiPolygon() {
+        StreamingGeometryBuilder<C2D> builder = new StreamingGeometryBuilder<>(PROJECTED_2D_METER);
+        builder.add(0, 0).add(1, 0).add(1, 1).add(0, 0).endPolygon();
+        builder.add(5, 5).add(9, 5).add(9, 9).add(5, 5).endPart();
+        builder.add(8, 6).add(8, 7).add(7, 6).add(8, 6);
+        MultiPolygon<C2D> result = builder.toMultiPolygon();
+        assertEquals(multipolygon(
+                polygon(PROJECTED_2D_METER, ring(c(0, 0), c(1, 0), c(1, 1), c(0, 0))),
+                polygon(PROJECTED_2D_METER, ring(c(5, 5), c(9, 5), c(9, 9), c(5, 5)),
+                        ring(c(8, 6), c(8, 7), c(7, 6), c(8, 6)))), result);
+        assertTrue(builder.toMultiPolygon().isEmpty());
+    }
+
+    @Test
+    public void testReuseDoesNotOverwriteBuiltGeometry() {
+        StreamingGeometryBuilder<C2D> builder = new StreamingGeometryBuilder<>(PROJECTED_2D_METER);
+        LineString<C2D> first = builder.add(0, 0).add(1, 1).toLineString();
+        LineString<C2D> second = builder.add(2, 2).add(3, 3).toLineString();
+        assertEquals(linestring(PROJECTED_2D_METER, c(0, 0), c(1, 1)), first);
+        assertEquals(linestring(PROJECTED_2D_METER, c(2, 2), c(3, 3)), second);
+        assertTrue(builder.toLineString().isEmpty());
+    }
+
+    @Test
+    public void testBuiltGeometryKeepsLittleSlack() {
+        StreamingGeometryBuilder<C2D> builder = new StreamingGeometryBuilder<>(PROJECTED_2D_METER, 10000);
+        LineString<C2D> small = builder.add(0, 0).add(1, 1).toLineString();
+        assertEquals(4, ((PackedPositionSequence<C2D>) small.getPositions()).arrayLength());
+        for (int i = 0; i < 3000; i++) {
+            builder.add(i, i);
+        }
+        PackedPositionSequence<C2D> large = (PackedPositionSequence<C2D>) builder.toLineString().getPositions();
+        assertEquals(6000, large.length());
+        assertTrue(large.arrayLength() - large.length() <= 1024);
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testPartDoesNotReadNextPart() {
+        StreamingGeometryBuilder<C2D> builder = new StreamingGeometryBuilder<>(PROJECTED_2D_METER);
+        builder.add(0, 0).add(1, 1).endPart().add(5, 5).add(6, 6);
+        builder.toMultiLineString().getGeometryN(0).getPositions().getPositionN(2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testIncompletePosition() {
+        new StreamingGeometryBuilder<>(PROJECTED_2D_METER).addAll(new double[]{1, 2, 3}, 0, 3).endPart();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOpenRing() {
+        new StreamingGeometryBuilder<>(PROJECTED_2D_METER).add(0, 0).add(1, 0).add(1, 1).add(0, 1).toPolygon();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSeveralPartsForLineString() {
+        new StreamingGeometryBuilder<>(PROJECTED_2D_METER).add(0, 0).add(1, 0).endPart().add(1, 1).add(0, 1)
+                .toLineString();
+    }
+}
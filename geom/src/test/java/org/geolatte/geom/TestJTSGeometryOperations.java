@@ -24,9 +24,15 @@ package org.geolatte.geom;
 import org.geolatte.geom.crs.CoordinateReferenceSystem;
 import org.geolatte.geom.crs.CoordinateReferenceSystems;
 import org.geolatte.geom.crs.CrsRegistry;
+import org.geolatte.geom.generator.Generator;
+import org.geolatte.geom.generator.GeometryGenerators;
 import org.geolatte.geom.jts.JTS;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 import static org.geolatte.geom.builder.DSL.*;
 import static org.junit.Assert.*;
 
@@ -74,6 +80,37 @@ public class TestJTSGeometryOperations {
     }
 
 
+    @Test
+    public void testPreparedPredicatesMatchOps() {
+        Polygon<C2D> polygon = polygon(ring(crs, c(0, 0), c(0, 4), c(4, 4), c(4, 0), c(0, 0)));
+        PreparedGeometry<C2D> prepared = ops.prepare(polygon);
+        assertSame(polygon, prepared.getGeometry());
+        List<Geometry<C2D>> others = Arrays.asList(
+                point(crs, c(1, 1)),
+                point(crs, c(0, 2)),
+                point(crs, c(5, 5)),
+                linestring(crs, c(1, 1), c(1, 2)),
+                linestring(crs, c(2, 2), c(6, 2)),
+                polygon(ring(crs, c(2, 2), c(2, 6), c(6, 6), c(6, 2), c(2, 2))),
+                polygon(ring(crs, c(4, 0), c(4, 4), c(8, 4), c(8, 0), c(4, 0))),
+                new Point<>(crs)
+        );
+        for (Geometry<C2D> other : others) {
+            assertEquals(ops.intersects(polygon, other), prepared.intersects(other));
+            assertEquals(ops.touches(polygon, other), prepared.touches(other));
+            assertEquals(ops.crosses(polygon, other), prepared.crosses(other));
+            assertEquals(ops.contains(polygon, other), prepared.contains(other));
+            assertEquals(ops.overlaps(polygon, other), prepared.overlaps(other));
+            assertEquals(ops.relates(polygon, other, "T********"), prepared.relates(other, "T********"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPreparedPredicateRequiresSameCrs() {
+        Polygon<C2D> polygon = polygon(ring(crs, c(0, 0), c(0, 4), c(4, 4), c(4, 0), c(0, 0)));
+        ops.prepare(polygon).intersects(point(l72, c(1, 1)));
+    }
+
     @Test
     public void testContainsOp() {
         LineString<C2D> lineString = linestring(crs, c(1, 1), c(1, 2));
@@ -204,6 +241,135 @@ public class TestJTSGeometryOperations {
 
     }
 
+    @Test
+    public void testMeasuresMatchJTS() {
+        Random random = new Random(21);
+        Box<C2D> box = new Box<>(c(0, 0), c(1000, 1000), crs);
+        Generator<MultiLineString<C2D>> lines = GeometryGenerators.multiLineString(3, 12, box, random);
+        for (int i = 0; i < 50; i++) {
+            MultiPolygon<C2D> mp = multipolygon(star(random, 100, 100, i % 2 == 0), star(random, 400, 100, true),
+                    star(random, 100, 400, false));
+            org.locationtech.jts.geom.Geometry jts = JTS.to(mp);
+            assertEquals(jts.getArea(), ops.area(mp), 1e-6);
+            assertEquals(jts.getLength(), PlanarMeasures.length(mp), 1e-6);
+            Point<C2D> centroid = ops.centroid(mp);
+            assertEquals(jts.getCentroid().getX(), centroid.getPosition().getX(), 1e-6);
+            assertEquals(jts.getCentroid().getY(), centroid.getPosition().getY(), 1e-6);
+            MultiLineString<C2D> ml = lines.generate();
+            assertEquals(JTS.to(ml).getLength(), ops.length(ml), 1e-6);
+        }
+    }
+
+    @Test
+    public void testMeasuresOfViewsMatchJTS() {
+        Random random = new Random(23);
+        for (int i = 0; i < 20; i++) {
+            // rings that are views at an offset in the backing array of the builder
+            StreamingGeometryBuilder<C2D> builder = new StreamingGeometryBuilder<>(crs);
+            for (Polygon<C2D> star : Arrays.asList(star(random, 100, 100, true), star(random, 400, 100, false))) {
+                for (LinearRing<C2D> ring : star.components()) {
+                    for (C2D position : ring.getPositions()) {
+                        builder.add(position.getX(), position.getY());
+                    }
+                    builder.endPart();
+                }
+                builder.endPolygon();
+            }
+            MultiPolygon<C2D> mp = builder.toMultiPolygon();
+            assertTrue(mp.getGeometryN(1).getExteriorRing().getPositions() instanceof PackedPositionSequence);
+            org.locationtech.jts.geom.Geometry jts = JTS.to(mp);
+            assertEquals(jts.getArea(), ops.area(mp), 1e-6);
+            assertEquals(jts.getLength(), PlanarMeasures.length(mp), 1e-6);
+            assertEquals(jts.getCentroid().getX(), ops.centroid(mp).getPosition().getX(), 1e-6);
+            assertEquals(jts.getCentroid().getY(), ops.centroid(mp).getPosition().getY(), 1e-6);
+            Polygon<C2D> other = star(random, 250, 300, false);
+            assertEquals(jts.distance(JTS.to(other)), ops.distance(mp, other), 1e-6);
+            assertEquals(jts.distance(JTS.to(other)), ops.distance(other, mp), 1e-6);
+        }
+    }
+
+    @Test
+    public void testMeasuresOfFlatSequencesMatchJTS() {
+        // two polygons, the second with a hole, whose rings share one coordinates array
+        double[] coordinates = {0, 0, 4, 0, 4, 4, 0, 0, 10, 10, 20, 10, 20, 20, 10, 20, 10, 10,
+                12, 12, 12, 14, 14, 14, 12, 12};
+        MultiPolygon<C2D> mp = Geometries.mkMultiPolygon(coordinates, new int[]{0, 4, 9, 13}, new int[]{0, 1, 3},
+                crs);
+        MultiLineString<C2D> ml = Geometries.mkMultiLineString(coordinates, new int[]{0, 4, 9, 13}, crs);
+        assertNotNull(((NestedPositionSequence<C2D>) mp.getPositions()).flat());
+        assertNotNull(((NestedPositionSequence<C2D>) ml.getPositions()).flat());
+        org.locationtech.jts.geom.Geometry jts = JTS.to(mp);
+        assertEquals(jts.getArea(), ops.area(mp), 1e-9);
+        assertEquals(jts.getLength(), PlanarMeasures.length(mp), 1e-9);
+        assertEquals(JTS.to(ml).getLength(), ops.length(ml), 1e-9);
+        assertEquals(jts.getCentroid().getX(), ops.centroid(mp).getPosition().getX(), 1e-9);
+        assertEquals(jts.getCentroid().getY(), ops.centroid(mp).getPosition().getY(), 1e-9);
+        Point<C2D> inHole = point(crs, c(13, 13.5));
+        assertEquals(JTS.to(inHole).distance(jts), ops.distance(inHole, mp), 1e-9);
+        assertEquals(JTS.to(inHole).distance(JTS.to(ml)), ops.distance(ml, inHole), 1e-9);
+    }
+
+    @Test
+    public void testDistanceMatchesJTS() {
+        Random random = new Random(22);
+        Box<C2D> box = new Box<>(c(0, 0), c(1000, 1000), crs);
+        Generator<Geometry<C2D>> generator = GeometryGenerators.combine(Arrays.asList(
+                GeometryGenerators.point(box, random),
+                GeometryGenerators.lineString(10, box, random),
+                GeometryGenerators.multiPoint(5, box, random),
+                GeometryGenerators.polygon(8, new Box<>(c(0, 0), c(300, 300), crs), random),
+                GeometryGenerators.multiPolygon(2, 6, new Box<>(c(500, 500), c(1000, 1000), crs), random)));
+        for (int i = 0; i < 200; i++) {
+            Geometry<C2D> geometry = generator.generate();
+            Geometry<C2D> other = generator.generate();
+            assertEquals(JTS.to(geometry).distance(JTS.to(other)), ops.distance(geometry, other), 1e-6);
+        }
+    }
+
+    @Test
+    public void testDistanceToPolygonWithHole() {
+        Polygon<C2D> pg = polygon(crs, ring(c(0, 0), c(10, 0), c(10, 10), c(0, 10), c(0, 0)),
+                ring(c(2, 2), c(2, 8), c(8, 8), c(8, 2), c(2, 2)));
+        assertEquals(0, ops.distance(pg, point(crs, c(1, 5))), 0);
+        assertEquals(2, ops.distance(pg, point(crs, c(5, 4))), 0);
+        assertEquals(1, ops.distance(pg, linestring(crs, c(4, 4), c(5, 7))), 0);
+        assertEquals(0, ops.distance(multipolygon(pg), polygon(crs, ring(c(-1, -1), c(20, -1), c(20, 20),
+                c(-1, -1)))), 0);
+        assertEquals(0, ops.distance(pg, new Point<>(crs)), 0);
+    }
+
+    @Test
+    public void testCentroidIsInCrsOfGeometry() {
+        CoordinateReferenceSystem<C2DM> crsM = CoordinateReferenceSystems.PROJECTED_2DM_METER;
+        Polygon<C2DM> pg = polygon(crsM, ring(cM(0, 0, 1), cM(4, 0, 2), cM(4, 2, 3), cM(0, 2, 4), cM(0, 0, 1)));
+        Point<C2DM> centroid = ops.centroid(pg);
+        assertEquals(crsM, centroid.getCoordinateReferenceSystem());
+        assertEquals(2, centroid.getPosition().getX(), 0);
+        assertEquals(1, centroid.getPosition().getY(), 0);
+        assertTrue(Double.isNaN(centroid.getPosition().getM()));
+        assertTrue(ops.centroid(new Polygon<>(crsM)).isEmpty());
+        // a polygon without area has the centroid of its boundary
+        Polygon<C2D> flat = polygon(crs, ring(c(0, 0), c(4, 0), c(2, 0), c(0, 0)));
+        assertEquals(point(crs, c(2, 0)), ops.centroid(flat));
+    }
+
+    // a star-shaped polygon around (x, y), with a star-shaped hole
+    private static Polygon<C2D> star(Random random, double x, double y, boolean withHole) {
+        int n = 5 + random.nextInt(20);
+        C2D[] shell = new C2D[n + 1];
+        C2D[] hole = new C2D[n + 1];
+        for (int i = 0; i < n; i++) {
+            double angle = 2 * Math.PI * i / n;
+            double r = 50 + random.nextDouble() * 50;
+            shell[i] = c(x + r * Math.cos(angle), y + r * Math.sin(angle));
+            r = 10 + random.nextDouble() * 30;
+            hole[n - 1 - i] = c(x + r * Math.cos(angle), y + r * Math.sin(angle));
+        }
+        shell[n] = shell[0];
+        hole[n] = hole[0];
+        return withHole ? polygon(crs, ring(shell), ring(hole)) : polygon(crs, ring(shell));
+    }
+
     //TODO -- fix these unit tests (they no longer belong in this class).
 
 //
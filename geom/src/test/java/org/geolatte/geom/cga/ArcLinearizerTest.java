@@ -0,0 +1,128 @@
+package org.geolatte.geom.cga;
+
+import org.geolatte.geom.C2D;
+import org.geolatte.geom.C3DM;
+import org.geolatte.geom.PositionSequence;
+import org.geolatte.geom.support.generator.CircleGenerator;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link ArcLinearizer}
+ */
+public class ArcLinearizerTest {
+
+    private static final double THRESHOLD = 0.0001;
+
+    private final CircleGenerator cgen = new CircleGenerator(-100, 100, 100);
+    private final ArcLinearizer linearizer = new ArcLinearizer(THRESHOLD);
+
+    @Test
+    public void testSameResultAsCircularArcLinearizer() {
+        for (int i = 0; i < 100; i++) {
+            ThreePointSample p = new ThreePositionsOnCircleGenerator(cgen.sample()).sample();
+            C2D p0 = p.positions[0];
+            C2D p1 = p.positions[1];
+            C2D p2 = p.positions[2];
+            assertSameSequence(new CircularArcLinearizer<>(p0, p1, p2, THRESHOLD).linearize(),
+                    linearizer.linearize(p0, p1, p2));
+            assertSameSequence(new CircularArcLinearizer<>(p2, p1, p0, THRESHOLD).linearize(),
+                    linearizer.linearize(p2, p1, p0));
+            assertSameSequence(new CircularArcLinearizer<>(p0, p1, p2, THRESHOLD).linearizeCircle(),
+                    linearizer.linearizeCircle(p0, p1, p2));
+        }
+    }
+
+    @Test
+    public void testPackedArcInterpolatesHigherDimensions() {
+        // a counterclockwise half circle of radius 10, with z and m going from 0 to 20
+        double[] arc = {-1, -1, -1, -1, 0, 10, 0, 0, 10, 0, 10, 10, 20, 10, 20, 20};
+        double[] result = linearizer.linearize(arc, 4, 4);
+        int size = result.length / 4;
+        assertArrayEquals(new double[]{0, 10, 0, 0}, copyOfPosition(result, 0), 0);
+        assertArrayEquals(new double[]{20, 10, 20, 20}, copyOfPosition(result, size - 1), 0);
+        double previousZ = -1;
+        for (int i = 0; i < size; i++) {
+            double x = result[4 * i], y = result[4 * i + 1];
+            assertEquals(10, Math.hypot(x - 10, y - 10), THRESHOLD);
+            assertTrue(result[4 * i + 2] > previousZ);
+            assertEquals(result[4 * i + 2], result[4 * i + 3], 1e-9);
+            previousZ = result[4 * i + 2];
+        }
+        assertSameSequence(new CircularArcLinearizer<>(new C3DM(0, 10, 0, 0), new C3DM(10, 0, 10, 10),
+                        new C3DM(20, 10, 20, 20), THRESHOLD).linearize(),
+                linearizer.linearize(new C3DM(0, 10, 0, 0), new C3DM(10, 0, 10, 10), new C3DM(20, 10, 20, 20)));
+        assertSameSequence(new CircularArcLinearizer<>(new C3DM(20, 10, 20, 20), new C3DM(10, 0, 10, 10),
+                        new C3DM(0, 10, 0, 0), THRESHOLD).linearize(),
+                linearizer.linearize(new C3DM(20, 10, 20, 20), new C3DM(10, 0, 10, 10), new C3DM(0, 10, 0, 0)));
+    }
+
+    @Test
+    public void testMaxSegments() {
+        C2D p0 = new C2D(0, 10);
+        C2D p1 = new C2D(10, 20);
+        C2D p2 = new C2D(20, 10);
+        assertTrue(linearizer.linearize(p0, p1, p2).size() > 100);
+        PositionSequence<C2D> capped = linearizer.withMaxSegments(8).linearize(p0, p1, p2);
+        assertEquals(9, capped.size());
+        assertEquals(p0, capped.getPositionN(0));
+        assertEquals(p1, capped.getPositionN(4));
+        assertEquals(p2, capped.getPositionN(8));
+        assertEquals(3, linearizer.withMaxSegments(2).linearize(p0, p1, p2).size());
+    }
+
+    @Test
+    public void testCachedResultsAreCopies() {
+        ArcLinearizer cached = linearizer.withCache(10);
+        double[] arc = {0, 10, 10, 20, 20, 10};
+        double[] first = cached.linearize(arc, 0, 2);
+        first[2] = Double.NaN;
+        double[] second = cached.linearize(arc, 0, 2);
+        assertArrayEquals(linearizer.linearize(arc, 0, 2), second, 0);
+        // same arc, other kind of linearization
+        assertEquals(linearizer.linearizeCircle(arc, 0, 2).length, cached.linearizeCircle(arc, 0, 2).length);
+        for (int i = 0; i < 20; i++) {
+            cached.linearize(new double[]{0, 10, 10, 20 + i, 20, 10}, 0, 2);
+        }
+        assertArrayEquals(second, cached.linearize(arc, 0, 2), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCollinearPositionsAreRejected() {
+        linearizer.linearize(new C2D(0, 0), new C2D(1, 1), new C2D(2, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroThresholdIsRejected() {
+        new ArcLinearizer(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeThresholdIsRejected() {
+        new ArcLinearizer(-0.1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAtLeastTwoSegments() {
+        linearizer.withMaxSegments(1);
+    }
+
+    private static double[] copyOfPosition(double[] coordinates, int index) {
+        double[] position = new double[4];
+        System.arraycopy(coordinates, 4 * index, position, 0, 4);
+        return position;
+    }
+
+    private static <P extends org.geolatte.geom.Position> void assertSameSequence(PositionSequence<P> expected,
+                                                                                 PositionSequence<P> received) {
+        assertEquals(expected.size(), received.size());
+        double[] e = new double[expected.getCoordinateDimension()];
+        double[] r = new double[expected.getCoordinateDimension()];
+        for (int i = 0; i < expected.size(); i++) {
+            expected.getCoordinates(i, e);
+            received.getCoordinates(i, r);
+            assertArrayEquals(e, r, 1e-9);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.geolatte.geom.cga;
+
+import org.geolatte.geom.*;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.geolatte.geom.builder.DSL.*;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.PROJECTED_2DM_METER;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.PROJECTED_2D_METER;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link Simplifier}
+ */
+public class SimplifierTest {
+
+    private final CoordinateReferenceSystem<C2D> crs = PROJECTED_2D_METER;
+
+    @Test
+    public void testDouglasPeucker() {
+        LineString<C2D> line = linestring(crs, c(0, 0), c(1, 0.1), c(2, -0.1), c(3, 5), c(4, 6), c(5, 7), c(6, 8.1),
+                c(7, 9), c(8, 9), c(9, 9));
+        assertEquals(linestring(crs, c(0, 0), c(2, -0.1), c(3, 5), c(7, 9), c(9, 9)),
+                Simplifier.douglasPeucker(0.5).simplify(line));
+        LineString<C2D> zigzag = linestring(crs, c(0, 0), c(1, 1), c(2, 0));
+        assertSame(zigzag, Simplifier.douglasPeucker(0.5).simplify(zigzag));
+    }
+
+    @Test
+    public void testPackedDouglasPeucker() {
+        double[] coordinates = {0, 0, 0, 1, 0.1, 1, 2, 0, 2, 3, 3, 3, 4, 0, 4};
+        assertArrayEquals(new boolean[]{true, false, true, true, true},
+                Simplifier.douglasPeucker(coordinates, 5, 3, 0.5));
+    }
+
+    @Test
+    public void testVisvalingamWhyatt() {
+        // the triangles have areas 0.2, 0.2, 0.2 and 2.6
+        LineString<C2D> line = linestring(crs, c(0, 0), c(1, 0.2), c(2, 0), c(3, 0.2), c(4, 0), c(5, 5));
+        assertEquals(linestring(crs, c(0, 0), c(4, 0), c(5, 5)),
+                Simplifier.visvalingamWhyatt(1).simplify(line));
+        assertEquals(linestring(crs, c(0, 0), c(5, 5)), Simplifier.visvalingamWhyatt(10).simplify(line));
+    }
+
+    @Test
+    public void testMeasuresAreKept() {
+        LineString<C2DM> line = linestring(PROJECTED_2DM_METER, cM(0, 0, 0), cM(1, 0.1, 1), cM(2, 0, 2),
+                cM(2, 5, 7));
+        LineString<C2DM> expected = linestring(PROJECTED_2DM_METER, cM(0, 0, 0), cM(2, 0, 2), cM(2, 5, 7));
+        assertEquals(expected, Simplifier.douglasPeucker(0.5).simplify(line));
+        assertEquals(expected, Simplifier.visvalingamWhyatt(0.5).simplify(line));
+    }
+
+    @Test
+    public void testCollapsedRingsAreRemoved() {
+        Polygon<C2D> polygon = polygon(crs, ring(c(0, 0), c(10, 0), c(10, 10), c(0, 10), c(0, 0)),
+                ring(c(2, 2), c(2.1, 2.1), c(2.2, 2), c(2, 2)));
+        Polygon<C2D> simplified = Simplifier.douglasPeucker(1).simplify(polygon);
+        assertEquals(polygon(crs, ring(c(0, 0), c(10, 0), c(10, 10), c(0, 10), c(0, 0))), simplified);
+
+        MultiPolygon<C2D> multiPolygon = multipolygon(polygon,
+                polygon(crs, ring(c(20, 0), c(20.1, 0.1), c(20.2, 0), c(20, 0))));
+        assertEquals(multipolygon(simplified), Simplifier.douglasPeucker(1).simplify(multiPolygon));
+        assertTrue(Simplifier.visvalingamWhyatt(100).simplify(multiPolygon).isEmpty());
+    }
+
+    @Test
+    public void testTopologyPreservingKeepsRings() {
+        Polygon<C2D> polygon = polygon(crs, ring(c(0, 0), c(1, 0), c(2, 0), c(2, 1), c(2, 2), c(1, 2), c(0, 2),
+                c(0, 1), c(0, 0)));
+        for (Simplifier simplifier : new Simplifier[]{Simplifier.douglasPeucker(100),
+                Simplifier.visvalingamWhyatt(100)}) {
+            assertTrue(simplifier.simplify(polygon).isEmpty());
+            Polygon<C2D> simplified = simplifier.preservingTopology().simplify(polygon);
+            // both algorithms reduce the ring to a triangle
+            assertEquals(4, simplified.getExteriorRing().getNumPositions());
+        }
+    }
+
+    @Test
+    public void testTopologyPreservingAvoidsCrossings() {
+        // the hole lies close to the exterior ring, and ends up outside of it without topology preservation
+        Polygon<C2D> polygon = polygon(crs,
+                ring(c(0, 0), c(5, 1), c(10, 0), c(10, 10), c(0, 10), c(0, 0)),
+                ring(c(4, 0.5), c(6, 0.5), c(5, 0.6), c(4, 0.5)));
+        for (Simplifier simplifier : new Simplifier[]{Simplifier.douglasPeucker(2),
+                Simplifier.visvalingamWhyatt(3)}) {
+            Polygon<C2D> plain = simplifier.simplify(polygon);
+            assertEquals(5, plain.getExteriorRing().getNumPositions());
+            Polygon<C2D> preserved = simplifier.preservingTopology().simplify(polygon);
+            assertEquals(polygon.getExteriorRing(), preserved.getExteriorRing());
+            assertEquals(1, preserved.getNumInteriorRing());
+        }
+    }
+
+    @Test
+    public void testTopologyPreservingRandomLinesDoNotCross() {
+        Random random = new Random(17);
+        // two close lines, the second one always above the first
+        C2D[] below = new C2D[500];
+        C2D[] above = new C2D[500];
+        for (int i = 0; i < below.length; i++) {
+            double y = 5 * Math.sin(i * 0.02) + random.nextDouble() * 0.4;
+            below[i] = c(i * 0.1, y);
+            above[i] = c(i * 0.1, y + 0.2 + random.nextDouble() * 0.2);
+        }
+        MultiLineString<C2D> lines = multilinestring(linestring(crs, below), linestring(crs, above));
+        for (Simplifier simplifier : new Simplifier[]{Simplifier.douglasPeucker(1.5),
+                Simplifier.visvalingamWhyatt(1.5)}) {
+            MultiLineString<C2D> plain = simplifier.simplify(lines);
+            assertTrue(intersects(plain));
+            MultiLineString<C2D> simplified = simplifier.preservingTopology().simplify(lines);
+            assertTrue(simplified.getNumPositions() < lines.getNumPositions() / 2);
+            assertFalse(intersects(simplified));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeToleranceIsRejected() {
+        Simplifier.douglasPeucker(-1);
+    }
+
+    private static boolean intersects(MultiLineString<C2D> lines) {
+        return ProjectedGeometryOperations.Default.intersects(lines.getGeometryN(0), lines.getGeometryN(1));
+    }
+}
@@ -0,0 +1,138 @@
+package org.geolatte.geom.codec;
+
+import org.geolatte.geom.*;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.crs.CoordinateReferenceSystems;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.geolatte.geom.builder.DSL.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link MvtEncoder} and {@link MvtDecoder} against the examples of the vector tile specification.
+ *
+ * <p>The tile bounds are chosen so that world and tile coordinates coincide, apart from the flipped Y-axis.</p>
+ */
+public class TestMvtEncoderDecoder {
+
+    private static final int EXTENT = 4096;
+
+    private final CoordinateReferenceSystem<C2D> crs = CoordinateReferenceSystems.PROJECTED_2D_METER;
+    private final Envelope<C2D> bounds = new Envelope<>(0, 0, EXTENT, EXTENT, crs);
+    private final MvtEncoder<C2D> encoder = new MvtEncoder<>(bounds, EXTENT);
+    private final MvtDecoder<C2D> decoder = new MvtDecoder<>(bounds, EXTENT);
+
+    @Test
+    public void testPoint() {
+        Point<C2D> point = point(crs, t(25, 17));
+        assertEncodes(point, 9, 50, 34);
+        assertEquals(MvtGeometryType.POINT, MvtEncoder.geometryType(point));
+    }
+
+    @Test
+    public void testMultiPoint() {
+        assertEncodes(multipoint(point(crs, t(5, 7)), point(crs, t(3, 2))), 17, 10, 14, 3, 9);
+    }
+
+    @Test
+    public void testLineString() {
+        assertEncodes(linestring(crs, t(2, 2), t(2, 10), t(10, 10)), 9, 4, 4, 18, 0, 16, 16, 0);
+    }
+
+    @Test
+    public void testMultiLineString() {
+        assertEncodes(multilinestring(linestring(crs, t(2, 2), t(2, 10), t(10, 10)), linestring(crs, t(1, 1),
+                t(3, 5))), 9, 4, 4, 18, 0, 16, 16, 0, 9, 17, 17, 10, 4, 8);
+    }
+
+    @Test
+    public void testPolygon() {
+        assertEncodes(polygon(crs, ring(t(3, 6), t(8, 12), t(20, 34), t(3, 6))), 9, 6, 12, 18, 10, 12, 24, 44, 15);
+    }
+
+    @Test
+    public void testMultiPolygon() {
+        MultiPolygon<C2D> multiPolygon = multipolygon(
+                polygon(crs, ring(t(0, 0), t(10, 0), t(10, 10), t(0, 10), t(0, 0))),
+                polygon(crs, ring(t(11, 11), t(20, 11), t(20, 20), t(11, 20), t(11, 11)),
+                        ring(t(13, 13), t(13, 17), t(17, 17), t(17, 13), t(13, 13))));
+        assertEncodes(multiPolygon, 9, 0, 0, 26, 20, 0, 0, 20, 19, 0, 15, 9, 22, 2, 26, 18, 0, 0, 18, 17, 0, 15, 9,
+                4, 13, 26, 0, 8, 8, 0, 0, 7, 15);
+    }
+
+    @Test
+    public void testRingsAreReoriented() {
+        // both rings have the wrong orientation for the specification
+        Polygon<C2D> polygon = polygon(crs, ring(t(0, 0), t(0, 10), t(10, 10), t(10, 0), t(0, 0)),
+                ring(t(2, 2), t(4, 2), t(4, 4), t(2, 4), t(2, 2)));
+        encoder.encode(polygon);
+        Geometry<C2D> decoded = decoder.decode(encoder.toArray(), MvtGeometryType.POLYGON);
+        assertTrue(decoded instanceof Polygon);
+        assertEquals(1, ((Polygon<C2D>) decoded).getNumInteriorRing());
+        assertEquals(100 - 4, ProjectedGeometryOperations.Default.area((Polygon<C2D>) decoded), 0);
+    }
+
+    @Test
+    public void testRoundTripInOtherBounds() {
+        Envelope<C2D> tile = new Envelope<>(1000, 2000, 1100, 2100, crs);
+        MvtEncoder<C2D> enc = new MvtEncoder<>(tile);
+        MvtDecoder<C2D> dec = new MvtDecoder<>(tile);
+        LineString<C2D> line = linestring(crs, c(1000, 2000), c(1050, 2025), c(1100, 2100));
+        enc.encode(line);
+        assertEquals(line, dec.decode(enc.toArray(), MvtGeometryType.LINESTRING));
+
+        // positions that coincide in tile coordinates are dropped, collapsed linestrings are left out
+        LineString<C2D> dense = linestring(crs, c(1000, 2000), c(1000.001, 2000.001), c(1010, 2010));
+        enc.encode(dense);
+        assertEquals(2, dec.decode(enc.toArray(), MvtGeometryType.LINESTRING).getNumPositions());
+        assertEquals(0, enc.encode(linestring(crs, c(1000, 2000), c(1000.001, 2000.001))));
+    }
+
+    @Test
+    public void testBufferIsReused() throws IOException {
+        int[] buffer = encoder.getBuffer();
+        encoder.encode(linestring(crs, t(2, 2), t(2, 10), t(10, 10)));
+        encoder.encode(point(crs, t(25, 17)));
+        assertSame(buffer, encoder.getBuffer());
+        assertEquals(3, encoder.size());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeTo(out);
+        assertArrayEquals(new byte[]{9, 50, 34}, out.toByteArray());
+        assertEquals(3, encoder.getVarintSize());
+    }
+
+    @Test(expected = UnsupportedConversionException.class)
+    public void testGeometryCollectionIsRejected() {
+        encoder.encode(geometrycollection(point(crs, t(1, 1))));
+    }
+
+    @Test
+    public void testMalformedCommandsAreRejected() {
+        int[][] malformed = {{9, 50}, {18, 0, 16}, {9, 6, 12, 18, 10, 12, 24, 44}, {9, 6, 12, 15, 15}, {4}};
+        MvtGeometryType[] types = {MvtGeometryType.POINT, MvtGeometryType.LINESTRING, MvtGeometryType.POLYGON,
+                MvtGeometryType.POLYGON, MvtGeometryType.LINESTRING};
+        for (int i = 0; i < malformed.length; i++) {
+            try {
+                decoder.decode(malformed[i], types[i]);
+                fail("Expected an MvtDecodeException for case " + i);
+            } catch (MvtDecodeException e) {
+                // expected
+            }
+        }
+    }
+
+    private void assertEncodes(Geometry<C2D> geometry, int... expected) {
+        assertEquals(expected.length, encoder.encode(geometry));
+        assertArrayEquals(expected, encoder.toArray());
+        assertEquals(geometry, decoder.decode(expected, MvtEncoder.geometryType(geometry)));
+    }
+
+    // the position with the specified tile coordinates
+    private static C2D t(double x, double y) {
+        return c(x, EXTENT - y);
+    }
+}
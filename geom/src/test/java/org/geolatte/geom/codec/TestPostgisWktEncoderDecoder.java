@@ -26,6 +26,8 @@ import org.geolatte.geom.crs.*;
 import org.geolatte.geom.codec.testcases.PostgisTestCases;
 import org.junit.Test;
 
+import java.io.Writer;
+
 import static junit.framework.Assert.assertNotNull;
 import static org.geolatte.geom.crs.CoordinateReferenceSystems.*;
 import static org.junit.Assert.assertEquals;
@@ -345,6 +347,40 @@ public class TestPostgisWktEncoderDecoder {
         assertTrue(geom.getGeometryType() == GeometryType.POINT);
     }
 
+    @Test
+    public void testEncodeToWriterStreamsTokens() throws Exception {
+        String wkt = testcases.getWKT(PostgisTestCases.MULTIPOLYGON_2D);
+        Geometry<?> geom = decode(wkt);
+        StringBuilder written = new StringBuilder();
+        int[] maxWrite = new int[1];
+        Writer writer = new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) {
+                written.append(cbuf, off, len);
+                maxWrite[0] = Math.max(maxWrite[0], len);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        new PostgisWktEncoder().encode(geom, writer);
+        assertEquals(wkt, written.toString());
+        assertTrue(maxWrite[0] < 32);
+    }
+
+    @Test
+    public void testDefaultSridIsKeptWhenNotRegistered() {
+        WktDecoder decoder = Wkt.newDecoder(Wkt.Dialect.POSTGIS_EWKT_1);
+        assertEquals(987654, decoder.decode("POINT(1 2)", 987654).getSRID());
+        assertEquals(987655, decoder.decode(new StringBuilder("LINESTRING(1 2,3 4)"), 987655).getSRID());
+        assertEquals(31370, decoder.decode("SRID=31370;POINT(1 2)", 987654).getSRID());
+    }
+
     private Geometry decode(String wkt) {
         WktDecoder dec = Wkt.newDecoder(Wkt.Dialect.POSTGIS_EWKT_1);
         return dec.decode(wkt);
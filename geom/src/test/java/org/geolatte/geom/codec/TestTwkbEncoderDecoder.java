@@ -0,0 +1,129 @@
+package org.geolatte.geom.codec;
+
+import org.geolatte.geom.*;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.crs.CoordinateReferenceSystems;
+import org.junit.Test;
+
+import static org.geolatte.geom.builder.DSL.*;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.WGS84;
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link TwkbEncoder} and {@link TwkbDecoder}, partly against the output of PostGIS' ST_AsTWKB.
+ */
+public class TestTwkbEncoderDecoder {
+
+    private final CoordinateReferenceSystem<C2D> crs = CoordinateReferenceSystems.PROJECTED_2D_METER;
+    private final CoordinateReferenceSystem<C3DM> crs3DM = CoordinateReferenceSystems.PROJECTED_3DM_METER;
+    private final TwkbEncoder encoder = new TwkbEncoder().withPrecision(0);
+    private final TwkbDecoder decoder = new TwkbDecoder();
+
+    @Test
+    public void testPostgisExamples() {
+        assertEquals("01000204", encoder.encode(point(crs, c(1, 2))).toString());
+        assertEquals("02000202020808", encoder.encode(linestring(crs, c(1, 1), c(5, 5))).toString());
+        assertTrue(Wkb.newEncoder(Wkb.Dialect.TWKB) instanceof TwkbEncoder);
+        assertEquals(point(crs, c(1, 2)), Wkb.fromWkb(ByteBuffer.from("01000204"), Wkb.Dialect.TWKB));
+    }
+
+    @Test
+    public void testBoundingBoxAndSize() {
+        ByteBuffer twkb = encoder.withBoundingBox(true).withSize(true).encode(point(crs, c(1, 2)));
+        assertEquals("010306020004000204", twkb.toString());
+        assertEquals(point(crs, c(1, 2)), decoder.decode(twkb, crs));
+
+        MultiPolygon<C2D> multiPolygon = multipolygon(
+                polygon(crs, ring(c(0, 0), c(10, 0), c(10, 10), c(0, 10), c(0, 0))),
+                polygon(crs, ring(c(20, 20), c(30, 20), c(30, 30), c(20, 20))));
+        assertEquals(multiPolygon, decoder.decode(encoder.withBoundingBox(true).withSize(true).encode(multiPolygon),
+                crs));
+    }
+
+    @Test
+    public void testRoundTrips() {
+        TwkbEncoder precise = new TwkbEncoder().withPrecision(3, 2, 1);
+        Geometry<?>[] geometries = {
+                point(crs, c(1.234, -5.678)),
+                linestring(crs, c(0.001, 0.002), c(100.5, 200.25), c(-3, -4)),
+                polygon(crs, ring(c(0, 0), c(10, 0), c(10, 10), c(0, 10), c(0, 0)),
+                        ring(c(2, 2), c(2, 4), c(4, 4), c(4, 2), c(2, 2))),
+                multipoint(point(crs, c(1, 1)), point(crs, c(2, 3))),
+                multilinestring(linestring(crs, c(0, 0), c(1, 1)), linestring(crs, c(5, 5), c(6, 7), c(8, 8))),
+                geometrycollection(point(crs, c(1, 1)), linestring(crs, c(0, 0), c(1, 1))),
+                linestring(crs3DM, c(1.5, 2.5, 3.25, 0.5), c(4, 5, 6.75, 1.5)),
+                new LineString<>(crs),
+                new Point<>(crs),
+                new Polygon<>(crs3DM)
+        };
+        for (Geometry<?> geometry : geometries) {
+            Geometry<?> decoded = decoder.decode(precise.encode(geometry), geometry.getCoordinateReferenceSystem());
+            assertEquals(geometry, decoded);
+        }
+    }
+
+    @Test
+    public void testDimensionsWithoutCrs() {
+        LineString<C3DM> line = linestring(crs3DM, c(1, 2, 3, 4), c(5, 6, 7, 8));
+        Geometry<?> decoded = decoder.decode(encoder.encode(line));
+        assertTrue(decoded.hasZ());
+        assertTrue(decoded.hasM());
+        assertEquals(8, decoded.getPositionN(1).getCoordinate(3), 0);
+    }
+
+    @Test
+    public void testPrecision() {
+        Point<C2D> point = point(crs, c(1234.5678, -98.7654));
+        assertEquals(point(crs, c(1200, -100)), decoder.decode(new TwkbEncoder().withPrecision(-2).encode(point), crs));
+        assertEquals(point(crs, c(1234.568, -98.765)), decoder.decode(new TwkbEncoder().encode(point), crs));
+
+        Point<G2D> geographic = point(WGS84, g(4.123456789, 51.987654321));
+        Point<G2D> decoded = (Point<G2D>) decoder.decode(new TwkbEncoder().encode(geographic), WGS84);
+        assertEquals(4.1234568, decoded.getPosition().getLon(), 1e-12);
+        assertEquals(51.9876543, decoded.getPosition().getLat(), 1e-12);
+    }
+
+    @Test
+    public void testIdList() {
+        MultiPoint<C2D> multiPoint = multipoint(point(crs, c(1, 1)), point(crs, c(2, 3)), point(crs, c(4, 5)));
+        ByteBuffer twkb = encoder.encode(multiPoint, new long[]{7, -1, 1L << 40});
+        assertEquals(multiPoint, decoder.decode(twkb, crs));
+        assertArrayEquals(new long[]{7, -1, 1L << 40}, decoder.getIds());
+
+        decoder.decode(encoder.encode(multiPoint), crs);
+        assertNull(decoder.getIds());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIdListMustMatchComponents() {
+        encoder.encode(multipoint(point(crs, c(1, 1)), point(crs, c(2, 3))), new long[]{1});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyPointInMultiPointIsRejected() {
+        encoder.encode(multipoint(point(crs, c(1, 1)), new Point<>(crs)));
+    }
+
+    @Test(expected = WkbDecodeException.class)
+    public void testCountBeyondInputIsRejected() {
+        // a multipoint with an id list and a count of 2^31 - 1, followed by a single id
+        decoder.decode(ByteBuffer.from("0404ffffffff0702"), crs);
+    }
+
+    @Test
+    public void testSmallerThanWkb() {
+        PositionSequenceBuilder<C2D> builder = PositionSequenceBuilders.variableSized(C2D.class);
+        for (int i = 0; i < 1000; i++) {
+            builder.add(150000 + i * 2.5, 200000 + Math.sin(i / 10.0) * 50);
+        }
+        LineString<C2D> line = new LineString<>(builder.toPositionSequence(), crs);
+        int twkbSize = new TwkbEncoder().withPrecision(2).encode(line).limit();
+        int wkbSize = Wkb.toWkb(line).limit();
+        assertTrue(3 * twkbSize < wkbSize);
+    }
+
+    @Test(expected = WkbDecodeException.class)
+    public void testTruncatedTwkbIsRejected() {
+        decoder.decode(ByteBuffer.from("020002020208"), crs);
+    }
+}
@@ -0,0 +1,77 @@
+package org.geolatte.geom.codec.db.db2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Blob;
+import java.sql.SQLException;
+
+import javax.sql.rowset.serial.SerialBlob;
+
+import org.geolatte.geom.G2D;
+import org.geolatte.geom.G3D;
+import org.geolatte.geom.LineString;
+import org.geolatte.geom.Point;
+import org.geolatte.geom.PositionSequenceBuilder;
+import org.geolatte.geom.PositionSequenceBuilders;
+import org.geolatte.geom.codec.Wkb;
+import org.geolatte.geom.crs.LinearUnit;
+
+import org.junit.Test;
+
+import static org.geolatte.geom.builder.DSL.g;
+import static org.geolatte.geom.builder.DSL.linestring;
+import static org.geolatte.geom.builder.DSL.point;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.WGS84;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.addVerticalSystem;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class Db2BlobEncoderDecoderTest {
+
+	@Test
+	public void testEncoding() throws SQLException {
+		Db2BlobEncoder encoder = new Db2BlobEncoder();
+		Point<G2D> g2d = point( WGS84, g( 20.345, 10.234 ) );
+
+		Blob blob = encoder.encode( g2d );
+		byte[] expected = Wkb.toWkb( g2d, Wkb.Dialect.SFA_1_2_1 ).toByteArray();
+		assertArrayEquals( expected, blob.getBytes( 1, (int) blob.length() ) );
+
+	}
+
+	@Test
+	public void testDecodingAssignsDecoderSrid() throws SQLException {
+		Db2BlobDecoder decoder = new Db2BlobDecoder( 4326 );
+		Point<G2D> g2d = point( WGS84, g( 20.345, 10.234 ) );
+		Blob blob = new SerialBlob( Wkb.toWkb( g2d, Wkb.Dialect.SFA_1_2_1 ).toByteArray() );
+
+		assertEquals( g2d, decoder.decode( blob ) );
+
+	}
+
+	@Test
+	public void testRoundTrip3D() {
+		Db2BlobEncoder encoder = new Db2BlobEncoder();
+		Db2BlobDecoder decoder = new Db2BlobDecoder( 4326 );
+		LineString<G3D> line = linestring( addVerticalSystem( WGS84, G3D.class, LinearUnit.METER ), g( 1, 2, 3 ), g( 4, 5, 6 ) );
+
+		assertEquals( line, decoder.decode( encoder.encode( line ) ) );
+
+	}
+
+	@Test
+	public void testEncodingToStreamWritesWkb() throws IOException {
+		Db2BlobEncoder encoder = new Db2BlobEncoder();
+		// large enough to be streamed through several buffers
+		PositionSequenceBuilder<G2D> positions = PositionSequenceBuilders.variableSized( G2D.class );
+		for ( int i = 0; i < 2000; i++ ) {
+			positions.add( i / 100.0, i / 200.0 );
+		}
+		LineString<G2D> line = new LineString<>( positions.toPositionSequence(), WGS84 );
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		encoder.encode( line, out );
+		assertArrayEquals( Wkb.toWkb( line, Wkb.Dialect.SFA_1_2_1 ).toByteArray(), out.toByteArray() );
+
+	}
+}
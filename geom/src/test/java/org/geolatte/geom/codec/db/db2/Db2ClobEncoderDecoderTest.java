@@ -1,9 +1,11 @@
 package org.geolatte.geom.codec.db.db2;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.sql.Clob;
@@ -42,6 +44,26 @@ public class Db2ClobEncoderDecoderTest {
 		assertEquals( g2d, decoder.decode( new TestClob( "SRID=4326;POINT(20.345 10.234)" ) ) );
 
 	}
+
+	@Test
+	public void testDecodingWithoutSridUsesDecoderSrid() {
+		Db2ClobDecoder decoder = new Db2ClobDecoder( 4326 );
+		Point<G2D> g2d = point( WGS84, g( 20.345, 10.234 ) );
+
+		assertEquals( g2d, decoder.decode( new TestClob( "POINT(20.345 10.234)" ) ) );
+
+	}
+
+	@Test
+	public void testEncodingToWriter() throws IOException {
+		Db2ClobEncoder encoder = new Db2ClobEncoder();
+		Point<G2D> g2d = point( WGS84, g( 20.345, 10.234 ) );
+		StringWriter writer = new StringWriter();
+
+		encoder.encode( g2d, writer );
+		assertEquals( "SRID=4326;POINT(20.345 10.234)", writer.toString() );
+
+	}
 }
 
 class TestClob implements Clob {
@@ -0,0 +1,32 @@
+package org.geolatte.geom.codec.db.oracle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A Whitebox test for the primitive SDO_ORDINATE_ARRAY representation
+ */
+public class OrdinatesTest {
+
+    @Test
+    public void testNullOrdinatesAreMappedToNaN() {
+        Ordinates ordinates = new Ordinates(new Double[]{1d, 2d, null});
+        assertArrayEquals(new double[]{1d, 2d, Double.NaN}, ordinates.getOrdinateArray(), 0d);
+        assertEquals(new Ordinates(new double[]{1d, 2d, Double.NaN}), ordinates);
+    }
+
+    @Test
+    public void testAddOrdinates() {
+        Ordinates ordinates = new Ordinates(new double[]{1d, 2d});
+        for (int i = 0; i < 100; i++) {
+            ordinates.addOrdinates(new double[]{i, i});
+        }
+        assertEquals(202, ordinates.size());
+        assertEquals(202, ordinates.getOrdinateArray().length);
+        assertEquals(99d, ordinates.get(201), 0d);
+        assertArrayEquals(new double[]{0d, 0d, 1d}, ordinates.getOrdinatesArray(3, 6), 0d);
+    }
+
+}
@@ -8,6 +8,11 @@ import org.geolatte.geom.codec.testcases.XmlDatabaseCodecTestCases;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -52,6 +57,47 @@ public class TestSqlServerCodec {
         });
     }
 
+    @Test
+    public void testEncodingToBufferAndStream() {
+
+        runTest(new CodecTest() {
+            void run(Integer id, String wkt, int srid, Geometry geom, ByteBuffer expected) {
+                int size = Encoders.encodedSize(geom);
+                java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(size + 3);
+                buffer.put(new byte[3]);
+                Encoders.encode(geom, buffer);
+                assertEquals(size + 3, buffer.position());
+                byte[] fromBuffer = Arrays.copyOfRange(buffer.array(), 3, size + 3);
+                assertTrue(String.format("%d: encoding to buffer fails for ewkt srid=%d;%s", id, srid, wkt),
+                        expected.hasSameContent(ByteBuffer.from(fromBuffer)));
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try {
+                    Encoders.encode(geom, out);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                assertTrue(String.format("%d: encoding to stream fails for ewkt srid=%d;%s", id, srid, wkt),
+                        expected.hasSameContent(ByteBuffer.from(out.toByteArray())));
+            }
+        });
+    }
+
+    @Test
+    public void testDecodingFromBuffer() {
+
+        runTest(new CodecTest() {
+            void run(Integer id, String wkt, int srid, Geometry expected, ByteBuffer bytes) {
+                byte[] raw = bytes.toByteArray();
+                java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(raw.length + 5);
+                buffer.put(new byte[5]).put(raw);
+                buffer.position(5);
+                assertTrue(String.format("%d: decoding from buffer fails for ewkt srid=%d;%s", id, srid, wkt),
+                        geometricEquality.equals(expected, Decoders.decode(buffer)));
+            }
+        });
+    }
+
     void runTest(CodecTest test) {
 
         for (Integer id : testCases.all()) {
@@ -0,0 +1,269 @@
+package org.geolatte.geom.codec.flatgeobuf;
+
+import org.geolatte.geom.*;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.crs.CoordinateReferenceSystems;
+import org.geolatte.geom.crs.LinearUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.geolatte.geom.builder.DSL.*;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.WGS84;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link FlatGeobufWriter} and {@link FlatGeobufReader}
+ */
+public class FlatGeobufTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final CoordinateReferenceSystem<C2D> crs = CoordinateReferenceSystems.PROJECTED_2D_METER;
+
+    @Test
+    public void testRoundTripOfGeometriesAndProperties() throws IOException {
+        List<Geometry<C2D>> geometries = Arrays.asList(
+                point(crs, c(1, 2)),
+                linestring(crs, c(0, 0), c(1, 1), c(2, 0)),
+                polygon(crs, ring(c(0, 0), c(10, 0), c(10, 10), c(0, 10), c(0, 0)),
+                        ring(c(2, 2), c(2, 4), c(4, 4), c(4, 2), c(2, 2))),
+                multipoint(point(crs, c(1, 1)), point(crs, c(2, 3))),
+                multilinestring(linestring(crs, c(0, 0), c(1, 1)), linestring(crs, c(5, 5), c(6, 7), c(8, 8))),
+                multipolygon(polygon(crs, ring(c(0, 0), c(1, 0), c(1, 1), c(0, 0))),
+                        polygon(crs, ring(c(5, 5), c(6, 5), c(6, 6), c(5, 5)))),
+                geometrycollection(point(crs, c(3, 3)), linestring(crs, c(0, 0), c(1, 1))),
+                new LineString<>(crs));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FlatGeobufWriter<C2D> writer = new FlatGeobufWriter<>(out, crs, "test", 0);
+        for (int i = 0; i < geometries.size(); i++) {
+            Map<String, Object> properties = new LinkedHashMap<>();
+            properties.put("name", "feature " + i);
+            properties.put("index", i);
+            properties.put("even", i % 2 == 0);
+            if (i % 3 == 0) {
+                properties.put("value", i * 1.5);
+                properties.put("count", (long) i << 40);
+                properties.put("bytes", new byte[]{(byte) i, 2, 3});
+            }
+            writer.write(geometries.get(i), properties);
+        }
+        writer.write(null, Collections.singletonMap("name", "no geometry"));
+        finish(writer);
+
+        FlatGeobufReader<C2D> reader = FlatGeobufReader.wrap(ByteBuffer.wrap(out.toByteArray()), crs);
+        assertEquals("test", reader.getName());
+        // without an index the header is written before the features, so their number is unknown
+        assertEquals(0, reader.getFeatureCount());
+        assertFalse(reader.hasIndex());
+        assertEquals(Arrays.asList("name", "index", "even", "value", "count", "bytes"), reader.getColumnNames());
+        List<Feature<C2D, Long>> features = reader.features().collect(Collectors.toList());
+        assertEquals(geometries.size() + 1, features.size());
+        for (int i = 0; i < geometries.size(); i++) {
+            Feature<C2D, Long> feature = features.get(i);
+            assertEquals(geometries.get(i), feature.getGeometry());
+            assertEquals(Long.valueOf(i), feature.getId());
+            assertEquals("feature " + i, feature.getProperty("name"));
+            assertEquals(i, feature.getProperty("index"));
+            assertEquals(i % 2 == 0, feature.getProperty("even"));
+            if (i % 3 == 0) {
+                assertEquals(i * 1.5, feature.getProperty("value"));
+                assertEquals((long) i << 40, feature.getProperty("count"));
+                assertArrayEquals(new byte[]{(byte) i, 2, 3}, (byte[]) feature.getProperty("bytes"));
+            } else {
+                assertFalse(feature.getProperties().containsKey("value"));
+            }
+        }
+        assertNull(features.get(geometries.size()).getGeometry());
+        assertTrue(reader.getEnvelope().isEmpty());
+    }
+
+    @Test
+    public void testFeaturesAreStreamedWithoutIndex() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FlatGeobufWriter<C2D> writer = new FlatGeobufWriter<>(out, crs, null, 0);
+        writer.write(point(crs, c(1, 2)), Collections.singletonMap("a", 1));
+        int size = out.size();
+        assertTrue(size > 0);
+        writer.write(point(crs, c(3, 4)), Collections.singletonMap("a", 2));
+        assertTrue(out.size() > size);
+        try {
+            writer.write(point(crs, c(5, 6)), Collections.singletonMap("b", 3));
+            fail("The columns are those of the first feature");
+        } catch (IllegalArgumentException expected) {
+        }
+        finish(writer);
+        List<Feature<C2D, Long>> features = FlatGeobufReader.wrap(ByteBuffer.wrap(out.toByteArray()), crs).features()
+                .collect(Collectors.toList());
+        assertEquals(2, features.size());
+        assertEquals(point(crs, c(3, 4)), features.get(1).getGeometry());
+        assertEquals(2, features.get(1).getProperty("a"));
+    }
+
+    // A file assembled byte by byte from the FlatGeobuf schema, independently of FlatBuffers: a header named
+    // "reference", with Point geometries, a String column "name" and an Int column "id", the envelope, a feature
+    // count of 1 and an index node size of 0; and a feature POINT(1.5 -2.25) with name "a" and id 7. Each vtable
+    // precedes its table, except that the two columns share one vtable that follows them, as vtables deduplicated
+    // by flatc do.
+    private static final String REFERENCE_FGB = "6667620366676200af0000002000000018001c0004000800180000000000000000000c0010001a00" +
+            "000000001c0000001800000024000000440000000100000000000000010000000900000072656665" +
+            "72656e636500000004000000000000000000f83f00000000000002c0000000000000f83f00000000" +
+            "000002c0020000000800000010000000e8ffffff1c0000000b000000f4ffffff1c00000005000000" +
+            "08000c0004000800040000006e616d650000000002000000696400610000000c00000008000c0004" +
+            "000800080000001c0000003c00000012000c0000000400000000000000000008000000140000000c" +
+            "000000010000000000000002000000000000000000f83f00000000000002c00d0000000000010000" +
+            "0061010007000000";
+
+    @Test
+    public void testReadsReferenceFile() throws IOException {
+        byte[] reference = new byte[REFERENCE_FGB.length() / 2];
+        for (int i = 0; i < reference.length; i++) {
+            reference[i] = (byte) Integer.parseInt(REFERENCE_FGB.substring(2 * i, 2 * i + 2), 16);
+        }
+        FlatGeobufReader<C2D> reader = FlatGeobufReader.wrap(ByteBuffer.wrap(reference), crs);
+        assertEquals("reference", reader.getName());
+        assertEquals(1, reader.getFeatureCount());
+        assertFalse(reader.hasIndex());
+        assertEquals(Arrays.asList("name", "id"), reader.getColumnNames());
+        assertEquals(new Envelope<>(1.5, -2.25, 1.5, -2.25, crs), reader.getEnvelope());
+        List<Feature<C2D, Long>> features = reader.features().collect(Collectors.toList());
+        assertEquals(1, features.size());
+        assertEquals(point(crs, c(1.5, -2.25)), features.get(0).getGeometry());
+        assertEquals("a", features.get(0).getProperty("name"));
+        assertEquals(7, features.get(0).getProperty("id"));
+
+        // the writer encodes the same feature to the same values
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("name", "a");
+        properties.put("id", 7);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FlatGeobufWriter<C2D> writer = new FlatGeobufWriter<>(out, crs, "reference", 0);
+        writer.write(point(crs, c(1.5, -2.25)), properties);
+        finish(writer);
+        FlatGeobufReader<C2D> written = FlatGeobufReader.wrap(ByteBuffer.wrap(out.toByteArray()), crs);
+        assertEquals(reader.getColumnNames(), written.getColumnNames());
+        Feature<C2D, Long> feature = written.features().findFirst().get();
+        assertEquals(features.get(0).getGeometry(), feature.getGeometry());
+        assertEquals(features.get(0).getProperties(), feature.getProperties());
+    }
+
+    @Test
+    public void testIndexedQueryOnMappedFile() throws IOException {
+        Random random = new Random(42);
+        List<Geometry<C2D>> geometries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            double x = random.nextDouble() * 1000;
+            double y = random.nextDouble() * 1000;
+            geometries.add(i % 2 == 0 ? point(crs, c(x, y))
+                    : linestring(crs, c(x, y), c(x + random.nextDouble() * 20, y + random.nextDouble() * 20)));
+        }
+        Path file = folder.newFile("test.fgb").toPath();
+        try (OutputStream out = Files.newOutputStream(file);
+             FlatGeobufWriter<C2D> writer = new FlatGeobufWriter<>(out, crs)) {
+            for (int i = 0; i < geometries.size(); i++) {
+                writer.write(geometries.get(i), Collections.singletonMap("i", i));
+            }
+        }
+
+        try (FlatGeobufReader<C2D> reader = FlatGeobufReader.open(file, crs)) {
+            assertTrue(reader.hasIndex());
+            assertEquals(geometries.size(), reader.features().count());
+            for (int q = 0; q < 50; q++) {
+                double x = random.nextDouble() * 1000;
+                double y = random.nextDouble() * 1000;
+                Envelope<C2D> window = new Envelope<>(x, y, x + random.nextDouble() * 100, y + random.nextDouble() * 100,
+                        crs);
+                Set<Integer> expected = new HashSet<>();
+                for (int i = 0; i < geometries.size(); i++) {
+                    if (geometries.get(i).getEnvelope().intersects(window)) {
+                        expected.add(i);
+                    }
+                }
+                Set<Integer> found = new HashSet<>();
+                long previousId = -1;
+                for (Feature<C2D, Long> feature : reader.query(window)) {
+                    int i = (Integer) feature.getProperty("i");
+                    assertEquals(geometries.get(i), feature.getGeometry());
+                    assertTrue(feature.getId() > previousId);
+                    previousId = feature.getId();
+                    found.add(i);
+                }
+                assertEquals(expected, found);
+            }
+            // the visitor can stop the query
+            assertEquals(1, reader.query(new Envelope<>(0, 0, 1000, 1000, crs), feature -> false));
+        }
+    }
+
+    @Test
+    public void testCrsAndDimensionsFromHeader() throws IOException {
+        LineString<G3DM> line = linestring(CoordinateReferenceSystems.addLinearSystem(
+                CoordinateReferenceSystems.addVerticalSystem(WGS84, G3D.class, LinearUnit.METER), G3DM.class,
+                LinearUnit.METER), g(4.5, 51.2, 10, 1), g(4.6, 51.3, 12, 2));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FlatGeobufWriter<G3DM> writer = new FlatGeobufWriter<>(out, line.getCoordinateReferenceSystem());
+        writer.write(line);
+        finish(writer);
+
+        FlatGeobufReader<?> reader = FlatGeobufReader.wrap(ByteBuffer.wrap(out.toByteArray()));
+        assertEquals(4326, reader.getCoordinateReferenceSystem().getCrsId().getCode());
+        assertTrue(reader.getCoordinateReferenceSystem().hasZ());
+        assertTrue(reader.getCoordinateReferenceSystem().hasM());
+        Geometry<?> decoded = reader.features().findFirst().get().getGeometry();
+        assertEquals(12, decoded.getPositionN(1).getCoordinate(2), 0);
+        assertEquals(2, decoded.getPositionN(1).getCoordinate(3), 0);
+    }
+
+    @Test
+    public void testIndexLayout() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FlatGeobufWriter<C2D> writer = new FlatGeobufWriter<>(out, crs, null, 4);
+        for (int i = 0; i < 10; i++) {
+            writer.write(point(crs, c(i, i)));
+        }
+        finish(writer);
+        byte[] bytes = out.toByteArray();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < FlatGeobuf.MAGIC.length; i++) {
+            assertEquals(FlatGeobuf.MAGIC[i], bytes[i]);
+        }
+        // 10 leaves, 3 nodes and a root
+        int indexStart = 12 + buffer.getInt(8);
+        assertEquals(14 * 40, PackedHilbertRTree.size(10, 4));
+        assertEquals(0, buffer.getDouble(indexStart), 0);
+        assertEquals(9, buffer.getDouble(indexStart + 16), 0);
+        // the root points to the first node of the next level
+        assertEquals(1, buffer.getLong(indexStart + 32));
+        assertEquals(3, FlatGeobufReader.wrap(buffer, crs).query(new Envelope<>(2.5, 2.5, 5.5, 5.5, crs)).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPropertyTypesMustNotChange() throws IOException {
+        FlatGeobufWriter<C2D> writer = new FlatGeobufWriter<>(new ByteArrayOutputStream(), crs);
+        writer.write(point(crs, c(1, 1)), Collections.singletonMap("a", 1));
+        writer.write(point(crs, c(1, 1)), Collections.singletonMap("a", "one"));
+    }
+
+    @Test(expected = FlatGeobufDecodeException.class)
+    public void testOtherFormatIsRejected() {
+        FlatGeobufReader.wrap(ByteBuffer.wrap("not a flatgeobuf file".getBytes()));
+    }
+
+    private static void finish(FlatGeobufWriter<?> writer) {
+        try {
+            writer.finish();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.geolatte.geom.curve;
+
+import org.geolatte.geom.C2D;
+import org.geolatte.geom.Envelope;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.crs.CoordinateReferenceSystems;
+import org.geolatte.geom.crs.CrsRegistry;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link RangeDecomposer}
+ */
+public class RangeDecomposerTest {
+
+    private final CoordinateReferenceSystem<C2D> crs = CoordinateReferenceSystems.PROJECTED_2D_METER;
+    private final MortonContext<C2D> context = new MortonContext<>(new Envelope<>(0, 0, 100, 100, crs), 10);
+    private final MortonCurve<C2D> morton = new MortonCurve<>(context);
+    private final HilbertCurve<C2D> hilbert = new HilbertCurve<>(context);
+
+    @Test
+    public void testRangesCoverAllPositionsInWindow() {
+        Random random = new Random(1);
+        for (SpaceFillingCurve<C2D> curve : curves()) {
+            RangeDecomposer<C2D> decomposer = new RangeDecomposer<>(curve).withMaxRanges(20);
+            for (int i = 0; i < 50; i++) {
+                Envelope<C2D> window = randomWindow(random);
+                List<KeyRange> ranges = decomposer.decompose(window);
+                assertTrue(ranges.size() <= 20);
+                assertSortedAndDisjoint(ranges);
+                for (int j = 0; j < 200; j++) {
+                    double x = window.lowerLeft().getX() + random.nextDouble() * window.extentAlongDimension(0);
+                    double y = window.lowerLeft().getY() + random.nextDouble() * window.extentAlongDimension(1);
+                    assertTrue(inRanges(ranges, curve.cellId(x, y)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOverfetchIsBounded() {
+        Random random = new Random(2);
+        MortonContext<C2D> deep = new MortonContext<>(context.getExtent(), 12);
+        for (SpaceFillingCurve<C2D> curve : new SpaceFillingCurve[]{new MortonCurve<>(deep), new HilbertCurve<>(deep)}) {
+            RangeDecomposer<C2D> decomposer = new RangeDecomposer<>(curve).withMaxRanges(100000)
+                    .withMaxOverfetch(0.05);
+            for (int i = 0; i < 20; i++) {
+                double x = random.nextDouble() * 60;
+                double y = random.nextDouble() * 60;
+                Envelope<C2D> window = new Envelope<>(x, y, x + 10 + random.nextDouble() * 30,
+                        y + 10 + random.nextDouble() * 30, crs);
+                List<KeyRange> ranges = decomposer.decompose(window);
+                // count the leaf cells in the ranges, and compare with the window
+                long leafCells = 0;
+                for (KeyRange range : ranges) {
+                    leafCells += (range.getEnd() - range.getStart() + 1) / 2;
+                }
+                double leafArea = deep.getLeafWidth() * deep.getLeafHeight();
+                double windowArea = window.extentAlongDimension(0) * window.extentAlongDimension(1);
+                assertTrue(leafCells * leafArea <= 1.05 * windowArea);
+            }
+        }
+    }
+
+    @Test
+    public void testMergeClosesSmallestGapsBeyondIntRange() {
+        // gaps of 2^33, 2^32 and 2^34
+        long[] ranges = {0, 1, (1L << 33) + 1, (1L << 33) + 3, (1L << 33) + (1L << 32) + 3,
+                (1L << 33) + (1L << 32) + 5, (1L << 34) + (1L << 33) + (1L << 32) + 5,
+                (1L << 34) + (1L << 33) + (1L << 32) + 7};
+        List<KeyRange> merged = RangeDecomposer.merge(ranges, 3);
+        assertEquals(3, merged.size());
+        assertEquals(new KeyRange((1L << 33) + 1, (1L << 33) + (1L << 32) + 5), merged.get(1));
+        assertEquals(2, RangeDecomposer.merge(ranges, 2).size());
+        assertEquals(new KeyRange(0, (1L << 33) + (1L << 32) + 5), RangeDecomposer.merge(ranges, 2).get(0));
+    }
+
+    @Test
+    public void testOverfetchIsReported() {
+        Random random = new Random(3);
+        MortonContext<C2D> deep = new MortonContext<>(context.getExtent(), 20);
+        for (SpaceFillingCurve<C2D> curve : new SpaceFillingCurve[]{new MortonCurve<>(deep), new HilbertCurve<>(deep)}) {
+            RangeDecomposer<C2D> unlimited = new RangeDecomposer<>(curve).withMaxRanges(100000)
+                    .withMaxOverfetch(0.05);
+            RangeDecomposer<C2D> limited = unlimited.withMaxRanges(8);
+            for (int i = 0; i < 20; i++) {
+                double x = random.nextDouble() * 60;
+                double y = random.nextDouble() * 60;
+                Envelope<C2D> window = new Envelope<>(x, y, x + 1 + random.nextDouble() * 30,
+                        y + 1 + random.nextDouble() * 30, crs);
+                double overfetch = unlimited.overfetch(unlimited.decompose(window), window);
+                assertTrue(overfetch <= 0.05);
+                double limitedOverfetch = limited.overfetch(limited.decompose(window), window);
+                assertTrue(limitedOverfetch >= overfetch);
+                // merging the smallest gaps keeps the over-fetch moderate, even with gaps beyond the int range
+                assertTrue("" + limitedOverfetch, limitedOverfetch < 3);
+            }
+        }
+    }
+
+    @Test
+    public void testAlignedWindow() {
+        for (SpaceFillingCurve<C2D> curve : curves()) {
+            List<KeyRange> ranges = new RangeDecomposer<>(curve).withMaxRanges(100000).withMaxOverfetch(0)
+                    .decompose(new Envelope<>(0, 0, 50, 50, crs));
+            long quadrant = curve.cellId(new Envelope<>(1, 1, 49, 49, crs));
+            assertEquals(curve.rangeMin(quadrant), ranges.get(0).getStart());
+            assertTrue(ranges.get(0).getEnd() > curve.rangeMax(quadrant));
+            // the cells on the maximum edges of the window are covered too
+            assertTrue(inRanges(ranges, curve.cellId(50, 50)));
+            assertTrue(inRanges(ranges, curve.cellId(10, 50)));
+            assertFalse(inRanges(ranges, curve.cellId(10, 50.1)));
+        }
+    }
+
+    @Test
+    public void testMaxRangesAndMaxLevel() {
+        Envelope<C2D> window = new Envelope<>(12.3, 45.6, 78.9, 81.2, crs);
+        for (SpaceFillingCurve<C2D> curve : curves()) {
+            List<KeyRange> single = new RangeDecomposer<>(curve).withMaxRanges(1).decompose(window);
+            assertEquals(1, single.size());
+
+            List<KeyRange> coarse = new RangeDecomposer<>(curve).withMaxRanges(10000).withMaxOverfetch(0)
+                    .withMaxLevel(3).decompose(window);
+            for (KeyRange range : coarse) {
+                // all ranges cover whole cells at level 3
+                assertEquals(0, (range.getEnd() - range.getStart() + 1) % (2L << 2 * (context.getDepth() - 3)));
+            }
+        }
+    }
+
+    @Test
+    public void testAncestorsAreIncluded() {
+        Envelope<C2D> window = new Envelope<>(60, 60, 65, 65, crs);
+        Envelope<C2D> large = new Envelope<>(10, 10, 70, 70, crs);
+        Envelope<C2D> medium = new Envelope<>(51, 51, 62, 62, crs);
+        for (SpaceFillingCurve<C2D> curve : curves()) {
+            List<KeyRange> withoutAncestors = new RangeDecomposer<>(curve).decompose(window);
+            List<KeyRange> withAncestors = new RangeDecomposer<>(curve).withAncestors(true).decompose(window);
+            assertSortedAndDisjoint(withAncestors);
+            assertFalse(inRanges(withoutAncestors, curve.cellId(large)));
+            assertTrue(inRanges(withAncestors, curve.cellId(large)));
+            assertTrue(inRanges(withAncestors, curve.cellId(medium)));
+            assertFalse(inRanges(withAncestors, curve.cellId(new Envelope<>(10, 10, 20, 20, crs))));
+        }
+    }
+
+    @Test
+    public void testWindowOutsideExtent() {
+        assertTrue(new RangeDecomposer<>(morton).decompose(new Envelope<>(200, 200, 300, 300, crs)).isEmpty());
+        assertEquals(1, new RangeDecomposer<>(morton).decompose(new Envelope<>(-100, -100, 300, 300, crs)).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentCrsIsRejected() {
+        CoordinateReferenceSystem<C2D> lambert = CrsRegistry.getProjectedCoordinateReferenceSystemForEPSG(31370);
+        new RangeDecomposer<>(morton).decompose(new Envelope<>(1, 1, 2, 2, lambert));
+    }
+
+    private static void assertSortedAndDisjoint(List<KeyRange> ranges) {
+        for (int i = 1; i < ranges.size(); i++) {
+            assertTrue(ranges.get(i).getStart() > ranges.get(i - 1).getEnd());
+        }
+    }
+
+    private static boolean inRanges(List<KeyRange> ranges, long cellId) {
+        for (KeyRange range : ranges) {
+            if (range.contains(cellId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Envelope<C2D> randomWindow(Random random) {
+        double x = random.nextDouble() * 80;
+        double y = random.nextDouble() * 80;
+        return new Envelope<>(x, y, x + 1 + random.nextDouble() * 19, y + 1 + random.nextDouble() * 19, crs);
+    }
+
+    @SuppressWarnings("unchecked")
+    private SpaceFillingCurve<C2D>[] curves() {
+        return new SpaceFillingCurve[]{morton, hilbert};
+    }
+}
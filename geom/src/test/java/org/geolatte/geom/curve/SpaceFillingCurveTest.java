@@ -0,0 +1,163 @@
+package org.geolatte.geom.curve;
+
+import org.geolatte.geom.C2D;
+import org.geolatte.geom.Envelope;
+import org.geolatte.geom.LineString;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.crs.CoordinateReferenceSystems;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.geolatte.geom.builder.DSL.c;
+import static org.geolatte.geom.builder.DSL.linestring;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link MortonCurve} and {@link HilbertCurve}
+ */
+public class SpaceFillingCurveTest {
+
+    private final CoordinateReferenceSystem<C2D> crs = CoordinateReferenceSystems.PROJECTED_2D_METER;
+    private final Envelope<C2D> extent = new Envelope<>(0, 0, 100, 100, crs);
+    private final MortonContext<C2D> context = new MortonContext<>(extent, 8);
+    private final MortonCode<C2D> mortonCode = new MortonCode<>(context);
+    private final MortonCurve<C2D> morton = new MortonCurve<>(context);
+    private final HilbertCurve<C2D> hilbert = new HilbertCurve<>(context);
+
+    @Test
+    public void testMortonCellIdsMatchMortonCodes() {
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            C2D pos = new C2D(random.nextDouble() * 100, random.nextDouble() * 100);
+            long cellId = morton.cellId(pos);
+            assertEquals(mortonCode.ofPosition(pos), morton.toMortonCode(cellId));
+            assertEquals(cellId, morton.cellId(mortonCode.ofPosition(pos)));
+
+            Envelope<C2D> envelope = new Envelope<>(pos.getX(), pos.getY(),
+                    Math.min(100, pos.getX() + random.nextDouble() * 10),
+                    Math.min(100, pos.getY() + random.nextDouble() * 10), crs);
+            assertEquals(mortonCode.ofEnvelope(envelope), morton.toMortonCode(morton.cellId(envelope)));
+        }
+        assertEquals("33333333", morton.toMortonCode(morton.cellId(100, 100)));
+    }
+
+    @Test
+    public void testMortonBoundsMatchMortonCodeEnvelopes() {
+        for (String code : new String[]{"", "0", "3", "12", "0312", "33333333"}) {
+            assertEquals(mortonCode.envelopeOf(code), morton.envelopeOf(morton.cellId(code)));
+        }
+    }
+
+    @Test
+    public void testHilbertLeafCellsAreAdjacent() {
+        int n = 1 << context.getDepth();
+        double[] bounds = new double[4];
+        double[] previous = null;
+        for (long key = 0; key < (long) n * n; key++) {
+            hilbert.bounds(hilbert.fromKey(key, context.getDepth()), bounds, 0);
+            if (previous != null) {
+                double dx = Math.abs(bounds[0] - previous[0]);
+                double dy = Math.abs(bounds[1] - previous[1]);
+                double w = 100.0 / n;
+                assertTrue(Math.abs(dx + dy - w) < 1e-9 && (dx < 1e-9 || dy < 1e-9));
+            }
+            previous = bounds.clone();
+        }
+    }
+
+    @Test
+    public void testHilbertFirstLevel() {
+        assertEquals(hilbert.fromKey(0, 1), hilbert.cellId(new Envelope<>(10, 10, 40, 40, crs)));
+        assertEquals(hilbert.fromKey(1, 1), hilbert.cellId(new Envelope<>(10, 60, 40, 90, crs)));
+        assertEquals(hilbert.fromKey(2, 1), hilbert.cellId(new Envelope<>(60, 60, 90, 90, crs)));
+        assertEquals(hilbert.fromKey(3, 1), hilbert.cellId(new Envelope<>(60, 10, 90, 40, crs)));
+    }
+
+    @Test
+    public void testCellContainsPositionAndEnvelope() {
+        Random random = new Random(2);
+        for (SpaceFillingCurve<C2D> curve : curves()) {
+            for (int i = 0; i < 1000; i++) {
+                double x = random.nextDouble() * 90;
+                double y = random.nextDouble() * 90;
+                Envelope<C2D> envelope = new Envelope<>(x, y, x + random.nextDouble() * 10,
+                        y + random.nextDouble() * 10, crs);
+                long cellId = curve.cellId(envelope);
+                assertTrue(curve.envelopeOf(cellId).contains(envelope));
+                long leaf = curve.cellId(x, y);
+                assertEquals(context.getDepth(), curve.level(leaf));
+                assertTrue(curve.envelopeOf(leaf).contains(new C2D(x, y)));
+                assertTrue(curve.contains(cellId, leaf));
+                assertEquals(cellId, curve.parent(leaf, curve.level(cellId)));
+                // no child of the cell contains the envelope
+                if (curve.level(cellId) < context.getDepth()) {
+                    for (int child = 0; child < 4; child++) {
+                        long childId = curve.fromKey(4 * curve.key(cellId) + child, curve.level(cellId) + 1);
+                        assertFalse(curve.envelopeOf(childId).contains(envelope));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCellIdLayout() {
+        for (SpaceFillingCurve<C2D> curve : curves()) {
+            long root = curve.fromKey(0, 0);
+            assertEquals(1L << 16, root);
+            assertEquals(0, curve.level(root));
+            assertEquals(1, curve.rangeMin(root));
+            assertEquals((1L << 17) - 1, curve.rangeMax(root));
+            long cell = curve.fromKey(5, 3);
+            assertEquals(5, curve.key(cell));
+            assertEquals(3, curve.level(cell));
+            assertTrue(curve.contains(root, cell));
+            assertFalse(curve.contains(cell, root));
+        }
+    }
+
+    @Test
+    public void testBatchEncodingAndDecoding() {
+        Random random = new Random(3);
+        double[] coordinates = new double[200];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = random.nextDouble() * 100;
+        }
+        for (SpaceFillingCurve<C2D> curve : curves()) {
+            long[] cellIds = new long[100];
+            curve.cellIds(coordinates, cellIds);
+            double[] bounds = new double[400];
+            curve.bounds(cellIds, bounds);
+            for (int i = 0; i < 100; i++) {
+                assertEquals(curve.cellId(coordinates[2 * i], coordinates[2 * i + 1]), cellIds[i]);
+                assertTrue(bounds[4 * i] <= coordinates[2 * i] && coordinates[2 * i] <= bounds[4 * i + 2]);
+                assertTrue(bounds[4 * i + 1] <= coordinates[2 * i + 1] && coordinates[2 * i + 1] <= bounds[4 * i + 3]);
+            }
+            LineString<C2D> line = linestring(crs, c(1, 1), c(50, 50), c(99, 2));
+            long[] lineIds = new long[3];
+            curve.cellIds(line.getPositions(), lineIds);
+            assertEquals(curve.cellId(50, 50), lineIds[1]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPositionOutsideExtent() {
+        hilbert.cellId(100.5, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCellId() {
+        morton.level(2L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMortonCode() {
+        morton.cellId("014");
+    }
+
+    @SuppressWarnings("unchecked")
+    private SpaceFillingCurve<C2D>[] curves() {
+        return new SpaceFillingCurve[]{morton, hilbert};
+    }
+}
@@ -0,0 +1,87 @@
+package org.geolatte.geom.generators;
+
+import org.geolatte.geom.*;
+import org.geolatte.geom.generator.Generator;
+import org.geolatte.geom.generator.IndexedGenerator;
+import org.geolatte.geom.jts.JTS;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.geolatte.geom.builder.DSL.g;
+import static org.geolatte.geom.crs.CoordinateReferenceSystems.WGS84;
+import static org.geolatte.geom.generator.SplittableGeometryGenerators.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link org.geolatte.geom.generator.SplittableGeometryGenerators}
+ */
+public class SplittableGeometryGeneratorsTest {
+
+    private final Box<G2D> box = new Box<>(g(10, 10), g(80, 80), WGS84);
+
+    @Test
+    public void testParallelStreamEqualsSequentialGeneration() {
+        IndexedGenerator<MultiPolygon<G2D>> generator = multiPolygon(8, 40, 4, box, 48L);
+        List<MultiPolygon<G2D>> parallel = generator.stream(500).collect(Collectors.toList());
+        List<MultiPolygon<G2D>> sequential = new ArrayList<>();
+        Generator<MultiPolygon<G2D>> iterating = generator.sequential();
+        for (int i = 0; i < 500; i++) {
+            sequential.add(iterating.generate());
+        }
+        assertEquals(sequential, parallel);
+        assertEquals(parallel.subList(100, 200), generator.stream(100, 200).collect(Collectors.toList()));
+        assertEquals(parallel, multiPolygon(8, 40, 4, box, 48L).stream(500).collect(Collectors.toList()));
+        assertNotEquals(parallel, multiPolygon(8, 40, 4, box, 49L).stream(500).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testPolygonsAreValidWithHoles() {
+        List<Polygon<G2D>> polygons = polygon(60, 5, box, 7L).stream(2000).collect(Collectors.toList());
+        int withHoles = 0;
+        for (Polygon<G2D> polygon : polygons) {
+            assertTrue(JTS.to(polygon).isValid());
+            assertTrue(polygon.getBoundingBox().within(box));
+            if (polygon.getNumInteriorRing() > 0) withHoles++;
+        }
+        assertTrue(withHoles > 100);
+    }
+
+    @Test
+    public void testMultiPolygonsAreValid() {
+        multiPolygon(10, 30, 3, box, 11L).stream(1000).forEach(mp -> {
+            assertTrue(JTS.to(mp).isValid());
+            assertTrue(mp.getBoundingBox().within(box));
+        });
+    }
+
+    @Test
+    public void testVertexCountsAreSkewed() {
+        List<Integer> counts = polygon(200, 0, box, 3L).stream(2000)
+                .map(p -> p.getExteriorRing().getNumPositions() - 1)
+                .sorted()
+                .collect(Collectors.toList());
+        double mean = counts.stream().mapToInt(Integer::intValue).average().orElse(0);
+        assertTrue(counts.get(counts.size() / 2) < mean);
+        assertEquals(3, (int) counts.get(0));
+        assertTrue(Collections.max(counts) > 100);
+        assertTrue(Collections.max(counts) <= 200);
+    }
+
+    @Test
+    public void testPointsAndLineStringsWithinBox() {
+        point(box, 1L).stream(1000).forEach(p -> assertTrue(box.contains(p.getPosition())));
+        lineString(5, box, 1L).stream(1000).forEach(l -> {
+            assertEquals(5, l.getNumPositions());
+            assertTrue(l.getBoundingBox().within(box));
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooFewVertices() {
+        polygon(2, 0, box, 1L);
+    }
+}
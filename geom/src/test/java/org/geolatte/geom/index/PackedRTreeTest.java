@@ -0,0 +1,153 @@
+package org.geolatte.geom.index;
+
+import org.geolatte.geom.C2D;
+import org.geolatte.geom.Envelope;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.crs.CoordinateReferenceSystems;
+import org.geolatte.geom.crs.CrsRegistry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link PackedRTree}, checked against brute force search
+ */
+public class PackedRTreeTest {
+
+    private static final CoordinateReferenceSystem<C2D> crs = CoordinateReferenceSystems.PROJECTED_2D_METER;
+
+    private final List<Envelope<C2D>> envelopes = randomEnvelopes(1000, new Random(42));
+
+    @Test
+    public void testRangeQueryMatchesBruteForce() {
+        PackedRTree<C2D, Integer> tree = build(envelopes, PackedRTree.DEFAULT_NODE_SIZE);
+        Random random = new Random(7);
+        for (Envelope<C2D> window : randomEnvelopes(100, random)) {
+            List<Integer> found = tree.query(window);
+            Collections.sort(found);
+            assertEquals(bruteForce(window), found);
+        }
+    }
+
+    @Test
+    public void testRangeQueryWithSmallNodeSize() {
+        PackedRTree<C2D, Integer> tree = build(envelopes, 2);
+        Envelope<C2D> window = new Envelope<>(200, 200, 500, 600, crs);
+        List<Integer> found = tree.query(window);
+        Collections.sort(found);
+        assertEquals(bruteForce(window), found);
+    }
+
+    @Test
+    public void testQueryStopsWhenVisitorReturnsFalse() {
+        PackedRTree<C2D, Integer> tree = build(envelopes, PackedRTree.DEFAULT_NODE_SIZE);
+        List<Integer> found = new ArrayList<>();
+        int count = tree.query(new Envelope<>(0, 0, 1000, 1000, crs), item -> found.add(item) && found.size() < 5);
+        assertEquals(5, count);
+        assertEquals(5, found.size());
+    }
+
+    @Test
+    public void testNearestMatchesBruteForce() {
+        PackedRTree<C2D, Integer> tree = build(envelopes, PackedRTree.DEFAULT_NODE_SIZE);
+        Random random = new Random(11);
+        for (int i = 0; i < 50; i++) {
+            double x = random.nextDouble() * 1000;
+            double y = random.nextDouble() * 1000;
+            List<Integer> found = tree.nearest(new C2D(x, y), 10);
+            assertEquals(10, found.size());
+            List<Integer> expected = new ArrayList<>();
+            for (int j = 0; j < envelopes.size(); j++) {
+                expected.add(j);
+            }
+            expected.sort(Comparator.comparingDouble(j -> distance(envelopes.get(j), x, y)));
+            for (int j = 0; j < 10; j++) {
+                assertEquals(distance(envelopes.get(expected.get(j)), x, y),
+                        distance(envelopes.get(found.get(j)), x, y), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testNearestWithinMaxDistance() {
+        PackedRTree<C2D, Integer> tree = PackedRTree.<C2D, Integer>builder(crs)
+                .add(0, 0, 1, 1, 0)
+                .add(10, 10, 11, 11, 1)
+                .build();
+        List<Integer> found = new ArrayList<>();
+        tree.nearest(2, 2, 5, 5, found::add);
+        assertEquals(Collections.singletonList(0), found);
+    }
+
+    @Test
+    public void testSearcher() {
+        PackedRTree<C2D, Integer> tree = build(envelopes, PackedRTree.DEFAULT_NODE_SIZE);
+        PackedRTree<C2D, Integer>.Searcher searcher = tree.newSearcher();
+        Envelope<C2D> window = new Envelope<>(100, 100, 300, 300, crs);
+        List<Integer> found = new ArrayList<>();
+        searcher.query(window, found::add);
+        Collections.sort(found);
+        assertEquals(bruteForce(window), found);
+    }
+
+    @Test
+    public void testEmptyAndSingletonTrees() {
+        PackedRTree<C2D, String> empty = PackedRTree.<C2D, String>builder(crs).build();
+        assertTrue(empty.isEmpty());
+        assertTrue(empty.query(new Envelope<>(0, 0, 1, 1, crs)).isEmpty());
+        assertTrue(empty.nearest(new C2D(0, 0), 1).isEmpty());
+        assertTrue(empty.getExtent().isEmpty());
+
+        PackedRTree<C2D, String> single = PackedRTree.<C2D, String>builder(crs)
+                .add(new Envelope<>(1, 1, 2, 2, crs), "a")
+                .build();
+        assertEquals(Collections.singletonList("a"), single.query(new Envelope<>(0, 0, 1, 1, crs)));
+        assertEquals(new Envelope<>(1, 1, 2, 2, crs), single.getExtent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentCrsIsRejected() {
+        PackedRTree.<C2D, String>builder(crs)
+                .add(new Envelope<>(1, 1, 2, 2, CrsRegistry.getProjectedCoordinateReferenceSystemForEPSG(31370)), "a");
+    }
+
+    private PackedRTree<C2D, Integer> build(List<Envelope<C2D>> envelopes, int nodeSize) {
+        PackedRTree.Builder<C2D, Integer> builder = PackedRTree.<C2D, Integer>builder(crs).nodeSize(nodeSize);
+        for (int i = 0; i < envelopes.size(); i++) {
+            builder.add(envelopes.get(i), i);
+        }
+        return builder.build();
+    }
+
+    private List<Integer> bruteForce(Envelope<C2D> window) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < envelopes.size(); i++) {
+            if (envelopes.get(i).intersects(window)) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
+    private static double distance(Envelope<C2D> env, double x, double y) {
+        double dx = Math.max(Math.max(env.lowerLeft().getX() - x, x - env.upperRight().getX()), 0);
+        double dy = Math.max(Math.max(env.lowerLeft().getY() - y, y - env.upperRight().getY()), 0);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private static List<Envelope<C2D>> randomEnvelopes(int num, Random random) {
+        List<Envelope<C2D>> result = new ArrayList<>();
+        for (int i = 0; i < num; i++) {
+            double x = random.nextDouble() * 1000;
+            double y = random.nextDouble() * 1000;
+            result.add(new Envelope<>(x, y, x + random.nextDouble() * 50, y + random.nextDouble() * 50, crs));
+        }
+        return result;
+    }
+}
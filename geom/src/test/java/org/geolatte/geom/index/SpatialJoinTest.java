@@ -0,0 +1,158 @@
+package org.geolatte.geom.index;
+
+import org.geolatte.geom.*;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.crs.CoordinateReferenceSystems;
+import org.geolatte.geom.crs.CrsRegistry;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.geolatte.geom.builder.DSL.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for {@link SpatialJoin}, checked against nested loop joins
+ */
+public class SpatialJoinTest {
+
+    private static final CoordinateReferenceSystem<C2D> crs = CoordinateReferenceSystems.PROJECTED_2D_METER;
+    private static final ProjectedGeometryOperations ops = ProjectedGeometryOperations.Default;
+
+    // more than the sequential threshold, so that probing is forked
+    private final List<Polygon<C2D>> squares = randomSquares(600, new Random(3));
+    private final List<Point<C2D>> points = randomPoints(500, new Random(5));
+
+    @Test
+    public void testIntersectsMatchesNestedLoop() {
+        List<SpatialJoin.Match<Polygon<C2D>, Polygon<C2D>>> expected = new ArrayList<>();
+        for (Polygon<C2D> l : squares) {
+            for (Polygon<C2D> r : squares) {
+                if (ops.intersects(l, r)) {
+                    expected.add(new SpatialJoin.Match<>(l, r));
+                }
+            }
+        }
+        assertEquals(expected, SpatialJoin.<C2D>intersects().join(squares, squares));
+    }
+
+    @Test
+    public void testContainsMatchesNestedLoop() {
+        List<SpatialJoin.Match<Polygon<C2D>, Point<C2D>>> expected = new ArrayList<>();
+        for (Polygon<C2D> l : squares) {
+            for (Point<C2D> r : points) {
+                if (ops.contains(l, r)) {
+                    expected.add(new SpatialJoin.Match<>(l, r));
+                }
+            }
+        }
+        assertTrue(expected.size() > 0);
+        assertEquals(expected, SpatialJoin.<C2D>contains().join(squares, points));
+    }
+
+    @Test
+    public void testWithinDistanceMatchesNestedLoop() {
+        List<SpatialJoin.Match<Point<C2D>, Polygon<C2D>>> expected = new ArrayList<>();
+        for (Point<C2D> l : points) {
+            for (Polygon<C2D> r : squares) {
+                if (ops.distance(l, r) <= 15) {
+                    expected.add(new SpatialJoin.Match<>(l, r));
+                }
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertEquals(expected, SpatialJoin.<C2D>withinDistance(15).withPool(pool).join(points, squares));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testJoinFeatures() {
+        List<TestFeature> left = Arrays.asList(
+                new TestFeature(1, polygon(crs, ring(c(0, 0), c(10, 0), c(10, 10), c(0, 10), c(0, 0)))),
+                new TestFeature(2, polygon(crs, ring(c(20, 20), c(30, 20), c(30, 30), c(20, 30), c(20, 20)))));
+        List<TestFeature> right = Arrays.asList(
+                new TestFeature(3, point(crs, c(5, 5))),
+                new TestFeature(4, point(crs, c(15, 15))),
+                new TestFeature(5, point(crs, c(25, 25))),
+                new TestFeature(6, new Point<>(crs)));
+        List<String> ids = SpatialJoin.<C2D>contains().joinFeatures(left, right).stream()
+                .map(m -> m.getLeft().getId() + "-" + m.getRight().getId())
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList("1-3", "2-5"), ids);
+    }
+
+    @Test
+    public void testJoinStreams() {
+        List<SpatialJoin.Match<Polygon<C2D>, Point<C2D>>> expected = SpatialJoin.<C2D>intersects().join(squares, points);
+        List<SpatialJoin.Match<Polygon<C2D>, Point<C2D>>> found = SpatialJoin.<C2D>intersects()
+                .join(squares.stream(), g -> g, points.stream(), g -> g);
+        assertEquals(expected, found);
+    }
+
+    @Test
+    public void testEmptyInputs() {
+        assertTrue(SpatialJoin.<C2D>intersects().join(squares, Collections.<Point<C2D>>emptyList()).isEmpty());
+        assertTrue(SpatialJoin.<C2D>intersects().join(Collections.<Point<C2D>>emptyList(), squares).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentCrsIsRejected() {
+        CoordinateReferenceSystem<C2D> lambert = CrsRegistry.getProjectedCoordinateReferenceSystemForEPSG(31370);
+        SpatialJoin.<C2D>intersects().join(Collections.singletonList(point(lambert, c(1, 1))), squares);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeDistanceIsRejected() {
+        SpatialJoin.withinDistance(-1);
+    }
+
+    private static List<Polygon<C2D>> randomSquares(int num, Random random) {
+        List<Polygon<C2D>> result = new ArrayList<>();
+        for (int i = 0; i < num; i++) {
+            double x = random.nextDouble() * 1000;
+            double y = random.nextDouble() * 1000;
+            double size = 5 + random.nextDouble() * 40;
+            result.add(polygon(crs, ring(c(x, y), c(x + size, y), c(x + size, y + size), c(x, y + size), c(x, y))));
+        }
+        return result;
+    }
+
+    private static List<Point<C2D>> randomPoints(int num, Random random) {
+        List<Point<C2D>> result = new ArrayList<>();
+        for (int i = 0; i < num; i++) {
+            result.add(point(crs, c(random.nextDouble() * 1000, random.nextDouble() * 1000)));
+        }
+        return result;
+    }
+
+    private static class TestFeature implements Feature<C2D, Integer> {
+        private final Integer id;
+        private final Geometry<C2D> geometry;
+
+        TestFeature(Integer id, Geometry<C2D> geometry) {
+            this.id = id;
+            this.geometry = geometry;
+        }
+
+        @Override
+        public Geometry<C2D> getGeometry() {
+            return geometry;
+        }
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        @Override
+        public Map<String, Object> getProperties() {
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -21,11 +21,16 @@
 
 package org.geolatte.geom.jts;
 
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequenceFactory;
 import org.locationtech.jts.geom.CoordinateXYM;
 import org.locationtech.jts.geom.CoordinateXYZM;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKTReader;
+import org.geolatte.geom.C2DM;
+import org.geolatte.geom.G2D;
 import org.geolatte.geom.Geometry;
+import org.geolatte.geom.LineString;
 import org.geolatte.geom.AbstractGeometryCollection;
 import org.geolatte.geom.Measured;
 import org.geolatte.geom.Point;
@@ -174,6 +179,32 @@ public class TestJTS {
         assertEquals(4326, JTS.to(point(WGS84, g(1.0, 2.0))).getSRID());
     }
 
+    @Test
+    public void test_factory_creates_position_sequences() {
+        CoordinateSequenceFactory factory = JTS.to(point(WGS84, g(1.0, 2.0))).getFactory().getCoordinateSequenceFactory();
+        CoordinateSequence seq = factory.create(3, 3, 1);
+        assertTrue(seq instanceof PositionSequence);
+        assertEquals(C2DM.class, ((PositionSequence<?>) seq).getPositionClass());
+        seq.setOrdinate(1, 2, 5.0);
+        assertEquals(5.0, seq.getM(1), 0.0);
+        assertTrue(Double.isNaN(seq.getZ(1)));
+    }
+
+    @Test
+    public void test_from_adopts_position_sequences_with_same_layout() {
+        LineString<G2D> line = linestring(WGS84, g(1, 1), g(2, 2), g(3, 1));
+        org.locationtech.jts.geom.Geometry hull = JTS.to(line).convexHull();
+        CoordinateSequence seq = ((org.locationtech.jts.geom.Polygon) hull).getExteriorRing().getCoordinateSequence();
+        assertTrue(seq instanceof PositionSequence);
+
+        Geometry<G2D> result = JTS.from(hull, WGS84);
+        assertEquals(G2D.class, result.getPositionClass());
+        assertEquals(polygon(WGS84, ring(g(1, 1), g(2, 2), g(3, 1), g(1, 1))), result);
+        // the coordinates are shared, not copied
+        seq.setOrdinate(0, 0, 10.0);
+        assertEquals(10.0, result.getPositionN(0).getLon(), 0.0);
+    }
+
     private void test_empty(Geometry empty) {
         org.locationtech.jts.geom.Geometry jts = JTS.to(empty);
         assertTrue(jts.isEmpty());
@@ -0,0 +1,155 @@
+package org.geolatte.geom.tile;
+
+import org.geolatte.geom.*;
+import org.geolatte.geom.crs.CoordinateReferenceSystem;
+import org.geolatte.geom.crs.CoordinateReferenceSystems;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.geolatte.geom.builder.DSL.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit test for {@link TileClipper} and {@link TilePyramid}
+ */
+public class TileClipperTest {
+
+    private static final CoordinateReferenceSystem<C2D> crs = CoordinateReferenceSystems.PROJECTED_2D_METER;
+    private static final ProjectedGeometryOperations ops = ProjectedGeometryOperations.Default;
+
+    private final TilePyramid<C2D> pyramid = new TilePyramid<>(new Envelope<>(0, 0, 1024, 1024, crs), 5);
+    private final TileClipper<C2D> exact = new TileClipper<>(pyramid).withBuffer(0).withTolerance(0);
+
+    @Test
+    public void testTileBounds() {
+        assertEquals(new Envelope<>(0, 512, 512, 1024, crs), pyramid.getBounds(new Tile(1, 0, 0)));
+        assertEquals(new Envelope<>(512, 0, 1024, 512, crs), pyramid.getBounds(new Tile(1, 1, 1)));
+        List<Tile> tiles = pyramid.getTiles(new Envelope<>(100, 100, 600, 200, crs), 1);
+        assertEquals(2, tiles.size());
+        assertEquals(new Tile(1, 0, 1), tiles.get(0));
+        assertEquals(new Tile(1, 1, 1), tiles.get(1));
+    }
+
+    @Test
+    public void testLineStringIsCutAtTileBoundary() {
+        LineString<C2D> line = linestring(crs, c(100, 100), c(900, 100));
+        Geometry<C2D> clipped = exact.clip(line, new Tile(1, 0, 1));
+        assertEquals(linestring(crs, c(100, 100), c(512, 100)), clipped);
+    }
+
+    @Test
+    public void testLineStringLeavingAndReenteringTileIsSplit() {
+        LineString<C2D> line = linestring(crs, c(100, 100), c(700, 100), c(700, 300), c(100, 300));
+        Geometry<C2D> clipped = exact.clip(line, new Tile(1, 0, 1));
+        assertEquals(multilinestring(linestring(crs, c(100, 100), c(512, 100)),
+                linestring(crs, c(512, 300), c(100, 300))), clipped);
+    }
+
+    @Test
+    public void testPolygonIsClippedToBufferedTile() {
+        Polygon<C2D> polygon = polygon(crs, ring(c(-100, -100), c(2000, -100), c(2000, 2000), c(-100, 2000),
+                c(-100, -100)));
+        TileClipper<C2D> clipper = new TileClipper<>(pyramid).withExtent(512).withBuffer(16);
+        Geometry<C2D> clipped = clipper.clip(polygon, new Tile(1, 1, 0));
+        assertEquals(new Envelope<>(496, 496, 1040, 1040, crs), clipped.getEnvelope());
+        assertEquals(544.0 * 544.0, ops.area((Polygon<C2D>) clipped), 1e-9);
+    }
+
+    @Test
+    public void testClippedAreaMatchesIntersection() {
+        Random random = new Random(4);
+        Tile tile = new Tile(2, 1, 2);
+        Polygon<C2D> tilePolygon = toPolygon(pyramid.getBounds(tile));
+        TileClipper<C2D> clipper = exact.withExtent(1 << 16);
+        for (int i = 0; i < 50; i++) {
+            Polygon<C2D> star = randomStar(random);
+            Geometry<C2D> clipped = clipper.clip(star, tile);
+            double expected = ops.intersection(star, tilePolygon).isEmpty() ? 0 :
+                    area(ops.intersection(star, tilePolygon));
+            double actual = clipped.isEmpty() ? 0 : ops.area((Polygon<C2D>) clipped);
+            // quantization to a grid of 1/256 m moves each vertex by at most 1/512 m
+            assertEquals(expected, actual, 0.5);
+        }
+    }
+
+    @Test
+    public void testHolesOutsideTileAreDropped() {
+        Polygon<C2D> polygon = polygon(crs, ring(c(10, 10), c(1000, 10), c(1000, 400), c(10, 400), c(10, 10)),
+                ring(c(100, 100), c(200, 100), c(200, 200), c(100, 100)),
+                ring(c(700, 100), c(800, 100), c(800, 200), c(700, 100)));
+        Polygon<C2D> clipped = (Polygon<C2D>) exact.clip(polygon, new Tile(1, 0, 1));
+        assertEquals(1, clipped.getNumInteriorRing());
+        assertEquals(polygon(crs, ring(c(100, 100), c(200, 100), c(200, 200), c(100, 100))).getExteriorRing(),
+                clipped.getInteriorRingN(0));
+    }
+
+    @Test
+    public void testPointsAreFilteredAndSnapped() {
+        MultiPoint<C2D> points = multipoint(point(crs, c(100.3, 100.6)), point(crs, c(900, 100)));
+        TileClipper<C2D> clipper = new TileClipper<>(pyramid).withExtent(512);
+        Geometry<C2D> clipped = clipper.clip(points, new Tile(1, 0, 1));
+        assertEquals(multipoint(point(crs, c(100, 101))), clipped);
+        assertTrue(clipper.clip(point(crs, c(900, 100)), new Tile(1, 0, 1)).isEmpty());
+    }
+
+    @Test
+    public void testSimplification() {
+        List<C2D> positions = new ArrayList<>();
+        for (int i = 0; i <= 100; i++) {
+            positions.add(c(100 + i * 3, 100 + (i % 2) * 0.01));
+        }
+        LineString<C2D> line = linestring(crs, positions.toArray(new C2D[0]));
+        Geometry<C2D> clipped = new TileClipper<>(pyramid).clip(line, new Tile(0, 0, 0));
+        assertEquals(linestring(crs, c(100, 100), c(400, 100)), clipped);
+    }
+
+    @Test
+    public void testClipToAllTilesAtZoomLevel() {
+        Polygon<C2D> polygon = polygon(crs, ring(c(100, 100), c(600, 100), c(600, 200), c(100, 200), c(100, 100)));
+        Map<Tile, Geometry<C2D>> tiles = exact.clip(polygon, 1);
+        assertEquals(2, tiles.size());
+        assertEquals(412.0 * 100, ops.area((Polygon<C2D>) tiles.get(new Tile(1, 0, 1))), 1e-9);
+        assertEquals(88.0 * 100, ops.area((Polygon<C2D>) tiles.get(new Tile(1, 1, 1))), 1e-9);
+        // with a buffer, the neighbouring tiles are included
+        assertEquals(4, new TileClipper<>(pyramid).clip(polygon(crs, ring(c(510, 510), c(514, 510), c(514, 514),
+                c(510, 514), c(510, 510))), 1).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeZoomIsRejected() {
+        pyramid.getTiles(new Envelope<>(0, 0, 100, 100, crs), -1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static double area(Geometry<C2D> geometry) {
+        if (geometry instanceof Polygon) {
+            return ops.area((Polygon<C2D>) geometry);
+        }
+        return ops.area((MultiPolygon<C2D>) geometry);
+    }
+
+    private static Polygon<C2D> toPolygon(Envelope<C2D> envelope) {
+        C2D ll = envelope.lowerLeft();
+        C2D ur = envelope.upperRight();
+        return polygon(crs, ring(c(ll.getX(), ll.getY()), c(ur.getX(), ll.getY()), c(ur.getX(), ur.getY()),
+                c(ll.getX(), ur.getY()), c(ll.getX(), ll.getY())));
+    }
+
+    private static Polygon<C2D> randomStar(Random random) {
+        double cx = 200 + random.nextDouble() * 600;
+        double cy = 200 + random.nextDouble() * 600;
+        int n = 12;
+        C2D[] positions = new C2D[n + 1];
+        for (int i = 0; i < n; i++) {
+            double angle = -2 * Math.PI * i / n;
+            double r = 50 + random.nextDouble() * 200;
+            positions[i] = c(cx + r * Math.cos(angle), cy + r * Math.sin(angle));
+        }
+        positions[n] = positions[0];
+        return polygon(crs, ring(positions));
+    }
+}